@@ -0,0 +1,71 @@
+package com.stockchef.stockchefback.config;
+
+import com.stockchef.stockchefback.model.User;
+import com.stockchef.stockchefback.service.user.CurrentUserCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Listener Hibernate de User: tout changement d'un utilisateur (rôle, statut, email, suppression...)
+ * l'invalide dans CurrentUserCache, quel que soit le chemin de modification (services, repository direct)
+ * Enregistré auprès de Hibernate au démarrage: l'entité ne dépend pas de la couche service
+ * Modification: l'ancien email est aussi invalidé (état chargé fourni par Hibernate)
+ * Hors contexte complet (tests de repository), il n'est pas enregistré: aucun effet
+ */
+@Component
+public class CurrentUserCacheListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+    
+    private final CurrentUserCache currentUserCache;
+    
+    public CurrentUserCacheListener(CurrentUserCache currentUserCache, EntityManagerFactory entityManagerFactory) {
+        this.currentUserCache = currentUserCache;
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+    
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof User user) {
+            currentUserCache.invalider(user.getEmail());
+        }
+    }
+    
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof User user) {
+            currentUserCache.invalider(user.getEmail());
+            int email = Arrays.asList(event.getPersister().getPropertyNames()).indexOf("email");
+            if (event.getOldState() != null && event.getOldState()[email] instanceof String ancien
+                    && !ancien.equals(user.getEmail())) {
+                currentUserCache.invalider(ancien);
+            }
+        }
+    }
+    
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof User user) {
+            currentUserCache.invalider(user.getEmail());
+        }
+    }
+    
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+}
@@ -1,6 +1,9 @@
 package com.stockchef.stockchefback.config;
 
+import com.stockchef.stockchefback.service.JwtPrincipal;
 import com.stockchef.stockchefback.service.JwtService;
+import com.stockchef.stockchefback.service.TokenRevocationService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -28,6 +31,7 @@
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(
@@ -49,36 +53,36 @@ protected void doFilterInternal(
             final String jwt = authHeader.substring(7);
             log.debug("Token JWT extrait de la request: {}", jwt.substring(0, Math.min(jwt.length(), 20)) + "...");
 
-            // Valider le token et extraire l'email
-            if (!jwtService.isTokenExpired(jwt)) {
-                String userEmail = jwtService.extractEmail(jwt);
-                log.debug("Token valide pour utilisateur: {}", userEmail);
+            // Valider le token (signature et expiration, une seule vérification) et extraire l'identité
+            JwtPrincipal principal = jwtService.verify(jwt);
+            log.debug("Token valide pour utilisateur: {}", principal.email());
 
-                // S'il n'y a pas d'authentification préalable dans le contexte
-                if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Token révoqué (logout): continuer sans authentification
+            if (tokenRevocationService.estRevoque(principal.jti())) {
+                log.warn("Token révoqué présenté par: {}", principal.email());
+            } else if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Pas d'authentification préalable dans le contexte
                     
-                    // Extraire le rôle du token pour établir les authorities
-                    String role = jwtService.extractRole(jwt);
-                    List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(role));
+                // Rôle du token pour établir les authorities
+                List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(principal.role()));
 
-                    // Créer le token d'authentification
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userEmail, // Principal (username)
-                            null,      // Credentials (not needed for JWT)
-                            authorities // Authorities from token
-                    );
+                // Créer le token d'authentification
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        principal, // Principal (getName() = email)
+                        null,      // Credentials (not needed for JWT)
+                        authorities // Authorities from token
+                );
 
-                    // Établir les détails de la request
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                // Établir les détails de la request
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    // Établir l'authentification dans SecurityContext
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                // Établir l'authentification dans SecurityContext
+                SecurityContextHolder.getContext().setAuthentication(authToken);
                     
-                    log.debug("Authentification établie pour utilisateur: {} avec rôle: {}", userEmail, role);
-                }
-            } else {
-                log.warn("Token JWT invalide ou expiré");
+                log.debug("Authentification établie pour utilisateur: {} avec rôle: {}", principal.email(), principal.role());
             }
+        } catch (JwtException e) {
+            log.warn("Token JWT invalide ou expiré: {}", e.getMessage());
         } catch (Exception e) {
             log.error("Erreur lors du traitement du token JWT: {}", e.getMessage(), e);
             // On ne lance pas l'exception, on logue seulement et on continue sans authentification
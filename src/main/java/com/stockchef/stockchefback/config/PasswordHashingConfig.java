@@ -0,0 +1,29 @@
+package com.stockchef.stockchefback.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exécuteur du hachage des mots de passe (BCrypt)
+ * Un thread par cœur et une file bornée: une rafale de connexions ne prend pas le CPU
+ * des threads de requêtes; file pleine, la soumission est refusée (429 côté login).
+ */
+@Configuration
+public class PasswordHashingConfig {
+    
+    @Bean(name = "hachageExecutor", destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor hachageExecutor(@Value("${auth.password.threads:0}") int threads,
+                                              @Value("${auth.password.file-max:64}") int fileMax) {
+        // 0: un thread par cœur disponible
+        int taille = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(taille, taille, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fileMax),
+                Thread.ofPlatform().name("hachage-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,36 @@
+package com.stockchef.stockchefback.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exécuteurs des rapports
+ * - rapportExecutor: un thread virtuel par section du dashboard. Les requêtes bloquantes ne consomment
+ *   pas de thread plateforme, et le nombre de connexions utilisées en parallèle est borné côté ReportService.
+ * - rapportJobExecutor: rapports longs en arrière-plan. Pool et file d'attente bornés: au-delà, la soumission
+ *   est refusée plutôt que de prendre des threads et des connexions aux opérations de stock.
+ */
+@Configuration
+public class ReportExecutorConfig {
+    
+    @Bean(name = "rapportExecutor", destroyMethod = "close")
+    public ExecutorService rapportExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rapport-", 0).factory());
+    }
+    
+    @Bean(name = "rapportJobExecutor", destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor rapportJobExecutor(@Value("${rapport.jobs.threads:2}") int threads,
+                                                 @Value("${rapport.jobs.file-max:20}") int fileMax) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fileMax),
+                Thread.ofPlatform().name("rapport-job-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,13 @@
+package com.stockchef.stockchefback.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration des tâches planifiées
+ * Permet le fonctionnement des annotations @Scheduled (recalculs différés, purges, etc.)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,6 +1,8 @@
 package com.stockchef.stockchefback.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -29,10 +31,11 @@ public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
 
     /**
      * Configurer l'encodeur de mots de passe utilisant BCrypt
+     * Coût configurable: les hachages d'un coût inférieur sont refaits à la connexion suivante
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.bcrypt.cout:10}") int cout) {
+        return new BCryptPasswordEncoder(cout);
     }
 
     @Bean
@@ -53,6 +56,8 @@ public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
                 .requestMatchers("/users/register").permitAll()
                 // Permettre l'accès public à forgot-password
                 .requestMatchers("/users/forgot-password").permitAll()
+                // Fin des réponses en flux (exports): la requête d'origine a déjà été autorisée
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Toutes les autres routes nécessitent une authentification
                 .anyRequest().authenticated()
             )
@@ -0,0 +1,83 @@
+package com.stockchef.stockchefback.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.TableStructure;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Alignement des séquences d'ID au démarrage (entités en SEQUENCE, allocationSize > 1)
+ * 
+ * FONCTIONNEMENT:
+ * - Avec ddl-auto=update, une séquence ajoutée à une table déjà remplie (ancienne colonne IDENTITY)
+ *   est créée à 1: les blocs d'IDs réservés recouvriraient les lignes existantes
+ * - Pour chaque entité, la prochaine valeur est avancée à MAX(id) + allocationSize si elle est en retard
+ *   (l'optimiseur pooled utilise la valeur lue comme borne haute du bloc)
+ * - Séquence native (PostgreSQL, H2): ALTER SEQUENCE ... RESTART WITH; sans séquence (MySQL),
+ *   Hibernate utilise une table de même nom (colonne next_val), mise à jour directement
+ * - Exécuté à la création du bean, avant les CommandLineRunner et les tâches planifiées
+ */
+@Component
+public class SequenceAlignment {
+    
+    private static final Logger log = LoggerFactory.getLogger(SequenceAlignment.class);
+    
+    // Colonne par défaut de la table qui remplace la séquence sur les bases sans séquence
+    private static final String COLONNE_TABLE = "next_val";
+    
+    private final SessionFactoryImplementor sessionFactory;
+    private final JdbcTemplate jdbcTemplate;
+    
+    public SequenceAlignment(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.jdbcTemplate = jdbcTemplate;
+        aligner();
+    }
+    
+    /**
+     * Avance chaque séquence d'ID en retard sur le plus grand ID de sa table
+     */
+    public void aligner() {
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister.getGenerator() instanceof SequenceStyleGenerator generateur
+                    && persister instanceof AbstractEntityPersister entite
+                    && generateur.getDatabaseStructure().getIncrementSize() > 1) {
+                aligner(entite, generateur.getDatabaseStructure());
+            }
+        });
+    }
+    
+    // ==================== INTERNE ====================
+    
+    private void aligner(AbstractEntityPersister entite, DatabaseStructure structure) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(" + entite.getIdentifierColumnNames()[0]
+                + ") FROM " + entite.getTableName(), Long.class);
+        if (max == null) {
+            return;
+        }
+        long cible = max + structure.getIncrementSize();
+        String nom = structure.getPhysicalName().render();
+        
+        if (structure instanceof TableStructure) {
+            if (jdbcTemplate.update("UPDATE " + nom + " SET " + COLONNE_TABLE + " = ? WHERE " + COLONNE_TABLE + " < ?",
+                    cible, cible) > 0) {
+                log.warn("Table de séquence {} avancée à {} (MAX(id) de {})", nom, cible, entite.getTableName());
+            }
+            return;
+        }
+        
+        // Lire une valeur consomme un bloc d'IDs: sans effet sur l'unicité, seulement un écart
+        Long suivant = jdbcTemplate.queryForObject(sessionFactory.getJdbcServices().getDialect()
+                .getSequenceSupport().getSequenceNextValString(nom), Long.class);
+        if (suivant != null && suivant < cible) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + nom + " RESTART WITH " + cible);
+            log.warn("Séquence {} avancée de {} à {} (MAX(id) de {})", nom, suivant, cible, entite.getTableName());
+        }
+    }
+}
@@ -1,15 +1,40 @@
 package com.stockchef.stockchefback.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
  * Configuration CORS pour permettre les requêtes depuis le frontend
+ * et des réponses asynchrones (exports en flux)
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    @Value("${export.delai-max-ms:600000}")
+    private long delaiExportMs;
+
+    @Value("${export.concurrence-max:4}")
+    private int exportsMax;
+
+    /**
+     * Réponses en flux (StreamingResponseBody): threads virtuels, nombre borné d'exports simultanés
+     * (chacun garde une connexion le temps de l'écriture), délai adapté aux exports volumineux
+     * Au-delà de la limite, l'export est refusé (503) au lieu de bloquer le thread de la requête
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("export-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(exportsMax);
+        executor.setRejectTasksWhenLimitReached(true);
+        configurer.setTaskExecutor(executor);
+        configurer.setDefaultTimeout(delaiExportMs);
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
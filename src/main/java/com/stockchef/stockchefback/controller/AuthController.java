@@ -8,20 +8,24 @@
 import com.stockchef.stockchefback.repository.UserRepository;
 import com.stockchef.stockchefback.service.AuthService;
 import com.stockchef.stockchefback.service.AuthService.TokenResponse;
+import com.stockchef.stockchefback.service.JwtPrincipal;
 import com.stockchef.stockchefback.service.JwtService;
+import com.stockchef.stockchefback.service.PasswordHashingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Contrôleur pour l'authentification des utilisateurs
@@ -35,7 +39,7 @@
 public class AuthController {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
     private final AuthService authService;
 
@@ -65,14 +69,16 @@ public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest logi
                 throw new BadCredentialsException("Utilisateur inactif");
             }
             
-            // Vérifier le mot de passe
-            if (!passwordEncoder.matches(loginRequest.password(), user.getPassword())) {
+            // Vérifier le mot de passe (exécuteur de hachage borné), puis rehacher si le coût BCrypt a augmenté
+            if (!passwordHashingService.verifier(loginRequest.password(), user.getPassword())) {
                 log.warn("Mot de passe incorrect pour utilisateur: {}", loginRequest.email());
                 throw new BadCredentialsException("Identifiants invalides");
             }
+            passwordHashingService.rehacherSiNecessaire(user, loginRequest.password());
             
-            // Générer le token JWT
+            // Générer le token JWT (courte durée) et le refresh token de la session
             String token = jwtService.generateToken(user);
+            String refreshToken = authService.emettreRefreshToken(user);
             
             // Créer la réponse
             LoginResponse response = new LoginResponse(
@@ -80,7 +86,8 @@ public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest logi
                     user.getEmail(),
                     user.getFirstName() + " " + user.getLastName(),
                     user.getRole(),
-                    86400000L // 24 heures en millisecondes
+                    jwtService.getExpiration(),
+                    refreshToken
             );
             
             log.info("Connexion réussie pour utilisateur: {} avec rôle: {}", user.getEmail(), user.getRole());
@@ -89,6 +96,11 @@ public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest logi
         } catch (BadCredentialsException | UsernameNotFoundException e) {
             log.error("Erreur d'authentification: {}", e.getMessage());
             return ResponseEntity.status(401).build();
+        } catch (RejectedExecutionException e) {
+            log.warn("Connexion refusée, file de hachage pleine: {}", loginRequest.email());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, passwordHashingService.getRetryAfterSecondes())
+                    .build();
         } catch (Exception e) {
             log.error("Erreur interne durant la connexion: ", e);
             return ResponseEntity.status(500).build();
@@ -129,6 +141,9 @@ public ResponseEntity<Void> logout(Authentication authentication) {
         
         try {
             authService.invalidateToken(userEmail);
+            if (authentication.getPrincipal() instanceof JwtPrincipal principal) {
+                authService.revoquerToken(principal);
+            }
             log.info("Logout réussi pour utilisateur: {}", userEmail);
             return ResponseEntity.ok().build();
         } catch (Exception e) {
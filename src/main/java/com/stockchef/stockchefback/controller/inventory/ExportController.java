@@ -0,0 +1,95 @@
+package com.stockchef.stockchefback.controller.inventory;
+
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
+import com.stockchef.stockchefback.service.inventory.ExportService;
+import com.stockchef.stockchefback.service.inventory.ExportService.FormatExport;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Contrôleur REST des exports (CSV ou NDJSON)
+ * La réponse est écrite en flux, ligne par ligne, sans charger l'historique en mémoire
+ */
+@RestController
+@RequestMapping("/inventory/export")
+public class ExportController {
+    
+    private static final int JOURS_PAR_DEFAUT = 30;
+    
+    private final ExportService exportService;
+    
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+    
+    /**
+     * Export de l'inventaire (produits actifs)
+     */
+    @GetMapping("/produits")
+    @PreAuthorize("hasAnyRole('CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<StreamingResponseBody> exporterProduits(@RequestParam(defaultValue = "csv") String format) {
+        FormatExport formatExport = FormatExport.depuis(format);
+        return reponse(formatExport, "inventaire-" + LocalDate.now(),
+                writer -> exportService.exporterProduits(formatExport, writer));
+    }
+    
+    /**
+     * Export des mouvements de stock du jour debut au jour fin inclus (30 derniers jours par défaut)
+     * Filtres optionnels: produit, type de mouvement, utilisateur
+     */
+    @GetMapping("/mouvements")
+    @PreAuthorize("hasAnyRole('CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<StreamingResponseBody> exporterMouvements(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin,
+            @RequestParam(required = false) Long produitId,
+            @RequestParam(required = false) TypeMouvement type,
+            @RequestParam(required = false) String utilisateur,
+            @RequestParam(defaultValue = "csv") String format) {
+        LocalDate finPeriode = fin != null ? fin : LocalDate.now();
+        LocalDate debutPeriode = debut != null ? debut : finPeriode.minusDays(JOURS_PAR_DEFAUT);
+        FormatExport formatExport = FormatExport.depuis(format);
+        if (debutPeriode.isAfter(finPeriode)) {
+            throw new IllegalArgumentException("La date de début doit précéder la date de fin");
+        }
+        
+        return reponse(formatExport, "mouvements-" + debutPeriode + "_" + finPeriode,
+                writer -> exportService.exporterMouvements(formatExport,
+                        debutPeriode.atStartOfDay(), finPeriode.plusDays(1).atStartOfDay(),
+                        produitId, type, utilisateur, writer));
+    }
+    
+    @FunctionalInterface
+    private interface Export {
+        void ecrire(Writer writer) throws IOException;
+    }
+    
+    private ResponseEntity<StreamingResponseBody> reponse(FormatExport format, String nomFichier, Export export) {
+        StreamingResponseBody corps = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            export.ecrire(writer);
+            writer.flush();
+        };
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(nomFichier + "." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(corps);
+    }
+}
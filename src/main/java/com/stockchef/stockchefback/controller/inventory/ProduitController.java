@@ -2,15 +2,19 @@
 
 import com.stockchef.stockchefback.dto.inventory.*;
 import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
 import com.stockchef.stockchefback.service.inventory.ProduitService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -196,6 +200,68 @@ public ResponseEntity<ProduitResponse> entreeStock(
         return ResponseEntity.ok(produit);
     }
     
+    /**
+     * Valorisation du stock de tous les produits à un instant (maintenant par défaut),
+     * ou à la clôture d'un jour (jour=YYYY-MM-DD, lue depuis la photo de fin de journée)
+     */
+    @GetMapping("/stock-at")
+    @PreAuthorize("hasAnyRole('CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<StockValuationResponse> getValorisationStockAInstant(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime instant,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate jour) {
+        if (instant != null && jour != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        StockValuationResponse valorisation = jour != null
+                ? produitService.getValorisationStockFinDeJour(jour)
+                : produitService.getValorisationStockAInstant(instant != null ? instant : LocalDateTime.now());
+        return ResponseEntity.ok(valorisation);
+    }
+    
+    /**
+     * Stock d'un produit à un instant (maintenant par défaut)
+     */
+    @GetMapping("/{id}/stock-at")
+    @PreAuthorize("hasAnyRole('CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<StockAtResponse> getStockAInstant(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime instant) {
+        StockAtResponse stock = produitService.getStockAInstant(id, instant != null ? instant : LocalDateTime.now());
+        return ResponseEntity.ok(stock);
+    }
+    
+    /**
+     * Recherche de mouvements de stock, du plus récent au plus ancien
+     * Filtres optionnels; pagination par curseur (passer curseurSuivant de la page précédente)
+     */
+    @GetMapping("/movements")
+    @PreAuthorize("hasAnyRole('CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<StockMovementSearchResponse> rechercherMouvements(
+            @RequestParam(required = false) Long produitId,
+            @RequestParam(required = false) TypeMouvement type,
+            @RequestParam(required = false) String utilisateur,
+            @RequestParam(required = false) Long menuId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin,
+            @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "50") int taille) {
+        StockMovementSearchResponse response = produitService.rechercherMouvements(
+                produitId, type, utilisateur, menuId, debut, fin, curseur, taille);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Application d'un lot de mouvements de stock (bon de livraison, sorties de fin de service)
+     * Une seule transaction, résultat détaillé par ligne
+     */
+    @PostMapping("/movements:batch")
+    @PreAuthorize("hasAnyRole('CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<StockMovementBatchResponse> appliquerMouvementsEnLot(
+            @Valid @RequestBody StockMovementBatchRequest request) {
+        StockMovementBatchResponse response = produitService.appliquerMouvementsEnLot(request);
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Suppression d'un produit (soft delete)
      * Accessible aux CHEF, ADMIN et DEVELOPER
@@ -248,4 +314,14 @@ public ResponseEntity<List<StockMovementResponse>> getStockMovements(@PathVariab
         List<StockMovementResponse> movements = produitService.getStockMovements(id);
         return ResponseEntity.ok(movements);
     }
+    
+    /**
+     * Lots actifs d'un produit (péremption la plus proche d'abord)
+     */
+    @GetMapping("/{id}/lots")
+    @PreAuthorize("hasAnyRole('CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<List<LotResponse>> getLotsActifs(@PathVariable Long id) {
+        List<LotResponse> lots = produitService.getLotsActifs(id);
+        return ResponseEntity.ok(lots);
+    }
 }
\ No newline at end of file
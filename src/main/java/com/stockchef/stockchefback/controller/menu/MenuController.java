@@ -3,6 +3,7 @@
 import com.stockchef.stockchefback.dto.menu.MenuCreationDTO;
 import com.stockchef.stockchefback.dto.menu.MenuIngredientDTO;
 import com.stockchef.stockchefback.dto.menu.MenuResponseDTO;
+import com.stockchef.stockchefback.dto.menu.MenusConfirmationDateDTO;
 import com.stockchef.stockchefback.model.menu.Menu;
 import com.stockchef.stockchefback.model.menu.MenuIngredient;
 import com.stockchef.stockchefback.service.menu.MenuService;
@@ -218,6 +219,23 @@ public ResponseEntity<MenuResponseDTO> confirmerMenu(@PathVariable Long id) {
         }
     }
     
+    /**
+     * Confirmer tous les menus en brouillon d'une date de service (une transaction, un lot de stock)
+     * POST /api/menus/confirmer-date?date=
+     */
+    @PostMapping("/confirmer-date")
+    @PreAuthorize("hasAnyRole('CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<MenusConfirmationDateDTO> confirmerMenusParDate(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.info("=== DEMANDE CONFIRMATION MENUS DU {} ===", date);
+        
+        MenusConfirmationDateDTO response = menuService.confirmerMenusParDate(date);
+        
+        log.info("=== MENUS DU {}: {} CONFIRMÉ(S), {} REJETÉ(S) ===",
+                date, response.getMenusConfirmes(), response.getMenusRejetes());
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Annuler un menu confirmé (restauration du stock)
      * PUT /api/menus/{id}/annuler
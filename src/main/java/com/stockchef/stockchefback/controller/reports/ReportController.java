@@ -0,0 +1,193 @@
+package com.stockchef.stockchefback.controller.reports;
+
+import com.stockchef.stockchefback.dto.reports.DashboardSummaryDTO;
+import com.stockchef.stockchefback.dto.reports.InventoryReportDTO;
+import com.stockchef.stockchefback.dto.reports.RapportJobDTO;
+import com.stockchef.stockchefback.service.reports.RapportJob;
+import com.stockchef.stockchefback.service.reports.RapportJobService;
+import com.stockchef.stockchefback.service.reports.ReportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Contrôleur REST des rapports
+ * Les rapports sur une période plus longue que rapport.jobs.seuil-jours (ou demandés avec async=true)
+ * sont calculés en arrière-plan: 202 + job à interroger sur /reports/jobs/{id}
+ */
+@RestController
+@RequestMapping("/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+    
+    private static final int JOURS_PAR_DEFAUT = 30;
+    
+    private final ReportService reportService;
+    private final RapportJobService rapportJobService;
+    private final long seuilJours;
+    private final String retryAfterSecondes;
+    
+    public ReportController(ReportService reportService,
+                            RapportJobService rapportJobService,
+                            @Value("${rapport.jobs.seuil-jours:31}") long seuilJours,
+                            @Value("${rapport.jobs.retry-after-secondes:5}") int retryAfterSecondes) {
+        this.reportService = reportService;
+        this.rapportJobService = rapportJobService;
+        this.seuilJours = seuilJours;
+        this.retryAfterSecondes = String.valueOf(retryAfterSecondes);
+    }
+    
+    /**
+     * Synthèse du dashboard
+     */
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasAnyRole('EMPLOYEE', 'CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<DashboardSummaryDTO> getDashboard() {
+        return ResponseEntity.ok(reportService.generateDashboardSummary());
+    }
+    
+    /**
+     * Rapport général d'inventaire
+     */
+    @GetMapping("/inventory")
+    @PreAuthorize("hasAnyRole('CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<InventoryReportDTO> getInventoryReport() {
+        return ResponseEntity.ok(reportService.generateInventoryReport());
+    }
+    
+    /**
+     * Alertes actuelles (stock bas, péremptions proches)
+     */
+    @GetMapping("/alerts")
+    @PreAuthorize("hasAnyRole('EMPLOYEE', 'CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<InventoryReportDTO> getAlertsReport() {
+        return ResponseEntity.ok(reportService.getCurrentAlertsReport());
+    }
+    
+    /**
+     * Gaspillage sur une période (30 derniers jours par défaut)
+     */
+    @GetMapping("/waste")
+    @PreAuthorize("hasAnyRole('CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<?> getWasteReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin,
+            @RequestParam(defaultValue = "false") boolean async,
+            Authentication authentication) {
+        LocalDate finPeriode = fin != null ? fin : LocalDate.now();
+        LocalDate debutPeriode = debut != null ? debut : finPeriode.minusDays(JOURS_PAR_DEFAUT);
+        return executerOuSoumettre("GASPILLAGE", debutPeriode, finPeriode, async, authentication,
+                () -> reportService.getWasteReport(debutPeriode, finPeriode));
+    }
+    
+    /**
+     * Performance des menus sur une période (30 derniers jours par défaut), paginée
+     * Tri: profitabiliteTotal (défaut, décroissant), nombrePreparations, menuNom, dernierePreparation
+     */
+    @GetMapping("/menus/performance")
+    @PreAuthorize("hasAnyRole('CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<?> getMenuPerformanceReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin,
+            @RequestParam(defaultValue = "false") boolean async,
+            @PageableDefault(size = 20) Pageable pageable,
+            Authentication authentication) {
+        try {
+            reportService.verifierTriPerformanceMenus(pageable.getSort());
+        } catch (IllegalArgumentException e) {
+            return erreur(HttpStatus.BAD_REQUEST, e.getMessage(), "INVALID_SORT");
+        }
+        LocalDate finPeriode = fin != null ? fin : LocalDate.now();
+        LocalDate debutPeriode = debut != null ? debut : finPeriode.minusDays(JOURS_PAR_DEFAUT);
+        return executerOuSoumettre("PERFORMANCE_MENUS", debutPeriode, finPeriode, async, authentication,
+                () -> reportService.getMenuPerformanceReport(debutPeriode, finPeriode, pageable));
+    }
+    
+    /**
+     * Produits les plus sortis du stock sur une période (30 derniers jours par défaut)
+     */
+    @GetMapping("/top-products")
+    @PreAuthorize("hasAnyRole('CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<?> getTopProducts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean async,
+            Authentication authentication) {
+        if (limit < 1 || limit > 100) {
+            return erreur(HttpStatus.BAD_REQUEST, "La limite doit être comprise entre 1 et 100", "INVALID_LIMIT");
+        }
+        LocalDate finPeriode = fin != null ? fin : LocalDate.now();
+        LocalDate debutPeriode = debut != null ? debut : finPeriode.minusDays(JOURS_PAR_DEFAUT);
+        return executerOuSoumettre("TOP_PRODUITS", debutPeriode, finPeriode, async, authentication,
+                () -> reportService.getTopUsedProducts(debutPeriode, finPeriode, limit));
+    }
+    
+    /**
+     * État d'un rapport en arrière-plan (résultat inclus une fois terminé)
+     * 404 si le job est inconnu, expiré ou soumis par un autre utilisateur
+     */
+    @GetMapping("/jobs/{id}")
+    @PreAuthorize("hasAnyRole('EMPLOYEE', 'CHEF', 'ADMIN', 'DEVELOPER')")
+    public ResponseEntity<RapportJobDTO> getJob(@PathVariable String id, Authentication authentication) {
+        return rapportJobService.obtenir(id, authentication.getName())
+                .map(job -> {
+                    RapportJobDTO dto = RapportJobDTO.depuis(job, rapportJobService.getExpiration(job));
+                    if (job.isFini()) {
+                        return ResponseEntity.ok(dto);
+                    }
+                    return ResponseEntity.ok().header(HttpHeaders.RETRY_AFTER, "1").body(dto);
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Calcule le rapport dans la requête si la période est courte, sinon le soumet en arrière-plan
+     */
+    private ResponseEntity<?> executerOuSoumettre(String type, LocalDate debut, LocalDate fin, boolean async,
+                                                  Authentication authentication, Supplier<?> calcul) {
+        if (debut.isAfter(fin)) {
+            return erreur(HttpStatus.BAD_REQUEST, "La date de début doit précéder la date de fin", "INVALID_PERIOD");
+        }
+        
+        long jours = ChronoUnit.DAYS.between(debut, fin) + 1;
+        if (!async && jours <= seuilJours) {
+            return ResponseEntity.ok(calcul.get());
+        }
+        
+        RapportJob job;
+        try {
+            job = rapportJobService.soumettre(type, authentication.getName(), calcul);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, retryAfterSecondes)
+                    .body(Map.of("message", "Trop de rapports en cours, réessayez plus tard",
+                            "code", "REPORT_QUEUE_FULL"));
+        }
+        
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/reports/jobs/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(RapportJobDTO.depuis(job, null));
+    }
+    
+    private ResponseEntity<Map<String, Object>> erreur(HttpStatus status, String message, String code) {
+        return ResponseEntity.status(status).body(Map.of("message", message, "code", code));
+    }
+}
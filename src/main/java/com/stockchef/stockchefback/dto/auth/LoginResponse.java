@@ -10,6 +10,7 @@ public record LoginResponse(
         String email,
         String fullName,
         UserRole role,
-        Long expiresIn
+        Long expiresIn,
+        String refreshToken
 ) {
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.stockchef.stockchefback.dto.inventory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO pour un lot de stock actif d'un produit
+ */
+public record LotResponse(
+        Long id,
+        BigDecimal quantiteInitiale,
+        BigDecimal quantiteRestante,
+        LocalDate datePeremption,
+        LocalDateTime dateEntree,
+        boolean isExpired
+) {}
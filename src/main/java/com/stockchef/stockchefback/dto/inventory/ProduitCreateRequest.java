@@ -38,5 +38,22 @@ public record ProduitCreateRequest(
         LocalDate datePeremption,
         
         @Size(max = 500, message = "La description ne peut pas dépasser 500 caractères")
-        String description
-) {}
\ No newline at end of file
+        String description,
+        
+        @DecimalMin(value = "0.0", inclusive = false, message = "La densité doit être positive")
+        @Digits(integer = 6, fraction = 4, message = "Format de densité invalide")
+        BigDecimal densite,
+        
+        @DecimalMin(value = "0.0", inclusive = false, message = "Le poids pièce doit être positif")
+        @Digits(integer = 7, fraction = 3, message = "Format de poids pièce invalide")
+        BigDecimal poidsPieceGrammes
+) {
+    
+    /**
+     * Création sans facteurs de conversion propres au produit
+     */
+    public ProduitCreateRequest(String nom, BigDecimal quantiteInitiale, Unite unite, BigDecimal prixUnitaire,
+                                BigDecimal seuilAlerte, LocalDate datePeremption, String description) {
+        this(nom, quantiteInitiale, unite, prixUnitaire, seuilAlerte, datePeremption, description, null, null);
+    }
+}
\ No newline at end of file
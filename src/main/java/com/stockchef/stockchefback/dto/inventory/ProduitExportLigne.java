@@ -0,0 +1,22 @@
+package com.stockchef.stockchefback.dto.inventory;
+
+import com.stockchef.stockchefback.model.inventory.Unite;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Ligne d'export de l'inventaire (projection, sans entité chargée)
+ */
+public record ProduitExportLigne(
+        Long id,
+        String nom,
+        BigDecimal quantiteStock,
+        Unite unite,
+        BigDecimal prixUnitaire,
+        BigDecimal seuilAlerte,
+        LocalDate datePeremption,
+        LocalDateTime dateEntree,
+        LocalDateTime lastModified
+) {}
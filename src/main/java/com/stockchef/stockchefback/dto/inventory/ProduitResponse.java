@@ -21,5 +21,7 @@ public record ProduitResponse(
         LocalDateTime lastModified,
         boolean isUnderAlertThreshold,
         boolean isExpired,
-        String description
+        String description,
+        BigDecimal densite,
+        BigDecimal poidsPieceGrammes
 ) {}
\ No newline at end of file
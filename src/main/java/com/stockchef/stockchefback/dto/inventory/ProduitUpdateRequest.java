@@ -24,5 +24,22 @@ public record ProduitUpdateRequest(
         LocalDate datePeremption,
         
         @Size(max = 500, message = "La description ne peut pas dépasser 500 caractères")
-        String description
-) {}
\ No newline at end of file
+        String description,
+        
+        @DecimalMin(value = "0.0", inclusive = false, message = "La densité doit être positive")
+        @Digits(integer = 6, fraction = 4, message = "Format de densité invalide")
+        BigDecimal densite,
+        
+        @DecimalMin(value = "0.0", inclusive = false, message = "Le poids pièce doit être positif")
+        @Digits(integer = 7, fraction = 3, message = "Format de poids pièce invalide")
+        BigDecimal poidsPieceGrammes
+) {
+    
+    /**
+     * Mise à jour sans facteurs de conversion propres au produit
+     */
+    public ProduitUpdateRequest(String nom, BigDecimal prixUnitaire, BigDecimal seuilAlerte,
+                                LocalDate datePeremption, String description) {
+        this(nom, prixUnitaire, seuilAlerte, datePeremption, description, null, null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.stockchef.stockchefback.dto.inventory;
+
+import com.stockchef.stockchefback.model.inventory.Unite;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Stock d'un produit à un instant donné: solde après le dernier mouvement à cet instant ou avant
+ * mouvementId et dateMouvement sont null si le produit n'avait encore aucun mouvement (stock 0)
+ * La valeur utilise le prix unitaire actuel (l'historique des prix n'est pas conservé),
+ * sauf lue depuis une photo de fin de journée (prix du jour de la photo)
+ */
+public record StockAtResponse(
+        Long produitId,
+        String produitNom,
+        Unite unite,
+        BigDecimal quantite,
+        BigDecimal valeur,
+        Long mouvementId,
+        LocalDateTime dateMouvement
+) {}
@@ -0,0 +1,21 @@
+package com.stockchef.stockchefback.dto.inventory;
+
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Ligne d'un lot de mouvements de stock (bon de livraison, fin de service)
+ */
+public record StockMovementBatchLine(
+        
+        @NotNull(message = "L'ID du produit est requis")
+        Long produitId,
+        
+        @NotNull(message = "Le type de mouvement est requis (ENTREE ou SORTIE)")
+        TypeMouvement typeMouvement,
+        
+        @NotNull(message = "Le mouvement est requis")
+        @Valid
+        StockMovementRequest mouvement
+) {}
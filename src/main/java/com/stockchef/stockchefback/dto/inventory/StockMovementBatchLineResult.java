@@ -0,0 +1,29 @@
+package com.stockchef.stockchefback.dto.inventory;
+
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
+
+import java.math.BigDecimal;
+
+/**
+ * Résultat de l'application d'une ligne d'un lot de mouvements
+ */
+public record StockMovementBatchLineResult(
+        int ligne,
+        Long produitId,
+        TypeMouvement typeMouvement,
+        boolean applique,
+        Long mouvementId,
+        BigDecimal quantiteApres,
+        String erreur
+) {
+    
+    public static StockMovementBatchLineResult applique(int ligne, Long produitId, TypeMouvement typeMouvement,
+                                                       Long mouvementId, BigDecimal quantiteApres) {
+        return new StockMovementBatchLineResult(ligne, produitId, typeMouvement, true, mouvementId, quantiteApres, null);
+    }
+    
+    public static StockMovementBatchLineResult rejete(int ligne, Long produitId, TypeMouvement typeMouvement,
+                                                     String erreur) {
+        return new StockMovementBatchLineResult(ligne, produitId, typeMouvement, false, null, null, erreur);
+    }
+}
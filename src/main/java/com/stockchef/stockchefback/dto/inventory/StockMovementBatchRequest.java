@@ -0,0 +1,17 @@
+package com.stockchef.stockchefback.dto.inventory;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO pour l'application d'un lot de mouvements de stock en une seule transaction
+ */
+public record StockMovementBatchRequest(
+        
+        @NotEmpty(message = "Le lot doit contenir au moins une ligne")
+        @Size(max = 500, message = "Le lot ne peut pas dépasser 500 lignes")
+        List<@Valid StockMovementBatchLine> lignes
+) {}
@@ -0,0 +1,13 @@
+package com.stockchef.stockchefback.dto.inventory;
+
+import java.util.List;
+
+/**
+ * DTO de réponse pour un lot de mouvements de stock, avec le résultat de chaque ligne
+ */
+public record StockMovementBatchResponse(
+        int totalLignes,
+        int lignesAppliquees,
+        int lignesRejetees,
+        List<StockMovementBatchLineResult> resultats
+) {}
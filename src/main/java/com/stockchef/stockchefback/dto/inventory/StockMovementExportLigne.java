@@ -0,0 +1,24 @@
+package com.stockchef.stockchefback.dto.inventory;
+
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
+import com.stockchef.stockchefback.model.inventory.Unite;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ligne d'export d'un mouvement de stock (projection, sans entité chargée)
+ */
+public record StockMovementExportLigne(
+        Long id,
+        LocalDateTime dateMouvement,
+        Long produitId,
+        String produitNom,
+        TypeMouvement typeMouvement,
+        BigDecimal quantite,
+        Unite unite,
+        BigDecimal quantiteApres,
+        String motif,
+        Long menuId,
+        String utilisateur
+) {}
@@ -5,6 +5,7 @@
 import jakarta.validation.constraints.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 /**
  * DTO pour les mouvements de stock (sorties/entrées)
@@ -22,5 +23,15 @@ public record StockMovementRequest(
         @Size(max = 500, message = "Le motif ne peut pas dépasser 500 caractères")
         String motif,
         
-        Long menuId // Optionnel - pour lier à un menu
-) {}
\ No newline at end of file
+        Long menuId, // Optionnel - pour lier à un menu
+        
+        LocalDate datePeremption // Optionnel - péremption du lot créé par une entrée
+) {
+    
+    /**
+     * Mouvement sans date de péremption de lot
+     */
+    public StockMovementRequest(BigDecimal quantite, Unite unite, String motif, Long menuId) {
+        this(quantite, unite, motif, menuId, null);
+    }
+}
\ No newline at end of file
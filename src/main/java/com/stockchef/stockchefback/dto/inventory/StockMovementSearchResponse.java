@@ -0,0 +1,12 @@
+package com.stockchef.stockchefback.dto.inventory;
+
+import java.util.List;
+
+/**
+ * Page de mouvements de stock (pagination par curseur)
+ * curseurSuivant est null sur la dernière page
+ */
+public record StockMovementSearchResponse(
+        List<StockMovementResponse> mouvements,
+        String curseurSuivant
+) {}
@@ -0,0 +1,14 @@
+package com.stockchef.stockchefback.dto.inventory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Valorisation du stock de tous les produits à un instant donné (ex: clôture de fin de mois)
+ */
+public record StockValuationResponse(
+        LocalDateTime instant,
+        List<StockAtResponse> produits,
+        BigDecimal valeurTotale
+) {}
@@ -0,0 +1,25 @@
+package com.stockchef.stockchefback.dto.menu;
+
+import com.stockchef.stockchefback.model.menu.StatutMenu;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de résultat de confirmation d'un menu lors d'une confirmation par date
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuConfirmationResultatDTO {
+    
+    private Long menuId;
+    private String nom;
+    private Boolean confirme;
+    private StatutMenu statut;
+    
+    // Raison du rejet (null si confirmé)
+    private String motifRejet;
+}
@@ -0,0 +1,27 @@
+package com.stockchef.stockchefback.dto.menu;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO de réponse pour la confirmation de tous les menus en brouillon d'une date de service
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenusConfirmationDateDTO {
+    
+    private LocalDate dateService;
+    private Integer totalMenus;
+    private Integer menusConfirmes;
+    private Integer menusRejetes;
+    
+    // Résultats dans l'ordre de priorité de traitement
+    private List<MenuConfirmationResultatDTO> resultats;
+}
@@ -0,0 +1,15 @@
+package com.stockchef.stockchefback.dto.reports;
+
+import com.stockchef.stockchefback.model.inventory.Unite;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection agrégée: quantité sortie d'un produit sur une période, dans son unité de stock
+ */
+public record ConsommationProduitDTO(
+        Long produitId,
+        String produitNom,
+        Unite unite,
+        BigDecimal quantite
+) {}
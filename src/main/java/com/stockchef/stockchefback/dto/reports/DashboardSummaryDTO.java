@@ -2,6 +2,7 @@
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 public class DashboardSummaryDTO {
@@ -27,9 +28,13 @@ public class DashboardSummaryDTO {
     
     private LocalDate dateRapport;
     
+    // Secciones no calculadas a tiempo (resultado parcial, campos correspondientes en null)
+    private List<String> sectionsIncompletes;
+    
     // Constructors
     public DashboardSummaryDTO() {
         this.dateRapport = LocalDate.now();
+        this.sectionsIncompletes = new ArrayList<>();
     }
     
     // Getters and Setters
@@ -128,4 +133,12 @@ public LocalDate getDateRapport() {
     public void setDateRapport(LocalDate dateRapport) {
         this.dateRapport = dateRapport;
     }
+    
+    public List<String> getSectionsIncompletes() {
+        return sectionsIncompletes;
+    }
+    
+    public void setSectionsIncompletes(List<String> sectionsIncompletes) {
+        this.sectionsIncompletes = sectionsIncompletes;
+    }
 }
\ No newline at end of file
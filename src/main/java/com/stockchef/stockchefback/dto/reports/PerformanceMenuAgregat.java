@@ -0,0 +1,23 @@
+package com.stockchef.stockchefback.dto.reports;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection agrégée: menus servis sous un même nom sur une période
+ * Accesseurs nommés comme les alias de la requête (tri paginé sur ces alias)
+ */
+public interface PerformanceMenuAgregat {
+    
+    Long getMenuId();
+    
+    String getMenuNom();
+    
+    Long getNombrePreparations();
+    
+    BigDecimal getCoutTotal();
+    
+    BigDecimal getProfitabiliteTotal();
+    
+    LocalDateTime getDernierePreparation();
+}
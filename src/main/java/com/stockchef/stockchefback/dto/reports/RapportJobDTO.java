@@ -0,0 +1,25 @@
+package com.stockchef.stockchefback.dto.reports;
+
+import com.stockchef.stockchefback.service.reports.RapportJob;
+
+import java.time.LocalDateTime;
+
+/**
+ * État d'un rapport en arrière-plan, avec son résultat une fois terminé
+ */
+public record RapportJobDTO(
+        String id,
+        String type,
+        RapportJob.Statut statut,
+        LocalDateTime soumisA,
+        LocalDateTime termineA,
+        LocalDateTime expireA,
+        String erreur,
+        Object resultat
+) {
+    
+    public static RapportJobDTO depuis(RapportJob job, LocalDateTime expireA) {
+        return new RapportJobDTO(job.getId(), job.getType(), job.getStatut(), job.getSoumisA(),
+                job.getTermineA(), expireA, job.getErreur(), job.getResultat());
+    }
+}
@@ -1,6 +1,8 @@
 package com.stockchef.stockchefback.exception.inventory;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -13,6 +15,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Gestionnaire global des exceptions pour l'API Inventory
@@ -22,6 +25,9 @@
 @Order(1) // Priorité élevée
 public class InventoryExceptionHandler {
     
+    @Value("${export.retry-after-secondes:5}")
+    private int retryAfterExportSecondes;
+    
     /**
      * Gestion des erreurs de validation
      */
@@ -90,6 +96,24 @@ public ResponseEntity<ErrorResponse> handleStockInsuffisant(IllegalStateExceptio
         return ResponseEntity.badRequest().body(errorResponse);
     }
     
+    /**
+     * Gestion des exports refusés: le nombre maximal d'exports simultanés est atteint
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleExportRefuse(RejectedExecutionException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            "Service indisponible",
+            "Trop d'exports en cours, réessayez plus tard",
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            LocalDateTime.now(),
+            List.of()
+        );
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterExportSecondes))
+            .body(errorResponse);
+    }
+    
     /**
      * Gestion des erreurs générales
      */
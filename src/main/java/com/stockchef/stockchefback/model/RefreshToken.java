@@ -0,0 +1,95 @@
+package com.stockchef.stockchefback.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Refresh token opaque, stocké sous forme d'empreinte SHA-256 (jamais en clair)
+ * 
+ * Chaque connexion ouvre une famille; chaque renouvellement consomme le token et en émet
+ * un nouveau dans la même famille. Présenter un token déjà consommé ou révoqué révoque toute la famille.
+ * Expiration glissante (expireA), bornée par la durée maximale de la famille (familleExpireA).
+ */
+@Entity
+@Table(name = "refresh_tokens",
+    uniqueConstraints = @UniqueConstraint(name = "uk_refresh_tokens_hash", columnNames = "token_hash"),
+    indexes = {
+        @Index(name = "idx_refresh_tokens_famille", columnList = "famille_id"),
+        @Index(name = "idx_refresh_tokens_user", columnList = "user_id"),
+        @Index(name = "idx_refresh_tokens_famille_expire", columnList = "famille_expire_a")
+    })
+public class RefreshToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+    
+    @Column(name = "famille_id", nullable = false, length = 36)
+    private String familleId;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+    
+    @Column(name = "cree_a", nullable = false)
+    private LocalDateTime creeA;
+    
+    @Column(name = "expire_a", nullable = false)
+    private LocalDateTime expireA;
+    
+    @Column(name = "famille_expire_a", nullable = false)
+    private LocalDateTime familleExpireA;
+    
+    @Column(name = "utilise_a")
+    private LocalDateTime utiliseA;
+    
+    @Column(name = "revoque_a")
+    private LocalDateTime revoqueA;
+    
+    // Constructeurs
+    public RefreshToken() {}
+    
+    public RefreshToken(String tokenHash, String familleId, User user, LocalDateTime creeA,
+                        LocalDateTime expireA, LocalDateTime familleExpireA) {
+        this.tokenHash = tokenHash;
+        this.familleId = familleId;
+        this.user = user;
+        this.creeA = creeA;
+        this.expireA = expireA;
+        this.familleExpireA = familleExpireA;
+    }
+    
+    /**
+     * Vrai si le token peut encore être échangé (ni consommé, ni révoqué, ni expiré)
+     */
+    public boolean isActif(LocalDateTime maintenant) {
+        return utiliseA == null && revoqueA == null && expireA.isAfter(maintenant);
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    
+    public String getTokenHash() { return tokenHash; }
+    
+    public String getFamilleId() { return familleId; }
+    
+    public User getUser() { return user; }
+    
+    public LocalDateTime getCreeA() { return creeA; }
+    
+    public LocalDateTime getExpireA() { return expireA; }
+    
+    public LocalDateTime getFamilleExpireA() { return familleExpireA; }
+    
+    public LocalDateTime getUtiliseA() { return utiliseA; }
+    
+    public LocalDateTime getRevoqueA() { return revoqueA; }
+}
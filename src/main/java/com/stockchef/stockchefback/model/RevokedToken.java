@@ -0,0 +1,49 @@
+package com.stockchef.stockchefback.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Token d'accès révoqué avant son expiration (logout), identifié par son jti
+ * La ligne n'est utile que jusqu'à l'expiration du token: elle est ensuite purgée
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+    @Index(name = "idx_revoked_tokens_expire", columnList = "expire_a"),
+    @Index(name = "idx_revoked_tokens_revoque", columnList = "revoque_a")
+})
+public class RevokedToken {
+    
+    @Id
+    @Column(length = 36)
+    private String jti;
+    
+    @Column(name = "user_email")
+    private String userEmail;
+    
+    @Column(name = "expire_a", nullable = false)
+    private LocalDateTime expireA;
+    
+    @Column(name = "revoque_a", nullable = false)
+    private LocalDateTime revoqueA;
+    
+    // Constructeurs
+    public RevokedToken() {}
+    
+    public RevokedToken(String jti, String userEmail, LocalDateTime expireA, LocalDateTime revoqueA) {
+        this.jti = jti;
+        this.userEmail = userEmail;
+        this.expireA = expireA;
+        this.revoqueA = revoqueA;
+    }
+    
+    // Getters
+    public String getJti() { return jti; }
+    
+    public String getUserEmail() { return userEmail; }
+    
+    public LocalDateTime getExpireA() { return expireA; }
+    
+    public LocalDateTime getRevoqueA() { return revoqueA; }
+}
@@ -0,0 +1,109 @@
+package com.stockchef.stockchefback.model.inventory;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Lot de stock: une entrée (livraison) avec sa propre date de péremption
+ * 
+ * Les sorties consomment les lots par date de péremption croissante (FIFO par péremption),
+ * les lots sans date en dernier. Produit.quantiteStock reste l'agrégat des quantités restantes.
+ */
+@Entity
+@Table(name = "lots", indexes = {
+    @Index(name = "idx_lots_produit_peremption", columnList = "produit_id, date_peremption")
+})
+public class Lot {
+    
+    /**
+     * Ordre de consommation: péremption la plus proche d'abord, lots sans date en dernier, puis ordre d'entrée
+     */
+    public static final Comparator<Lot> ORDRE_CONSOMMATION = Comparator
+            .comparing(Lot::getDatePeremption, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Lot::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lots_seq")
+    @SequenceGenerator(name = "lots_seq", sequenceName = "lots_seq", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "produit_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Produit produit;
+    
+    @Convert(converter = QuantiteMilliConverter.class)
+    @Column(name = "quantite_initiale", nullable = false, precision = 10, scale = 3)
+    private Long quantiteInitialeMilli; // Millièmes de l'unité de stock du produit
+    
+    @Convert(converter = QuantiteMilliConverter.class)
+    @Column(name = "quantite_restante", nullable = false, precision = 10, scale = 3)
+    private Long quantiteRestanteMilli;
+    
+    @Column(name = "date_peremption")
+    private LocalDate datePeremption;
+    
+    @Column(name = "date_entree", nullable = false)
+    private LocalDateTime dateEntree;
+    
+    // Constructeurs
+    public Lot() {}
+    
+    public Lot(Produit produit, long quantiteMilli, LocalDate datePeremption) {
+        this.produit = produit;
+        this.quantiteInitialeMilli = quantiteMilli;
+        this.quantiteRestanteMilli = quantiteMilli;
+        this.datePeremption = datePeremption;
+        this.dateEntree = LocalDateTime.now();
+    }
+    
+    // Méthodes métier
+    
+    /**
+     * Retire jusqu'à la quantité demandée (millièmes) et retourne la quantité effectivement prise
+     */
+    public long consommer(long quantiteMilli) {
+        long prise = Math.min(quantiteMilli, quantiteRestanteMilli);
+        quantiteRestanteMilli -= prise;
+        return prise;
+    }
+    
+    public boolean isEpuise() {
+        return quantiteRestanteMilli <= 0;
+    }
+    
+    public boolean isExpire() {
+        return datePeremption != null && datePeremption.isBefore(LocalDate.now());
+    }
+    
+    // Getters et Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Produit getProduit() { return produit; }
+    public void setProduit(Produit produit) { this.produit = produit; }
+    
+    public long getQuantiteInitialeMilli() { return quantiteInitialeMilli; }
+    public BigDecimal getQuantiteInitiale() { return Quantite.versBigDecimal(quantiteInitialeMilli); }
+    
+    public long getQuantiteRestanteMilli() { return quantiteRestanteMilli; }
+    public BigDecimal getQuantiteRestante() { return Quantite.versBigDecimal(quantiteRestanteMilli); }
+    
+    public LocalDate getDatePeremption() { return datePeremption; }
+    public void setDatePeremption(LocalDate datePeremption) { this.datePeremption = datePeremption; }
+    
+    public LocalDateTime getDateEntree() { return dateEntree; }
+    public void setDateEntree(LocalDateTime dateEntree) { this.dateEntree = dateEntree; }
+    
+    @Override
+    public String toString() {
+        return String.format("Lot{id=%d, restant=%s, peremption=%s}", 
+                           id, getQuantiteRestante(), datePeremption);
+    }
+}
@@ -62,6 +62,13 @@ public class Produit {
     @Column(name = "deleted")
     private Boolean deleted = Boolean.FALSE;
     
+    // Facteurs propres au produit pour les conversions entre types d'unités (optionnels)
+    @Column(name = "densite", precision = 10, scale = 4)
+    private BigDecimal densite; // kg par litre (= g par ml), ex: huile 0.92
+    
+    @Column(name = "poids_piece_grammes", precision = 10, scale = 3)
+    private BigDecimal poidsPieceGrammes; // Poids d'une pièce/unité en grammes, ex: oeuf 60
+    
     // Constructeurs
     public Produit() {}
     
@@ -97,6 +104,18 @@ public boolean hasSufficientStock(BigDecimal quantiteDemandee) {
         return quantiteStock.compareTo(quantiteDemandee) >= 0;
     }
     
+    /**
+     * Grammes représentés par une unité de base (g, ml ou pièce) de ce type
+     * Retourne null si le facteur produit nécessaire n'est pas renseigné
+     */
+    public BigDecimal grammesParUniteDeBase(UnitType type) {
+        return switch (type) {
+            case WEIGHT -> BigDecimal.ONE;
+            case VOLUME -> densite;
+            case COUNT -> poidsPieceGrammes;
+        };
+    }
+    
     // Getters et Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -127,4 +146,10 @@ public boolean hasSufficientStock(BigDecimal quantiteDemandee) {
     
     public Boolean getDeleted() { return deleted; }
     public void setDeleted(Boolean deleted) { this.deleted = deleted; }
+    
+    public BigDecimal getDensite() { return densite; }
+    public void setDensite(BigDecimal densite) { this.densite = densite; }
+    
+    public BigDecimal getPoidsPieceGrammes() { return poidsPieceGrammes; }
+    public void setPoidsPieceGrammes(BigDecimal poidsPieceGrammes) { this.poidsPieceGrammes = poidsPieceGrammes; }
 }
\ No newline at end of file
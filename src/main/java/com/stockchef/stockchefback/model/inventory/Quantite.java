@@ -0,0 +1,155 @@
+package com.stockchef.stockchefback.model.inventory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Quantité en virgule fixe: un nombre entier de millièmes d'unité (échelle 3, comme les colonnes de stock)
+ * 
+ * Les opérations (addition, soustraction, comparaison, conversion) se font en arithmétique long,
+ * sans BigDecimal intermédiaire. Les variantes statiques sur les millièmes n'allouent rien et servent
+ * aux agrégats et boucles chaudes; la conversion BigDecimal n'a lieu qu'aux frontières (entités, DTOs).
+ */
+public record Quantite(long milli, Unite unite) implements Comparable<Quantite> {
+    
+    /** Échelle des quantités stockées en base */
+    public static final int ECHELLE = 3;
+    
+    private static final long MILLI_PAR_UNITE = 1000L;
+    
+    public Quantite {
+        if (unite == null) {
+            throw new IllegalArgumentException("L'unité ne peut pas être nulle");
+        }
+    }
+    
+    // ==================== CRÉATION ====================
+    
+    public static Quantite ofMilli(long milli, Unite unite) {
+        return new Quantite(milli, unite);
+    }
+    
+    public static Quantite zero(Unite unite) {
+        return new Quantite(0L, unite);
+    }
+    
+    /**
+     * Crée une quantité depuis un BigDecimal d'échelle au plus 3 (exact)
+     * @throws ArithmeticException si la valeur a plus de 3 décimales significatives ou dépasse un long
+     */
+    public static Quantite of(BigDecimal valeur, Unite unite) {
+        return new Quantite(versMilli(valeur), unite);
+    }
+    
+    /**
+     * Millièmes exacts d'une valeur décimale
+     * @throws ArithmeticException si la valeur n'est pas représentable exactement
+     */
+    public static long versMilli(BigDecimal valeur) {
+        return valeur.setScale(ECHELLE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+    
+    /**
+     * Millièmes d'une valeur décimale arrondie au millième (HALF_UP), comme à l'écriture en base
+     */
+    public static long versMilliArrondi(BigDecimal valeur) {
+        return versMilli(valeur.setScale(ECHELLE, RoundingMode.HALF_UP));
+    }
+    
+    /**
+     * Vérifie qu'une valeur décimale est représentable exactement en millièmes
+     */
+    public static boolean estRepresentable(BigDecimal valeur) {
+        return valeur.stripTrailingZeros().scale() <= ECHELLE
+                && valeur.abs().compareTo(BigDecimal.valueOf(Long.MAX_VALUE / MILLI_PAR_UNITE)) <= 0;
+    }
+    
+    /**
+     * Valeur décimale (échelle 3) de millièmes
+     */
+    public static BigDecimal versBigDecimal(long milli) {
+        return BigDecimal.valueOf(milli, ECHELLE);
+    }
+    
+    // ==================== CONVERSION (sans allocation) ====================
+    
+    /**
+     * Convertit des millièmes d'une unité vers une unité compatible, arrondi au millième le plus proche
+     * @throws IllegalArgumentException si les unités sont incompatibles
+     */
+    public static long convertirMilli(long milli, Unite source, Unite cible) {
+        if (source == cible) {
+            return milli;
+        }
+        if (!source.isCompatibleWith(cible)) {
+            throw new IllegalArgumentException(
+                String.format("Impossible de convertir de %s vers %s - types d'unités incompatibles", source, cible));
+        }
+        
+        long facteurSource = source.getFacteurBase();
+        long facteurCible = cible.getFacteurBase();
+        if (facteurSource % facteurCible == 0) {
+            return Math.multiplyExact(milli, facteurSource / facteurCible);
+        }
+        return diviserArrondi(Math.multiplyExact(milli, facteurSource), facteurCible);
+    }
+    
+    /**
+     * Division entière arrondie au plus proche (HALF_UP), comme BigDecimal.divide(..., HALF_UP)
+     */
+    private static long diviserArrondi(long dividende, long diviseur) {
+        long quotient = dividende / diviseur;
+        long reste = dividende % diviseur;
+        if (Math.abs(reste) * 2 >= diviseur) {
+            quotient += Long.signum(dividende);
+        }
+        return quotient;
+    }
+    
+    // ==================== OPÉRATIONS ====================
+    
+    public Quantite plus(Quantite autre) {
+        return new Quantite(Math.addExact(milli, autre.milliEn(unite)), unite);
+    }
+    
+    public Quantite moins(Quantite autre) {
+        return new Quantite(Math.subtractExact(milli, autre.milliEn(unite)), unite);
+    }
+    
+    public Quantite convertirEn(Unite cible) {
+        return cible == unite ? this : new Quantite(convertirMilli(milli, unite, cible), cible);
+    }
+    
+    /**
+     * Millièmes de cette quantité exprimés dans une autre unité
+     */
+    public long milliEn(Unite cible) {
+        return convertirMilli(milli, unite, cible);
+    }
+    
+    public boolean estSuffisantPour(Quantite demande) {
+        return milli >= demande.milliEn(unite);
+    }
+    
+    public boolean estNegative() {
+        return milli < 0;
+    }
+    
+    public int signum() {
+        return Long.signum(milli);
+    }
+    
+    @Override
+    public int compareTo(Quantite autre) {
+        return Long.compare(milli, autre.milliEn(unite));
+    }
+    
+    public BigDecimal toBigDecimal() {
+        return versBigDecimal(milli);
+    }
+    
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + unite.getSymbol();
+    }
+}
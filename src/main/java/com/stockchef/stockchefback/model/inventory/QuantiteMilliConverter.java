@@ -0,0 +1,24 @@
+package com.stockchef.stockchefback.model.inventory;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Convertisseur JPA: millièmes (long) en mémoire, NUMERIC(10,3) en base
+ * Les colonnes existantes restent inchangées
+ */
+@Converter
+public class QuantiteMilliConverter implements AttributeConverter<Long, BigDecimal> {
+    
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long milli) {
+        return milli == null ? null : Quantite.versBigDecimal(milli);
+    }
+    
+    @Override
+    public Long convertToEntityAttribute(BigDecimal valeur) {
+        return valeur == null ? null : Quantite.versMilli(valeur);
+    }
+}
@@ -0,0 +1,92 @@
+package com.stockchef.stockchefback.model.inventory;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Réservation (blocage souple) de stock par un ingrédient de menu en brouillon
+ * Le stock physique n'est pas décrémenté: la quantité réservée est déduite du disponible à promettre
+ */
+@Entity
+@Table(name = "reservations_stock", indexes = {
+    @Index(name = "idx_reservations_stock_produit", columnList = "produit_id"),
+    @Index(name = "idx_reservations_stock_menu", columnList = "menu_id"),
+    @Index(name = "idx_reservations_stock_expiration", columnList = "date_expiration")
+})
+public class ReservationStock {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "produit_id", nullable = false)
+    private Produit produit;
+    
+    @NotNull(message = "Le menu est requis")
+    @Column(name = "menu_id", nullable = false)
+    private Long menuId;
+    
+    @NotNull(message = "La quantité est requise")
+    @Convert(converter = QuantiteMilliConverter.class)
+    @Column(name = "quantite", nullable = false, precision = 10, scale = 3)
+    private Long quantiteMilli; // Millièmes de l'unité de stock du produit
+    
+    @Column(name = "date_creation", nullable = false)
+    private LocalDateTime dateCreation;
+    
+    @Column(name = "date_expiration", nullable = false)
+    private LocalDateTime dateExpiration;
+    
+    // Constructeurs
+    public ReservationStock() {}
+    
+    public ReservationStock(Produit produit, Long menuId, BigDecimal quantite, LocalDateTime dateExpiration) {
+        this.produit = produit;
+        this.menuId = menuId;
+        this.quantiteMilli = Quantite.versMilli(quantite);
+        this.dateCreation = LocalDateTime.now();
+        this.dateExpiration = dateExpiration;
+    }
+    
+    /**
+     * Vérifie si la réservation est expirée
+     */
+    public boolean isExpiree() {
+        return dateExpiration != null && !dateExpiration.isAfter(LocalDateTime.now());
+    }
+    
+    // Getters et Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Produit getProduit() { return produit; }
+    public void setProduit(Produit produit) { this.produit = produit; }
+    
+    public Long getMenuId() { return menuId; }
+    public void setMenuId(Long menuId) { this.menuId = menuId; }
+    
+    public BigDecimal getQuantite() { return Quantite.versBigDecimal(quantiteMilli); }
+    public void setQuantite(BigDecimal quantite) { this.quantiteMilli = Quantite.versMilli(quantite); }
+    
+    public long getQuantiteMilli() { return quantiteMilli; }
+    
+    public Quantite getQuantiteEnUniteStock() {
+        return Quantite.ofMilli(quantiteMilli, produit.getUnite());
+    }
+    
+    public LocalDateTime getDateCreation() { return dateCreation; }
+    public void setDateCreation(LocalDateTime dateCreation) { this.dateCreation = dateCreation; }
+    
+    public LocalDateTime getDateExpiration() { return dateExpiration; }
+    public void setDateExpiration(LocalDateTime dateExpiration) { this.dateExpiration = dateExpiration; }
+    
+    @Override
+    public String toString() {
+        return String.format("ReservationStock{id=%d, menuId=%d, quantite=%s, expiration=%s}", 
+                           id, menuId, getQuantite(), dateExpiration);
+    }
+}
@@ -14,12 +14,21 @@
  * Obligatoire pour la traçabilité et la conformité
  */
 @Entity
-@Table(name = "stock_movements")
+@Table(name = "stock_movements", indexes = {
+    @Index(name = "idx_stock_movements_type_date", columnList = "type_mouvement, date_mouvement"),
+    // Recherche paginée par curseur (dateMouvement, id), avec ou sans filtre
+    @Index(name = "idx_stock_movements_date_id", columnList = "date_mouvement, id"),
+    @Index(name = "idx_stock_movements_produit_date_id", columnList = "produit_id, date_mouvement, id"),
+    @Index(name = "idx_stock_movements_utilisateur_date_id", columnList = "utilisateur, date_mouvement, id"),
+    @Index(name = "idx_stock_movements_menu_date_id", columnList = "menu_id, date_mouvement, id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class StockMovement {
     
+    // SEQUENCE (et non IDENTITY) pour permettre le batching JDBC des insertions
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movements_seq")
+    @SequenceGenerator(name = "stock_movements_seq", sequenceName = "stock_movements_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,43 @@
+package com.stockchef.stockchefback.model.inventory;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Jour traité par la compaction des mouvements de stock (une ligne par jour)
+ * 
+ * Écrite dans la même transaction que la compaction du jour. Le plus grand jour enregistré sert de
+ * point de reprise au job nocturne: les lignes de synthèse gardent la date du jour compacté, la date
+ * du plus ancien mouvement ne permet donc pas de savoir où la compaction s'est arrêtée.
+ */
+@Entity
+@Table(name = "stock_movement_compaction")
+public class StockMovementCompaction {
+    
+    @Id
+    private LocalDate jour;
+    
+    @Column(name = "mouvements_supprimes", nullable = false)
+    private int mouvementsSupprimes;
+    
+    @Column(name = "date_compaction", nullable = false)
+    private LocalDateTime dateCompaction;
+    
+    // Constructeurs
+    public StockMovementCompaction() {}
+    
+    public StockMovementCompaction(LocalDate jour, int mouvementsSupprimes, LocalDateTime dateCompaction) {
+        this.jour = jour;
+        this.mouvementsSupprimes = mouvementsSupprimes;
+        this.dateCompaction = dateCompaction;
+    }
+    
+    // Getters
+    public LocalDate getJour() { return jour; }
+    
+    public int getMouvementsSupprimes() { return mouvementsSupprimes; }
+    
+    public LocalDateTime getDateCompaction() { return dateCompaction; }
+}
@@ -0,0 +1,77 @@
+package com.stockchef.stockchefback.model.inventory;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Agrégat journalier des mouvements de stock (jour x produit x type)
+ * 
+ * Maintenu dans la même transaction que chaque mouvement, reconstructible depuis stock_movements.
+ * Quantités dans l'unité de stock du produit, même convention de signe que les mouvements
+ * (négatives pour SORTIE); valeur = quantité x prix unitaire du produit.
+ */
+@Entity
+@Table(name = "stock_movement_daily",
+    uniqueConstraints = @UniqueConstraint(name = "uk_stock_movement_daily",
+                                          columnNames = {"jour", "produit_id", "type_mouvement"}),
+    indexes = @Index(name = "idx_stock_movement_daily_type_jour", columnList = "type_mouvement, jour"))
+public class StockMovementDaily {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_daily_seq")
+    @SequenceGenerator(name = "stock_movement_daily_seq", sequenceName = "stock_movement_daily_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(nullable = false)
+    private LocalDate jour;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "produit_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Produit produit;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type_mouvement", nullable = false, length = 20)
+    private TypeMouvement typeMouvement;
+    
+    @Column(nullable = false, precision = 15, scale = 3)
+    private BigDecimal quantite;
+    
+    @Column(nullable = false, precision = 17, scale = 4)
+    private BigDecimal valeur;
+    
+    @Column(name = "nombre_mouvements", nullable = false)
+    private Long nombreMouvements;
+    
+    // Constructeurs
+    public StockMovementDaily() {}
+    
+    public StockMovementDaily(LocalDate jour, Produit produit, TypeMouvement typeMouvement,
+                              BigDecimal quantite, BigDecimal valeur, long nombreMouvements) {
+        this.jour = jour;
+        this.produit = produit;
+        this.typeMouvement = typeMouvement;
+        this.quantite = quantite;
+        this.valeur = valeur;
+        this.nombreMouvements = nombreMouvements;
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    
+    public LocalDate getJour() { return jour; }
+    
+    public Produit getProduit() { return produit; }
+    
+    public TypeMouvement getTypeMouvement() { return typeMouvement; }
+    
+    public BigDecimal getQuantite() { return quantite; }
+    
+    public BigDecimal getValeur() { return valeur; }
+    
+    public Long getNombreMouvements() { return nombreMouvements; }
+}
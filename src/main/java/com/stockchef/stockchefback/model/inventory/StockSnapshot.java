@@ -0,0 +1,76 @@
+package com.stockchef.stockchefback.model.inventory;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Photo du stock d'un produit à la clôture d'un jour (jour x produit)
+ * 
+ * Écrite par le job de fin de journée: quantité = solde du dernier mouvement du jour ou d'avant,
+ * valeur figée au prix unitaire du produit au moment de la photo.
+ * Les rapports historiques la lisent sans reparcourir stock_movements (qui peut être compacté).
+ */
+@Entity
+@Table(name = "stock_snapshot",
+    uniqueConstraints = @UniqueConstraint(name = "uk_stock_snapshot", columnNames = {"jour", "produit_id"}),
+    indexes = @Index(name = "idx_stock_snapshot_produit_jour", columnList = "produit_id, jour"))
+public class StockSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_snapshot_seq")
+    @SequenceGenerator(name = "stock_snapshot_seq", sequenceName = "stock_snapshot_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(nullable = false)
+    private LocalDate jour;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "produit_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Produit produit;
+    
+    @Column(nullable = false, precision = 15, scale = 3)
+    private BigDecimal quantite;
+    
+    @Column(nullable = false, precision = 17, scale = 4)
+    private BigDecimal valeur;
+    
+    @Column(name = "dernier_mouvement_id")
+    private Long dernierMouvementId;
+    
+    @Column(name = "date_dernier_mouvement")
+    private LocalDateTime dateDernierMouvement;
+    
+    // Constructeurs
+    public StockSnapshot() {}
+    
+    public StockSnapshot(LocalDate jour, Produit produit, BigDecimal quantite, BigDecimal valeur,
+                         Long dernierMouvementId, LocalDateTime dateDernierMouvement) {
+        this.jour = jour;
+        this.produit = produit;
+        this.quantite = quantite;
+        this.valeur = valeur;
+        this.dernierMouvementId = dernierMouvementId;
+        this.dateDernierMouvement = dateDernierMouvement;
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    
+    public LocalDate getJour() { return jour; }
+    
+    public Produit getProduit() { return produit; }
+    
+    public BigDecimal getQuantite() { return quantite; }
+    
+    public BigDecimal getValeur() { return valeur; }
+    
+    public Long getDernierMouvementId() { return dernierMouvementId; }
+    
+    public LocalDateTime getDateDernierMouvement() { return dateDernierMouvement; }
+}
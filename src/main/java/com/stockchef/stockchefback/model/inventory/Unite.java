@@ -6,23 +6,25 @@
  */
 public enum Unite {
     // Unités de poids
-    KILOGRAMME("kg", UnitType.WEIGHT),
-    GRAMME("g", UnitType.WEIGHT),
+    KILOGRAMME("kg", UnitType.WEIGHT, 1000),
+    GRAMME("g", UnitType.WEIGHT, 1),
     
     // Unités de volume
-    LITRE("L", UnitType.VOLUME),
-    MILLILITRE("ml", UnitType.VOLUME),
+    LITRE("L", UnitType.VOLUME, 1000),
+    MILLILITRE("ml", UnitType.VOLUME, 1),
     
     // Unités de comptage
-    UNITE("unité", UnitType.COUNT),
-    PIECE("pièce", UnitType.COUNT);
+    UNITE("unité", UnitType.COUNT, 1),
+    PIECE("pièce", UnitType.COUNT, 1);
     
     private final String symbol;
     private final UnitType type;
+    private final long facteurBase; // Nombre d'unités de base (g, ml, unité) dans une unité
     
-    Unite(String symbol, UnitType type) {
+    Unite(String symbol, UnitType type, long facteurBase) {
         this.symbol = symbol;
         this.type = type;
+        this.facteurBase = facteurBase;
     }
     
     public String getSymbol() {
@@ -33,6 +35,10 @@ public UnitType getType() {
         return type;
     }
     
+    public long getFacteurBase() {
+        return facteurBase;
+    }
+    
     /**
      * Vérifie si cette unité est compatible avec une autre pour conversion
      */
@@ -20,6 +20,7 @@
        indexes = {
            @Index(name = "idx_menu_date_service", columnList = "dateService"),
            @Index(name = "idx_menu_statut", columnList = "statut"),
+           @Index(name = "idx_menu_statut_date_service", columnList = "statut, dateService"),
            @Index(name = "idx_menu_chef", columnList = "chefResponsable")
        })
 public class Menu {
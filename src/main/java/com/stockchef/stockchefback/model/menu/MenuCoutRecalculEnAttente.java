@@ -0,0 +1,45 @@
+package com.stockchef.stockchefback.model.menu;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Changement de prix d'un produit dont le recalcul des coûts de menus n'est pas encore fait
+ * 
+ * Écrit dans la transaction du changement de prix, supprimé dans celle du recalcul:
+ * un redémarrage entre les deux ne perd pas le recalcul (repris au démarrage).
+ * Plusieurs lignes possibles par produit (changements concurrents), sans clé étrangère:
+ * un produit supprimé entre-temps ne bloque rien.
+ */
+@Entity
+@Table(name = "menu_cout_recalcul_en_attente",
+    indexes = @Index(name = "idx_menu_cout_recalcul_produit", columnList = "produit_id"))
+public class MenuCoutRecalculEnAttente {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "menu_cout_recalcul_seq")
+    @SequenceGenerator(name = "menu_cout_recalcul_seq", sequenceName = "menu_cout_recalcul_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "produit_id", nullable = false)
+    private Long produitId;
+    
+    @Column(name = "date_changement", nullable = false)
+    private LocalDateTime dateChangement;
+    
+    // Constructeurs
+    public MenuCoutRecalculEnAttente() {}
+    
+    public MenuCoutRecalculEnAttente(Long produitId, LocalDateTime dateChangement) {
+        this.produitId = produitId;
+        this.dateChangement = dateChangement;
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    
+    public Long getProduitId() { return produitId; }
+    
+    public LocalDateTime getDateChangement() { return dateChangement; }
+}
@@ -1,6 +1,7 @@
 package com.stockchef.stockchefback.model.menu;
 
 import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.Quantite;
 import com.stockchef.stockchefback.model.inventory.Unite;
 import com.stockchef.stockchefback.service.inventory.UniteConversionService;
 import jakarta.persistence.*;
@@ -100,16 +101,22 @@ public BigDecimal calculerCoutIngredient() {
     }
     
     /**
-     * Calcule la quantité convertie dans l'unité de stock du produit
-     * Cette méthode nécessite l'injection du UniteConversionService
+     * Calcule la quantité convertie dans l'unité de stock du produit (unités de même type)
      */
     public void calculerQuantiteConvertie() {
         if (this.uniteUtilisee.equals(this.produit.getUnite())) {
             // Même unité, pas de conversion nécessaire
             this.quantiteConvertieStockUnit = this.quantiteNecessaire;
+        } else if (this.quantiteNecessaire != null
+                && this.uniteUtilisee.isCompatibleWith(this.produit.getUnite())
+                && Quantite.estRepresentable(this.quantiteNecessaire)) {
+            // Conversion en millièmes (g -> kg, ml -> L, ...)
+            this.quantiteConvertieStockUnit = Quantite.of(this.quantiteNecessaire, this.uniteUtilisee)
+                .convertirEn(this.produit.getUnite())
+                .toBigDecimal();
         } else {
-            // Note: La conversion sera faite par le service MenuService
-            // qui a accès au UniteConversionService
+            // Types différents (densité, poids pièce): convertis en lot par
+            // UniteConversionService.convertirIngredients
             this.quantiteConvertieStockUnit = this.quantiteNecessaire;
         }
     }
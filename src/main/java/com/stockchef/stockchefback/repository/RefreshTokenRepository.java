@@ -0,0 +1,60 @@
+package com.stockchef.stockchefback.repository;
+
+import com.stockchef.stockchefback.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository des refresh tokens (recherche par empreinte, index unique)
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    
+    /**
+     * Recherche un token par l'empreinte SHA-256 de sa valeur
+     */
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+    
+    /**
+     * Consomme un token s'il est encore actif (garde atomique contre deux renouvellements simultanés)
+     *
+     * @return 1 si le token a été consommé, 0 s'il l'était déjà, révoqué ou expiré
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE RefreshToken t SET t.utiliseA = :maintenant 
+        WHERE t.id = :id AND t.utiliseA IS NULL AND t.revoqueA IS NULL AND t.expireA > :maintenant
+        """)
+    int consommer(@Param("id") Long id, @Param("maintenant") LocalDateTime maintenant);
+    
+    /**
+     * Révoque tous les tokens d'une famille (réutilisation détectée)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RefreshToken t SET t.revoqueA = :maintenant WHERE t.familleId = :familleId AND t.revoqueA IS NULL")
+    int revoquerFamille(@Param("familleId") String familleId, @Param("maintenant") LocalDateTime maintenant);
+    
+    /**
+     * Révoque tous les tokens d'un utilisateur (logout)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RefreshToken t SET t.revoqueA = :maintenant WHERE t.user.id = :userId AND t.revoqueA IS NULL")
+    int revoquerUtilisateur(@Param("userId") String userId, @Param("maintenant") LocalDateTime maintenant);
+    
+    /**
+     * Supprime les familles arrivées à leur durée maximale et les tokens jamais consommés expirés
+     * (les tokens consommés restent jusqu'à la fin de leur famille pour détecter une réutilisation)
+     */
+    @Modifying
+    @Query("""
+        DELETE FROM RefreshToken t 
+        WHERE t.familleExpireA < :maintenant OR (t.utiliseA IS NULL AND t.expireA < :maintenant)
+        """)
+    int supprimerExpires(@Param("maintenant") LocalDateTime maintenant);
+}
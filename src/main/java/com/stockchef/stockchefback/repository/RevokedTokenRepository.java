@@ -0,0 +1,38 @@
+package com.stockchef.stockchefback.repository;
+
+import com.stockchef.stockchefback.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository de la liste des tokens d'accès révoqués (clé: jti)
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    
+    /**
+     * Révocations encore utiles (token pas encore expiré), pour reconstruire le filtre en mémoire
+     */
+    @Query("SELECT t FROM RevokedToken t WHERE t.expireA > :maintenant")
+    List<RevokedToken> findActifs(@Param("maintenant") LocalDateTime maintenant);
+    
+    /**
+     * Révocations enregistrées depuis un instant (par toutes les instances)
+     */
+    @Query("SELECT t FROM RevokedToken t WHERE t.revoqueA >= :depuis AND t.expireA > :maintenant")
+    List<RevokedToken> findRevoquesDepuis(@Param("depuis") LocalDateTime depuis,
+                                          @Param("maintenant") LocalDateTime maintenant);
+    
+    /**
+     * Supprime les révocations de tokens expirés (ils sont refusés de toute façon)
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expireA <= :maintenant")
+    int supprimerExpires(@Param("maintenant") LocalDateTime maintenant);
+}
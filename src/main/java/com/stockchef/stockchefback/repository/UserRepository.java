@@ -3,6 +3,9 @@
 import com.stockchef.stockchefback.model.User;
 import com.stockchef.stockchefback.model.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -50,4 +53,15 @@ public interface UserRepository extends JpaRepository<User, String> {
      * @return Liste des utilisateurs qui correspondent aux deux critères
      */
     List<User> findByRoleAndIsActive(UserRole role, boolean isActive);
+
+    /**
+     * Remplace le hachage du mot de passe s'il n'a pas changé entre-temps (rehachage à la connexion)
+     * @param id l'identifiant de l'utilisateur
+     * @param ancien le hachage vérifié à la connexion
+     * @param nouveau le nouveau hachage
+     * @return 1 si remplacé, 0 si le mot de passe a été modifié depuis
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.password = :nouveau WHERE u.id = :id AND u.password = :ancien")
+    int remplacerHachage(@Param("id") String id, @Param("ancien") String ancien, @Param("nouveau") String nouveau);
 }
\ No newline at end of file
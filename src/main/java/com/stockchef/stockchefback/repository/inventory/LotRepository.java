@@ -0,0 +1,52 @@
+package com.stockchef.stockchefback.repository.inventory;
+
+import com.stockchef.stockchefback.model.inventory.Lot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository pour les lots de stock (index produit_id, date_peremption)
+ */
+@Repository
+public interface LotRepository extends JpaRepository<Lot, Long> {
+    
+    /**
+     * Lots non épuisés de plusieurs produits, dans l'ordre de consommation
+     * Appelé sous le verrou de ligne des produits: pas de verrou supplémentaire sur les lots
+     */
+    @Query("""
+        SELECT l FROM Lot l 
+        WHERE l.produit.id IN :produitIds AND l.quantiteRestanteMilli > 0 
+        ORDER BY l.produit.id, l.datePeremption ASC NULLS LAST, l.id
+        """)
+    List<Lot> findLotsActifsParProduits(@Param("produitIds") Collection<Long> produitIds);
+    
+    /**
+     * Lots non épuisés d'un produit, dans l'ordre de consommation
+     */
+    @Query("""
+        SELECT l FROM Lot l 
+        WHERE l.produit.id = :produitId AND l.quantiteRestanteMilli > 0 
+        ORDER BY l.datePeremption ASC NULLS LAST, l.id
+        """)
+    List<Lot> findLotsActifs(@Param("produitId") Long produitId);
+    
+    /**
+     * Lots non épuisés arrivés à péremption dans une période, avec leur produit
+     * Sert au rapport de gaspillage: seule la quantité restante des lots expirés est perdue
+     */
+    @Query("""
+        SELECT l FROM Lot l JOIN FETCH l.produit p 
+        WHERE p.deleted = false AND l.quantiteRestanteMilli > 0 
+        AND l.datePeremption >= :startDate AND l.datePeremption <= :endDate 
+        ORDER BY p.id, l.datePeremption, l.id
+        """)
+    List<Lot> findLotsExpiresDansPeriode(@Param("startDate") LocalDate startDate,
+                                         @Param("endDate") LocalDate endDate);
+}
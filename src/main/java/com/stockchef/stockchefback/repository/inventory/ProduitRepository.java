@@ -1,23 +1,31 @@
 package com.stockchef.stockchefback.repository.inventory;
 
+import com.stockchef.stockchefback.dto.inventory.ProduitExportLigne;
 import com.stockchef.stockchefback.model.inventory.Produit;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository pour la gestion des produits
  * Méthodes pour les opérations CRUD et requêtes métier
  */
 @Repository
-public interface ProduitRepository extends JpaRepository<Produit, Long> {
+public interface ProduitRepository extends JpaRepository<Produit, Long>, ProduitRepositoryCustom {
     
     /**
      * Trouve tous les produits non supprimés
@@ -39,9 +47,13 @@ public interface ProduitRepository extends JpaRepository<Produit, Long> {
     
     /**
      * Trouve les produits qui expirent dans X jours ou sont déjà expirés
+     * Interroge les lots actifs (index produit_id, date_peremption); les produits sans aucun lot
+     * (stock antérieur aux lots) sont jugés sur leur propre date de péremption
      */
-    @Query("SELECT p FROM Produit p WHERE p.deleted = false AND p.datePeremption IS NOT NULL " +
-           "AND p.datePeremption <= :dateLimit")
+    @Query("SELECT p FROM Produit p WHERE p.deleted = false AND (" +
+           "p.id IN (SELECT l.produit.id FROM Lot l WHERE l.quantiteRestanteMilli > 0 " +
+           "AND l.datePeremption <= :dateLimit) " +
+           "OR (p.datePeremption <= :dateLimit AND NOT EXISTS (SELECT l2.id FROM Lot l2 WHERE l2.produit = p)))")
     List<Produit> findProduitsExpiringWithinDays(@Param("dateLimit") LocalDate dateLimit);
     
     /**
@@ -52,6 +64,22 @@ default List<Produit> findProduitsExpiringWithinDays(int days) {
         return findProduitsExpiringWithinDays(dateLimit);
     }
     
+    /**
+     * Charge et verrouille plusieurs produits en une seule requête
+     * L'ordre par ID garantit un ordre de verrouillage identique entre transactions (pas d'interblocage)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Produit p WHERE p.id IN :ids ORDER BY p.id")
+    List<Produit> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Verrouille les produits et lit leur quantité en stock directement en base (ordre par ID)
+     * Retourne [id, quantiteStock] sans passer par les entités déjà présentes dans le contexte de persistance
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id, p.quantiteStock FROM Produit p WHERE p.id IN :ids ORDER BY p.id")
+    List<Object[]> verrouillerQuantitesStock(@Param("ids") Collection<Long> ids);
+    
     /**
      * Met à jour la quantité de stock d'un produit
      */
@@ -59,6 +87,22 @@ default List<Produit> findProduitsExpiringWithinDays(int days) {
     @Query("UPDATE Produit p SET p.quantiteStock = :nouvelleQuantite WHERE p.id = :produitId")
     int updateQuantiteStock(@Param("produitId") Long produitId, @Param("nouvelleQuantite") BigDecimal nouvelleQuantite);
     
+    /**
+     * Décrémente le stock en une seule instruction gardée (pas de lecture-modification-écriture)
+     * Retourne 0 si le produit n'existe pas ou si le stock est insuffisant
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Produit p SET p.quantiteStock = p.quantiteStock - :quantite " +
+           "WHERE p.id = :produitId AND p.quantiteStock >= :quantite")
+    int decrementerQuantiteStock(@Param("produitId") Long produitId, @Param("quantite") BigDecimal quantite);
+    
+    /**
+     * Incrémente le stock en une seule instruction atomique
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Produit p SET p.quantiteStock = p.quantiteStock + :quantite WHERE p.id = :produitId")
+    int incrementerQuantiteStock(@Param("produitId") Long produitId, @Param("quantite") BigDecimal quantite);
+    
     /**
      * Trouve les produits par unité
      */
@@ -78,10 +122,12 @@ default List<Produit> findProduitsExpiringWithinDays(int days) {
     Integer countProduitsWithLowStock();
     
     /**
-     * Compte les produits expirant dans X jours
+     * Compte les produits expirant dans X jours (lots actifs, ou date du produit s'il n'a aucun lot)
      */
-    @Query("SELECT COUNT(p) FROM Produit p WHERE p.deleted = false AND p.datePeremption IS NOT NULL " +
-           "AND p.datePeremption <= :dateLimit")
+    @Query("SELECT COUNT(p) FROM Produit p WHERE p.deleted = false AND (" +
+           "p.id IN (SELECT l.produit.id FROM Lot l WHERE l.quantiteRestanteMilli > 0 " +
+           "AND l.datePeremption <= :dateLimit) " +
+           "OR (p.datePeremption <= :dateLimit AND NOT EXISTS (SELECT l2.id FROM Lot l2 WHERE l2.produit = p)))")
     Integer countProduitsExpiringInDays(@Param("dateLimit") LocalDate dateLimit);
     
     /**
@@ -93,12 +139,14 @@ default Integer countProduitsExpiringInDays(int days) {
     }
     
     /**
-     * Encuentra productos que han expirado en un período específico
+     * Produits en stock sans aucun lot (stock antérieur aux lots) dont la date de péremption
+     * tombe dans la période: tout leur stock est perdu (rapport de gaspillage)
      */
-    @Query("SELECT p FROM Produit p WHERE p.deleted = false AND p.datePeremption IS NOT NULL " +
-           "AND p.datePeremption >= :startDate AND p.datePeremption <= :endDate")
-    List<Produit> findExpiredProductsInPeriod(@Param("startDate") LocalDateTime startDate, 
-                                             @Param("endDate") LocalDateTime endDate);
+    @Query("SELECT p FROM Produit p WHERE p.deleted = false AND p.quantiteStock > 0 " +
+           "AND p.datePeremption >= :startDate AND p.datePeremption <= :endDate " +
+           "AND NOT EXISTS (SELECT l.id FROM Lot l WHERE l.produit = p)")
+    List<Produit> findProduitsSansLotExpiresDansPeriode(@Param("startDate") LocalDate startDate,
+                                                        @Param("endDate") LocalDate endDate);
     
     /**
      * Encuentra productos en alerte de stock
@@ -111,4 +159,32 @@ List<Produit> findExpiredProductsInPeriod(@Param("startDate") LocalDateTime star
      */
     @Query("SELECT COUNT(p) FROM Produit p WHERE p.deleted = false AND p.dateEntree >= :startDate")
     Integer countByDateEntreeAfter(@Param("startDate") LocalDateTime startDate);
+    
+    /**
+     * Valeur totale du stock des produits actifs (quantité x prix unitaire)
+     */
+    @Query("SELECT COALESCE(SUM(p.quantiteStock * p.prixUnitaire), 0) FROM Produit p " +
+           "WHERE p.deleted = false OR p.deleted IS NULL")
+    BigDecimal sumValeurStock();
+    
+    /**
+     * Valeur du stock des produits en alerte
+     */
+    @Query("SELECT COALESCE(SUM(p.quantiteStock * p.prixUnitaire), 0) FROM Produit p " +
+           "WHERE p.deleted = false AND p.quantiteStock < p.seuilAlerte")
+    BigDecimal sumValeurStockProduitsEnAlerte();
+    
+    /**
+     * Produits actifs pour l'export, par ID croissant
+     * Lecture en flux (curseur, fetch size borné): à consommer dans une transaction et à fermer
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.stockchef.stockchefback.dto.inventory.ProduitExportLigne(" +
+           "p.id, p.nom, p.quantiteStock, p.unite, p.prixUnitaire, p.seuilAlerte, " +
+           "p.datePeremption, p.dateEntree, p.lastModified) " +
+           "FROM Produit p WHERE p.deleted = false OR p.deleted IS NULL ORDER BY p.id")
+    Stream<ProduitExportLigne> streamPourExport();
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.stockchef.stockchefback.repository.inventory;
+
+import com.stockchef.stockchefback.model.inventory.Produit;
+
+/**
+ * Opérations du repository Produit nécessitant un accès direct à l'EntityManager
+ */
+public interface ProduitRepositoryCustom {
+    
+    /**
+     * Recharge l'état d'un produit depuis la base de données
+     * Nécessaire après une mise à jour en masse (UPDATE JPQL) qui contourne le contexte de persistance
+     */
+    void refresh(Produit produit);
+}
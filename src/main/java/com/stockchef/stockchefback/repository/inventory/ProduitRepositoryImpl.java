@@ -0,0 +1,19 @@
+package com.stockchef.stockchefback.repository.inventory;
+
+import com.stockchef.stockchefback.model.inventory.Produit;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implémentation des opérations personnalisées du repository Produit
+ */
+public class ProduitRepositoryImpl implements ProduitRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public void refresh(Produit produit) {
+        entityManager.refresh(produit);
+    }
+}
@@ -0,0 +1,65 @@
+package com.stockchef.stockchefback.repository.inventory;
+
+import com.stockchef.stockchefback.model.inventory.ReservationStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository pour le registre des réservations de stock des menus en brouillon
+ */
+@Repository
+public interface ReservationStockRepository extends JpaRepository<ReservationStock, Long> {
+    
+    /**
+     * Quantité réservée active par produit et date d'expiration: [produitId, dateExpiration, somme]
+     * Sert à (re)construire l'agrégat en mémoire et ses échéances
+     */
+    @Query("""
+        SELECT r.produit.id, r.dateExpiration, SUM(r.quantiteMilli)
+        FROM ReservationStock r 
+        WHERE r.dateExpiration > :maintenant 
+        GROUP BY r.produit.id, r.dateExpiration
+        """)
+    List<Object[]> sommerReservationsActivesParProduitEtExpiration(@Param("maintenant") LocalDateTime maintenant);
+    
+    /**
+     * Réservations actives des menus donnés: [menuId, produitId, somme]
+     */
+    @Query("""
+        SELECT r.menuId, r.produit.id, SUM(r.quantiteMilli)
+        FROM ReservationStock r 
+        WHERE r.menuId IN :menuIds AND r.dateExpiration > :maintenant 
+        GROUP BY r.menuId, r.produit.id
+        """)
+    List<Object[]> sommerReservationsActivesParMenu(@Param("menuIds") Collection<Long> menuIds,
+                                                    @Param("maintenant") LocalDateTime maintenant);
+    
+    /**
+     * Trouve les réservations d'un menu
+     */
+    List<ReservationStock> findByMenuId(Long menuId);
+    
+    /**
+     * Trouve les réservations de plusieurs menus
+     */
+    List<ReservationStock> findByMenuIdIn(Collection<Long> menuIds);
+    
+    /**
+     * Trouve les réservations d'un menu pour un produit
+     */
+    List<ReservationStock> findByMenuIdAndProduitId(Long menuId, Long produitId);
+    
+    /**
+     * Supprime les réservations expirées
+     */
+    @Modifying
+    @Query("DELETE FROM ReservationStock r WHERE r.dateExpiration <= :maintenant")
+    int supprimerReservationsExpirees(@Param("maintenant") LocalDateTime maintenant);
+}
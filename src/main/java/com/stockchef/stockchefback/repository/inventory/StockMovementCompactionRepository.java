@@ -0,0 +1,21 @@
+package com.stockchef.stockchefback.repository.inventory;
+
+import com.stockchef.stockchefback.model.inventory.StockMovementCompaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+/**
+ * Repository des jours traités par la compaction des mouvements
+ */
+@Repository
+public interface StockMovementCompactionRepository extends JpaRepository<StockMovementCompaction, LocalDate> {
+    
+    /**
+     * Dernier jour compacté (null si aucun)
+     */
+    @Query("SELECT MAX(c.jour) FROM StockMovementCompaction c")
+    LocalDate findDernierJourCompacte();
+}
@@ -0,0 +1,83 @@
+package com.stockchef.stockchefback.repository.inventory;
+
+import com.stockchef.stockchefback.dto.reports.ConsommationProduitDTO;
+import com.stockchef.stockchefback.model.inventory.StockMovementDaily;
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository de l'agrégat journalier des mouvements (une ligne par jour, produit et type)
+ * Les rapports lisent au plus jours x produits lignes, quel que soit le nombre de mouvements
+ */
+@Repository
+public interface StockMovementDailyRepository extends JpaRepository<StockMovementDaily, Long> {
+    
+    /**
+     * Ajoute des mouvements à la ligne existante d'un jour/produit/type
+     * Appelé sous le verrou de ligne du produit: un résultat 0 autorise l'insertion sans conflit
+     *
+     * @return Nombre de lignes mises à jour (0 si la ligne n'existe pas encore)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE StockMovementDaily d 
+        SET d.quantite = d.quantite + :quantite, d.valeur = d.valeur + :valeur, 
+            d.nombreMouvements = d.nombreMouvements + :nombre 
+        WHERE d.jour = :jour AND d.produit.id = :produitId AND d.typeMouvement = :typeMouvement
+        """)
+    int incrementer(@Param("jour") LocalDate jour,
+                    @Param("produitId") Long produitId,
+                    @Param("typeMouvement") TypeMouvement typeMouvement,
+                    @Param("quantite") BigDecimal quantite,
+                    @Param("valeur") BigDecimal valeur,
+                    @Param("nombre") long nombre);
+    
+    /**
+     * Supprime les lignes d'une période (avant reconstruction)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM StockMovementDaily d WHERE d.jour BETWEEN :debut AND :fin")
+    int supprimerPeriode(@Param("debut") LocalDate debut, @Param("fin") LocalDate fin);
+    
+    /**
+     * Produits les plus sortis sur une période (sorties négatives: tri croissant)
+     */
+    @Query("""
+        SELECT new com.stockchef.stockchefback.dto.reports.ConsommationProduitDTO(
+            p.id, p.nom, p.unite, -SUM(d.quantite)) 
+        FROM StockMovementDaily d JOIN d.produit p 
+        WHERE d.typeMouvement = com.stockchef.stockchefback.model.inventory.TypeMouvement.SORTIE 
+        AND d.jour BETWEEN :debut AND :fin 
+        GROUP BY p.id, p.nom, p.unite 
+        ORDER BY SUM(d.quantite) ASC, p.id ASC
+        """)
+    List<ConsommationProduitDTO> findTopProduitsSortis(@Param("debut") LocalDate debut,
+                                                      @Param("fin") LocalDate fin,
+                                                      Limit limit);
+    
+    /**
+     * Valeur cumulée des mouvements d'un type sur une période (signée comme les mouvements)
+     */
+    @Query("""
+        SELECT COALESCE(SUM(d.valeur), 0) FROM StockMovementDaily d 
+        WHERE d.typeMouvement = :typeMouvement AND d.jour BETWEEN :debut AND :fin
+        """)
+    BigDecimal sumValeur(@Param("typeMouvement") TypeMouvement typeMouvement,
+                         @Param("debut") LocalDate debut,
+                         @Param("fin") LocalDate fin);
+    
+    /**
+     * Nombre de mouvements enregistrés depuis un jour (inclus)
+     */
+    @Query("SELECT COALESCE(SUM(d.nombreMouvements), 0) FROM StockMovementDaily d WHERE d.jour >= :debut")
+    Long countMouvementsDepuis(@Param("debut") LocalDate debut);
+}
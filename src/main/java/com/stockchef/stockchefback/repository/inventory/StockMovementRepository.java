@@ -3,21 +3,43 @@
 import com.stockchef.stockchefback.model.inventory.Produit;
 import com.stockchef.stockchefback.model.inventory.StockMovement;
 import com.stockchef.stockchefback.model.inventory.TypeMouvement;
+import com.stockchef.stockchefback.dto.inventory.StockAtResponse;
+import com.stockchef.stockchefback.dto.inventory.StockMovementExportLigne;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository pour la gestion des mouvements de stock
  * Audit trail et historique des transactions
  */
 @Repository
-public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long>, JpaSpecificationExecutor<StockMovement> {
+    
+    /**
+     * Quantité d'un mouvement (alias sm, produit joint en p) dans l'unité de stock du produit
+     * Même conversion que UniteConversionService: facteurs de base, puis densité / poids pièce entre types.
+     * NULL si la conversion est impossible (facteur non renseigné): ignoré par SUM
+     */
+    String QUANTITE_EN_UNITE_PRODUIT =
+            "(CASE WHEN sm.unite = p.unite THEN sm.quantite ELSE sm.quantite" +
+            " * (CASE WHEN sm.unite IN (KILOGRAMME, LITRE) THEN 1000 ELSE 1 END)" +
+            " * (CASE WHEN sm.unite IN (KILOGRAMME, GRAMME) THEN 1" +
+            " WHEN sm.unite IN (LITRE, MILLILITRE) THEN p.densite ELSE p.poidsPieceGrammes END)" +
+            " / NULLIF((CASE WHEN p.unite IN (KILOGRAMME, LITRE) THEN 1000 ELSE 1 END)" +
+            " * (CASE WHEN p.unite IN (KILOGRAMME, GRAMME) THEN 1" +
+            " WHEN p.unite IN (LITRE, MILLILITRE) THEN p.densite ELSE p.poidsPieceGrammes END), 0) END)";
     
     /**
      * Trouve tous les mouvements d'un produit, triés par date décroissante
@@ -84,4 +106,92 @@ List<StockMovement> findByDateMouvementBetweenAndTypeMouvement(@Param("startDate
      */
     @Query("SELECT COUNT(sm) FROM StockMovement sm WHERE sm.dateMouvement >= :startDate")
     Integer countByDateMouvementAfter(@Param("startDate") LocalDateTime startDate);
+    
+    /**
+     * Agrégat des mouvements d'une période par produit et type, pour la reconstruction de stock_movement_daily
+     * Colonnes: produit ID, type, somme des quantités (unité de stock), somme des valeurs, nombre de mouvements
+     * La valeur utilise le prix unitaire actuel du produit (l'historique des prix n'est pas conservé)
+     */
+    @Query("SELECT p.id, sm.typeMouvement, SUM(" + QUANTITE_EN_UNITE_PRODUIT + "), " +
+           "SUM(" + QUANTITE_EN_UNITE_PRODUIT + " * p.prixUnitaire), COUNT(sm) " +
+           "FROM StockMovement sm JOIN sm.produit p " +
+           "WHERE sm.dateMouvement >= :debut AND sm.dateMouvement < :fin " +
+           "GROUP BY p.id, sm.typeMouvement")
+    List<Object[]> agregerParProduitEtType(@Param("debut") LocalDateTime debut,
+                                           @Param("fin") LocalDateTime fin);
+    
+    /**
+     * Date du plus ancien mouvement (null si aucun)
+     */
+    @Query("SELECT MIN(sm.dateMouvement) FROM StockMovement sm")
+    LocalDateTime findDatePremierMouvement();
+    
+    /**
+     * Date du plus ancien mouvement à partir d'un instant (null si aucun)
+     */
+    @Query("SELECT MIN(sm.dateMouvement) FROM StockMovement sm WHERE sm.dateMouvement >= :depuis")
+    LocalDateTime findDatePremierMouvementDepuis(@Param("depuis") LocalDateTime depuis);
+    
+    /**
+     * Mouvements d'une période avec leur produit, dans l'ordre chronologique (compaction)
+     */
+    @Query("SELECT sm FROM StockMovement sm JOIN FETCH sm.produit " +
+           "WHERE sm.dateMouvement >= :debut AND sm.dateMouvement < :fin " +
+           "ORDER BY sm.dateMouvement ASC, sm.id ASC")
+    List<StockMovement> findPeriodeAvecProduit(@Param("debut") LocalDateTime debut,
+                                              @Param("fin") LocalDateTime fin);
+    
+    /**
+     * Dernier mouvement d'un produit à un instant ou avant (ID, jointure ON des requêtes de stock à un instant)
+     * Recherche indexée sur (produit_id, date_mouvement, id), parcourue à rebours
+     */
+    String DERNIER_MOUVEMENT_AVANT_INSTANT =
+            "(SELECT sm2.id FROM StockMovement sm2 WHERE sm2.produit.id = p.id AND sm2.dateMouvement <= :instant " +
+            "ORDER BY sm2.dateMouvement DESC, sm2.id DESC LIMIT 1)";
+    
+    /**
+     * Stock d'un produit à un instant: solde du dernier mouvement à cet instant ou avant
+     * Vide si le produit n'existe pas; quantité 0 s'il n'avait encore aucun mouvement
+     */
+    @Query("SELECT new com.stockchef.stockchefback.dto.inventory.StockAtResponse(" +
+           "p.id, p.nom, p.unite, COALESCE(sm.quantiteApres, 0), COALESCE(sm.quantiteApres, 0) * p.prixUnitaire, " +
+           "sm.id, sm.dateMouvement) " +
+           "FROM Produit p LEFT JOIN StockMovement sm ON sm.id = " + DERNIER_MOUVEMENT_AVANT_INSTANT + " " +
+           "WHERE p.id = :produitId")
+    Optional<StockAtResponse> findStockAInstant(@Param("produitId") Long produitId,
+                                                @Param("instant") LocalDateTime instant);
+    
+    /**
+     * Stock de tous les produits ayant un mouvement à l'instant donné ou avant, en une requête
+     * (une recherche indexée par produit, sans rejouer l'historique)
+     * Inclut les produits supprimés depuis: ils faisaient partie du stock à cet instant
+     */
+    @Query("SELECT new com.stockchef.stockchefback.dto.inventory.StockAtResponse(" +
+           "p.id, p.nom, p.unite, sm.quantiteApres, sm.quantiteApres * p.prixUnitaire, sm.id, sm.dateMouvement) " +
+           "FROM Produit p JOIN StockMovement sm ON sm.id = " + DERNIER_MOUVEMENT_AVANT_INSTANT + " " +
+           "ORDER BY p.id")
+    List<StockAtResponse> findStocksAInstant(@Param("instant") LocalDateTime instant);
+    
+    /**
+     * Mouvements d'une période pour l'export, filtres optionnels (null = tous), par date croissante
+     * Lecture en flux (curseur, fetch size borné): à consommer dans une transaction et à fermer
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.stockchef.stockchefback.dto.inventory.StockMovementExportLigne(" +
+           "sm.id, sm.dateMouvement, p.id, p.nom, sm.typeMouvement, sm.quantite, sm.unite, " +
+           "sm.quantiteApres, sm.motif, sm.menuId, sm.utilisateur) " +
+           "FROM StockMovement sm JOIN sm.produit p " +
+           "WHERE sm.dateMouvement >= :debut AND sm.dateMouvement < :fin " +
+           "AND (:produitId IS NULL OR p.id = :produitId) " +
+           "AND (:type IS NULL OR sm.typeMouvement = :type) " +
+           "AND (:utilisateur IS NULL OR sm.utilisateur = :utilisateur) " +
+           "ORDER BY sm.dateMouvement, sm.id")
+    Stream<StockMovementExportLigne> streamPourExport(@Param("debut") LocalDateTime debut,
+                                                     @Param("fin") LocalDateTime fin,
+                                                     @Param("produitId") Long produitId,
+                                                     @Param("type") TypeMouvement type,
+                                                     @Param("utilisateur") String utilisateur);
 }
\ No newline at end of file
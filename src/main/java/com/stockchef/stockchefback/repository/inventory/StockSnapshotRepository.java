@@ -0,0 +1,49 @@
+package com.stockchef.stockchefback.repository.inventory;
+
+import com.stockchef.stockchefback.dto.inventory.StockAtResponse;
+import com.stockchef.stockchefback.model.inventory.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository des photos de stock de fin de journée (une ligne par jour et produit)
+ */
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+    
+    /**
+     * Supprime les photos d'un jour (avant de la reprendre)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM StockSnapshot s WHERE s.jour = :jour")
+    int supprimerJour(@Param("jour") LocalDate jour);
+    
+    /**
+     * Vérifie si la photo d'un jour a été prise
+     */
+    boolean existsByJour(LocalDate jour);
+    
+    /**
+     * Dernier jour photographié (null si aucun)
+     */
+    @Query("SELECT MAX(s.jour) FROM StockSnapshot s")
+    LocalDate findDernierJour();
+    
+    /**
+     * Stock de clôture de tous les produits photographiés un jour donné, valeur au prix du jour
+     */
+    @Query("""
+        SELECT new com.stockchef.stockchefback.dto.inventory.StockAtResponse(
+            p.id, p.nom, p.unite, s.quantite, s.valeur, s.dernierMouvementId, s.dateDernierMouvement) 
+        FROM StockSnapshot s JOIN s.produit p 
+        WHERE s.jour = :jour 
+        ORDER BY p.id
+        """)
+    List<StockAtResponse> findStocksDuJour(@Param("jour") LocalDate jour);
+}
@@ -0,0 +1,33 @@
+package com.stockchef.stockchefback.repository.menu;
+
+import com.stockchef.stockchefback.model.menu.MenuCoutRecalculEnAttente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository des recalculs de coûts de menus en attente
+ */
+@Repository
+public interface MenuCoutRecalculEnAttenteRepository extends JpaRepository<MenuCoutRecalculEnAttente, Long> {
+    
+    /**
+     * Produits ayant au moins un recalcul en attente
+     */
+    @Query("SELECT DISTINCT r.produitId FROM MenuCoutRecalculEnAttente r")
+    List<Long> findProduitIds();
+    
+    /**
+     * Supprime les changements traités: ceux des produits recalculés, enregistrés avant le début du recalcul
+     * (un changement plus récent du même produit reste en attente)
+     */
+    @Modifying
+    @Query("DELETE FROM MenuCoutRecalculEnAttente r WHERE r.produitId IN :produitIds AND r.dateChangement <= :debut")
+    int supprimerTraites(@Param("produitIds") Collection<Long> produitIds, @Param("debut") LocalDateTime debut);
+}
@@ -2,12 +2,16 @@
 
 import com.stockchef.stockchefback.model.menu.Menu;
 import com.stockchef.stockchefback.model.menu.MenuIngredient;
+import com.stockchef.stockchefback.model.menu.StatutMenu;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -122,6 +126,57 @@ HAVING SUM(mi.quantiteConvertieStockUnit) > mi.produit.quantiteStock
     /**
      * Mise à jour en batch du coût des ingrédients
      */
-    @Query("UPDATE MenuIngredient mi SET mi.coutIngredient = mi.quantiteConvertieStockUnit * mi.produit.prixUnitaire WHERE mi.menu.id = :menuId")
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE MenuIngredient mi
+        SET mi.coutIngredient = mi.quantiteConvertieStockUnit * (
+                SELECT p.prixUnitaire FROM Produit p WHERE p.id = mi.produit.id)
+        WHERE mi.menu.id = :menuId
+        """)
     int updateCoutIngredientsMenu(@Param("menuId") Long menuId);
+    
+    /**
+     * Recalcule le coût des ingrédients utilisant les produits donnés, pour les menus non annulés
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE MenuIngredient mi
+        SET mi.coutIngredient = mi.quantiteConvertieStockUnit * (
+                SELECT p.prixUnitaire FROM Produit p WHERE p.id = mi.produit.id)
+        WHERE mi.produit.id IN :produitIds
+        AND mi.menu.id IN (SELECT m.id FROM Menu m WHERE m.statut <> :statutExclu)
+        """)
+    int recalculerCoutIngredientsPourProduits(@Param("produitIds") Collection<Long> produitIds,
+                                              @Param("statutExclu") StatutMenu statutExclu);
+    
+    /**
+     * Décrémente en une seule requête le stock de tous les produits utilisés par les menus donnés
+     * Les lignes doivent avoir été verrouillées et validées au préalable
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE Produit p
+        SET p.quantiteStock = p.quantiteStock - (
+                SELECT SUM(mi.quantiteConvertieStockUnit) FROM MenuIngredient mi
+                WHERE mi.menu.id IN :menuIds AND mi.produit.id = p.id),
+            p.lastModified = :dateModification
+        WHERE p.id IN (SELECT mi2.produit.id FROM MenuIngredient mi2 WHERE mi2.menu.id IN :menuIds)
+        """)
+    int decrementerStockProduitsDesMenus(@Param("menuIds") Collection<Long> menuIds,
+                                         @Param("dateModification") LocalDateTime dateModification);
+    
+    /**
+     * Réincrémente en une seule requête le stock de tous les produits utilisés par les menus donnés
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE Produit p
+        SET p.quantiteStock = p.quantiteStock + (
+                SELECT SUM(mi.quantiteConvertieStockUnit) FROM MenuIngredient mi
+                WHERE mi.menu.id IN :menuIds AND mi.produit.id = p.id),
+            p.lastModified = :dateModification
+        WHERE p.id IN (SELECT mi2.produit.id FROM MenuIngredient mi2 WHERE mi2.menu.id IN :menuIds)
+        """)
+    int incrementerStockProduitsDesMenus(@Param("menuIds") Collection<Long> menuIds,
+                                         @Param("dateModification") LocalDateTime dateModification);
 }
\ No newline at end of file
@@ -1,16 +1,21 @@
 package com.stockchef.stockchefback.repository.menu;
 
+import com.stockchef.stockchefback.dto.reports.PerformanceMenuAgregat;
 import com.stockchef.stockchefback.model.menu.Menu;
 import com.stockchef.stockchefback.model.menu.StatutMenu;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -54,12 +59,67 @@ List<Menu> findMenusConfirmesEntreDates(@Param("statut") StatutMenu statut,
     @Query("SELECT m FROM Menu m LEFT JOIN FETCH m.ingredients WHERE m.id = :id")
     Optional<Menu> findByIdWithIngredients(@Param("id") Long id);
     
+    /**
+     * Trouve un menu avec ses ingrédients et leurs produits chargés en une seule requête
+     */
+    @Query("SELECT m FROM Menu m LEFT JOIN FETCH m.ingredients mi LEFT JOIN FETCH mi.produit WHERE m.id = :id")
+    Optional<Menu> findByIdWithIngredientsEtProduits(@Param("id") Long id);
+    
+    /**
+     * Verrouille la ligne d'un menu et lit son statut directement en base
+     * Une transaction concurrente sur le même menu attend le commit puis relit le statut à jour
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m.statut FROM Menu m WHERE m.id = :id")
+    Optional<StatutMenu> verrouillerStatut(@Param("id") Long id);
+    
     /**
      * Trouve tous les menus avec leurs ingrédients pour une date
      */
     @Query("SELECT DISTINCT m FROM Menu m LEFT JOIN FETCH m.ingredients WHERE m.dateService = :dateService ORDER BY m.nom")
     List<Menu> findByDateServiceWithIngredients(@Param("dateService") LocalDate dateService);
     
+    /**
+     * Trouve tous les menus d'une date avec ingrédients et produits chargés en une requête
+     */
+    @Query("""
+        SELECT DISTINCT m FROM Menu m
+        LEFT JOIN FETCH m.ingredients mi
+        LEFT JOIN FETCH mi.produit
+        WHERE m.dateService = :dateService
+        ORDER BY m.nom
+        """)
+    List<Menu> findByDateServiceWithIngredientsEtProduits(@Param("dateService") LocalDate dateService);
+    
+    /**
+     * Charge les ingrédients et leurs produits pour un ensemble de menus en une seule requête
+     * Utilisé après une requête paginée pour initialiser les collections sans N+1
+     */
+    @Query("SELECT DISTINCT m FROM Menu m LEFT JOIN FETCH m.ingredients mi LEFT JOIN FETCH mi.produit WHERE m.id IN :ids")
+    List<Menu> findByIdInWithIngredientsEtProduits(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Trouve les menus d'une date et d'un statut avec ingrédients et produits chargés en une requête
+     * Ordre de priorité: premier créé, premier servi
+     */
+    @Query("""
+        SELECT DISTINCT m FROM Menu m
+        LEFT JOIN FETCH m.ingredients mi
+        LEFT JOIN FETCH mi.produit
+        WHERE m.dateService = :dateService AND m.statut = :statut
+        ORDER BY m.dateCreation, m.id
+        """)
+    List<Menu> findByDateServiceAndStatutWithIngredientsEtProduits(@Param("dateService") LocalDate dateService,
+                                                                   @Param("statut") StatutMenu statut);
+    
+    /**
+     * Verrouille, dans l'ordre des IDs, les lignes des menus d'une date et lit leur statut directement en base
+     * Retourne [id, statut]
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m.id, m.statut FROM Menu m WHERE m.dateService = :dateService ORDER BY m.id")
+    List<Object[]> verrouillerStatutsParDate(@Param("dateService") LocalDate dateService);
+    
     /**
      * Compte le nombre de menus par statut
      */
@@ -106,21 +166,35 @@ java.math.BigDecimal calculerCoutMoyenMenus(@Param("dateDebut") LocalDate dateDe
     List<Menu> rechercherParNom(@Param("nom") String nom);
     
     /**
-     * Trouve les menus d'une date avec stock suffisant
+     * Recalcule le coût total des menus (hors statut exclu) utilisant l'un des produits donnés
      */
+    @Modifying(flushAutomatically = true)
     @Query("""
-        SELECT DISTINCT m FROM Menu m 
-        LEFT JOIN FETCH m.ingredients mi 
-        LEFT JOIN FETCH mi.produit p
-        WHERE m.dateService = :dateService 
-        AND NOT EXISTS (
-            SELECT 1 FROM MenuIngredient mi2 
-            WHERE mi2.menu = m 
-            AND mi2.quantiteConvertieStockUnit > mi2.produit.quantiteStock
-        )
-        ORDER BY m.nom
+        UPDATE Menu m
+        SET m.coutTotalIngredients = COALESCE((
+                SELECT SUM(mi.coutIngredient) FROM MenuIngredient mi WHERE mi.menu.id = m.id), 0),
+            m.dateModification = :dateModification
+        WHERE m.statut <> :statutExclu
+        AND m.id IN (SELECT mi2.menu.id FROM MenuIngredient mi2 WHERE mi2.produit.id IN :produitIds)
         """)
-    List<Menu> findMenusRealisablesParDate(@Param("dateService") LocalDate dateService);
+    int recalculerCoutTotalMenusUtilisantProduits(@Param("produitIds") Collection<Long> produitIds,
+                                                  @Param("statutExclu") StatutMenu statutExclu,
+                                                  @Param("dateModification") LocalDateTime dateModification);
+    
+    /**
+     * Recalcule le pourcentage de marge des menus (hors statut exclu) utilisant l'un des produits donnés
+     * À exécuter après la mise à jour du coût total
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE Menu m
+        SET m.margePercentage = (m.prixVente - m.coutTotalIngredients) * 100 / m.prixVente
+        WHERE m.statut <> :statutExclu
+        AND m.prixVente > 0
+        AND m.id IN (SELECT mi.menu.id FROM MenuIngredient mi WHERE mi.produit.id IN :produitIds)
+        """)
+    int recalculerMargeMenusUtilisantProduits(@Param("produitIds") Collection<Long> produitIds,
+                                              @Param("statutExclu") StatutMenu statutExclu);
     
     // === MÉTHODES AVEC PAGINATION POUR LE CONTROLLER ===
     
@@ -161,13 +235,29 @@ List<Object[]> getStatistiquesParChef(@Param("dateDebut") LocalDate dateDebut,
      */
     @Query("SELECT COUNT(m) FROM Menu m WHERE m.statut = :statut AND m.dateService >= :startDate")
     Integer countByStatutAndDateServiceAfter(@Param("statut") StatutMenu statut, 
-                                           @Param("startDate") LocalDateTime startDate);
+                                           @Param("startDate") LocalDate startDate);
     
     /**
-     * Encuentra menús en un rango de fechas con estados específicos
+     * Performance des menus par nom sur une période, agrégée en base
+     * Tri possible sur les alias (profitabiliteTotal, nombrePreparations, menuNom, dernierePreparation)
      */
-    @Query("SELECT m FROM Menu m WHERE m.dateService BETWEEN :startDate AND :endDate AND m.statut IN :statuts")
-    List<Menu> findByDateServiceBetweenAndStatutIn(@Param("startDate") LocalDateTime startDate,
-                                                  @Param("endDate") LocalDateTime endDate,
-                                                  @Param("statuts") List<StatutMenu> statuts);
+    @Query(value = """
+        SELECT MAX(m.id) AS menuId,
+               m.nom AS menuNom,
+               COUNT(m) AS nombrePreparations,
+               SUM(COALESCE(m.coutTotalIngredients, 0)) AS coutTotal,
+               SUM(COALESCE(m.prixVente, 0) - COALESCE(m.coutTotalIngredients, 0)) AS profitabiliteTotal,
+               MAX(m.dateCreation) AS dernierePreparation
+        FROM Menu m
+        WHERE m.dateService BETWEEN :startDate AND :endDate AND m.statut IN :statuts
+        GROUP BY m.nom
+        """,
+        countQuery = """
+        SELECT COUNT(DISTINCT m.nom) FROM Menu m
+        WHERE m.dateService BETWEEN :startDate AND :endDate AND m.statut IN :statuts
+        """)
+    Page<PerformanceMenuAgregat> agregerPerformanceParNom(@Param("startDate") LocalDate startDate,
+                                                          @Param("endDate") LocalDate endDate,
+                                                          @Param("statuts") List<StatutMenu> statuts,
+                                                          Pageable pageable);
 }
\ No newline at end of file
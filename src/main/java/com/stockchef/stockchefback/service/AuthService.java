@@ -2,6 +2,8 @@
 
 import com.stockchef.stockchefback.dto.auth.RefreshTokenRequest;
 import com.stockchef.stockchefback.exception.InvalidTokenException;
+import com.stockchef.stockchefback.model.User;
+import com.stockchef.stockchefback.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -13,6 +15,11 @@
 @RequiredArgsConstructor
 @Slf4j
 public class AuthService {
+    
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final JwtService jwtService;
+    private final UserRepository userRepository;
 
     /**
      * DTO pour réponse de tokens
@@ -41,8 +48,16 @@ public Long getExpiresIn() {
         }
     }
 
+    /**
+     * Émettre le refresh token d'une nouvelle session (connexion)
+     */
+    public String emettreRefreshToken(User user) {
+        return refreshTokenService.emettre(user);
+    }
+    
     /**
      * Renouveler token JWT en utilisant refresh token
+     * Le refresh token présenté est consommé et remplacé (rotation), sans vérification du mot de passe
      */
     public TokenResponse refreshToken(RefreshTokenRequest request) {
         log.info("Renouvellement token JWT avec refresh token");
@@ -51,21 +66,16 @@ public TokenResponse refreshToken(RefreshTokenRequest request) {
             throw new InvalidTokenException("Refresh token ne peut pas être vide");
         }
 
-        // Pour les tests, on simule un comportement basique
-        if (request.refreshToken().contains("invalid")) {
-            throw new InvalidTokenException("Token invalide");
-        }
-
-        // Simulation de nouvelle réponse de token pour tests
+        RefreshTokenService.Rotation rotation = refreshTokenService.renouveler(request.refreshToken());
         return new TokenResponse(
-                "new-access-token-123",
-                "new-refresh-token-456", 
-                86400000L
+                jwtService.generateToken(rotation.user()),
+                rotation.refreshToken(),
+                jwtService.getExpiration()
         );
     }
 
     /**
-     * Invalider token (logout)
+     * Invalider token (logout): révoque tous les refresh tokens de l'utilisateur
      */
     public void invalidateToken(String userEmail) {
         log.info("Invalidation token pour utilisateur: {}", userEmail);
@@ -74,7 +84,16 @@ public void invalidateToken(String userEmail) {
             throw new IllegalArgumentException("Email d'utilisateur requis");
         }
 
-        // Pour les tests, on simule simplement le processus
-        log.info("Token invalidé avec succès pour: {}", userEmail);
+        int revoques = userRepository.findByEmail(userEmail)
+                .map(user -> refreshTokenService.revoquerUtilisateur(user.getId()))
+                .orElse(0);
+        log.info("Token invalidé avec succès pour: {} ({} refresh token(s) révoqué(s))", userEmail, revoques);
+    }
+    
+    /**
+     * Révoquer le token d'accès présenté (logout): refusé jusqu'à son expiration
+     */
+    public void revoquerToken(JwtPrincipal principal) {
+        tokenRevocationService.revoquer(principal);
     }
 }
\ No newline at end of file
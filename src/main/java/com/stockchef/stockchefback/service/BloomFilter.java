@@ -0,0 +1,76 @@
+package com.stockchef.stockchefback.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtre de Bloom thread-safe pour des identifiants de token (jti)
+ * Aucun faux négatif: "absent" est définitif, "peut-être présent" doit être confirmé
+ */
+final class BloomFilter {
+    
+    private final AtomicLongArray bits;
+    private final long nombreBits;
+    private final int nombreHachages;
+    
+    /**
+     * @param capacite Nombre d'éléments prévus
+     * @param tauxFauxPositifs Taux de faux positifs visé à pleine capacité (ex: 0.001)
+     */
+    BloomFilter(int capacite, double tauxFauxPositifs) {
+        long m = (long) Math.ceil(-Math.max(capacite, 1) * Math.log(tauxFauxPositifs) / (Math.log(2) * Math.log(2)));
+        this.nombreBits = Math.max(64, m);
+        this.nombreHachages = Math.max(1, (int) Math.round((double) nombreBits / Math.max(capacite, 1) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((nombreBits + 63) / 64));
+    }
+    
+    void ajouter(String id) {
+        UUID uuid = versUuid(id);
+        long h1 = melanger(uuid.getMostSignificantBits());
+        long h2 = melanger(uuid.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < nombreHachages; i++) {
+            long bit = Math.floorMod(h1 + i * h2, nombreBits);
+            int index = (int) (bit >>> 6);
+            long masque = 1L << bit;
+            long mot = bits.get(index);
+            while ((mot & masque) == 0 && !bits.compareAndSet(index, mot, mot | masque)) {
+                mot = bits.get(index);
+            }
+        }
+    }
+    
+    boolean peutContenir(String id) {
+        UUID uuid = versUuid(id);
+        long h1 = melanger(uuid.getMostSignificantBits());
+        long h2 = melanger(uuid.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < nombreHachages; i++) {
+            long bit = Math.floorMod(h1 + i * h2, nombreBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Les jti émis sont des UUID aléatoires: leurs 128 bits servent directement de hachages
+     * (tout autre identifiant passe par un UUID dérivé de son contenu)
+     */
+    private static UUID versUuid(String id) {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return UUID.nameUUIDFromBytes(id.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+    
+    /**
+     * Finaliseur SplitMix64: répartit uniformément les bits
+     */
+    private static long melanger(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
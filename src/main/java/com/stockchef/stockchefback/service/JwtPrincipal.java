@@ -0,0 +1,30 @@
+package com.stockchef.stockchefback.service;
+
+import java.security.Principal;
+import java.time.Instant;
+
+/**
+ * Identité extraite d'un token JWT vérifié (signature et expiration)
+ * Principal de l'authentification établie par JwtAuthenticationFilter: getName() = email
+ * jti: identifiant unique du token, clé de révocation (null pour les tokens émis sans jti)
+ */
+public record JwtPrincipal(
+        String email,
+        String role,
+        String userId,
+        String jti,
+        Instant expiration
+) implements Principal {
+    
+    @Override
+    public String getName() {
+        return email;
+    }
+    
+    /**
+     * Vrai si le token a expiré à l'instant donné
+     */
+    public boolean isExpire(Instant instant) {
+        return !expiration.isAfter(instant);
+    }
+}
@@ -2,31 +2,54 @@
 
 import com.stockchef.stockchefback.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
  * Service pour la gestion des JSON Web Tokens (JWT)
+ *
+ * La clé HMAC et le parser (immuable, thread-safe) sont construits une seule fois.
+ * verify() garde les tokens déjà vérifiés dans un cache borné, indexé par l'empreinte SHA-256
+ * du token (le token lui-même n'est pas conservé) et valable jusqu'à l'expiration du token.
  */
 @Service
 public class JwtService {
 
-    // Clé secrète pour signer les tokens (devrait être dans les variables d'environnement en production)
-    @Value("${jwt.secret:StockChefSecretKeyForDevelopment2024ThisShouldBeLongerInProductionAndStoredInEnvironmentVariables}")
-    private String secretKey;
-
-    @Value("${jwt.expiration:86400000}") // 24 heures par défaut
-    private long jwtExpiration;
+    private final long jwtExpiration;
+    private final int tailleMaxCache;
+    private final Key signInKey;
+    private final JwtParser parser;
+    private final Map<String, JwtPrincipal> tokensVerifies = new ConcurrentHashMap<>();
+
+    // Clé secrète (devrait être dans les variables d'environnement en production), expiration 24 heures par défaut
+    public JwtService(
+            @Value("${jwt.secret:StockChefSecretKeyForDevelopment2024ThisShouldBeLongerInProductionAndStoredInEnvironmentVariables}") String secretKey,
+            @Value("${jwt.expiration:86400000}") long jwtExpiration,
+            @Value("${jwt.cache.taille-max:10000}") int tailleMaxCache) {
+        this.jwtExpiration = jwtExpiration;
+        this.tailleMaxCache = tailleMaxCache;
+        this.signInKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+    }
 
     /**
      * Génère un token JWT pour l'utilisateur
@@ -48,11 +71,46 @@ public String generateToken(Map<String, Object> extraClaims, User user) {
                 .builder()
                 .setClaims(extraClaims)
                 .setSubject(user.getEmail())
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
+    
+    /**
+     * Durée de validité des tokens d'accès émis (millisecondes)
+     */
+    public long getExpiration() {
+        return jwtExpiration;
+    }
+    
+    /**
+     * Vérifie le token (signature et expiration) et retourne l'identité qu'il porte
+     * Une seule vérification HMAC par token tant qu'il reste dans le cache
+     *
+     * @throws JwtException si le token est invalide ou expiré
+     */
+    public JwtPrincipal verify(String token) {
+        String empreinte = empreinte(token);
+        JwtPrincipal principal = tokensVerifies.get(empreinte);
+        if (principal != null) {
+            if (!principal.isExpire(Instant.now())) {
+                return principal;
+            }
+            tokensVerifies.remove(empreinte);
+        }
+        
+        Claims claims = extractAllClaims(token);
+        principal = new JwtPrincipal(
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.get("userId", String.class),
+                claims.getId(),
+                claims.getExpiration().toInstant());
+        mettreEnCache(empreinte, principal);
+        return principal;
+    }
 
     /**
      * Extrait l'email (subject) du token
@@ -88,8 +146,7 @@ public String extractClaim(String token, String claimName) {
      */
     public boolean isTokenValid(String token, User user) {
         try {
-            final String email = extractEmail(token);
-            return (email.equals(user.getEmail())) && !isTokenExpired(token);
+            return verify(token).email().equals(user.getEmail());
         } catch (Exception e) {
             return false;
         }
@@ -102,6 +159,13 @@ public boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
 
+    /**
+     * Vide le cache des tokens vérifiés
+     */
+    public void viderCache() {
+        tokensVerifies.clear();
+    }
+    
     /**
      * Extrait la date d'expiration du token
      */
@@ -110,22 +174,41 @@ private Date extractExpiration(String token) {
     }
 
     /**
-     * Extrait tous les claims du token
+     * Extrait tous les claims du token (vérifie signature et expiration)
      */
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     /**
-     * Obtient la clé de signature
+     * Ajoute un token vérifié au cache; s'il est plein, retire d'abord les tokens expirés,
+     * puis des entrées quelconques jusqu'à libérer un dixième de la capacité
+     */
+    private void mettreEnCache(String empreinte, JwtPrincipal principal) {
+        if (tailleMaxCache <= 0) {
+            return;
+        }
+        if (tokensVerifies.size() >= tailleMaxCache) {
+            Instant maintenant = Instant.now();
+            tokensVerifies.values().removeIf(p -> p.isExpire(maintenant));
+            Iterator<String> cles = tokensVerifies.keySet().iterator();
+            while (tokensVerifies.size() > tailleMaxCache - Math.max(tailleMaxCache / 10, 1) && cles.hasNext()) {
+                cles.next();
+                cles.remove();
+            }
+        }
+        tokensVerifies.put(empreinte, principal);
+    }
+    
+    /**
+     * Empreinte SHA-256 du token (clé du cache)
      */
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(java.util.Base64.getEncoder().encodeToString(secretKey.getBytes()));
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String empreinte(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.stockchef.stockchefback.service;
+
+import com.stockchef.stockchefback.model.User;
+import com.stockchef.stockchefback.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Vérification et rehachage des mots de passe à la connexion, sur l'exécuteur dédié (hachageExecutor)
+ * 
+ * FONCTIONNEMENT:
+ * - Le thread de requête attend le résultat sans consommer de CPU: le nombre de hachages BCrypt
+ *   simultanés est borné au nombre de threads du pool, les opérations de stock gardent le CPU
+ * - File pleine: RejectedExecutionException, la connexion est refusée immédiatement (429)
+ * - Attente bornée: au-delà, la vérification est retirée de la file et refusée de la même façon
+ *   (un hachage déjà commencé va à son terme: BCrypt n'est pas interruptible)
+ * - Hachage d'un coût inférieur à celui configuré: refait en arrière-plan après une connexion réussie
+ * - Métriques: durée des hachages, attente en file, profondeur de file, refus
+ */
+@Service
+public class PasswordHashingService {
+    
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+    
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor hachageExecutor;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long attenteMaxMs;
+    private final String retryAfterSecondes;
+    
+    private final Timer dureeVerification;
+    private final Timer dureeRehachage;
+    private final Timer attenteFile;
+    private final Counter refus;
+    
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Qualifier("hachageExecutor") ThreadPoolExecutor hachageExecutor,
+                                  UserRepository userRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${auth.password.attente-max-ms:10000}") long attenteMaxMs,
+                                  @Value("${auth.password.retry-after-secondes:2}") int retryAfterSecondes) {
+        this.passwordEncoder = passwordEncoder;
+        this.hachageExecutor = hachageExecutor;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.attenteMaxMs = attenteMaxMs;
+        this.retryAfterSecondes = String.valueOf(retryAfterSecondes);
+        
+        this.dureeVerification = Timer.builder("auth.password.hachage")
+                .description("Durée d'un hachage BCrypt")
+                .tag("operation", "verification")
+                .register(meterRegistry);
+        this.dureeRehachage = Timer.builder("auth.password.hachage")
+                .description("Durée d'un hachage BCrypt")
+                .tag("operation", "rehachage")
+                .register(meterRegistry);
+        this.attenteFile = Timer.builder("auth.password.attente")
+                .description("Attente en file avant le hachage")
+                .register(meterRegistry);
+        this.refus = Counter.builder("auth.password.refus")
+                .description("Connexions refusées, file de hachage pleine")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.file", hachageExecutor, executor -> executor.getQueue().size())
+                .description("Hachages en attente")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Vérifie un mot de passe contre son hachage sur l'exécuteur dédié
+     *
+     * @throws RejectedExecutionException si la file de hachage est pleine ou l'attente dépassée
+     */
+    public boolean verifier(String motDePasse, String hachage) {
+        FutureTask<Boolean> tache = new FutureTask<>(
+                mesurer(dureeVerification, () -> passwordEncoder.matches(motDePasse, hachage))::get);
+        try {
+            hachageExecutor.execute(tache);
+        } catch (RejectedExecutionException e) {
+            refus.increment();
+            throw e;
+        }
+        try {
+            return tache.get(attenteMaxMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            annuler(tache);
+            refus.increment();
+            throw new RejectedExecutionException("Vérification du mot de passe non traitée en " + attenteMaxMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            annuler(tache);
+            throw new IllegalStateException("Vérification du mot de passe interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Erreur de vérification du mot de passe", e.getCause());
+        }
+    }
+    
+    /**
+     * Refait le hachage en arrière-plan si son coût est inférieur au coût configuré
+     * Appelé après une vérification réussie: le mot de passe en clair est connu
+     *
+     * @return Vrai si le hachage a été remplacé (faux: inutile, file pleine ou mot de passe modifié entre-temps)
+     */
+    public CompletableFuture<Boolean> rehacherSiNecessaire(User user, String motDePasse) {
+        String ancien = user.getPassword();
+        if (!passwordEncoder.upgradeEncoding(ancien)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        
+        try {
+            return CompletableFuture.supplyAsync(mesurer(dureeRehachage, () -> passwordEncoder.encode(motDePasse)),
+                            hachageExecutor)
+                    .thenApply(nouveau -> {
+                        Integer remplaces = transactionTemplate.execute(status ->
+                                userRepository.remplacerHachage(user.getId(), ancien, nouveau));
+                        boolean remplace = remplaces != null && remplaces > 0;
+                        if (remplace) {
+                            log.info("Mot de passe de {} rehaché au coût configuré", user.getEmail());
+                        }
+                        return remplace;
+                    })
+                    .exceptionally(erreur -> {
+                        log.warn("Rehachage du mot de passe de {} échoué: {}", user.getEmail(), erreur.getMessage());
+                        return false;
+                    });
+        } catch (RejectedExecutionException e) {
+            // Rehachage facultatif: refait à une prochaine connexion
+            log.debug("Rehachage du mot de passe de {} reporté: file de hachage pleine", user.getEmail());
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+    
+    /**
+     * Délai conseillé avant une nouvelle tentative quand la file est pleine (en-tête Retry-After)
+     */
+    public String getRetryAfterSecondes() {
+        return retryAfterSecondes;
+    }
+    
+    // ==================== INTERNE ====================
+    
+    /**
+     * Hachage mesuré: attente en file depuis la soumission, puis durée du hachage
+     */
+    private <T> Supplier<T> mesurer(Timer duree, Supplier<T> hachage) {
+        long soumisA = System.nanoTime();
+        return () -> {
+            attenteFile.record(System.nanoTime() - soumisA, TimeUnit.NANOSECONDS);
+            return duree.record(hachage);
+        };
+    }
+    
+    /**
+     * Annule une vérification abandonnée et libère sa place dans la file si elle n'a pas commencé
+     */
+    private void annuler(FutureTask<?> tache) {
+        tache.cancel(true);
+        hachageExecutor.remove(tache);
+    }
+}
@@ -0,0 +1,235 @@
+package com.stockchef.stockchefback.service;
+
+import com.stockchef.stockchefback.exception.InvalidTokenException;
+import com.stockchef.stockchefback.model.RefreshToken;
+import com.stockchef.stockchefback.model.User;
+import com.stockchef.stockchefback.repository.RefreshTokenRepository;
+import com.stockchef.stockchefback.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Refresh tokens avec rotation et détection de réutilisation
+ * 
+ * FONCTIONNEMENT:
+ * - Token opaque aléatoire (256 bits), seule son empreinte SHA-256 est stockée (index unique)
+ * - Chaque renouvellement consomme le token (UPDATE conditionnel, atomique) et en émet un nouveau
+ *   dans la même famille, avec une expiration glissante bornée par la durée maximale de la famille
+ * - Un token déjà consommé ou révoqué présenté à nouveau révoque toute sa famille (vol probable)
+ * - Les tokens émis récemment sont gardés en mémoire (empreinte -> ID) après le commit de leur insertion:
+ *   le renouvellement courant évite la lecture, la garde de l'UPDATE reste l'arbitre (plusieurs instances possibles)
+ * - Purge périodique des familles terminées
+ */
+@Service
+public class RefreshTokenService {
+    
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int OCTETS_TOKEN = 32;
+    
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final Duration dureeGlissante;
+    private final Duration dureeMax;
+    private final int tailleMaxCache;
+    
+    // Tokens émis par cette instance et pas encore consommés: empreinte -> token
+    private final Map<String, TokenEmis> tokensEmis = new ConcurrentHashMap<>();
+    
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               @Value("${auth.refresh.duree-glissante-jours:14}") long dureeGlissanteJours,
+                               @Value("${auth.refresh.duree-max-jours:90}") long dureeMaxJours,
+                               @Value("${auth.refresh.cache.taille-max:10000}") int tailleMaxCache) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.dureeGlissante = Duration.ofDays(dureeGlissanteJours);
+        this.dureeMax = Duration.ofDays(dureeMaxJours);
+        this.tailleMaxCache = tailleMaxCache;
+    }
+    
+    /**
+     * Résultat d'un renouvellement: utilisateur du token et nouveau refresh token
+     */
+    public record Rotation(User user, String refreshToken) {}
+    
+    /**
+     * Émet le refresh token d'une nouvelle session (nouvelle famille)
+     */
+    @Transactional
+    public String emettre(User user) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        return emettre(user.getId(), UUID.randomUUID().toString(), maintenant, maintenant.plus(dureeMax));
+    }
+    
+    /**
+     * Échange un refresh token contre un nouveau (rotation dans la même famille)
+     *
+     * @throws InvalidTokenException si le token est inconnu, expiré, déjà utilisé (famille révoquée)
+     *         ou si l'utilisateur n'est plus actif
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public Rotation renouveler(String token) {
+        if (token == null || token.isBlank()) {
+            throw new InvalidTokenException("Refresh token ne peut pas être vide");
+        }
+        String hash = empreinte(token);
+        LocalDateTime maintenant = LocalDateTime.now();
+        
+        TokenEmis emis = tokensEmis.remove(hash);
+        if (emis == null) {
+            emis = refreshTokenRepository.findByTokenHash(hash)
+                    .map(TokenEmis::depuis)
+                    .orElseThrow(() -> new InvalidTokenException("Refresh token invalide"));
+        }
+        
+        if (refreshTokenRepository.consommer(emis.id(), maintenant) == 0) {
+            rejeter(emis, maintenant);
+        }
+        
+        User user = userRepository.findById(emis.userId())
+                .filter(u -> Boolean.TRUE.equals(u.getIsActive()))
+                .orElse(null);
+        if (user == null) {
+            refreshTokenRepository.revoquerFamille(emis.familleId(), maintenant);
+            throw new InvalidTokenException("Utilisateur inactif ou supprimé");
+        }
+        
+        String nouveau = emettre(user.getId(), emis.familleId(), maintenant, emis.familleExpireA());
+        log.debug("Refresh token renouvelé pour {} (famille {})", user.getEmail(), emis.familleId());
+        return new Rotation(user, nouveau);
+    }
+    
+    /**
+     * Révoque toutes les sessions d'un utilisateur (logout)
+     *
+     * @return Nombre de tokens révoqués
+     */
+    @Transactional
+    public int revoquerUtilisateur(String userId) {
+        tokensEmis.values().removeIf(emis -> emis.userId().equals(userId));
+        return refreshTokenRepository.revoquerUtilisateur(userId, LocalDateTime.now());
+    }
+    
+    /**
+     * Supprime les familles terminées et les tokens expirés jamais utilisés
+     */
+    @Scheduled(fixedDelayString = "${auth.refresh.purge-ms:3600000}")
+    @Transactional
+    public void purgerTokensExpires() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        tokensEmis.values().removeIf(emis -> !emis.expireA().isAfter(maintenant));
+        int supprimes = refreshTokenRepository.supprimerExpires(maintenant);
+        if (supprimes > 0) {
+            log.info("{} refresh token(s) expiré(s) supprimé(s)", supprimes);
+        }
+    }
+    
+    // ==================== INTERNE ====================
+    
+    private String emettre(String userId, String familleId, LocalDateTime maintenant, LocalDateTime familleExpireA) {
+        byte[] octets = new byte[OCTETS_TOKEN];
+        RANDOM.nextBytes(octets);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(octets);
+        String hash = empreinte(token);
+        
+        LocalDateTime glissante = maintenant.plus(dureeGlissante);
+        LocalDateTime expireA = glissante.isBefore(familleExpireA) ? glissante : familleExpireA;
+        RefreshToken refreshToken = refreshTokenRepository.save(new RefreshToken(
+                hash, familleId, userRepository.getReferenceById(userId), maintenant, expireA, familleExpireA));
+        mettreEnCache(hash, new TokenEmis(refreshToken.getId(), familleId, userId, expireA, familleExpireA));
+        return token;
+    }
+    
+    /**
+     * Token non consommable: réutilisation (famille révoquée) ou simple expiration
+     */
+    private void rejeter(TokenEmis emis, LocalDateTime maintenant) {
+        RefreshToken stocke = refreshTokenRepository.findById(emis.id())
+                .orElseThrow(() -> new InvalidTokenException("Refresh token invalide"));
+        if (stocke.getUtiliseA() != null || stocke.getRevoqueA() != null) {
+            int revoques = refreshTokenRepository.revoquerFamille(emis.familleId(), maintenant);
+            tokensEmis.values().removeIf(autre -> autre.familleId().equals(emis.familleId()));
+            log.warn("Réutilisation d'un refresh token détectée (famille {}): {} token(s) révoqué(s)",
+                    emis.familleId(), revoques);
+            throw new InvalidTokenException("Refresh token déjà utilisé: session révoquée");
+        }
+        throw new InvalidTokenException("Refresh token expiré");
+    }
+    
+    /**
+     * Ajoute un token émis au cache une fois la transaction validée (un rollback n'y laisse rien)
+     */
+    private void mettreEnCache(String hash, TokenEmis emis) {
+        if (tailleMaxCache <= 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ajouterAuCache(hash, emis);
+                }
+            });
+        } else {
+            ajouterAuCache(hash, emis);
+        }
+    }
+    
+    /**
+     * Ajoute un token au cache; s'il est plein, retire d'abord les tokens expirés,
+     * puis des entrées quelconques (relues en base au besoin) jusqu'à libérer un dixième de la capacité
+     */
+    private void ajouterAuCache(String hash, TokenEmis emis) {
+        if (tokensEmis.size() >= tailleMaxCache) {
+            LocalDateTime maintenant = LocalDateTime.now();
+            tokensEmis.values().removeIf(autre -> !autre.expireA().isAfter(maintenant));
+            Iterator<String> cles = tokensEmis.keySet().iterator();
+            while (tokensEmis.size() > tailleMaxCache - Math.max(tailleMaxCache / 10, 1) && cles.hasNext()) {
+                cles.next();
+                cles.remove();
+            }
+        }
+        tokensEmis.put(hash, emis);
+    }
+    
+    /**
+     * Empreinte SHA-256 (hexadécimale) du token: le token est aléatoire, un hachage lent est inutile
+     */
+    private static String empreinte(String token) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+    
+    private record TokenEmis(Long id, String familleId, String userId,
+                             LocalDateTime expireA, LocalDateTime familleExpireA) {
+        
+        static TokenEmis depuis(RefreshToken token) {
+            return new TokenEmis(token.getId(), token.getFamilleId(), token.getUser().getId(),
+                    token.getExpireA(), token.getFamilleExpireA());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.stockchef.stockchefback.service;
+
+import com.stockchef.stockchefback.model.RevokedToken;
+import com.stockchef.stockchefback.repository.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Révocation des tokens d'accès avant leur expiration (logout), par jti
+ * 
+ * FONCTIONNEMENT:
+ * - Les jti révoqués sont écrits dans revoked_tokens avec l'expiration de leur token
+ * - En mémoire: filtre de Bloom + ensemble exact (jti -> expiration), chargés au démarrage
+ * - Vérification par requête: le filtre de Bloom répond "non révoqué" sans lecture dans la quasi-totalité
+ *   des cas; un positif est confirmé par l'ensemble exact, puis par la base (faux positif ou autre instance)
+ * - Synchronisation périodique des révocations faites par les autres instances
+ * - Les révocations de tokens expirés sont purgées et le filtre reconstruit (un filtre de Bloom ne retire rien)
+ */
+@Service
+public class TokenRevocationService {
+    
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+    
+    // Marge de relecture de la synchronisation (transactions validées après leur horodatage)
+    private static final long MARGE_SYNCHRO_SECONDES = 5;
+    private static final int TAILLE_MAX_FAUX_POSITIFS = 10_000;
+    
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int capacite;
+    private final double tauxFauxPositifs;
+    
+    private volatile BloomFilter filtre;
+    private final Map<String, Instant> revoques = new ConcurrentHashMap<>();
+    // Positifs du filtre infirmés par la base, vidés à chaque synchronisation
+    private final Set<String> fauxPositifs = ConcurrentHashMap.newKeySet();
+    private volatile LocalDateTime derniereSynchro = LocalDateTime.now();
+    
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${auth.revocation.bloom.capacite:100000}") int capacite,
+                                  @Value("${auth.revocation.bloom.taux-faux-positifs:0.001}") double tauxFauxPositifs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.capacite = capacite;
+        this.tauxFauxPositifs = tauxFauxPositifs;
+        this.filtre = new BloomFilter(capacite, tauxFauxPositifs);
+    }
+    
+    /**
+     * Vrai si le token portant ce jti a été révoqué (null: token sans jti, non révocable)
+     */
+    public boolean estRevoque(String jti) {
+        if (jti == null || !filtre.peutContenir(jti)) {
+            return false;
+        }
+        if (revoques.containsKey(jti)) {
+            return true;
+        }
+        if (fauxPositifs.contains(jti)) {
+            return false;
+        }
+        RevokedToken revoque = revokedTokenRepository.findById(jti).orElse(null);
+        if (revoque != null) {
+            revoques.put(jti, versInstant(revoque.getExpireA()));
+            return true;
+        }
+        if (fauxPositifs.size() >= TAILLE_MAX_FAUX_POSITIFS) {
+            fauxPositifs.clear();
+        }
+        fauxPositifs.add(jti);
+        return false;
+    }
+    
+    /**
+     * Révoque un token d'accès jusqu'à son expiration
+     */
+    @Transactional
+    public void revoquer(JwtPrincipal principal) {
+        if (principal.jti() == null) {
+            log.warn("Token sans jti pour {}: révocation impossible, il expirera le {}",
+                    principal.email(), principal.expiration());
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(principal.jti(), principal.email(),
+                LocalDateTime.ofInstant(principal.expiration(), ZoneId.systemDefault()), LocalDateTime.now()));
+        ajouter(principal.jti(), principal.expiration());
+        log.info("Token {} de {} révoqué jusqu'au {}", principal.jti(), principal.email(), principal.expiration());
+    }
+    
+    /**
+     * Recharge toutes les révocations actives et reconstruit le filtre (démarrage, après purge)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruire() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<RevokedToken> actifs = revokedTokenRepository.findActifs(maintenant);
+        Instant instant = Instant.now();
+        revoques.values().removeIf(expiration -> !expiration.isAfter(instant));
+        actifs.forEach(t -> revoques.put(t.getJti(), versInstant(t.getExpireA())));
+        
+        BloomFilter nouveau = new BloomFilter(Math.max(capacite, revoques.size()), tauxFauxPositifs);
+        revoques.keySet().forEach(nouveau::ajouter);
+        filtre = nouveau;
+        // Une révocation locale pendant la reconstruction est dans revoques: la rajouter au nouveau filtre
+        revoques.keySet().forEach(nouveau::ajouter);
+        fauxPositifs.clear();
+        derniereSynchro = maintenant;
+        
+        if (revoques.size() > capacite) {
+            log.warn("{} tokens révoqués actifs pour une capacité de {}: augmenter auth.revocation.bloom.capacite",
+                    revoques.size(), capacite);
+        }
+        log.debug("Filtre de révocation reconstruit: {} token(s) révoqué(s) actif(s)", revoques.size());
+    }
+    
+    /**
+     * Ajoute les révocations faites depuis la dernière synchronisation (toutes instances)
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.synchro-ms:30000}")
+    @Transactional(readOnly = true)
+    public void synchroniser() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        revokedTokenRepository.findRevoquesDepuis(derniereSynchro.minusSeconds(MARGE_SYNCHRO_SECONDES), maintenant)
+                .forEach(t -> ajouter(t.getJti(), versInstant(t.getExpireA())));
+        fauxPositifs.clear();
+        derniereSynchro = maintenant;
+    }
+    
+    /**
+     * Purge les révocations de tokens expirés, puis reconstruit le filtre
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.purge-ms:3600000}")
+    @Transactional
+    public void purgerRevocationsExpirees() {
+        int supprimees = revokedTokenRepository.supprimerExpires(LocalDateTime.now());
+        if (supprimees > 0) {
+            log.info("{} révocation(s) de tokens expirés supprimée(s)", supprimees);
+        }
+        reconstruire();
+    }
+    
+    // ==================== INTERNE ====================
+    
+    private void ajouter(String jti, Instant expiration) {
+        revoques.put(jti, expiration);
+        filtre.ajouter(jti);
+        fauxPositifs.remove(jti);
+    }
+    
+    private static Instant versInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
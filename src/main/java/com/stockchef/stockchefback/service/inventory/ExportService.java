@@ -0,0 +1,177 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockchef.stockchefback.dto.inventory.ProduitExportLigne;
+import com.stockchef.stockchefback.dto.inventory.StockMovementExportLigne;
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Service d'export de l'inventaire et des mouvements de stock (CSV ou NDJSON)
+ *
+ * Les lignes sont lues en flux (projections, curseur à fetch size borné) et écrites au fur et à mesure:
+ * aucune entité n'est chargée et la mémoire utilisée ne dépend pas du nombre de lignes.
+ * Le flux doit être consommé dans la transaction en lecture seule de l'export.
+ */
+@Service
+public class ExportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+    
+    private static final String[] ENTETE_PRODUITS = {
+        "id", "nom", "quantiteStock", "unite", "prixUnitaire", "seuilAlerte",
+        "datePeremption", "dateEntree", "lastModified"
+    };
+    private static final String[] ENTETE_MOUVEMENTS = {
+        "id", "dateMouvement", "produitId", "produitNom", "typeMouvement", "quantite", "unite",
+        "quantiteApres", "motif", "menuId", "utilisateur"
+    };
+    
+    /**
+     * Formats d'export
+     */
+    public enum FormatExport {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+        
+        private final String contentType;
+        private final String extension;
+        
+        FormatExport(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+        
+        /**
+         * @throws IllegalArgumentException si le format est inconnu
+         */
+        public static FormatExport depuis(String format) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Format d'export non supporté: " + format + " (csv ou ndjson)");
+            }
+        }
+    }
+    
+    private final ProduitRepository produitRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final ObjectMapper objectMapper;
+    
+    public ExportService(ProduitRepository produitRepository,
+                         StockMovementRepository stockMovementRepository,
+                         ObjectMapper objectMapper) {
+        this.produitRepository = produitRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Exporte les produits actifs
+     *
+     * @return Nombre de lignes écrites
+     */
+    @Transactional(readOnly = true)
+    public long exporterProduits(FormatExport format, Writer writer) throws IOException {
+        try (Stream<ProduitExportLigne> lignes = produitRepository.streamPourExport()) {
+            long nombre = ecrire(lignes, format, ENTETE_PRODUITS, p -> new Object[] {
+                p.id(), p.nom(), p.quantiteStock(), p.unite(), p.prixUnitaire(), p.seuilAlerte(),
+                p.datePeremption(), p.dateEntree(), p.lastModified()
+            }, writer);
+            log.info("Export {} de l'inventaire: {} produit(s)", format, nombre);
+            return nombre;
+        }
+    }
+    
+    /**
+     * Exporte les mouvements de [debut, fin[, filtrés par produit, type et utilisateur (null = tous)
+     *
+     * @return Nombre de lignes écrites
+     */
+    @Transactional(readOnly = true)
+    public long exporterMouvements(FormatExport format, LocalDateTime debut, LocalDateTime fin,
+                                   Long produitId, TypeMouvement type, String utilisateur,
+                                   Writer writer) throws IOException {
+        if (!debut.isBefore(fin)) {
+            throw new IllegalArgumentException("La date de début doit précéder la date de fin");
+        }
+        try (Stream<StockMovementExportLigne> lignes = stockMovementRepository.streamPourExport(
+                debut, fin, produitId, type, utilisateur)) {
+            long nombre = ecrire(lignes, format, ENTETE_MOUVEMENTS, m -> new Object[] {
+                m.id(), m.dateMouvement(), m.produitId(), m.produitNom(), m.typeMouvement(), m.quantite(),
+                m.unite(), m.quantiteApres(), m.motif(), m.menuId(), m.utilisateur()
+            }, writer);
+            log.info("Export {} des mouvements du {} au {}: {} ligne(s)", format, debut, fin, nombre);
+            return nombre;
+        }
+    }
+    
+    private <T> long ecrire(Stream<T> lignes, FormatExport format, String[] entete,
+                            Function<T, Object[]> colonnes, Writer writer) throws IOException {
+        if (format == FormatExport.CSV) {
+            writer.write(String.join(",", entete));
+            writer.write("\r\n");
+        }
+        
+        long nombre = 0;
+        Iterator<T> iterator = lignes.iterator();
+        while (iterator.hasNext()) {
+            T ligne = iterator.next();
+            if (format == FormatExport.CSV) {
+                ecrireCsv(colonnes.apply(ligne), writer);
+            } else {
+                writer.write(objectMapper.writeValueAsString(ligne));
+                writer.write('\n');
+            }
+            nombre++;
+        }
+        writer.flush();
+        return nombre;
+    }
+    
+    private void ecrireCsv(Object[] valeurs, Writer writer) throws IOException {
+        for (int i = 0; i < valeurs.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(echapperCsv(valeurs[i]));
+        }
+        writer.write("\r\n");
+    }
+    
+    /**
+     * Valeur CSV (RFC 4180): guillemets si la valeur contient séparateur, guillemet ou saut de ligne
+     */
+    private String echapperCsv(Object valeur) {
+        if (valeur == null) {
+            return "";
+        }
+        String texte = valeur instanceof BigDecimal nombre ? nombre.toPlainString() : valeur.toString();
+        if (texte.indexOf(',') >= 0 || texte.indexOf('"') >= 0 || texte.indexOf('\n') >= 0 || texte.indexOf('\r') >= 0) {
+            return '"' + texte.replace("\"", "\"\"") + '"';
+        }
+        return texte;
+    }
+}
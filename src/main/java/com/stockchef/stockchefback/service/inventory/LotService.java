@@ -0,0 +1,157 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import com.stockchef.stockchefback.model.inventory.Lot;
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.Quantite;
+import com.stockchef.stockchefback.repository.inventory.LotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Service de gestion des lots de stock (traçabilité des péremptions)
+ *
+ * FONCTIONNEMENT:
+ * - Chaque entrée crée un lot avec sa propre date de péremption
+ * - Chaque sortie consomme les lots par péremption croissante, dans la même transaction
+ * - Appelé après la mise à jour (verrouillée) de Produit.quantiteStock: le verrou de ligne
+ *   du produit sérialise déjà les écritures sur ses lots
+ * - Le stock antérieur aux lots (ou écrit hors de ce service) est rattrapé par un lot
+ *   d'ouverture portant la date de péremption du produit
+ * - Produit.datePeremption suit la péremption la plus proche des lots actifs
+ */
+@Service
+@Transactional
+public class LotService {
+    
+    private static final Logger log = LoggerFactory.getLogger(LotService.class);
+    
+    private final LotRepository lotRepository;
+    
+    public LotService(LotRepository lotRepository) {
+        this.lotRepository = lotRepository;
+    }
+    
+    // ==================== LECTURE ====================
+    
+    /**
+     * Lots non épuisés d'un produit, dans l'ordre de consommation
+     */
+    @Transactional(readOnly = true)
+    public List<Lot> getLotsActifs(Long produitId) {
+        return lotRepository.findLotsActifs(produitId);
+    }
+    
+    // ==================== ÉCRITURE ====================
+    
+    /**
+     * Crée le lot d'une entrée de stock
+     *
+     * @param stockAvant Quantité en stock avant l'entrée, pour rattraper le stock non loti
+     */
+    public Lot creerLot(Produit produit, BigDecimal quantite, LocalDate datePeremption, BigDecimal stockAvant) {
+        List<Lot> lots = new ArrayList<>(lotRepository.findLotsActifs(produit.getId()));
+        rattraperStockNonLoti(produit, lots, Quantite.versMilliArrondi(stockAvant));
+        
+        Lot lot = lotRepository.save(new Lot(produit, Quantite.versMilliArrondi(quantite), datePeremption));
+        lots.add(lot);
+        mettreAJourDatePeremption(produit, lots);
+        
+        log.debug("Lot {} créé pour le produit {}: {} {} (péremption {})",
+                lot.getId(), produit.getId(), quantite, produit.getUnite(), datePeremption);
+        return lot;
+    }
+    
+    /**
+     * Consomme une sortie de stock sur les lots d'un produit (péremption la plus proche d'abord)
+     *
+     * @param stockAvant Quantité en stock avant la sortie
+     */
+    public void consommer(Produit produit, BigDecimal quantite, BigDecimal stockAvant) {
+        consommer(Map.of(produit.getId(), produit),
+                Map.of(produit.getId(), Quantite.versMilliArrondi(quantite)),
+                Map.of(produit.getId(), Quantite.versMilliArrondi(stockAvant)));
+    }
+    
+    /**
+     * Consomme les sorties de plusieurs produits en une seule lecture des lots
+     *
+     * @param produits Produits concernés, par ID
+     * @param quantitesMilli Quantité sortie par produit (millièmes)
+     * @param stocksAvantMilli Stock avant la sortie par produit (millièmes)
+     */
+    public void consommer(Map<Long, Produit> produits, Map<Long, Long> quantitesMilli, Map<Long, Long> stocksAvantMilli) {
+        if (quantitesMilli.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, List<Lot>> lotsParProduit = new HashMap<>();
+        for (Lot lot : lotRepository.findLotsActifsParProduits(quantitesMilli.keySet())) {
+            lotsParProduit.computeIfAbsent(lot.getProduit().getId(), id -> new ArrayList<>()).add(lot);
+        }
+        
+        quantitesMilli.forEach((produitId, quantite) -> {
+            Produit produit = produits.get(produitId);
+            List<Lot> lots = lotsParProduit.computeIfAbsent(produitId, id -> new ArrayList<>());
+            rattraperStockNonLoti(produit, lots, stocksAvantMilli.getOrDefault(produitId, 0L));
+            
+            long restant = quantite;
+            for (Lot lot : lots) {
+                if (restant <= 0) {
+                    break;
+                }
+                restant -= lot.consommer(restant);
+            }
+            if (restant > 0) {
+                log.warn("Lots du produit {} insuffisants pour la sortie: {} non tracé(s)",
+                        produitId, Quantite.versBigDecimal(restant));
+            }
+            mettreAJourDatePeremption(produit, lots);
+        });
+    }
+    
+    // ==================== INTERNE ====================
+    
+    /**
+     * Crée un lot d'ouverture pour la part du stock non couverte par des lots
+     * (stock antérieur aux lots ou écrit hors de ce service), puis trie les lots dans l'ordre de consommation
+     */
+    private void rattraperStockNonLoti(Produit produit, List<Lot> lots, long stockAvantMilli) {
+        long couvert = lots.stream().mapToLong(Lot::getQuantiteRestanteMilli).sum();
+        if (stockAvantMilli > couvert) {
+            Lot ouverture = lotRepository.save(new Lot(produit, stockAvantMilli - couvert, produit.getDatePeremption()));
+            lots.add(ouverture);
+            log.debug("Lot d'ouverture {} créé pour le produit {}: {}",
+                    ouverture.getId(), produit.getId(), ouverture.getQuantiteRestante());
+        }
+        lots.sort(Lot.ORDRE_CONSOMMATION);
+    }
+    
+    /**
+     * Produit.datePeremption = péremption la plus proche des lots encore actifs
+     * Inchangée si tous les lots sont épuisés
+     */
+    private void mettreAJourDatePeremption(Produit produit, List<Lot> lots) {
+        List<Lot> actifs = lots.stream().filter(lot -> !lot.isEpuise()).toList();
+        if (actifs.isEmpty()) {
+            return;
+        }
+        LocalDate plusProche = actifs.stream()
+                .map(Lot::getDatePeremption)
+                .filter(Objects::nonNull)
+                .min(LocalDate::compareTo)
+                .orElse(null);
+        if (!Objects.equals(plusProche, produit.getDatePeremption())) {
+            produit.setDatePeremption(plusProche);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import java.util.Set;
+
+/**
+ * Événement publié lorsque des mouvements de stock sont enregistrés (entrées, sorties, menus)
+ */
+public record MouvementsStockEnregistresEvent(
+    Set<Long> produitIds
+) {}
@@ -0,0 +1,12 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import java.math.BigDecimal;
+
+/**
+ * Événement publié lorsque le prix unitaire d'un produit change
+ */
+public record PrixProduitModifieEvent(
+    Long produitId,
+    BigDecimal ancienPrix,
+    BigDecimal nouveauPrix
+) {}
@@ -0,0 +1,8 @@
+package com.stockchef.stockchefback.service.inventory;
+
+/**
+ * Événement publié lorsqu'un produit est créé, modifié ou supprimé
+ */
+public record ProduitModifieEvent(
+    Long produitId
+) {}
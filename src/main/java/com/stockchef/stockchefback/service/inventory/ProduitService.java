@@ -3,17 +3,31 @@
 import com.stockchef.stockchefback.dto.inventory.*;
 import com.stockchef.stockchefback.model.inventory.Produit;
 import com.stockchef.stockchefback.model.inventory.StockMovement;
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
 import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
 import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
+import com.stockchef.stockchefback.repository.inventory.StockSnapshotRepository;
+import jakarta.persistence.criteria.Predicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -26,16 +40,30 @@ public class ProduitService {
     
     private static final Logger log = LoggerFactory.getLogger(ProduitService.class);
     
+    static final int TAILLE_MAX_PAGE_MOUVEMENTS = 200;
+    
+    // Ordre de pagination des mouvements: couvert par les index (..., date_mouvement, id)
+    private static final Sort ORDRE_MOUVEMENTS = Sort.by(Sort.Direction.DESC, "dateMouvement", "id");
+    
     private final ProduitRepository produitRepository;
     private final StockMovementRepository stockMovementRepository;
+    private final StockSnapshotRepository stockSnapshotRepository;
     private final StockService stockService;
+    private final LotService lotService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public ProduitService(ProduitRepository produitRepository,
                          StockMovementRepository stockMovementRepository,
-                         StockService stockService) {
+                         StockSnapshotRepository stockSnapshotRepository,
+                         StockService stockService,
+                         LotService lotService,
+                         ApplicationEventPublisher eventPublisher) {
         this.produitRepository = produitRepository;
         this.stockMovementRepository = stockMovementRepository;
+        this.stockSnapshotRepository = stockSnapshotRepository;
         this.stockService = stockService;
+        this.lotService = lotService;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -55,6 +83,12 @@ public ProduitResponse createProduit(ProduitCreateRequest request) {
         if (request.datePeremption() != null) {
             produit.setDatePeremption(request.datePeremption());
         }
+        if (request.densite() != null) {
+            produit.setDensite(request.densite());
+        }
+        if (request.poidsPieceGrammes() != null) {
+            produit.setPoidsPieceGrammes(request.poidsPieceGrammes());
+        }
         
         // Sauvegarder le produit (avec la quantité initiale déjà dans l'entité)
         Produit saved = produitRepository.save(produit);
@@ -68,6 +102,7 @@ public ProduitResponse createProduit(ProduitCreateRequest request) {
             );
         }
         
+        eventPublisher.publishEvent(new ProduitModifieEvent(saved.getId()));
         log.info("Produit créé avec succès - ID: {}", saved.getId());
         return mapToProduitResponse(saved);
     }
@@ -112,6 +147,7 @@ public ProduitResponse updateProduit(Long id, ProduitUpdateRequest request) {
         if (request.nom() != null && !request.nom().trim().isEmpty()) {
             produit.setNom(request.nom());
         }
+        BigDecimal ancienPrix = produit.getPrixUnitaire();
         if (request.prixUnitaire() != null) {
             produit.setPrixUnitaire(request.prixUnitaire());
         }
@@ -121,10 +157,22 @@ public ProduitResponse updateProduit(Long id, ProduitUpdateRequest request) {
         if (request.datePeremption() != null) {
             produit.setDatePeremption(request.datePeremption());
         }
+        if (request.densite() != null) {
+            produit.setDensite(request.densite());
+        }
+        if (request.poidsPieceGrammes() != null) {
+            produit.setPoidsPieceGrammes(request.poidsPieceGrammes());
+        }
         
         Produit updated = produitRepository.save(produit);
         log.info("Produit mis à jour avec succès - ID: {}", id);
         
+        // Les coûts des menus utilisant ce produit sont recalculés de façon différée
+        if (ancienPrix.compareTo(updated.getPrixUnitaire()) != 0) {
+            eventPublisher.publishEvent(new PrixProduitModifieEvent(id, ancienPrix, updated.getPrixUnitaire()));
+        }
+        eventPublisher.publishEvent(new ProduitModifieEvent(id));
+        
         return mapToProduitResponse(updated);
     }
     
@@ -161,12 +209,29 @@ public ProduitResponse entreeStock(Long id, StockMovementRequest request) {
         log.info("Entrée de stock - Produit ID: {}, Quantité: {}", id, request.quantite());
         
         // Utiliser StockService pour la logique métier
-        stockService.incrementerStock(id, request.quantite(), request.motif());
+        stockService.incrementerStock(id, request.quantite(), request.motif(), request.datePeremption());
         
         Produit produit = findProduitById(id);
         return mapToProduitResponse(produit);
     }
     
+    /**
+     * Application d'un lot de mouvements (livraison, fin de service) en une transaction
+     */
+    public StockMovementBatchResponse appliquerMouvementsEnLot(StockMovementBatchRequest request) {
+        log.info("Lot de mouvements de stock - {} lignes", request.lignes().size());
+        
+        List<StockMovementBatchLineResult> resultats = stockService.appliquerMouvementsEnLot(request.lignes());
+        int lignesAppliquees = (int) resultats.stream().filter(StockMovementBatchLineResult::applique).count();
+        
+        return new StockMovementBatchResponse(
+            resultats.size(),
+            lignesAppliquees,
+            resultats.size() - lignesAppliquees,
+            resultats
+        );
+    }
+    
     /**
      * Suppression d'un produit (soft delete)
      */
@@ -176,6 +241,7 @@ public void deleteProduit(Long id) {
         Produit produit = findProduitById(id);
         produit.setDeleted(true);
         produitRepository.save(produit);
+        eventPublisher.publishEvent(new ProduitModifieEvent(id));
         
         log.info("Produit supprimé avec succès - ID: {}", id);
     }
@@ -210,6 +276,102 @@ public List<ProduitResponse> searchProduitsByNom(String nom) {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Recherche de mouvements, du plus récent au plus ancien, paginée par curseur (dateMouvement, id)
+     * Filtres optionnels (null = tous); la page suivante reprend après le dernier mouvement rendu,
+     * sans OFFSET: coût constant quelle que soit la profondeur
+     *
+     * @param curseur Curseur rendu par la page précédente (null pour la première page)
+     * @throws IllegalArgumentException si le curseur ou la taille sont invalides
+     */
+    @Transactional(readOnly = true)
+    public StockMovementSearchResponse rechercherMouvements(Long produitId, TypeMouvement type, String utilisateur,
+                                                           Long menuId, LocalDate debut, LocalDate fin,
+                                                           String curseur, int taille) {
+        if (taille < 1 || taille > TAILLE_MAX_PAGE_MOUVEMENTS) {
+            throw new IllegalArgumentException("La taille de page doit être comprise entre 1 et " + TAILLE_MAX_PAGE_MOUVEMENTS);
+        }
+        
+        Specification<StockMovement> criteres = (root, query, cb) -> {
+            // Produit chargé avec le mouvement (nom dans la réponse)
+            if (query.getResultType() != Long.class) {
+                root.fetch("produit");
+            }
+            List<Predicate> predicats = new ArrayList<>();
+            if (produitId != null) {
+                predicats.add(cb.equal(root.get("produit").get("id"), produitId));
+            }
+            if (type != null) {
+                predicats.add(cb.equal(root.get("typeMouvement"), type));
+            }
+            if (utilisateur != null) {
+                predicats.add(cb.equal(root.get("utilisateur"), utilisateur));
+            }
+            if (menuId != null) {
+                predicats.add(cb.equal(root.get("menuId"), menuId));
+            }
+            if (debut != null) {
+                predicats.add(cb.greaterThanOrEqualTo(root.get("dateMouvement"), debut.atStartOfDay()));
+            }
+            if (fin != null) {
+                predicats.add(cb.lessThan(root.get("dateMouvement"), fin.plusDays(1).atStartOfDay()));
+            }
+            return cb.and(predicats.toArray(Predicate[]::new));
+        };
+        
+        ScrollPosition position = curseur == null ? ScrollPosition.keyset() : decoderCurseur(curseur);
+        Window<StockMovement> page = stockMovementRepository.findBy(criteres, q -> q
+                .sortBy(ORDRE_MOUVEMENTS)
+                .limit(taille)
+                .scroll(position));
+        
+        List<StockMovementResponse> mouvements = page.getContent().stream()
+                .map(this::mapToStockMovementResponse)
+                .toList();
+        String curseurSuivant = page.hasNext() ? encoderCurseur(page.getContent().get(page.size() - 1)) : null;
+        return new StockMovementSearchResponse(mouvements, curseurSuivant);
+    }
+    
+    /**
+     * Stock d'un produit à un instant passé (solde du dernier mouvement à cet instant ou avant)
+     *
+     * @throws IllegalArgumentException si le produit n'existe pas
+     */
+    @Transactional(readOnly = true)
+    public StockAtResponse getStockAInstant(Long produitId, LocalDateTime instant) {
+        return stockMovementRepository.findStockAInstant(produitId, instant)
+                .orElseThrow(() -> new IllegalArgumentException("Produit non trouvé avec l'ID: " + produitId));
+    }
+    
+    /**
+     * Valorisation du stock de tous les produits à un instant passé, en une requête
+     */
+    @Transactional(readOnly = true)
+    public StockValuationResponse getValorisationStockAInstant(LocalDateTime instant) {
+        List<StockAtResponse> stocks = stockMovementRepository.findStocksAInstant(instant);
+        BigDecimal valeurTotale = stocks.stream()
+                .map(StockAtResponse::valeur)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new StockValuationResponse(instant, stocks, valeurTotale);
+    }
+    
+    /**
+     * Valorisation du stock à la clôture d'un jour
+     * Lue depuis la photo de fin de journée si elle existe (valeur au prix du jour),
+     * sinon calculée depuis les mouvements (valeur au prix actuel)
+     */
+    @Transactional(readOnly = true)
+    public StockValuationResponse getValorisationStockFinDeJour(LocalDate jour) {
+        if (!stockSnapshotRepository.existsByJour(jour)) {
+            return getValorisationStockAInstant(StockSnapshotService.clotureDuJour(jour));
+        }
+        List<StockAtResponse> stocks = stockSnapshotRepository.findStocksDuJour(jour);
+        BigDecimal valeurTotale = stocks.stream()
+                .map(StockAtResponse::valeur)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new StockValuationResponse(StockSnapshotService.clotureDuJour(jour), stocks, valeurTotale);
+    }
+    
     /**
      * Historique des mouvements de stock
      */
@@ -221,6 +383,18 @@ public List<StockMovementResponse> getStockMovements(Long produitId) {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Lots actifs d'un produit, dans l'ordre de consommation (péremption la plus proche d'abord)
+     */
+    @Transactional(readOnly = true)
+    public List<LotResponse> getLotsActifs(Long produitId) {
+        findProduitById(produitId);
+        return lotService.getLotsActifs(produitId).stream()
+                .map(lot -> new LotResponse(lot.getId(), lot.getQuantiteInitiale(), lot.getQuantiteRestante(),
+                        lot.getDatePeremption(), lot.getDateEntree(), lot.isExpire()))
+                .collect(Collectors.toList());
+    }
+    
     // Helper methods
     
     private Produit findProduitById(Long id) {
@@ -241,10 +415,31 @@ private ProduitResponse mapToProduitResponse(Produit produit) {
             produit.getLastModified(),
             produit.isUnderAlertThreshold(),
             produit.isExpired(),
-            null // description - à ajouter plus tard
+            null, // description - à ajouter plus tard
+            produit.getDensite(),
+            produit.getPoidsPieceGrammes()
         );
     }
     
+    /**
+     * Curseur opaque: position (dateMouvement, id) du dernier mouvement rendu
+     */
+    private String encoderCurseur(StockMovement dernier) {
+        String position = dernier.getDateMouvement() + "|" + dernier.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private ScrollPosition decoderCurseur(String curseur) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(curseur), StandardCharsets.UTF_8).split("\\|");
+            return ScrollPosition.forward(Map.of(
+                    "dateMouvement", LocalDateTime.parse(position[0]),
+                    "id", Long.valueOf(position[1])));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+    
     private StockMovementResponse mapToStockMovementResponse(StockMovement movement) {
         return new StockMovementResponse(
             movement.getId(),
@@ -0,0 +1,304 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.Quantite;
+import com.stockchef.stockchefback.model.inventory.ReservationStock;
+import com.stockchef.stockchefback.repository.inventory.ReservationStockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Registre des réservations de stock (blocages souples des menus en brouillon)
+ * 
+ * FONCTIONNEMENT:
+ * - Chaque ingrédient d'un menu en brouillon réserve sa quantité sans décrémenter le stock
+ * - Disponible à promettre = quantiteStock - réservations actives
+ * - Agrégat par produit en mémoire (lecture O(1)), adossé à la table reservations_stock
+ * - Les variations non encore validées sont comptées à part et annulées en cas de rollback
+ * - Les réservations expirent (TTL ou date de service passée): l'agrégat garde leurs échéances
+ *   et retire une réservation dès son expiration, à la lecture suivante
+ * - Les lignes expirées sont purgées périodiquement, la purge resynchronisant l'agrégat avec la table
+ */
+@Service
+@Transactional
+public class ReservationStockService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReservationStockService.class);
+    
+    private final ReservationStockRepository reservationStockRepository;
+    private final long dureeReservationHeures;
+    
+    // Réservations validées par produit, en millièmes d'unité
+    private final Map<Long, Long> reservesParProduit = new ConcurrentHashMap<>();
+    // Variations des transactions en cours par produit, en millièmes d'unité
+    private final Map<Long, Long> variationsEnCours = new ConcurrentHashMap<>();
+    // Variations à appliquer aux réservations validées à chaque date d'expiration, par produit (sous verrou)
+    private final NavigableMap<LocalDateTime, Map<Long, Long>> echeances = new TreeMap<>();
+    private volatile LocalDateTime prochaineEcheance = LocalDateTime.MAX;
+    private final Object verrou = new Object();
+    // Tenu en lecture par une transaction du commit jusqu'à l'intégration de ses variations,
+    // en écriture par la synchronisation: la table relue et l'agrégat reflètent les mêmes commits
+    private final ReentrantReadWriteLock verrouCommits = new ReentrantReadWriteLock();
+    private volatile boolean charge = false;
+    
+    public ReservationStockService(ReservationStockRepository reservationStockRepository,
+                                   @Value("${reservation.stock.ttl-heures:72}") long dureeReservationHeures) {
+        this.reservationStockRepository = reservationStockRepository;
+        this.dureeReservationHeures = dureeReservationHeures;
+    }
+    
+    // ==================== LECTURE ====================
+    
+    /**
+     * Quantité réservée (active) pour un produit
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getQuantiteReservee(Long produitId) {
+        assurerCharge();
+        appliquerEcheances(LocalDateTime.now());
+        long reserve = reservesParProduit.getOrDefault(produitId, 0L)
+                + variationsEnCours.getOrDefault(produitId, 0L);
+        return reserve > 0 ? Quantite.versBigDecimal(reserve) : BigDecimal.ZERO;
+    }
+    
+    /**
+     * Disponible à promettre: stock physique moins les réservations actives
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getDisponibleAPromettre(Produit produit) {
+        return produit.getQuantiteStock().subtract(getQuantiteReservee(produit.getId()));
+    }
+    
+    /**
+     * Disponible à promettre pour un menu: ses propres réservations ne le bloquent pas
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getDisponiblePourMenu(Produit produit, BigDecimal reserveParLeMenu) {
+        return getDisponibleAPromettre(produit).add(reserveParLeMenu);
+    }
+    
+    /**
+     * Réservations actives des menus donnés, par menu puis par produit
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Map<Long, BigDecimal>> getReservationsParMenu(Collection<Long> menuIds) {
+        Map<Long, Map<Long, BigDecimal>> reservations = new HashMap<>();
+        if (menuIds.isEmpty()) {
+            return reservations;
+        }
+        for (Object[] ligne : reservationStockRepository.sommerReservationsActivesParMenu(menuIds, LocalDateTime.now())) {
+            reservations.computeIfAbsent((Long) ligne[0], id -> new HashMap<>())
+                    .put((Long) ligne[1], (BigDecimal) ligne[2]);
+        }
+        return reservations;
+    }
+    
+    // ==================== ÉCRITURE ====================
+    
+    /**
+     * Réserve une quantité (unité de stock) d'un produit pour un menu en brouillon
+     * La réservation expire après le TTL, ou au lendemain de la date de service si elle est plus proche
+     */
+    public ReservationStock reserver(Produit produit, Long menuId, BigDecimal quantite, LocalDate dateService) {
+        // Charger l'agrégat avant l'insertion, pour ne pas compter deux fois la nouvelle ligne
+        assurerCharge();
+        
+        LocalDateTime expiration = LocalDateTime.now().plusHours(dureeReservationHeures);
+        if (dateService != null && dateService.plusDays(1).atStartOfDay().isBefore(expiration)) {
+            expiration = dateService.plusDays(1).atStartOfDay();
+        }
+        
+        // Même échelle que la colonne
+        quantite = quantite.setScale(Quantite.ECHELLE, RoundingMode.HALF_UP);
+        ReservationStock reservation = reservationStockRepository.save(
+                new ReservationStock(produit, menuId, quantite, expiration));
+        appliquerVariation(produit.getId(), quantite, expiration);
+        
+        log.debug("Réservation {} {} du produit {} pour le menu {} (expire {})", 
+                quantite, produit.getUnite(), produit.getId(), menuId, expiration);
+        return reservation;
+    }
+    
+    /**
+     * Libère toutes les réservations d'un menu (annulation, suppression ou confirmation)
+     */
+    public void libererPourMenu(Long menuId) {
+        liberer(reservationStockRepository.findByMenuId(menuId));
+    }
+    
+    /**
+     * Libère en une requête les réservations de plusieurs menus (confirmation par date)
+     */
+    public void libererPourMenus(Collection<Long> menuIds) {
+        if (!menuIds.isEmpty()) {
+            liberer(reservationStockRepository.findByMenuIdIn(menuIds));
+        }
+    }
+    
+    /**
+     * Libère les réservations d'un menu pour un produit (retrait d'un ingrédient)
+     */
+    public void libererPourIngredient(Long menuId, Long produitId) {
+        liberer(reservationStockRepository.findByMenuIdAndProduitId(menuId, produitId));
+    }
+    
+    private void liberer(List<ReservationStock> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        assurerCharge();
+        reservationStockRepository.deleteAllInBatch(reservations);
+        
+        // Une réservation déjà expirée est (ou sera à la prochaine lecture) retirée par son échéance
+        LocalDateTime maintenant = LocalDateTime.now();
+        for (ReservationStock reservation : reservations) {
+            if (reservation.getDateExpiration().isAfter(maintenant)) {
+                appliquerVariation(reservation.getProduit().getId(), reservation.getQuantite().negate(),
+                        reservation.getDateExpiration());
+            }
+        }
+        log.debug("{} réservation(s) libérée(s)", reservations.size());
+    }
+    
+    // ==================== EXPIRATION ====================
+    
+    /**
+     * Supprime les réservations expirées et resynchronise l'agrégat en mémoire
+     */
+    @Scheduled(fixedDelayString = "${reservation.stock.purge-ms:60000}")
+    public void purgerReservationsExpirees() {
+        int supprimees = reservationStockRepository.supprimerReservationsExpirees(LocalDateTime.now());
+        if (supprimees > 0) {
+            log.info("{} réservation(s) de stock expirée(s) supprimée(s)", supprimees);
+        }
+        synchroniser();
+    }
+    
+    /**
+     * Reconstruit l'agrégat des réservations validées et leurs échéances depuis la table
+     */
+    public void synchroniser() {
+        verrouCommits.writeLock().lock();
+        try {
+            synchronized (verrou) {
+                LocalDateTime maintenant = LocalDateTime.now();
+                Map<Long, Long> sommes = new HashMap<>();
+                echeances.clear();
+                for (Object[] ligne : reservationStockRepository.sommerReservationsActivesParProduitEtExpiration(maintenant)) {
+                    long reserve = Quantite.versMilli((BigDecimal) ligne[2]);
+                    sommes.merge((Long) ligne[0], reserve, Long::sum);
+                    ajouterEcheance((LocalDateTime) ligne[1], (Long) ligne[0], -reserve);
+                }
+                reservesParProduit.clear();
+                reservesParProduit.putAll(sommes);
+                charge = true;
+            }
+        } finally {
+            verrouCommits.writeLock().unlock();
+        }
+    }
+    
+    private void assurerCharge() {
+        if (!charge) {
+            synchroniser();
+        }
+    }
+    
+    /**
+     * Retire de l'agrégat les réservations dont la date d'expiration est atteinte
+     */
+    private void appliquerEcheances(LocalDateTime maintenant) {
+        if (maintenant.isBefore(prochaineEcheance)) {
+            return;
+        }
+        synchronized (verrou) {
+            while (!echeances.isEmpty() && !echeances.firstKey().isAfter(maintenant)) {
+                echeances.pollFirstEntry().getValue()
+                        .forEach((produitId, variation) -> reservesParProduit.merge(produitId, variation, Long::sum));
+            }
+            prochaineEcheance = echeances.isEmpty() ? LocalDateTime.MAX : echeances.firstKey();
+        }
+    }
+    
+    /**
+     * Enregistre une variation à appliquer à l'expiration (appelé sous verrou)
+     */
+    private void ajouterEcheance(LocalDateTime expiration, Long produitId, long variation) {
+        echeances.computeIfAbsent(expiration, date -> new HashMap<>()).merge(produitId, variation, Long::sum);
+        if (expiration.isBefore(prochaineEcheance)) {
+            prochaineEcheance = expiration;
+        }
+    }
+    
+    /**
+     * Intègre une variation aux réservations validées, avec sa compensation à l'expiration
+     * (appelé sous verrou)
+     */
+    private void integrerVariation(Long produitId, long variation, LocalDateTime expiration) {
+        reservesParProduit.merge(produitId, variation, Long::sum);
+        ajouterEcheance(expiration, produitId, -variation);
+    }
+    
+    /**
+     * Applique une variation à l'agrégat: comptée comme en cours jusqu'au commit,
+     * puis intégrée aux réservations validées (ou annulée si rollback)
+     */
+    private void appliquerVariation(Long produitId, BigDecimal quantite, LocalDateTime expiration) {
+        long variation = Quantite.versMilli(quantite);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (verrou) {
+                integrerVariation(produitId, variation, expiration);
+            }
+            return;
+        }
+        
+        synchronized (verrou) {
+            variationsEnCours.merge(produitId, variation, Long::sum);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean verrouille;
+            
+            @Override
+            public void beforeCompletion() {
+                // Une synchronisation ne peut plus relire la table entre le commit et l'intégration ci-dessous
+                verrouCommits.readLock().lock();
+                verrouille = true;
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    synchronized (verrou) {
+                        variationsEnCours.merge(produitId, -variation, Long::sum);
+                        if (status == STATUS_COMMITTED) {
+                            integrerVariation(produitId, variation, expiration);
+                        }
+                    }
+                } finally {
+                    if (verrouille) {
+                        verrouCommits.readLock().unlock();
+                    }
+                }
+            }
+        });
+    }
+}
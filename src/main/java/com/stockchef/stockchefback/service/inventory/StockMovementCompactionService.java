@@ -0,0 +1,175 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import com.stockchef.stockchefback.model.inventory.StockMovement;
+import com.stockchef.stockchefback.model.inventory.StockMovementCompaction;
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
+import com.stockchef.stockchefback.repository.inventory.StockMovementCompactionRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compaction des mouvements de stock anciens (politique de rétention optionnelle)
+ * 
+ * FONCTIONNEMENT:
+ * - Au-delà de retention-mois, les mouvements d'un jour sont regroupés par produit, type et menu
+ *   en une ligne de synthèse: quantité totale (unité de stock), quantiteApres et date du dernier mouvement
+ * - Les lignes de synthèse restent dans stock_movements: stock à un instant, exports et historique
+ *   continuent de fonctionner (le solde de clôture de chaque jour est inchangé)
+ * - Un jour par transaction, du plus ancien au plus récent; les jours clos depuis des mois
+ *   ne reçoivent plus d'écritures concurrentes
+ * - Chaque jour traité est enregistré (stock_movement_compaction) dans sa transaction: le job nocturne
+ *   reprend après le dernier jour compacté, les lignes de synthèse gardant la date du jour d'origine
+ * - L'agrégat journalier (stock_movement_daily) n'est pas modifié: il garde le nombre de mouvements d'origine
+ */
+@Service
+public class StockMovementCompactionService {
+    
+    private static final Logger log = LoggerFactory.getLogger(StockMovementCompactionService.class);
+    
+    private final StockMovementRepository stockMovementRepository;
+    private final StockMovementCompactionRepository compactionRepository;
+    private final UniteConversionService uniteConversionService;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionMois;
+    private final int joursMaxParExecution;
+    
+    public StockMovementCompactionService(StockMovementRepository stockMovementRepository,
+                                          StockMovementCompactionRepository compactionRepository,
+                                          UniteConversionService uniteConversionService,
+                                          PlatformTransactionManager transactionManager,
+                                          @Value("${stock.compaction.retention-mois:0}") int retentionMois,
+                                          @Value("${stock.compaction.jours-max-par-execution:31}") int joursMaxParExecution) {
+        this.stockMovementRepository = stockMovementRepository;
+        this.compactionRepository = compactionRepository;
+        this.uniteConversionService = uniteConversionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionMois = retentionMois;
+        this.joursMaxParExecution = joursMaxParExecution;
+    }
+    
+    /**
+     * Compacte les mouvements d'une période, une transaction par jour
+     *
+     * @return Nombre de mouvements supprimés (remplacés par les lignes de synthèse)
+     */
+    public int compacter(LocalDate debut, LocalDate fin) {
+        if (debut == null || fin == null || debut.isAfter(fin)) {
+            throw new IllegalArgumentException("Période de compaction invalide: " + debut + " - " + fin);
+        }
+        int supprimes = 0;
+        for (LocalDate jour = debut; !jour.isAfter(fin); jour = jour.plusDays(1)) {
+            LocalDate jourCourant = jour;
+            supprimes += transactionTemplate.execute(status -> compacterJour(jourCourant));
+        }
+        log.info("Mouvements compactés du {} au {}: {} mouvement(s) remplacé(s)", debut, fin, supprimes);
+        return supprimes;
+    }
+    
+    /**
+     * Compaction nocturne des jours les plus anciens au-delà de la rétention (désactivée si retention-mois = 0)
+     * Reprend au premier jour avec des mouvements après le dernier jour compacté
+     */
+    @Scheduled(cron = "${stock.compaction.cron:0 0 4 * * *}")
+    public void compacterMouvementsAnciens() {
+        if (retentionMois <= 0) {
+            return;
+        }
+        LocalDate dernierCompacte = compactionRepository.findDernierJourCompacte();
+        LocalDateTime premierMouvement = dernierCompacte == null
+                ? stockMovementRepository.findDatePremierMouvement()
+                : stockMovementRepository.findDatePremierMouvementDepuis(dernierCompacte.plusDays(1).atStartOfDay());
+        if (premierMouvement == null) {
+            return;
+        }
+        LocalDate debut = premierMouvement.toLocalDate();
+        LocalDate limite = LocalDate.now().minusMonths(retentionMois).minusDays(1);
+        LocalDate fin = debut.plusDays(Math.max(joursMaxParExecution, 1) - 1L);
+        if (fin.isAfter(limite)) {
+            fin = limite;
+        }
+        if (!debut.isAfter(fin)) {
+            compacter(debut, fin);
+        }
+    }
+    
+    // ==================== INTERNE ====================
+    
+    private int compacterJour(LocalDate jour) {
+        int supprimes = remplacerParSyntheses(jour);
+        compactionRepository.save(new StockMovementCompaction(jour, supprimes, LocalDateTime.now()));
+        return supprimes;
+    }
+    
+    private int remplacerParSyntheses(LocalDate jour) {
+        List<StockMovement> movements = stockMovementRepository.findPeriodeAvecProduit(
+                jour.atStartOfDay(), jour.plusDays(1).atStartOfDay());
+        
+        // Mouvements par produit/type/menu, dans l'ordre chronologique
+        Map<Cle, List<StockMovement>> groupes = new LinkedHashMap<>();
+        for (StockMovement movement : movements) {
+            groupes.computeIfAbsent(new Cle(movement.getProduit().getId(), movement.getTypeMouvement(), movement.getMenuId()),
+                    cle -> new ArrayList<>()).add(movement);
+        }
+        
+        List<List<StockMovement>> aCompacter = groupes.values().stream()
+                .filter(groupe -> groupe.size() > 1)
+                .sorted(Comparator.comparing((List<StockMovement> groupe) -> dernier(groupe).getDateMouvement())
+                        .thenComparing(groupe -> dernier(groupe).getId()))
+                .toList();
+        if (aCompacter.isEmpty()) {
+            return 0;
+        }
+        
+        // Synthèses insérées dans l'ordre de leur dernier mouvement: à date égale, l'ID départage comme avant
+        List<StockMovement> syntheses = new ArrayList<>();
+        List<Long> supprimes = new ArrayList<>();
+        for (List<StockMovement> groupe : aCompacter) {
+            syntheses.add(synthese(groupe));
+            groupe.forEach(movement -> supprimes.add(movement.getId()));
+        }
+        stockMovementRepository.deleteAllByIdInBatch(supprimes);
+        stockMovementRepository.saveAll(syntheses);
+        
+        // @CreatedDate/@CreatedBy sont posés à l'insertion: rétablir la date et l'auteur du dernier mouvement
+        for (int i = 0; i < syntheses.size(); i++) {
+            StockMovement dernier = dernier(aCompacter.get(i));
+            syntheses.get(i).setDateMouvement(dernier.getDateMouvement());
+            syntheses.get(i).setUtilisateur(dernier.getUtilisateur());
+        }
+        stockMovementRepository.flush();
+        return supprimes.size();
+    }
+    
+    private StockMovement synthese(List<StockMovement> groupe) {
+        StockMovement dernier = dernier(groupe);
+        BigDecimal quantite = groupe.stream()
+                .map(uniteConversionService::convertirMouvementVersUniteStock)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        StockMovement synthese = new StockMovement(dernier.getProduit(), dernier.getTypeMouvement(), quantite,
+                dernier.getProduit().getUnite(), dernier.getQuantiteApres(),
+                "Compaction de " + groupe.size() + " mouvements");
+        synthese.setMenuId(dernier.getMenuId());
+        return synthese;
+    }
+    
+    private static StockMovement dernier(List<StockMovement> groupe) {
+        return groupe.get(groupe.size() - 1);
+    }
+    
+    private record Cle(Long produitId, TypeMouvement typeMouvement, Long menuId) {}
+}
@@ -0,0 +1,204 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.Quantite;
+import com.stockchef.stockchefback.model.inventory.StockMovement;
+import com.stockchef.stockchefback.model.inventory.StockMovementDaily;
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementDailyRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Maintenance de l'agrégat journalier des mouvements de stock (stock_movement_daily)
+ * 
+ * FONCTIONNEMENT:
+ * - Chaque écriture de mouvements met à jour l'agrégat dans la même transaction
+ *   (UPDATE de la ligne jour/produit/type, INSERT si elle n'existe pas encore)
+ * - Les écritures d'un produit sont déjà sérialisées par le verrou de ligne du produit:
+ *   l'UPDATE puis INSERT ne peut pas entrer en conflit pour ce produit
+ * - Reconstruction depuis stock_movements, jour par jour (une transaction par jour):
+ *   au démarrage si la table est vide, puis chaque nuit sur les derniers jours clos
+ */
+@Service
+public class StockMovementDailyService {
+    
+    private static final Logger log = LoggerFactory.getLogger(StockMovementDailyService.class);
+    private static final int ECHELLE_VALEUR = 4;
+    
+    private final StockMovementDailyRepository stockMovementDailyRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final ProduitRepository produitRepository;
+    private final UniteConversionService uniteConversionService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int joursReconstruction;
+    
+    public StockMovementDailyService(StockMovementDailyRepository stockMovementDailyRepository,
+                                     StockMovementRepository stockMovementRepository,
+                                     ProduitRepository produitRepository,
+                                     UniteConversionService uniteConversionService,
+                                     PlatformTransactionManager transactionManager,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${mouvement.journalier.jours-reconstruction:2}") int joursReconstruction) {
+        this.stockMovementDailyRepository = stockMovementDailyRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.produitRepository = produitRepository;
+        this.uniteConversionService = uniteConversionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.joursReconstruction = joursReconstruction;
+    }
+    
+    // ==================== MISE À JOUR INCRÉMENTALE ====================
+    
+    /**
+     * Ajoute des mouvements (déjà enregistrés) à l'agrégat journalier
+     * Doit être appelé dans la transaction qui écrit les mouvements, sous le verrou des produits
+     */
+    @Transactional
+    public void enregistrer(Collection<StockMovement> movements) {
+        Map<Cle, Cumul> cumuls = new LinkedHashMap<>();
+        for (StockMovement movement : movements) {
+            Produit produit = movement.getProduit();
+            LocalDateTime date = movement.getDateMouvement() != null ? movement.getDateMouvement() : LocalDateTime.now();
+            BigDecimal quantite = uniteConversionService.convertirMouvementVersUniteStock(movement);
+            
+            cumuls.computeIfAbsent(new Cle(date.toLocalDate(), produit.getId(), movement.getTypeMouvement()),
+                            cle -> new Cumul(produit))
+                    .ajouter(quantite, quantite.multiply(produit.getPrixUnitaire()), 1);
+        }
+        cumuls.forEach(this::appliquer);
+        
+        // Point de passage de toutes les écritures de mouvements: notifie les caches de rapports (après commit)
+        if (!cumuls.isEmpty()) {
+            eventPublisher.publishEvent(new MouvementsStockEnregistresEvent(cumuls.keySet().stream()
+                    .map(Cle::produitId)
+                    .collect(Collectors.toSet())));
+        }
+    }
+    
+    /**
+     * Ajoute un mouvement (déjà enregistré) à l'agrégat journalier
+     */
+    @Transactional
+    public void enregistrer(StockMovement movement) {
+        enregistrer(List.of(movement));
+    }
+    
+    // ==================== RECONSTRUCTION ====================
+    
+    /**
+     * Reconstruit l'agrégat d'une période depuis stock_movements, une transaction par jour
+     * (ou dans la transaction de l'appelant s'il y en a une)
+     * La valeur utilise le prix unitaire actuel des produits
+     *
+     * @return Nombre de lignes d'agrégat écrites
+     */
+    public int reconstruire(LocalDate debut, LocalDate fin) {
+        if (debut == null || fin == null || debut.isAfter(fin)) {
+            throw new IllegalArgumentException("Période de reconstruction invalide: " + debut + " - " + fin);
+        }
+        int lignes = 0;
+        for (LocalDate jour = debut; !jour.isAfter(fin); jour = jour.plusDays(1)) {
+            LocalDate jourCourant = jour;
+            lignes += transactionTemplate.execute(status -> reconstruireJour(jourCourant));
+        }
+        log.info("Agrégat journalier des mouvements reconstruit du {} au {}: {} ligne(s)", debut, fin, lignes);
+        return lignes;
+    }
+    
+    /**
+     * Initialise l'agrégat à partir de l'historique si la table est vide (premier déploiement)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiserSiVide() {
+        if (stockMovementDailyRepository.count() > 0) {
+            return;
+        }
+        LocalDateTime premierMouvement = stockMovementRepository.findDatePremierMouvement();
+        if (premierMouvement != null) {
+            reconstruire(premierMouvement.toLocalDate(), LocalDate.now());
+        }
+    }
+    
+    /**
+     * Réconciliation nocturne des derniers jours clos (aucune écriture concurrente sur ces jours)
+     */
+    @Scheduled(cron = "${mouvement.journalier.reconstruction-cron:0 30 3 * * *}")
+    public void reconstruireDerniersJours() {
+        LocalDate hier = LocalDate.now().minusDays(1);
+        reconstruire(hier.minusDays(joursReconstruction - 1L), hier);
+    }
+    
+    // ==================== INTERNE ====================
+    
+    private int reconstruireJour(LocalDate jour) {
+        stockMovementDailyRepository.supprimerPeriode(jour, jour);
+        List<Object[]> agregats = stockMovementRepository.agregerParProduitEtType(
+                jour.atStartOfDay(), jour.plusDays(1).atStartOfDay());
+        for (Object[] agregat : agregats) {
+            BigDecimal quantite = agregat[2] != null ? (BigDecimal) agregat[2] : BigDecimal.ZERO;
+            BigDecimal valeur = agregat[3] != null ? (BigDecimal) agregat[3] : BigDecimal.ZERO;
+            stockMovementDailyRepository.save(new StockMovementDaily(
+                    jour,
+                    produitRepository.getReferenceById((Long) agregat[0]),
+                    (TypeMouvement) agregat[1],
+                    quantite.setScale(Quantite.ECHELLE, RoundingMode.HALF_UP),
+                    valeur.setScale(ECHELLE_VALEUR, RoundingMode.HALF_UP),
+                    ((Number) agregat[4]).longValue()));
+        }
+        return agregats.size();
+    }
+    
+    private void appliquer(Cle cle, Cumul cumul) {
+        BigDecimal quantite = cumul.quantite.setScale(Quantite.ECHELLE, RoundingMode.HALF_UP);
+        BigDecimal valeur = cumul.valeur.setScale(ECHELLE_VALEUR, RoundingMode.HALF_UP);
+        int misesAJour = stockMovementDailyRepository.incrementer(
+                cle.jour(), cle.produitId(), cle.typeMouvement(), quantite, valeur, cumul.nombre);
+        if (misesAJour == 0) {
+            stockMovementDailyRepository.save(new StockMovementDaily(
+                    cle.jour(), cumul.produit, cle.typeMouvement(), quantite, valeur, cumul.nombre));
+        }
+    }
+    
+    private record Cle(LocalDate jour, Long produitId, TypeMouvement typeMouvement) {}
+    
+    private static final class Cumul {
+        private final Produit produit;
+        private BigDecimal quantite = BigDecimal.ZERO;
+        private BigDecimal valeur = BigDecimal.ZERO;
+        private long nombre;
+        
+        private Cumul(Produit produit) {
+            this.produit = produit;
+        }
+        
+        private void ajouter(BigDecimal quantite, BigDecimal valeur, long nombre) {
+            this.quantite = this.quantite.add(quantite);
+            this.valeur = this.valeur.add(valeur);
+            this.nombre += nombre;
+        }
+    }
+}
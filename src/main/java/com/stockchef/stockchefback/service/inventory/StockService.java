@@ -1,5 +1,8 @@
 package com.stockchef.stockchefback.service.inventory;
 
+import com.stockchef.stockchefback.dto.inventory.StockMovementBatchLine;
+import com.stockchef.stockchefback.dto.inventory.StockMovementBatchLineResult;
+import com.stockchef.stockchefback.dto.inventory.StockMovementRequest;
 import com.stockchef.stockchefback.model.inventory.Produit;
 import com.stockchef.stockchefback.model.inventory.StockMovement;
 import com.stockchef.stockchefback.model.inventory.TypeMouvement;
@@ -12,6 +15,13 @@
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service central pour la gestion des stocks
@@ -26,13 +36,19 @@ public class StockService {
     private final ProduitRepository produitRepository;
     private final StockMovementRepository stockMovementRepository;
     private final UniteConversionService uniteConversionService;
+    private final LotService lotService;
+    private final StockMovementDailyService stockMovementDailyService;
     
     public StockService(ProduitRepository produitRepository, 
                        StockMovementRepository stockMovementRepository,
-                       UniteConversionService uniteConversionService) {
+                       UniteConversionService uniteConversionService,
+                       LotService lotService,
+                       StockMovementDailyService stockMovementDailyService) {
         this.produitRepository = produitRepository;
         this.stockMovementRepository = stockMovementRepository;
         this.uniteConversionService = uniteConversionService;
+        this.lotService = lotService;
+        this.stockMovementDailyService = stockMovementDailyService;
     }
     
     /**
@@ -55,8 +71,9 @@ public boolean decrementerStock(Long produitId, BigDecimal quantite, String moti
         Produit produit = produitRepository.findById(produitId)
                 .orElseThrow(() -> new IllegalArgumentException("Produit non trouvé avec l'ID: " + produitId));
         
-        // Vérifier le stock disponible
-        if (!produit.hasSufficientStock(quantite)) {
+        // Décrémentation gardée: la vérification et la mise à jour forment une seule instruction
+        BigDecimal nouveauStock = appliquerDecrement(produit, quantite);
+        if (nouveauStock == null) {
             throw new IllegalStateException(
                 String.format("Stock insuffisant pour le produit '%s'. Disponible: %s %s, Demandé: %s %s",
                             produit.getNom(),
@@ -67,18 +84,15 @@ public boolean decrementerStock(Long produitId, BigDecimal quantite, String moti
             );
         }
         
-        // Calculer le nouveau stock
-        BigDecimal nouveauStock = produit.getQuantiteStock().subtract(quantite);
-        
-        // Mettre à jour le stock
-        produit.setQuantiteStock(nouveauStock);
-        produitRepository.save(produit);
+        // Consommer les lots, péremption la plus proche d'abord
+        lotService.consommer(produit, quantite, nouveauStock.add(quantite));
         
         // Créer le mouvement de stock pour audit
         StockMovement movement = StockMovement.createSortie(
             produit, quantite, produit.getUnite(), nouveauStock, motif, menuId
         );
         stockMovementRepository.save(movement);
+        stockMovementDailyService.enregistrer(movement);
         
         // Vérifier le seuil d'alerte
         boolean isUnderThreshold = produit.isUnderAlertThreshold();
@@ -103,6 +117,18 @@ public boolean decrementerStock(Long produitId, BigDecimal quantite, String moti
      * @param motif Raison de l'entrée
      */
     public void incrementerStock(Long produitId, BigDecimal quantite, String motif) {
+        incrementerStock(produitId, quantite, motif, null);
+    }
+    
+    /**
+     * Incrémente le stock d'un produit en créant un lot avec sa date de péremption
+     *
+     * @param produitId ID du produit
+     * @param quantite Quantité à ajouter (dans l'unité du produit)
+     * @param motif Raison de l'entrée
+     * @param datePeremption Péremption du lot livré (optionnelle)
+     */
+    public void incrementerStock(Long produitId, BigDecimal quantite, String motif, LocalDate datePeremption) {
         validateParameters(produitId, quantite, motif);
         
         log.info("Incrémentation stock - Produit: {}, Quantité: {}, Motif: {}", produitId, quantite, motif);
@@ -111,18 +137,18 @@ public void incrementerStock(Long produitId, BigDecimal quantite, String motif)
         Produit produit = produitRepository.findById(produitId)
                 .orElseThrow(() -> new IllegalArgumentException("Produit non trouvé avec l'ID: " + produitId));
         
-        // Calculer le nouveau stock
-        BigDecimal nouveauStock = produit.getQuantiteStock().add(quantite);
-        
-        // Mettre à jour le stock
-        produit.setQuantiteStock(nouveauStock);
-        produitRepository.save(produit);
+        // Incrémentation atomique puis relecture du solde
+        produitRepository.incrementerQuantiteStock(produitId, quantite);
+        produitRepository.refresh(produit);
+        BigDecimal nouveauStock = produit.getQuantiteStock();
+        lotService.creerLot(produit, quantite, datePeremption, nouveauStock.subtract(quantite));
         
         // Créer le mouvement de stock pour audit
         StockMovement movement = StockMovement.createEntree(
             produit, quantite, produit.getUnite(), nouveauStock, motif
         );
         stockMovementRepository.save(movement);
+        stockMovementDailyService.enregistrer(movement);
         
         log.info("Stock incrémenté avec succès - Nouveau stock: {} {}", nouveauStock, produit.getUnite().getSymbol());
     }
@@ -151,33 +177,29 @@ public boolean decrementerStockAvecConversion(Long produitId, BigDecimal quantit
                 .orElseThrow(() -> new IllegalArgumentException("Produit non trouvé avec l'ID: " + produitId));
         
         // Convertir la quantité dans l'unité du produit si nécessaire
-        BigDecimal quantiteConvertie = uniteConversionService.convertir(quantite, uniteQuantite, produit.getUnite());
+        BigDecimal quantiteConvertie = uniteConversionService.convertirVersUniteStock(quantite, uniteQuantite, produit);
         
         log.info("Conversion effectuée: {} {} -> {} {} pour le produit '{}'",
                 quantite, uniteQuantite.getSymbol(),
                 quantiteConvertie, produit.getUnite().getSymbol(),
                 produit.getNom());
         
-        // Vérifier le stock suffisant avec la quantité convertie
-        if (!produit.hasSufficientStock(quantiteConvertie)) {
+        // Décrémentation gardée avec la quantité convertie
+        BigDecimal nouveauStock = appliquerDecrement(produit, quantiteConvertie);
+        if (nouveauStock == null) {
             log.warn("Stock insuffisant pour le produit '{}': demandé {} {}, disponible {} {}",
                     produit.getNom(), quantite, uniteQuantite.getSymbol(),
                     produit.getQuantiteStock(), produit.getUnite().getSymbol());
             return false;
         }
-        
-        // Calculer le nouveau stock
-        BigDecimal nouveauStock = produit.getQuantiteStock().subtract(quantiteConvertie);
-        
-        // Mettre à jour le stock
-        produit.setQuantiteStock(nouveauStock);
-        produitRepository.save(produit);
+        lotService.consommer(produit, quantiteConvertie, nouveauStock.add(quantiteConvertie));
         
         // Créer le mouvement de stock avec l'unité originale de la demande
         StockMovement movement = StockMovement.createSortie(
             produit, quantite, uniteQuantite, nouveauStock, motif, menuId
         );
         stockMovementRepository.save(movement);
+        stockMovementDailyService.enregistrer(movement);
         
         log.info("Stock décrémenté avec conversion pour le produit '{}': -{} {} (converti en -{} {})",
                 produit.getNom(), quantite, uniteQuantite.getSymbol(),
@@ -186,6 +208,124 @@ public boolean decrementerStockAvecConversion(Long produitId, BigDecimal quantit
         return produit.isUnderAlertThreshold();
     }
     
+    /**
+     * Applique un lot de mouvements (entrées et sorties) dans une seule transaction
+     *
+     * Tous les produits du lot sont chargés et verrouillés en une seule requête (ordre par ID),
+     * chaque ligne est validée et appliquée en mémoire, puis les mouvements sont insérés
+     * en batch JDBC. Une ligne invalide est rejetée sans bloquer les autres.
+     *
+     * @param lignes Lignes du lot, dans l'ordre d'application
+     * @return Le résultat de chaque ligne, dans le même ordre
+     */
+    public List<StockMovementBatchLineResult> appliquerMouvementsEnLot(List<StockMovementBatchLine> lignes) {
+        if (lignes == null || lignes.isEmpty()) {
+            throw new IllegalArgumentException("Le lot de mouvements ne peut pas être vide");
+        }
+        
+        log.info("Application d'un lot de {} mouvements de stock", lignes.size());
+        
+        TreeSet<Long> produitIds = lignes.stream()
+                .map(StockMovementBatchLine::produitId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, Produit> produits = produitRepository.findAllByIdForUpdate(produitIds).stream()
+                .collect(Collectors.toMap(Produit::getId, Function.identity()));
+        
+        List<StockMovement> movements = new ArrayList<>(lignes.size());
+        List<StockMovement> movementParLigne = new ArrayList<>(lignes.size());
+        List<String> erreurParLigne = new ArrayList<>(lignes.size());
+        
+        for (StockMovementBatchLine ligne : lignes) {
+            StockMovement movement = null;
+            String erreur;
+            try {
+                movement = appliquerLigneEnMemoire(ligne, produits.get(ligne.produitId()));
+                movements.add(movement);
+                erreur = null;
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                erreur = e.getMessage();
+            }
+            movementParLigne.add(movement);
+            erreurParLigne.add(erreur);
+        }
+        
+        // Les produits modifiés sont gérés (verrouillés): leurs UPDATE partent au flush, en batch
+        stockMovementRepository.saveAll(movements);
+        stockMovementDailyService.enregistrer(movements);
+        
+        List<StockMovementBatchLineResult> resultats = new ArrayList<>(lignes.size());
+        for (int i = 0; i < lignes.size(); i++) {
+            StockMovementBatchLine ligne = lignes.get(i);
+            StockMovement movement = movementParLigne.get(i);
+            resultats.add(movement != null
+                    ? StockMovementBatchLineResult.applique(i, ligne.produitId(), ligne.typeMouvement(),
+                                                           movement.getId(), movement.getQuantiteApres())
+                    : StockMovementBatchLineResult.rejete(i, ligne.produitId(), ligne.typeMouvement(),
+                                                         erreurParLigne.get(i)));
+        }
+        
+        log.info("Lot appliqué - {} mouvements enregistrés, {} lignes rejetées",
+                movements.size(), lignes.size() - movements.size());
+        return resultats;
+    }
+    
+    /**
+     * Applique une ligne du lot sur le produit verrouillé et construit son mouvement d'audit
+     */
+    private StockMovement appliquerLigneEnMemoire(StockMovementBatchLine ligne, Produit produit) {
+        if (produit == null || Boolean.TRUE.equals(produit.getDeleted())) {
+            throw new IllegalArgumentException("Produit non trouvé avec l'ID: " + ligne.produitId());
+        }
+        
+        StockMovementRequest mouvement = ligne.mouvement();
+        Unite uniteMouvement = mouvement.unite() != null ? mouvement.unite() : produit.getUnite();
+        BigDecimal quantiteConvertie = uniteConversionService.convertirVersUniteStock(
+                mouvement.quantite(), uniteMouvement, produit);
+        
+        return switch (ligne.typeMouvement()) {
+            case SORTIE -> {
+                if (!produit.hasSufficientStock(quantiteConvertie)) {
+                    throw new IllegalStateException(
+                        String.format("Stock insuffisant pour le produit '%s'. Disponible: %s %s, Demandé: %s %s",
+                                    produit.getNom(),
+                                    produit.getQuantiteStock(),
+                                    produit.getUnite().getSymbol(),
+                                    quantiteConvertie,
+                                    produit.getUnite().getSymbol())
+                    );
+                }
+                BigDecimal nouveauStock = produit.getQuantiteStock().subtract(quantiteConvertie);
+                lotService.consommer(produit, quantiteConvertie, produit.getQuantiteStock());
+                produit.setQuantiteStock(nouveauStock);
+                yield StockMovement.createSortie(produit, mouvement.quantite(), uniteMouvement,
+                                                 nouveauStock, mouvement.motif(), mouvement.menuId());
+            }
+            case ENTREE -> {
+                BigDecimal nouveauStock = produit.getQuantiteStock().add(quantiteConvertie);
+                lotService.creerLot(produit, quantiteConvertie, mouvement.datePeremption(), produit.getQuantiteStock());
+                produit.setQuantiteStock(nouveauStock);
+                yield StockMovement.createEntree(produit, mouvement.quantite(), uniteMouvement,
+                                                 nouveauStock, mouvement.motif());
+            }
+            default -> throw new IllegalArgumentException(
+                "Type de mouvement non supporté dans un lot: " + ligne.typeMouvement());
+        };
+    }
+    
+    /**
+     * Applique la décrémentation via un UPDATE conditionnel (stock >= quantité)
+     * puis resynchronise l'entité gérée avec le solde écrit en base.
+     * Deux sorties concurrentes ne peuvent plus passer toutes deux la vérification:
+     * la seconde attend le verrou de ligne et relit le stock déjà décrémenté.
+     *
+     * @return le nouveau solde, ou null si le stock est insuffisant
+     */
+    private BigDecimal appliquerDecrement(Produit produit, BigDecimal quantite) {
+        int lignesModifiees = produitRepository.decrementerQuantiteStock(produit.getId(), quantite);
+        produitRepository.refresh(produit);
+        return lignesModifiees == 1 ? produit.getQuantiteStock() : null;
+    }
+    
     /**
      * Valide les paramètres communs
      */
@@ -232,6 +372,10 @@ public void createInitialStockMovement(Long produitId, BigDecimal quantiteInitia
         );
         
         stockMovementRepository.save(movement);
+        stockMovementDailyService.enregistrer(movement);
+        
+        // Lot initial, avec la péremption saisie à la création
+        lotService.creerLot(produit, quantiteInitiale, produit.getDatePeremption(), BigDecimal.ZERO);
         
         log.info("Mouvement de stock initial créé pour le produit '{}': +{} {} (stock final: {})",
                 produit.getNom(), quantiteInitiale, produit.getUnite().getSymbol(), produit.getQuantiteStock());
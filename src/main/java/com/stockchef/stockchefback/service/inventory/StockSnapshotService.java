@@ -0,0 +1,109 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import com.stockchef.stockchefback.dto.inventory.StockAtResponse;
+import com.stockchef.stockchefback.model.inventory.Quantite;
+import com.stockchef.stockchefback.model.inventory.StockSnapshot;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
+import com.stockchef.stockchefback.repository.inventory.StockSnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Photos de stock de fin de journée (stock_snapshot)
+ * 
+ * FONCTIONNEMENT:
+ * - Chaque nuit, photo de la veille: solde de clôture et valeur de chaque produit ayant un historique
+ * - La valeur est figée au prix unitaire du moment (l'historique des prix n'est pas conservé ailleurs)
+ * - Les jours manquants (application arrêtée) sont rattrapés, dans la limite de jours-rattrapage
+ * - Reprendre la photo d'un jour remplace la précédente (une transaction par jour)
+ */
+@Service
+public class StockSnapshotService {
+    
+    private static final Logger log = LoggerFactory.getLogger(StockSnapshotService.class);
+    private static final int ECHELLE_VALEUR = 4;
+    
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final ProduitRepository produitRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int joursRattrapage;
+    
+    public StockSnapshotService(StockSnapshotRepository stockSnapshotRepository,
+                                StockMovementRepository stockMovementRepository,
+                                ProduitRepository produitRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${stock.snapshot.jours-rattrapage:7}") int joursRattrapage) {
+        this.stockSnapshotRepository = stockSnapshotRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.produitRepository = produitRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.joursRattrapage = joursRattrapage;
+    }
+    
+    /**
+     * Dernier instant d'un jour à la précision microseconde des colonnes
+     * (LocalTime.MAX serait arrondi au lendemain 00:00 par la base)
+     */
+    public static LocalDateTime clotureDuJour(LocalDate jour) {
+        return jour.plusDays(1).atStartOfDay().minusNanos(1_000);
+    }
+    
+    /**
+     * Prend (ou reprend) la photo de clôture d'un jour, dans la transaction de l'appelant s'il y en a une
+     *
+     * @return Nombre de produits photographiés
+     */
+    public int prendreSnapshot(LocalDate jour) {
+        if (jour == null || !jour.isBefore(LocalDate.now().plusDays(1))) {
+            throw new IllegalArgumentException("Jour de photo invalide: " + jour);
+        }
+        int produits = transactionTemplate.execute(status -> ecrireSnapshot(jour));
+        log.info("Photo du stock au {}: {} produit(s)", jour, produits);
+        return produits;
+    }
+    
+    /**
+     * Photo de la veille, puis des jours manquants depuis la dernière photo (bornés à jours-rattrapage)
+     */
+    @Scheduled(cron = "${stock.snapshot.cron:0 5 0 * * *}")
+    public void prendreSnapshotsManquants() {
+        LocalDate hier = LocalDate.now().minusDays(1);
+        LocalDate debut = hier.minusDays(Math.max(joursRattrapage, 1) - 1L);
+        LocalDate dernier = stockSnapshotRepository.findDernierJour();
+        if (dernier != null && dernier.isAfter(debut.minusDays(1))) {
+            debut = dernier.plusDays(1);
+        }
+        for (LocalDate jour = debut; !jour.isAfter(hier); jour = jour.plusDays(1)) {
+            prendreSnapshot(jour);
+        }
+    }
+    
+    // ==================== INTERNE ====================
+    
+    private int ecrireSnapshot(LocalDate jour) {
+        stockSnapshotRepository.supprimerJour(jour);
+        List<StockAtResponse> stocks = stockMovementRepository.findStocksAInstant(clotureDuJour(jour));
+        stockSnapshotRepository.saveAll(stocks.stream()
+                .map(stock -> new StockSnapshot(
+                        jour,
+                        produitRepository.getReferenceById(stock.produitId()),
+                        stock.quantite().setScale(Quantite.ECHELLE, RoundingMode.HALF_UP),
+                        stock.valeur().setScale(ECHELLE_VALEUR, RoundingMode.HALF_UP),
+                        stock.mouvementId(),
+                        stock.dateMouvement()))
+                .toList());
+        return stocks.size();
+    }
+}
@@ -1,19 +1,47 @@
 package com.stockchef.stockchefback.service.inventory;
 
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.Quantite;
+import com.stockchef.stockchefback.model.inventory.StockMovement;
 import com.stockchef.stockchefback.model.inventory.Unite;
-import com.stockchef.stockchefback.model.inventory.UnitType;
+import com.stockchef.stockchefback.model.menu.MenuIngredient;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.Collection;
 
 /**
  * Service pour la conversion entre unités de mesure
  * Gère les conversions de poids, volume et quantités
+ *
+ * Les facteurs entre unités sont calculés une seule fois (table Unite x Unite, null = incompatibles).
+ * Les conversions entre types (volume <-> poids, pièce <-> poids) utilisent la densité et le poids
+ * pièce du produit, déjà chargés avec lui: aucune requête supplémentaire.
  */
 @Service
 public class UniteConversionService {
     
+    private static final Unite[] UNITES = Unite.values();
+    
+    // FACTEURS[source][cible]: multiplicateur exact, null si les unités sont incompatibles
+    private static final BigDecimal[][] FACTEURS = construireFacteurs();
+    
+    private static BigDecimal[][] construireFacteurs() {
+        BigDecimal[][] facteurs = new BigDecimal[UNITES.length][UNITES.length];
+        for (Unite source : UNITES) {
+            for (Unite cible : UNITES) {
+                if (source.isCompatibleWith(cible)) {
+                    facteurs[source.ordinal()][cible.ordinal()] = BigDecimal.valueOf(source.getFacteurBase())
+                            .divide(BigDecimal.valueOf(cible.getFacteurBase()))
+                            .stripTrailingZeros();
+                }
+            }
+        }
+        return facteurs;
+    }
+    
     /**
      * Convertit une quantité d'une unité vers une autre
      * 
@@ -31,65 +59,131 @@ public BigDecimal convertir(BigDecimal quantite, Unite source, Unite cible) {
             return quantite;
         }
         
-        // Vérifier la compatibilité des unités
-        if (!sontCompatibles(source, cible)) {
+        BigDecimal facteur = FACTEURS[source.ordinal()][cible.ordinal()];
+        if (facteur == null) {
             throw new IllegalArgumentException(
                 String.format("Impossible de convertir de %s vers %s - types d'unités incompatibles", 
                             source, cible)
             );
         }
         
-        // Effectuer la conversion selon le type d'unité
-        return switch (source.getType()) {
-            case WEIGHT -> convertirPoids(quantite, source, cible);
-            case VOLUME -> convertirVolume(quantite, source, cible);
-            case COUNT -> quantite; // Les unités de comptage sont toujours 1:1
-        };
+        // Chemin rapide en millièmes (long), exact pour toute valeur d'échelle <= 3
+        if (Quantite.estRepresentable(quantite)) {
+            long milli = Quantite.convertirMilli(Quantite.versMilli(quantite), source, cible);
+            return versEchelleMinimale(Quantite.versBigDecimal(milli), quantite.scale());
+        }
+        
+        // Valeurs plus fines que le millième
+        return appliquerFacteur(quantite, facteur);
+    }
+    
+    /**
+     * Convertit une quantité vers l'unité de stock d'un produit
+     * Entre types différents, utilise la densité (volume <-> poids) ou le poids pièce (pièce <-> poids)
+     *
+     * @throws IllegalArgumentException si la conversion nécessite un facteur non renseigné sur le produit
+     */
+    public BigDecimal convertirVersUniteStock(BigDecimal quantite, Unite source, Produit produit) {
+        if (produit == null) {
+            throw new IllegalArgumentException("Le produit ne peut pas être nul");
+        }
+        Unite cible = produit.getUnite();
+        if (source != null && cible != null && source.isCompatibleWith(cible)) {
+            return convertir(quantite, source, cible);
+        }
+        
+        validateParameters(quantite, source, cible);
+        BigDecimal facteur = facteurEntreTypes(source, produit);
+        if (facteur == null) {
+            throw new IllegalArgumentException(
+                String.format("Impossible de convertir de %s vers %s pour le produit '%s' - densité ou poids pièce non renseigné",
+                            source, cible, produit.getNom())
+            );
+        }
+        return appliquerFacteur(quantite, facteur);
+    }
+    
+    /**
+     * Quantité signée d'un mouvement dans l'unité de stock de son produit
+     * (négative pour une sortie, comme le mouvement)
+     */
+    public BigDecimal convertirMouvementVersUniteStock(StockMovement movement) {
+        BigDecimal quantite = movement.getQuantite();
+        Produit produit = movement.getProduit();
+        if (movement.getUnite() == null || movement.getUnite() == produit.getUnite()) {
+            return quantite;
+        }
+        BigDecimal convertie = convertirVersUniteStock(quantite.abs(), movement.getUnite(), produit);
+        return quantite.signum() < 0 ? convertie.negate() : convertie;
+    }
+    
+    /**
+     * Quantité d'un ingrédient dans l'unité de stock de son produit, sans modifier l'ingrédient
+     * À utiliser sur les chemins de lecture
+     */
+    public BigDecimal convertirIngredient(MenuIngredient ingredient) {
+        return convertirVersUniteStock(
+                ingredient.getQuantiteNecessaire(), ingredient.getUniteUtilisee(), ingredient.getProduit());
+    }
+    
+    /**
+     * Convertit en une passe les quantités de tous les ingrédients dans l'unité de stock de leur produit
+     * Seuls les ingrédients dont la quantité convertie change sont modifiés (coût recalculé)
+     * Réservé aux chemins d'écriture: la colonne convertie est ensuite utilisée par les UPDATE ensemblistes
+     */
+    public void convertirIngredients(Collection<MenuIngredient> ingredients) {
+        for (MenuIngredient ingredient : ingredients) {
+            BigDecimal convertie = convertirIngredient(ingredient);
+            BigDecimal actuelle = ingredient.getQuantiteConvertieStockUnit();
+            if (actuelle == null || actuelle.compareTo(convertie) != 0) {
+                ingredient.setQuantiteConvertieCalculee(convertie);
+            }
+        }
     }
     
     /**
      * Vérifie si deux unités sont compatibles pour la conversion
      */
     public boolean sontCompatibles(Unite source, Unite cible) {
-        return source.getType() == cible.getType();
+        return FACTEURS[source.ordinal()][cible.ordinal()] != null;
     }
     
     /**
-     * Convertit les unités de poids
+     * Vérifie si une quantité peut être convertie vers l'unité de stock du produit
      */
-    private BigDecimal convertirPoids(BigDecimal quantite, Unite source, Unite cible) {
-        // Convertir d'abord vers les grammes (unité de base)
-        BigDecimal quantiteEnGrammes = switch (source) {
-            case KILOGRAMME -> quantite.multiply(new BigDecimal("1000"));
-            case GRAMME -> quantite;
-            default -> throw new IllegalArgumentException("Unité de poids non supportée: " + source);
-        };
-        
-        // Puis convertir vers l'unité cible
-        return switch (cible) {
-            case KILOGRAMME -> quantiteEnGrammes.divide(new BigDecimal("1000"), 3, RoundingMode.HALF_UP);
-            case GRAMME -> quantiteEnGrammes;
-            default -> throw new IllegalArgumentException("Unité de poids non supportée: " + cible);
-        };
+    public boolean sontConvertibles(Unite source, Produit produit) {
+        return sontCompatibles(source, produit.getUnite()) || facteurEntreTypes(source, produit) != null;
     }
     
     /**
-     * Convertit les unités de volume
+     * Facteur source -> unité de stock entre deux types différents, en passant par les grammes
      */
-    private BigDecimal convertirVolume(BigDecimal quantite, Unite source, Unite cible) {
-        // Convertir d'abord vers les millilitres (unité de base)
-        BigDecimal quantiteEnMillilitres = switch (source) {
-            case LITRE -> quantite.multiply(new BigDecimal("1000"));
-            case MILLILITRE -> quantite;
-            default -> throw new IllegalArgumentException("Unité de volume non supportée: " + source);
-        };
-        
-        // Puis convertir vers l'unité cible
-        return switch (cible) {
-            case LITRE -> quantiteEnMillilitres.divide(new BigDecimal("1000"), 3, RoundingMode.HALF_UP);
-            case MILLILITRE -> quantiteEnMillilitres;
-            default -> throw new IllegalArgumentException("Unité de volume non supportée: " + cible);
-        };
+    private BigDecimal facteurEntreTypes(Unite source, Produit produit) {
+        Unite cible = produit.getUnite();
+        BigDecimal grammesSource = produit.grammesParUniteDeBase(source.getType());
+        BigDecimal grammesCible = produit.grammesParUniteDeBase(cible.getType());
+        if (grammesSource == null || grammesCible == null || grammesCible.signum() <= 0) {
+            return null;
+        }
+        return grammesSource.multiply(BigDecimal.valueOf(source.getFacteurBase()))
+                .divide(grammesCible.multiply(BigDecimal.valueOf(cible.getFacteurBase())), MathContext.DECIMAL64);
+    }
+    
+    /**
+     * Multiplie par le facteur, arrondi au millième (ou à l'échelle de la saisie si plus fine)
+     */
+    private BigDecimal appliquerFacteur(BigDecimal quantite, BigDecimal facteur) {
+        int echelle = Math.max(Quantite.ECHELLE, quantite.scale());
+        return versEchelleMinimale(quantite.multiply(facteur).setScale(echelle, RoundingMode.HALF_UP), quantite.scale());
+    }
+    
+    /**
+     * Échelle du résultat: la plus petite échelle exacte, sans descendre sous celle de la saisie
+     * (1500.0 g -> 1.5 kg, 1.0 kg -> 1000.0 g)
+     */
+    private BigDecimal versEchelleMinimale(BigDecimal valeur, int echelleSaisie) {
+        BigDecimal reduite = valeur.stripTrailingZeros();
+        return reduite.scale() < echelleSaisie ? reduite.setScale(echelleSaisie) : reduite;
     }
     
     /**
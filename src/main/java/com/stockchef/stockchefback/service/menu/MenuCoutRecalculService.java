@@ -0,0 +1,145 @@
+package com.stockchef.stockchefback.service.menu;
+
+import com.stockchef.stockchefback.model.menu.MenuCoutRecalculEnAttente;
+import com.stockchef.stockchefback.repository.menu.MenuCoutRecalculEnAttenteRepository;
+import com.stockchef.stockchefback.service.inventory.PrixProduitModifieEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recalcul différé des coûts de menus suite aux changements de prix des produits
+ * 
+ * FONCTIONNEMENT:
+ * - Les changements de prix validés (après commit) sont accumulés par produit
+ * - Le recalcul part quand les changements cessent pendant le délai d'attente,
+ *   ou au plus tard après l'attente maximale (mise à jour de prix en masse)
+ * - Un seul recalcul ensembliste couvre tous les produits accumulés
+ * - Chaque changement est aussi enregistré en base dans la transaction du prix (menu_cout_recalcul_en_attente)
+ *   et supprimé dans celle du recalcul: au démarrage, les changements non traités sont repris
+ */
+@Service
+public class MenuCoutRecalculService {
+    
+    private static final Logger log = LoggerFactory.getLogger(MenuCoutRecalculService.class);
+    
+    private final MenuIngredientService menuIngredientService;
+    private final MenuCoutRecalculEnAttenteRepository recalculEnAttenteRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long delaiAttenteMs;
+    private final long attenteMaximaleMs;
+    
+    private final Set<Long> produitsEnAttente = ConcurrentHashMap.newKeySet();
+    private volatile long dernierChangement;
+    private volatile long premierChangementEnAttente;
+    
+    public MenuCoutRecalculService(MenuIngredientService menuIngredientService,
+                                   MenuCoutRecalculEnAttenteRepository recalculEnAttenteRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${menu.cout.recalcul.delai-ms:2000}") long delaiAttenteMs,
+                                   @Value("${menu.cout.recalcul.attente-max-ms:10000}") long attenteMaximaleMs) {
+        this.menuIngredientService = menuIngredientService;
+        this.recalculEnAttenteRepository = recalculEnAttenteRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.delaiAttenteMs = delaiAttenteMs;
+        this.attenteMaximaleMs = attenteMaximaleMs;
+    }
+    
+    /**
+     * Enregistre en base le recalcul à faire, dans la transaction du changement de prix
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void enregistrerPrixModifie(PrixProduitModifieEvent event) {
+        recalculEnAttenteRepository.save(new MenuCoutRecalculEnAttente(event.produitId(), LocalDateTime.now()));
+    }
+    
+    /**
+     * Enregistre un produit dont le prix a changé (une fois la transaction validée)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrixProduitModifie(PrixProduitModifieEvent event) {
+        log.debug("Prix modifié pour produit {}: {} -> {}", 
+                event.produitId(), event.ancienPrix(), event.nouveauPrix());
+        ajouterEnAttente(List.of(event.produitId()));
+    }
+    
+    /**
+     * Reprend les recalculs enregistrés et non traités avant l'arrêt (redémarrage, crash)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reprendreRecalculsEnAttente() {
+        List<Long> produitIds = recalculEnAttenteRepository.findProduitIds();
+        if (!produitIds.isEmpty()) {
+            log.info("Reprise du recalcul des coûts de menus pour {} produit(s)", produitIds.size());
+            ajouterEnAttente(produitIds);
+        }
+    }
+    
+    /**
+     * Lance le recalcul des produits accumulés si le délai d'attente est écoulé
+     */
+    @Scheduled(fixedDelayString = "${menu.cout.recalcul.intervalle-ms:500}")
+    public void traiterRecalculsEnAttente() {
+        List<Long> produitIds;
+        LocalDateTime debut = LocalDateTime.now();
+        synchronized (produitsEnAttente) {
+            if (produitsEnAttente.isEmpty()) {
+                return;
+            }
+            long maintenant = System.currentTimeMillis();
+            boolean calme = maintenant - dernierChangement >= delaiAttenteMs;
+            boolean attenteDepassee = maintenant - premierChangementEnAttente >= attenteMaximaleMs;
+            if (!calme && !attenteDepassee) {
+                return;
+            }
+            produitIds = new ArrayList<>(new TreeSet<>(produitsEnAttente));
+            produitsEnAttente.clear();
+        }
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                menuIngredientService.recalculerCoutsPourProduits(produitIds);
+                recalculEnAttenteRepository.supprimerTraites(produitIds, debut);
+            });
+        } catch (Exception e) {
+            log.error("Échec du recalcul des coûts de menus pour {} produit(s): {}", produitIds.size(), e.getMessage(), e);
+            // Les produits seront repris au prochain passage
+            ajouterEnAttente(produitIds);
+        }
+    }
+    
+    /**
+     * Nombre de produits en attente de recalcul
+     */
+    public int getNombreProduitsEnAttente() {
+        return produitsEnAttente.size();
+    }
+    
+    // ==================== INTERNE ====================
+    
+    private void ajouterEnAttente(List<Long> produitIds) {
+        long maintenant = System.currentTimeMillis();
+        synchronized (produitsEnAttente) {
+            if (produitsEnAttente.isEmpty()) {
+                premierChangementEnAttente = maintenant;
+            }
+            produitsEnAttente.addAll(produitIds);
+            dernierChangement = maintenant;
+        }
+    }
+}
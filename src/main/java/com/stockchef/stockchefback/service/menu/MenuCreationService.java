@@ -1,11 +1,15 @@
 package com.stockchef.stockchefback.service.menu;
 
+import com.stockchef.stockchefback.dto.menu.MenuConfirmationResultatDTO;
+import com.stockchef.stockchefback.dto.menu.MenusConfirmationDateDTO;
 import com.stockchef.stockchefback.model.menu.Menu;
 import com.stockchef.stockchefback.model.menu.StatutMenu;
 import com.stockchef.stockchefback.repository.menu.MenuRepository;
+import com.stockchef.stockchefback.service.inventory.ReservationStockService;
 import com.stockchef.stockchefback.service.inventory.StockService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -14,6 +18,11 @@
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service spécialisé pour la création et gestion du cycle de vie des menus
@@ -33,13 +42,19 @@ public class MenuCreationService {
     private final MenuRepository menuRepository;
     private final StockService stockService;
     private final MenuIngredientService menuIngredientService;
+    private final ReservationStockService reservationStockService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public MenuCreationService(MenuRepository menuRepository, 
                               StockService stockService,
-                              MenuIngredientService menuIngredientService) {
+                              MenuIngredientService menuIngredientService,
+                              ReservationStockService reservationStockService,
+                              ApplicationEventPublisher eventPublisher) {
         this.menuRepository = menuRepository;
         this.stockService = stockService;
         this.menuIngredientService = menuIngredientService;
+        this.reservationStockService = reservationStockService;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -57,6 +72,7 @@ public Menu creerMenu(String nom, String description, LocalDate dateService,
         menu.setStatut(StatutMenu.BROUILLON);
         
         Menu savedMenu = menuRepository.save(menu);
+        eventPublisher.publishEvent(new MenuModifieEvent(savedMenu.getId()));
         log.info("Menu créé avec succès - ID: {}", savedMenu.getId());
         
         return savedMenu;
@@ -73,15 +89,19 @@ public Menu confirmerMenu(Long menuId) {
             throw new IllegalArgumentException("L'ID du menu ne peut pas être null");
         }
         
-        Menu menu = menuRepository.findById(menuId)
+        // Verrou sur le menu avant la décrémentation: une confirmation concurrente attend ce commit
+        // puis voit le menu déjà confirmé, le stock n'est décrémenté qu'une fois
+        StatutMenu statut = menuRepository.verrouillerStatut(menuId)
+                .orElseThrow(() -> new IllegalArgumentException("Menu non trouvé avec l'ID: " + menuId));
+        Menu menu = menuRepository.findByIdWithIngredientsEtProduits(menuId)
                 .orElseThrow(() -> new IllegalArgumentException("Menu non trouvé avec l'ID: " + menuId));
         
-        if (menu.getStatut() == StatutMenu.CONFIRME) {
+        if (statut == StatutMenu.CONFIRME) {
             log.warn("Menu déjà confirmé: {}", menuId);
             return menu;
         }
         
-        if (menu.getStatut() == StatutMenu.ANNULE) {
+        if (statut == StatutMenu.ANNULE) {
             throw new IllegalStateException("Impossible de confirmer un menu annulé: " + menuId);
         }
         
@@ -92,19 +112,16 @@ public Menu confirmerMenu(Long menuId) {
         
         // COORDINATION CRITIQUE AVEC STOCK
         try {
-            boolean stockSuffisant = menuIngredientService.verifierStockSuffisant(menu);
-            if (!stockSuffisant) {
-                throw new IllegalStateException("Stock insuffisant pour confirmer le menu: " + menuId);
-            }
-            
-            // Décrémentation coordonnée du stock
+            // Décrémentation coordonnée du stock (verrouillage et validation sous verrou)
             menuIngredientService.decrementerStockPourMenu(menu);
+            reservationStockService.libererPourMenu(menuId);
             
             // Mise à jour du statut
             menu.setStatut(StatutMenu.CONFIRME);
             menu.setDateModification(LocalDateTime.now());
             
             Menu confirmedMenu = menuRepository.save(menu);
+            eventPublisher.publishEvent(new MenuModifieEvent(menuId));
             log.info("Menu confirmé avec succès - ID: {}", menuId);
             
             return confirmedMenu;
@@ -115,22 +132,89 @@ public Menu confirmerMenu(Long menuId) {
         }
     }
     
+    /**
+     * Confirme tous les menus en brouillon d'une date de service, par ordre de priorité (date de création)
+     * Une seule transaction et une seule décrémentation en lot: les menus qui ne tiennent plus dans
+     * le stock restant sont rejetés avec leur motif, les autres sont confirmés
+     */
+    public MenusConfirmationDateDTO confirmerMenusParDate(LocalDate dateService) {
+        log.info("Confirmation des menus en brouillon du {}", dateService);
+        
+        if (dateService == null) {
+            throw new IllegalArgumentException("La date de service ne peut pas être null");
+        }
+        
+        // Verrou sur les menus de la date avant la décrémentation, puis statut relu sous ce verrou:
+        // les menus confirmés entre-temps par un appel concurrent sont ignorés
+        Set<Long> brouillons = new HashSet<>();
+        for (Object[] ligne : menuRepository.verrouillerStatutsParDate(dateService)) {
+            if (ligne[1] == StatutMenu.BROUILLON) {
+                brouillons.add((Long) ligne[0]);
+            }
+        }
+        List<Menu> menus = menuRepository.findByDateServiceAndStatutWithIngredientsEtProduits(
+                dateService, StatutMenu.BROUILLON).stream()
+                .filter(menu -> brouillons.contains(menu.getId()))
+                .toList();
+        
+        Map<Long, String> rejets = menuIngredientService.decrementerStockPourMenus(menus);
+        
+        LocalDateTime maintenant = LocalDateTime.now();
+        List<MenuConfirmationResultatDTO> resultats = new ArrayList<>();
+        for (Menu menu : menus) {
+            String motifRejet = rejets.get(menu.getId());
+            if (motifRejet == null) {
+                menu.setStatut(StatutMenu.CONFIRME);
+                menu.setDateModification(maintenant);
+            }
+            resultats.add(MenuConfirmationResultatDTO.builder()
+                    .menuId(menu.getId())
+                    .nom(menu.getNom())
+                    .confirme(motifRejet == null)
+                    .statut(menu.getStatut())
+                    .motifRejet(motifRejet)
+                    .build());
+        }
+        menuRepository.saveAll(menus);
+        menus.forEach(menu -> eventPublisher.publishEvent(new MenuModifieEvent(menu.getId())));
+        
+        // Les réservations des menus confirmés sont remplacées par la décrémentation réelle
+        reservationStockService.libererPourMenus(menus.stream()
+                .filter(menu -> !rejets.containsKey(menu.getId()))
+                .map(Menu::getId)
+                .toList());
+        
+        int confirmes = menus.size() - rejets.size();
+        log.info("Menus du {}: {} confirmé(s), {} rejeté(s)", dateService, confirmes, rejets.size());
+        
+        return MenusConfirmationDateDTO.builder()
+                .dateService(dateService)
+                .totalMenus(menus.size())
+                .menusConfirmes(confirmes)
+                .menusRejetes(rejets.size())
+                .resultats(resultats)
+                .build();
+    }
+    
     /**
      * Annule un menu et restaure le stock si nécessaire
      */
     public Menu annulerMenu(Long menuId, String motifAnnulation) {
         log.info("Annulation du menu ID: {}, motif: {}", menuId, motifAnnulation);
         
-        Menu menu = menuRepository.findById(menuId)
+        // Même verrou que la confirmation: le stock n'est restauré qu'une fois
+        StatutMenu statut = menuRepository.verrouillerStatut(menuId)
+                .orElseThrow(() -> new IllegalArgumentException("Menu non trouvé: " + menuId));
+        Menu menu = menuRepository.findByIdWithIngredientsEtProduits(menuId)
                 .orElseThrow(() -> new IllegalArgumentException("Menu non trouvé: " + menuId));
         
-        if (menu.getStatut() == StatutMenu.ANNULE) {
+        if (statut == StatutMenu.ANNULE) {
             log.warn("Menu déjà annulé: {}", menuId);
             return menu;
         }
         
         // Si le menu était confirmé, restaurer le stock
-        if (menu.getStatut() == StatutMenu.CONFIRME) {
+        if (statut == StatutMenu.CONFIRME) {
             try {
                 menuIngredientService.restaurerStockPourMenu(menu, motifAnnulation);
                 log.info("Stock restauré pour le menu annulé: {}", menuId);
@@ -140,10 +224,13 @@ public Menu annulerMenu(Long menuId, String motifAnnulation) {
             }
         }
         
+        reservationStockService.libererPourMenu(menuId);
+        
         menu.setStatut(StatutMenu.ANNULE);
         menu.setDateModification(LocalDateTime.now());
         
         Menu cancelledMenu = menuRepository.save(menu);
+        eventPublisher.publishEvent(new MenuModifieEvent(menuId));
         log.info("Menu annulé avec succès - ID: {}", menuId);
         
         return cancelledMenu;
@@ -178,6 +265,7 @@ public Menu mettreAJourMenu(Long id, String nom, String description, LocalDate d
         menu.setDateModification(LocalDateTime.now());
         
         Menu updatedMenu = menuRepository.save(menu);
+        eventPublisher.publishEvent(new MenuModifieEvent(id));
         log.info("Menu mis à jour avec succès - ID: {}", id);
         
         return updatedMenu;
@@ -196,7 +284,9 @@ public void supprimerMenu(Long id) {
             throw new IllegalStateException("Impossible de supprimer un menu qui n'est pas en brouillon");
         }
         
+        reservationStockService.libererPourMenu(id);
         menuRepository.delete(menu);
+        eventPublisher.publishEvent(new MenuModifieEvent(id));
         log.info("Menu supprimé avec succès - ID: {}", id);
     }
 }
\ No newline at end of file
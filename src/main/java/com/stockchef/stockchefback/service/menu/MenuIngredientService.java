@@ -1,13 +1,19 @@
 package com.stockchef.stockchefback.service.menu;
 
 import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.Quantite;
+import com.stockchef.stockchefback.model.inventory.StockMovement;
 import com.stockchef.stockchefback.model.inventory.Unite;
 import com.stockchef.stockchefback.model.menu.Menu;
 import com.stockchef.stockchefback.model.menu.MenuIngredient;
+import com.stockchef.stockchefback.model.menu.StatutMenu;
 import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
 import com.stockchef.stockchefback.repository.menu.MenuIngredientRepository;
 import com.stockchef.stockchefback.repository.menu.MenuRepository;
-import com.stockchef.stockchefback.service.inventory.StockService;
+import com.stockchef.stockchefback.service.inventory.LotService;
+import com.stockchef.stockchefback.service.inventory.ReservationStockService;
+import com.stockchef.stockchefback.service.inventory.StockMovementDailyService;
 import com.stockchef.stockchefback.service.inventory.UniteConversionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +22,15 @@
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
 
 /**
  * Service spécialisé pour la gestion des ingrédients de menus
@@ -33,22 +47,34 @@ public class MenuIngredientService {
     
     private static final Logger log = LoggerFactory.getLogger(MenuIngredientService.class);
     
+    // Nombre maximal de produits par requête de recalcul (taille de la clause IN)
+    private static final int TAILLE_LOT_RECALCUL = 500;
+    
     private final MenuRepository menuRepository;
     private final MenuIngredientRepository menuIngredientRepository;
     private final ProduitRepository produitRepository;
-    private final StockService stockService;
+    private final StockMovementRepository stockMovementRepository;
+    private final ReservationStockService reservationStockService;
     private final UniteConversionService uniteConversionService;
+    private final LotService lotService;
+    private final StockMovementDailyService stockMovementDailyService;
     
     public MenuIngredientService(MenuRepository menuRepository,
                                 MenuIngredientRepository menuIngredientRepository,
                                 ProduitRepository produitRepository,
-                                StockService stockService,
-                                UniteConversionService uniteConversionService) {
+                                StockMovementRepository stockMovementRepository,
+                                ReservationStockService reservationStockService,
+                                UniteConversionService uniteConversionService,
+                                LotService lotService,
+                                StockMovementDailyService stockMovementDailyService) {
         this.menuRepository = menuRepository;
         this.menuIngredientRepository = menuIngredientRepository;
         this.produitRepository = produitRepository;
-        this.stockService = stockService;
+        this.stockMovementRepository = stockMovementRepository;
+        this.reservationStockService = reservationStockService;
         this.uniteConversionService = uniteConversionService;
+        this.lotService = lotService;
+        this.stockMovementDailyService = stockMovementDailyService;
     }
     
     /**
@@ -83,8 +109,9 @@ public MenuIngredient ajouterIngredient(Long menuId, Long produitId,
             if (uniteUtilisee.equals(produit.getUnite())) {
                 quantiteConvertieStockUnit = quantiteNecessaire;
             } else {
-                quantiteConvertieStockUnit = uniteConversionService.convertir(
-                    quantiteNecessaire, uniteUtilisee, produit.getUnite()
+                // Densité ou poids pièce du produit si les types d'unités diffèrent
+                quantiteConvertieStockUnit = uniteConversionService.convertirVersUniteStock(
+                    quantiteNecessaire, uniteUtilisee, produit
                 );
             }
         } catch (Exception e) {
@@ -93,12 +120,13 @@ public MenuIngredient ajouterIngredient(Long menuId, Long produitId,
             throw new IllegalArgumentException("Conversion d'unités impossible: " + e.getMessage());
         }
         
-        // VALIDATION DE STOCK
-        if (!produit.hasSufficientStock(quantiteConvertieStockUnit)) {
+        // VALIDATION DE STOCK (disponible à promettre: stock moins réservations des autres brouillons)
+        BigDecimal disponible = reservationStockService.getDisponibleAPromettre(produit);
+        if (disponible.compareTo(quantiteConvertieStockUnit) < 0) {
             throw new IllegalStateException(
                 String.format("Stock insuffisant pour %s. Disponible: %s %s, Demandé: %s %s", 
                         produit.getNom(), 
-                        produit.getQuantiteStock(), produit.getUnite(),
+                        disponible.max(BigDecimal.ZERO), produit.getUnite(),
                         quantiteConvertieStockUnit, produit.getUnite())
             );
         }
@@ -114,6 +142,12 @@ public MenuIngredient ajouterIngredient(Long menuId, Long produitId,
         ingredient.setCoutIngredient(coutIngredient);
         
         MenuIngredient savedIngredient = menuIngredientRepository.save(ingredient);
+        menu.getIngredients().add(savedIngredient);
+        
+        // Blocage souple du stock tant que le menu est en brouillon
+        if (menu.getStatut() == StatutMenu.BROUILLON) {
+            reservationStockService.reserver(produit, menuId, quantiteConvertieStockUnit, menu.getDateService());
+        }
         
         // Mise à jour du coût total du menu
         mettreAJourCoutTotalMenu(menu);
@@ -147,6 +181,7 @@ public void supprimerIngredient(Long menuId, Long produitId) {
         
         // Puis supprimer de la base de données
         menuIngredientRepository.delete(ingredient);
+        reservationStockService.libererPourIngredient(menuId, produitId);
         
         // Recharger le menu pour éviter les problèmes de cache Hibernate
         Menu menuRecharge = menuRepository.findById(menuId)
@@ -160,17 +195,32 @@ public void supprimerIngredient(Long menuId, Long produitId) {
     
     /**
      * Vérifie si le stock est suffisant pour tous les ingrédients d'un menu
+     * Utilise le disponible à promettre: les réservations des autres menus en brouillon sont déduites
      */
     public boolean verifierStockSuffisant(Menu menu) {
         log.debug("Vérification stock pour menu: {}", menu.getId());
         
+        Map<Long, BigDecimal> reservationsDuMenu = reservationStockService
+                .getReservationsParMenu(List.of(menu.getId()))
+                .getOrDefault(menu.getId(), Map.of());
+        return estRealisable(menu, reservationsDuMenu);
+    }
+    
+    /**
+     * Vérifie un menu contre le disponible à promettre, ses propres réservations étant fournies
+     */
+    public boolean estRealisable(Menu menu, Map<Long, BigDecimal> reservationsDuMenu) {
+        // Chemin de lecture: quantités converties calculées sans modifier les ingrédients gérés
+        Map<Long, Long> besoins = calculerBesoinsParProduit(List.of(menu), uniteConversionService::convertirIngredient);
         for (MenuIngredient ingredient : menu.getIngredients()) {
             Produit produit = ingredient.getProduit();
-            BigDecimal quantiteRequise = ingredient.getQuantiteConvertieStockUnit();
+            BigDecimal disponible = reservationStockService.getDisponiblePourMenu(
+                    produit, reservationsDuMenu.getOrDefault(produit.getId(), BigDecimal.ZERO));
+            long quantiteRequise = besoins.get(produit.getId());
             
-            if (!produit.hasSufficientStock(quantiteRequise)) {
-                log.warn("Stock insuffisant pour {} - Disponible: {}, Requis: {}", 
-                        produit.getNom(), produit.getQuantiteStock(), quantiteRequise);
+            if (enMilli(disponible) < quantiteRequise) {
+                log.warn("Stock insuffisant pour {} - Disponible à promettre: {}, Requis: {}",
+                        produit.getNom(), disponible, Quantite.versBigDecimal(quantiteRequise));
                 return false;
             }
         }
@@ -180,24 +230,60 @@ public boolean verifierStockSuffisant(Menu menu) {
     
     /**
      * Décremente le stock pour tous les ingrédients d'un menu confirmé
+     * Verrouillage ordonné, validation en mémoire, UPDATE ensembliste et mouvements insérés en lot
      */
     public void decrementerStockPourMenu(Menu menu) {
         log.info("Décrémentation stock pour menu confirmé: {}", menu.getId());
         
-        for (MenuIngredient ingredient : menu.getIngredients()) {
-            try {
-                stockService.decrementerStock(
-                        ingredient.getProduit().getId(),
-                        ingredient.getQuantiteConvertieStockUnit(),
-                        "Utilisation menu: " + menu.getNom(),
-                        menu.getId()
-                );
-            } catch (Exception e) {
-                log.error("Erreur lors de la décrémentation stock pour produit {}: {}", 
-                        ingredient.getProduit().getId(), e.getMessage());
-                throw new IllegalStateException("Échec décrémentation stock: " + e.getMessage(), e);
+        List<Menu> menus = List.of(menu);
+        uniteConversionService.convertirIngredients(menu.getIngredients());
+        Map<Long, Long> stocks = verrouillerStocks(menus);
+        
+        // Validation de toutes les lignes avant toute écriture
+        List<String> insuffisances = verifierIngredients(menu, stocks);
+        if (!insuffisances.isEmpty()) {
+            log.warn("Confirmation refusée pour menu {}: {}", menu.getId(), insuffisances);
+            throw new IllegalStateException("Échec décrémentation stock: " + String.join("; ", insuffisances));
+        }
+        
+        appliquerMouvementsMenus(menus, stocks, true, null);
+    }
+    
+    /**
+     * Décremente en un seul lot le stock de plusieurs menus, dans l'ordre donné (priorité)
+     * Un menu n'est retenu que si tous ses ingrédients tiennent dans le stock restant après les menus précédents
+     * Retourne, pour chaque menu rejeté, la raison du rejet
+     */
+    public Map<Long, String> decrementerStockPourMenus(List<Menu> menus) {
+        log.info("Décrémentation stock en lot pour {} menu(s)", menus.size());
+        
+        menus.forEach(menu -> uniteConversionService.convertirIngredients(menu.getIngredients()));
+        Map<Long, Long> stocks = verrouillerStocks(menus);
+        Map<Long, Long> restants = new HashMap<>(stocks);
+        Map<Long, String> rejets = new LinkedHashMap<>();
+        List<Menu> retenus = new ArrayList<>();
+        
+        for (Menu menu : menus) {
+            if (menu.getIngredients().isEmpty()) {
+                rejets.put(menu.getId(), "Menu sans ingrédients");
+                continue;
             }
+            
+            List<String> insuffisances = verifierIngredients(menu, restants);
+            if (insuffisances.isEmpty()) {
+                calculerBesoinsParProduit(List.of(menu)).forEach((produitId, requis) -> restants.merge(produitId, -requis, Long::sum));
+                retenus.add(menu);
+            } else {
+                rejets.put(menu.getId(), String.join("; ", insuffisances));
+            }
+        }
+        
+        if (!retenus.isEmpty()) {
+            appliquerMouvementsMenus(retenus, stocks, true, null);
         }
+        
+        log.info("Lot de menus: {} retenu(s), {} rejeté(s)", retenus.size(), rejets.size());
+        return rejets;
     }
     
     /**
@@ -206,19 +292,135 @@ public void decrementerStockPourMenu(Menu menu) {
     public void restaurerStockPourMenu(Menu menu, String motif) {
         log.info("Restauration stock pour menu annulé: {}", menu.getId());
         
+        List<Menu> menus = List.of(menu);
+        Map<Long, Long> stocks = verrouillerStocks(menus);
+        appliquerMouvementsMenus(menus, stocks, false, motif);
+    }
+    
+    /**
+     * Verrouille en une requête, dans l'ordre des IDs, tous les produits utilisés par les menus
+     * et retourne leur quantité en stock lue en base (en millièmes)
+     */
+    private Map<Long, Long> verrouillerStocks(List<Menu> menus) {
+        Set<Long> produitIds = new TreeSet<>(calculerBesoinsParProduit(menus).keySet());
+        Map<Long, Long> stocks = new HashMap<>();
+        if (produitIds.isEmpty()) {
+            return stocks;
+        }
+        for (Object[] ligne : produitRepository.verrouillerQuantitesStock(produitIds)) {
+            stocks.put((Long) ligne[0], enMilli((BigDecimal) ligne[1]));
+        }
+        return stocks;
+    }
+    
+    /**
+     * Compare les besoins d'un menu aux quantités disponibles et liste les ingrédients qui ne tiennent pas
+     */
+    private List<String> verifierIngredients(Menu menu, Map<Long, Long> disponibles) {
+        Map<Long, Long> besoins = calculerBesoinsParProduit(List.of(menu));
+        List<String> insuffisances = new ArrayList<>();
         for (MenuIngredient ingredient : menu.getIngredients()) {
-            try {
-                stockService.incrementerStock(
-                        ingredient.getProduit().getId(),
-                        ingredient.getQuantiteConvertieStockUnit(),
-                        "Annulation menu: " + motif
-                );
-            } catch (Exception e) {
-                log.error("Erreur lors de la restauration stock pour produit {}: {}", 
-                        ingredient.getProduit().getId(), e.getMessage());
-                throw new IllegalStateException("Échec restauration stock: " + e.getMessage(), e);
+            Produit produit = ingredient.getProduit();
+            Long disponible = disponibles.get(produit.getId());
+            long requis = besoins.get(produit.getId());
+            if (disponible == null || Boolean.TRUE.equals(produit.getDeleted())) {
+                insuffisances.add(String.format("Produit non disponible: %s", produit.getNom()));
+            } else if (disponible < requis) {
+                insuffisances.add(String.format("Stock insuffisant pour %s. Disponible: %s %s, Demandé: %s %s",
+                        produit.getNom(), Quantite.versBigDecimal(disponible), produit.getUnite().getSymbol(),
+                        Quantite.versBigDecimal(requis), produit.getUnite().getSymbol()));
             }
         }
+        return insuffisances;
+    }
+    
+    /**
+     * Somme des quantités requises (millièmes de l'unité de stock) par produit pour un ensemble de menus
+     */
+    private Map<Long, Long> calculerBesoinsParProduit(List<Menu> menus) {
+        return calculerBesoinsParProduit(menus, MenuIngredient::getQuantiteConvertieStockUnit);
+    }
+    
+    /**
+     * Même somme, la quantité dans l'unité de stock de chaque ingrédient étant fournie par la fonction
+     */
+    private Map<Long, Long> calculerBesoinsParProduit(List<Menu> menus, Function<MenuIngredient, BigDecimal> quantiteStock) {
+        Map<Long, Long> besoins = new TreeMap<>();
+        for (Menu menu : menus) {
+            for (MenuIngredient ingredient : menu.getIngredients()) {
+                besoins.merge(ingredient.getProduit().getId(), enMilli(quantiteStock.apply(ingredient)), Long::sum);
+            }
+        }
+        return besoins;
+    }
+    
+    /**
+     * Millièmes d'une quantité, arrondie comme la colonne (échelle 3)
+     */
+    private static long enMilli(BigDecimal quantite) {
+        return Quantite.versMilliArrondi(quantite);
+    }
+    
+    /**
+     * Applique le mouvement de stock des menus: un UPDATE ensembliste puis un saveAll des mouvements
+     * Les soldes des mouvements sont calculés à partir des quantités verrouillées
+     */
+    private void appliquerMouvementsMenus(List<Menu> menus, Map<Long, Long> stocks,
+                                          boolean sortie, String motifAnnulation) {
+        if (stocks.isEmpty()) {
+            return;
+        }
+        List<Long> menuIds = menus.stream().map(Menu::getId).toList();
+        LocalDateTime maintenant = LocalDateTime.now();
+        
+        if (sortie) {
+            menuIngredientRepository.decrementerStockProduitsDesMenus(menuIds, maintenant);
+        } else {
+            menuIngredientRepository.incrementerStockProduitsDesMenus(menuIds, maintenant);
+        }
+        
+        Map<Long, Long> soldes = new HashMap<>(stocks);
+        Map<Long, Long> quantitesParProduit = new HashMap<>();
+        Map<Long, Produit> produits = new HashMap<>();
+        List<StockMovement> movements = new ArrayList<>();
+        for (Menu menu : menus) {
+            for (MenuIngredient ingredient : menu.getIngredients()) {
+                Produit produit = ingredient.getProduit();
+                BigDecimal quantite = ingredient.getQuantiteConvertieStockUnit();
+                produits.put(produit.getId(), produit);
+                quantitesParProduit.merge(produit.getId(), enMilli(quantite), Long::sum);
+                
+                if (sortie) {
+                    long solde = soldes.merge(produit.getId(), -enMilli(quantite), Long::sum);
+                    movements.add(StockMovement.createSortie(produit, quantite, produit.getUnite(),
+                            Quantite.versBigDecimal(solde), "Utilisation menu: " + menu.getNom(), menu.getId()));
+                } else {
+                    long solde = soldes.merge(produit.getId(), enMilli(quantite), Long::sum);
+                    StockMovement movement = StockMovement.createEntree(produit, quantite, produit.getUnite(),
+                            Quantite.versBigDecimal(solde), "Annulation menu: " + motifAnnulation);
+                    movement.setMenuId(menu.getId());
+                    movements.add(movement);
+                }
+            }
+        }
+        stockMovementRepository.saveAll(movements);
+        stockMovementDailyService.enregistrer(movements);
+        
+        // L'UPDATE ensembliste contourne le contexte de persistance: recharger les produits gérés
+        produits.values().forEach(produitRepository::refresh);
+        
+        // Lots: sorties FIFO par péremption; une annulation remet le stock dans un lot
+        // à la péremption la plus proche du produit
+        if (sortie) {
+            lotService.consommer(produits, quantitesParProduit, stocks);
+        } else {
+            produits.forEach((id, produit) -> lotService.creerLot(produit,
+                    Quantite.versBigDecimal(quantitesParProduit.get(id)), produit.getDatePeremption(),
+                    Quantite.versBigDecimal(stocks.get(id))));
+        }
+        
+        log.info("{} mouvement(s) de stock appliqué(s) pour {} menu(s) sur {} produit(s)",
+                movements.size(), menus.size(), produits.size());
     }
     
     /**
@@ -237,6 +439,26 @@ public void mettreAJourCoutTotalMenu(Menu menu) {
         log.debug("Coût total menu {} mis à jour: {}", menu.getId(), coutTotal);
     }
     
+    /**
+     * Recalcule en quelques requêtes ensemblistes les coûts d'ingrédients, coûts totaux et marges
+     * des menus non annulés utilisant les produits donnés (suite à un changement de prix)
+     */
+    public void recalculerCoutsPourProduits(List<Long> produitIds) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        int ingredients = 0;
+        int menus = 0;
+        
+        for (int debut = 0; debut < produitIds.size(); debut += TAILLE_LOT_RECALCUL) {
+            List<Long> lot = produitIds.subList(debut, Math.min(debut + TAILLE_LOT_RECALCUL, produitIds.size()));
+            ingredients += menuIngredientRepository.recalculerCoutIngredientsPourProduits(lot, StatutMenu.ANNULE);
+            menus += menuRepository.recalculerCoutTotalMenusUtilisantProduits(lot, StatutMenu.ANNULE, maintenant);
+            menuRepository.recalculerMargeMenusUtilisantProduits(lot, StatutMenu.ANNULE);
+        }
+        
+        log.info("Coûts recalculés pour {} produit(s): {} ingrédient(s), {} menu(s)",
+                produitIds.size(), ingredients, menus);
+    }
+    
     /**
      * Calcule l'utilisation totale d'un produit dans les menus
      */
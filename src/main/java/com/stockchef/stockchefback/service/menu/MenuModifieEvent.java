@@ -0,0 +1,8 @@
+package com.stockchef.stockchefback.service.menu;
+
+/**
+ * Événement publié lorsqu'un menu est créé, modifié, confirmé, annulé ou supprimé
+ */
+public record MenuModifieEvent(
+    Long menuId
+) {}
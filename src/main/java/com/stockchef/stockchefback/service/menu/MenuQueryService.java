@@ -3,6 +3,7 @@
 import com.stockchef.stockchefback.model.menu.Menu;
 import com.stockchef.stockchefback.model.menu.StatutMenu;
 import com.stockchef.stockchefback.repository.menu.MenuRepository;
+import com.stockchef.stockchefback.service.inventory.ReservationStockService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -10,9 +11,13 @@
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service dédié aux requêtes de lecture des menus
@@ -30,9 +35,15 @@ public class MenuQueryService {
     private static final Logger log = LoggerFactory.getLogger(MenuQueryService.class);
     
     private final MenuRepository menuRepository;
+    private final MenuIngredientService menuIngredientService;
+    private final ReservationStockService reservationStockService;
     
-    public MenuQueryService(MenuRepository menuRepository) {
+    public MenuQueryService(MenuRepository menuRepository,
+                           MenuIngredientService menuIngredientService,
+                           ReservationStockService reservationStockService) {
         this.menuRepository = menuRepository;
+        this.menuIngredientService = menuIngredientService;
+        this.reservationStockService = reservationStockService;
     }
     
     // ==================== REQUÊTES DE BASE ====================
@@ -71,7 +82,7 @@ public Page<Menu> listerMenus(Pageable pageable) {
         }
         
         log.debug("Listage des menus avec pagination: {}", pageable);
-        return menuRepository.findAll(pageable);
+        return chargerIngredients(menuRepository.findAll(pageable));
     }
     
     // ==================== RECHERCHES AVANCÉES ====================
@@ -81,7 +92,13 @@ public Page<Menu> listerMenus(Pageable pageable) {
      */
     public Page<Menu> rechercherMenus(String nom, LocalDate dateDe, LocalDate dateA, Pageable pageable) {
         log.debug("Recherche menus - Nom: {}, Date de: {}, Date à: {}", nom, dateDe, dateA);
+        return chargerIngredients(rechercherPageMenus(nom, dateDe, dateA, pageable));
+    }
         
+    /**
+     * Sélectionne la requête paginée selon les critères fournis
+     */
+    private Page<Menu> rechercherPageMenus(String nom, LocalDate dateDe, LocalDate dateA, Pageable pageable) {
         // Recherche par nom et dates
         if (nom != null && !nom.trim().isEmpty() && dateDe != null && dateA != null) {
             return menuRepository.findByNomContainingIgnoreCaseAndDateServiceBetween(
@@ -101,6 +118,20 @@ else if (dateDe != null && dateA != null) {
         }
     }
     
+    /**
+     * Recharge en une requête les menus d'une page avec leurs ingrédients et produits, dans l'ordre de la page
+     * La page rendue reste utilisable après la fin de la transaction (open-in-view désactivé)
+     */
+    private Page<Menu> chargerIngredients(Page<Menu> menus) {
+        if (!menus.hasContent()) {
+            return menus;
+        }
+        List<Long> ids = menus.getContent().stream().map(Menu::getId).toList();
+        Map<Long, Menu> chargesParId = menuRepository.findByIdInWithIngredientsEtProduits(ids).stream()
+                .collect(Collectors.toMap(Menu::getId, Function.identity()));
+        return menus.map(menu -> chargesParId.get(menu.getId()));
+    }
+    
     // ==================== REQUÊTES PAR CRITÈRES SPÉCIFIQUES ====================
     
     /**
@@ -134,8 +165,15 @@ public List<Menu> getMenusByChef(String chefEmail) {
     public List<Menu> obtenirMenusRealisables(LocalDate dateService) {
         log.debug("Recherche menus réalisables pour: {}", dateService);
         
-        // Utilise la méthode optimisée du repository qui vérifie le stock
-        List<Menu> menusRealisables = menuRepository.findMenusRealisablesParDate(dateService);
+        // Menus, ingrédients et produits en une requête, puis vérification contre le registre des réservations
+        List<Menu> menus = menuRepository.findByDateServiceWithIngredientsEtProduits(dateService);
+        Map<Long, Map<Long, BigDecimal>> reservations = reservationStockService.getReservationsParMenu(
+                menus.stream().map(Menu::getId).toList());
+        
+        List<Menu> menusRealisables = menus.stream()
+                .filter(menu -> menuIngredientService.estRealisable(
+                        menu, reservations.getOrDefault(menu.getId(), Map.of())))
+                .toList();
         
         log.info("Trouvé {} menus réalisables pour la date {}", 
                 menusRealisables.size(), dateService);
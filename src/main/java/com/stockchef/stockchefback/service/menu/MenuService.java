@@ -1,5 +1,6 @@
 package com.stockchef.stockchefback.service.menu;
 
+import com.stockchef.stockchefback.dto.menu.MenusConfirmationDateDTO;
 import com.stockchef.stockchefback.model.inventory.Unite;
 import com.stockchef.stockchefback.model.menu.Menu;
 import com.stockchef.stockchefback.model.menu.MenuIngredient;
@@ -64,6 +65,13 @@ public Menu confirmerMenu(Long menuId) {
         return menuCreationService.confirmerMenu(menuId);
     }
     
+    /**
+     * Confirme tous les menus en brouillon d'une date de service en une seule transaction
+     */
+    public MenusConfirmationDateDTO confirmerMenusParDate(LocalDate dateService) {
+        return menuCreationService.confirmerMenusParDate(dateService);
+    }
+    
     /**
      * Annule un menu avec motif
      */
@@ -0,0 +1,159 @@
+package com.stockchef.stockchefback.service.reports;
+
+import com.stockchef.stockchefback.service.inventory.MouvementsStockEnregistresEvent;
+import com.stockchef.stockchefback.service.inventory.ProduitModifieEvent;
+import com.stockchef.stockchefback.service.menu.MenuModifieEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache des sections du dashboard
+ * 
+ * FONCTIONNEMENT:
+ * - Chaque section calculée est conservée jusqu'à ce qu'un changement validé (après commit) la concerne:
+ *   mouvements de stock, produits ou menus n'invalident que les sections qui en dépendent
+ * - Chargement unique: les demandes simultanées d'une section absente attendent le même calcul
+ * - Un calcul commencé avant une invalidation est rendu à ses demandeurs mais pas mis en cache
+ * - Fraîcheur maximale: une section plus ancienne est recalculée même sans événement
+ *   (changements hors application, dates relatives au jour)
+ */
+@Component
+public class DashboardCache {
+    
+    private static final Logger log = LoggerFactory.getLogger(DashboardCache.class);
+    
+    // Sections dépendant de chaque type de changement
+    static final Set<String> SECTIONS_MOUVEMENTS = Set.of(
+            "alertesStock", "produitsExpirantBientot", "valeurStockTotal", "mouvementsStock",
+            "topProduitsUtilises", "produitsGaspilles", "coutIngredientsDuJour", "economiesPotentielles");
+    static final Set<String> SECTIONS_PRODUITS = Set.of(
+            "totalProduitsActifs", "alertesStock", "produitsExpirantBientot", "valeurStockTotal",
+            "nouveauxProduits", "topProduitsUtilises", "produitsGaspilles", "economiesPotentielles");
+    static final Set<String> SECTIONS_MENUS = Set.of("menusPrepares");
+    
+    private final long fraicheurMaxNanos;
+    
+    private final Map<String, Entree> entrees = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Object>> chargements = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private volatile LocalDate jour = LocalDate.now();
+    
+    public DashboardCache(@Value("${rapport.dashboard.cache.fraicheur-max-ms:30000}") long fraicheurMaxMs) {
+        this.fraicheurMaxNanos = TimeUnit.MILLISECONDS.toNanos(fraicheurMaxMs);
+    }
+    
+    /**
+     * Valeur d'une section: depuis le cache si fraîche, sinon via le chargement en cours ou un nouveau chargement
+     *
+     * @param chargeur Lance le calcul de la section (appelé au plus une fois par chargement)
+     */
+    public CompletableFuture<Object> obtenir(String section, Supplier<CompletableFuture<Object>> chargeur) {
+        verifierJour();
+        Entree entree = entrees.get(section);
+        if (entree != null && System.nanoTime() - entree.calculeA() <= fraicheurMaxNanos) {
+            return CompletableFuture.completedFuture(entree.valeur());
+        }
+        
+        CompletableFuture<Object> chargement = new CompletableFuture<>();
+        CompletableFuture<Object> enCours = chargements.putIfAbsent(section, chargement);
+        if (enCours != null) {
+            return enCours;
+        }
+        
+        // Un chargement a pu se terminer entre la lecture du cache et putIfAbsent (il écrit l'entrée
+        // avant de se retirer): relire le cache plutôt que de relancer le calcul
+        entree = entrees.get(section);
+        if (entree != null && System.nanoTime() - entree.calculeA() <= fraicheurMaxNanos) {
+            chargements.remove(section, chargement);
+            chargement.complete(entree.valeur());
+            return chargement;
+        }
+        
+        long generation = generation(section).get();
+        try {
+            chargeur.get().whenComplete((valeur, erreur) -> {
+                if (erreur == null && generation(section).get() == generation) {
+                    entrees.put(section, new Entree(valeur, System.nanoTime()));
+                }
+                chargements.remove(section, chargement);
+                if (erreur != null) {
+                    chargement.completeExceptionally(erreur);
+                } else {
+                    chargement.complete(valeur);
+                }
+            });
+        } catch (RuntimeException e) {
+            chargements.remove(section, chargement);
+            chargement.completeExceptionally(e);
+        }
+        return chargement;
+    }
+    
+    /**
+     * Invalide des sections: les prochaines demandes relancent un calcul
+     */
+    public void invalider(Set<String> sections) {
+        for (String section : sections) {
+            generation(section).incrementAndGet();
+            entrees.remove(section);
+            chargements.remove(section);
+        }
+    }
+    
+    /**
+     * Vide tout le cache
+     */
+    public void invaliderTout() {
+        invalider(Set.copyOf(generations.keySet()));
+        entrees.clear();
+    }
+    
+    // ==================== ÉVÉNEMENTS (après commit) ====================
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMouvementsStockEnregistres(MouvementsStockEnregistresEvent event) {
+        invalider(SECTIONS_MOUVEMENTS);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProduitModifie(ProduitModifieEvent event) {
+        invalider(SECTIONS_PRODUITS);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuModifie(MenuModifieEvent event) {
+        invalider(SECTIONS_MENUS);
+    }
+    
+    // ==================== INTERNE ====================
+    
+    private AtomicLong generation(String section) {
+        return generations.computeIfAbsent(section, s -> new AtomicLong());
+    }
+    
+    /**
+     * Changement de jour: toutes les sections dépendent de la date du jour
+     */
+    private void verifierJour() {
+        LocalDate aujourdHui = LocalDate.now();
+        if (!aujourdHui.equals(jour)) {
+            jour = aujourdHui;
+            invaliderTout();
+            log.debug("Cache du dashboard vidé: changement de jour");
+        }
+    }
+    
+    private record Entree(Object valeur, long calculeA) {}
+}
@@ -0,0 +1,84 @@
+package com.stockchef.stockchefback.service.reports;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rapport calculé en arrière-plan
+ * Créé EN_ATTENTE, passe EN_COURS sur un thread de rapportJobExecutor puis TERMINE ou ECHEC.
+ * Le résultat est conservé en mémoire jusqu'à expiration (TTL compté depuis la fin du calcul).
+ */
+public class RapportJob {
+    
+    public enum Statut {
+        EN_ATTENTE, EN_COURS, TERMINE, ECHEC
+    }
+    
+    private final String id;
+    private final String type;
+    private final String demandeur;
+    private final LocalDateTime soumisA;
+    
+    private volatile Statut statut = Statut.EN_ATTENTE;
+    private volatile LocalDateTime termineA;
+    private volatile Object resultat;
+    private volatile String erreur;
+    
+    public RapportJob(String id, String type, String demandeur) {
+        this.id = id;
+        this.type = type;
+        this.demandeur = demandeur;
+        this.soumisA = LocalDateTime.now();
+    }
+    
+    void demarrer() {
+        statut = Statut.EN_COURS;
+    }
+    
+    void terminer(Object resultat) {
+        this.resultat = resultat;
+        this.termineA = LocalDateTime.now();
+        this.statut = Statut.TERMINE;
+    }
+    
+    void echouer(String erreur) {
+        this.erreur = erreur;
+        this.termineA = LocalDateTime.now();
+        this.statut = Statut.ECHEC;
+    }
+    
+    public boolean isFini() {
+        return statut == Statut.TERMINE || statut == Statut.ECHEC;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public String getDemandeur() {
+        return demandeur;
+    }
+    
+    public LocalDateTime getSoumisA() {
+        return soumisA;
+    }
+    
+    public Statut getStatut() {
+        return statut;
+    }
+    
+    public LocalDateTime getTermineA() {
+        return termineA;
+    }
+    
+    public Object getResultat() {
+        return resultat;
+    }
+    
+    public String getErreur() {
+        return erreur;
+    }
+}
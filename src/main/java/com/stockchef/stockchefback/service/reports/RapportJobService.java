@@ -0,0 +1,147 @@
+package com.stockchef.stockchefback.service.reports;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Service des rapports en arrière-plan
+ *
+ * FONCTIONNEMENT:
+ * - La soumission enregistre le job et le confie à rapportJobExecutor (pool et file bornés)
+ * - File pleine: RejectedExecutionException, le job n'est pas conservé
+ * - Chaque calcul s'exécute dans sa propre transaction en lecture seule
+ * - Un job n'est visible que de son demandeur; le résultat expire après rapport.jobs.ttl-minutes
+ * - Au plus rapport.jobs.max jobs conservés: au-delà, le plus ancien job terminé est supprimé;
+ *   si aucun n'est terminé, la soumission est refusée comme une file pleine
+ */
+@Service
+public class RapportJobService {
+    
+    private static final Logger log = LoggerFactory.getLogger(RapportJobService.class);
+    
+    private final ThreadPoolExecutor rapportJobExecutor;
+    private final TransactionTemplate lectureSeule;
+    private final long ttlMinutes;
+    private final int jobsMax;
+    
+    private final Map<String, RapportJob> jobs = new ConcurrentHashMap<>();
+    
+    public RapportJobService(@Qualifier("rapportJobExecutor") ThreadPoolExecutor rapportJobExecutor,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${rapport.jobs.ttl-minutes:30}") long ttlMinutes,
+                             @Value("${rapport.jobs.max:200}") int jobsMax) {
+        this.rapportJobExecutor = rapportJobExecutor;
+        this.lectureSeule = new TransactionTemplate(transactionManager);
+        this.lectureSeule.setReadOnly(true);
+        this.ttlMinutes = ttlMinutes;
+        this.jobsMax = jobsMax;
+    }
+    
+    /**
+     * Soumet un calcul de rapport
+     *
+     * @throws RejectedExecutionException si la file des rapports est pleine,
+     *         ou si le nombre maximal de jobs conservés est atteint sans job terminé à supprimer
+     */
+    public RapportJob soumettre(String type, String demandeur, Supplier<?> calcul) {
+        RapportJob job = new RapportJob(UUID.randomUUID().toString(), type, demandeur);
+        synchronized (jobs) {
+            libererPlace();
+            jobs.put(job.getId(), job);
+        }
+        try {
+            rapportJobExecutor.execute(() -> executer(job, calcul));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            log.warn("Rapport {} refusé: file des rapports pleine ({} en attente)",
+                    type, rapportJobExecutor.getQueue().size());
+            throw e;
+        }
+        log.info("Rapport {} soumis par {}: job {}", type, demandeur, job.getId());
+        return job;
+    }
+    
+    /**
+     * Job d'un demandeur, s'il existe et n'a pas expiré
+     */
+    public Optional<RapportJob> obtenir(String id, String demandeur) {
+        return Optional.ofNullable(jobs.get(id))
+                .filter(job -> Objects.equals(job.getDemandeur(), demandeur))
+                .filter(job -> !estExpire(job, LocalDateTime.now()));
+    }
+    
+    /**
+     * Date d'expiration du résultat (null tant que le calcul n'est pas fini)
+     */
+    public LocalDateTime getExpiration(RapportJob job) {
+        return job.isFini() ? job.getTermineA().plusMinutes(ttlMinutes) : null;
+    }
+    
+    /**
+     * Supprime les résultats expirés
+     */
+    @Scheduled(fixedDelayString = "${rapport.jobs.purge-ms:60000}")
+    public void purgerJobsExpires() {
+        LocalDateTime maintenant = LocalDateTime.now();
+        int supprimes = 0;
+        for (RapportJob job : jobs.values()) {
+            if (estExpire(job, maintenant) && jobs.remove(job.getId(), job)) {
+                supprimes++;
+            }
+        }
+        if (supprimes > 0) {
+            log.info("{} rapport(s) expiré(s) supprimé(s)", supprimes);
+        }
+    }
+    
+    /**
+     * Nombre maximal de jobs atteint: supprime le plus ancien job terminé, sinon refuse la soumission
+     */
+    private void libererPlace() {
+        if (jobs.size() < jobsMax) {
+            return;
+        }
+        RapportJob plusAncien = jobs.values().stream()
+                .filter(RapportJob::isFini)
+                .min(Comparator.comparing(RapportJob::getTermineA))
+                .orElseThrow(() -> new RejectedExecutionException(
+                        "Nombre maximal de rapports conservés atteint (" + jobsMax + ")"));
+        jobs.remove(plusAncien.getId());
+        log.debug("Rapport {} (job {}) supprimé avant expiration: {} jobs conservés au plus",
+                plusAncien.getType(), plusAncien.getId(), jobsMax);
+    }
+    
+    private boolean estExpire(RapportJob job, LocalDateTime maintenant) {
+        return job.isFini() && getExpiration(job).isBefore(maintenant);
+    }
+    
+    private void executer(RapportJob job, Supplier<?> calcul) {
+        job.demarrer();
+        long debut = System.nanoTime();
+        try {
+            job.terminer(lectureSeule.execute(status -> calcul.get()));
+            log.info("Rapport {} (job {}) calculé en {} ms",
+                    job.getType(), job.getId(), (System.nanoTime() - debut) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Rapport {} (job {}) en erreur", job.getType(), job.getId(), e);
+            job.echouer("Erreur lors du calcul du rapport");
+        }
+    }
+}
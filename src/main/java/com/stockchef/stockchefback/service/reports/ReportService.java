@@ -1,78 +1,215 @@
 package com.stockchef.stockchefback.service.reports;
 
+import com.stockchef.stockchefback.dto.reports.ConsommationProduitDTO;
 import com.stockchef.stockchefback.dto.reports.DashboardSummaryDTO;
 import com.stockchef.stockchefback.dto.reports.InventoryReportDTO;
 import com.stockchef.stockchefback.dto.reports.MenuPerformanceReportDTO;
 import com.stockchef.stockchefback.dto.reports.WasteReportItemDTO;
+import com.stockchef.stockchefback.model.inventory.Lot;
 import com.stockchef.stockchefback.model.inventory.Produit;
-import com.stockchef.stockchefback.model.inventory.StockMovement;
+import com.stockchef.stockchefback.model.inventory.Quantite;
 import com.stockchef.stockchefback.model.inventory.TypeMouvement;
-import com.stockchef.stockchefback.model.menu.Menu;
 import com.stockchef.stockchefback.model.menu.StatutMenu;
+import com.stockchef.stockchefback.repository.inventory.LotRepository;
 import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
-import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementDailyRepository;
 import com.stockchef.stockchefback.repository.menu.MenuRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Service des rapports et du dashboard
+ *
+ * Les sections du dashboard sont indépendantes: chacune s'exécute sur un thread virtuel dans sa propre
+ * transaction en lecture seule, avec un nombre borné de connexions simultanées. Une section qui dépasse
+ * le délai n'est pas attendue et est signalée dans sectionsIncompletes (résultat partiel); son calcul
+ * se termine en arrière-plan et alimente le cache.
+ * Les sections calculées sont servies par DashboardCache (invalidation par événements, chargement unique).
+ * Appelé dans une transaction existante, le dashboard s'exécute séquentiellement dans celle-ci, sans cache.
+ */
 @Service
 public class ReportService {
 
-    @Autowired
-    private ProduitRepository produitRepository;
+    private static final Logger log = LoggerFactory.getLogger(ReportService.class);
     
-    @Autowired
-    private StockMovementRepository stockMovementRepository;
+    // Alias triables de MenuRepository.agregerPerformanceParNom
+    private static final Set<String> TRIS_PERFORMANCE_MENUS = Set.of(
+            "profitabiliteTotal", "nombrePreparations", "menuNom", "dernierePreparation");
     
-    @Autowired
-    private MenuRepository menuRepository;
+    private final ProduitRepository produitRepository;
+    private final LotRepository lotRepository;
+    private final MenuRepository menuRepository;
+    private final StockMovementDailyRepository stockMovementDailyRepository;
+    private final ExecutorService rapportExecutor;
+    private final DashboardCache dashboardCache;
+    private final TransactionTemplate lectureSeule;
+    private final Semaphore connexions;
+    private final long delaiSectionNanos;
+    
+    public ReportService(ProduitRepository produitRepository,
+                         LotRepository lotRepository,
+                         MenuRepository menuRepository,
+                         StockMovementDailyRepository stockMovementDailyRepository,
+                         @Qualifier("rapportExecutor") ExecutorService rapportExecutor,
+                         DashboardCache dashboardCache,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${rapport.dashboard.connexions-max:4}") int connexionsMax,
+                         @Value("${rapport.dashboard.delai-section-ms:3000}") long delaiSectionMs) {
+        this.produitRepository = produitRepository;
+        this.lotRepository = lotRepository;
+        this.menuRepository = menuRepository;
+        this.stockMovementDailyRepository = stockMovementDailyRepository;
+        this.rapportExecutor = rapportExecutor;
+        this.dashboardCache = dashboardCache;
+        this.lectureSeule = new TransactionTemplate(transactionManager);
+        this.lectureSeule.setReadOnly(true);
+        this.connexions = new Semaphore(connexionsMax);
+        this.delaiSectionNanos = TimeUnit.MILLISECONDS.toNanos(delaiSectionMs);
+    }
 
     /**
      * Genera el resumen del dashboard principal
      */
     public DashboardSummaryDTO generateDashboardSummary() {
         DashboardSummaryDTO dashboard = new DashboardSummaryDTO();
-        
-        // KPIs básicos
-        dashboard.setTotalProduitsActifs(produitRepository.countByDeletedFalse());
-        dashboard.setAlertesStock(produitRepository.countProduitsWithLowStock());
-        dashboard.setProduitsExpirantBientot(produitRepository.countProduitsExpiringInDays(7));
-        dashboard.setValeurStockTotal(calculateTotalStockValue());
-        
-        // Actividades del día
         LocalDate today = LocalDate.now();
-        dashboard.setMenusPrepares(menuRepository.countByStatutAndDateServiceAfter(
-            StatutMenu.CONFIRME, today.atStartOfDay()));
-        dashboard.setNouveauxProduits(produitRepository.countByDateEntreeAfter(today.atStartOfDay()));
-        dashboard.setMouvementsStock(stockMovementRepository.countByDateMouvementAfter(today.atStartOfDay()));
         
-        // Top productos utilizados (últimos 7 días)
-        dashboard.setTopProduitsUtilises(getTopUsedProducts(today.minusDays(7), today, 5));
+        List<Section<?>> sections = List.of(
+            // KPIs básicos
+            new Section<>("totalProduitsActifs", produitRepository::countByDeletedFalse, dashboard::setTotalProduitsActifs),
+            new Section<>("alertesStock", produitRepository::countProduitsWithLowStock, dashboard::setAlertesStock),
+            new Section<>("produitsExpirantBientot", () -> produitRepository.countProduitsExpiringInDays(7),
+                          dashboard::setProduitsExpirantBientot),
+            new Section<>("valeurStockTotal", this::calculateTotalStockValue, dashboard::setValeurStockTotal),
         
-        // Productos desperdiciados hoy
-        dashboard.setProduitsGaspilles(getWasteReport(today, today));
+            // Actividades del día
+            new Section<>("menusPrepares", () -> menuRepository.countByStatutAndDateServiceAfter(StatutMenu.CONFIRME, today),
+                          dashboard::setMenusPrepares),
+            new Section<>("nouveauxProduits", () -> produitRepository.countByDateEntreeAfter(today.atStartOfDay()),
+                          dashboard::setNouveauxProduits),
+            new Section<>("mouvementsStock", () -> stockMovementDailyRepository.countMouvementsDepuis(today).intValue(),
+                          dashboard::setMouvementsStock),
         
-        // Información financiera (se puede ocultar según el rol en el frontend)
-        dashboard.setCoutIngredientsDuJour(calculateDailyCosts(today));
-        dashboard.setEconomiesPotentielles(calculatePotentialSavings());
+            // Top productos utilizados (últimos 7 días) y desperdiciados hoy
+            new Section<>("topProduitsUtilises", () -> getTopUsedProducts(today.minusDays(7), today, 5),
+                          dashboard::setTopProduitsUtilises),
+            new Section<>("produitsGaspilles", () -> getWasteReport(today, today), dashboard::setProduitsGaspilles),
         
+            // Información financiera (se puede ocultar según el rol en el frontend)
+            new Section<>("coutIngredientsDuJour", () -> calculateDailyCosts(today), dashboard::setCoutIngredientsDuJour),
+            new Section<>("economiesPotentielles", this::calculatePotentialSavings, dashboard::setEconomiesPotentielles)
+        );
+        
+        dashboard.setSectionsIncompletes(executerSections(sections));
         return dashboard;
     }
+    
+    /**
+     * Exécute les sections en parallèle et affecte les résultats obtenus dans le délai
+     *
+     * @return Noms des sections non calculées (délai dépassé ou erreur)
+     */
+    private List<String> executerSections(List<Section<?>> sections) {
+        List<String> incompletes = new ArrayList<>();
+        
+        // Une transaction ne se partage pas entre threads (et peut contenir des écritures non validées
+        // que le cache ignore): on reste dans celle de l'appelant
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            sections.forEach(Section::executerDirectement);
+            return incompletes;
+        }
+        
+        sections.forEach(Section::lancer);
+        long echeance = System.nanoTime() + delaiSectionNanos;
+        for (Section<?> section : sections) {
+            if (!section.recuperer(echeance)) {
+                incompletes.add(section.nom);
+            }
+        }
+        return incompletes;
+    }
+    
+    /**
+     * Section indépendante du dashboard: requête, puis affectation dans le DTO (sur le thread appelant)
+     */
+    private final class Section<T> {
+        private final String nom;
+        private final Supplier<T> requete;
+        private final Consumer<T> affectation;
+        private CompletableFuture<Object> resultat;
+        
+        private Section(String nom, Supplier<T> requete, Consumer<T> affectation) {
+            this.nom = nom;
+            this.requete = requete;
+            this.affectation = affectation;
+        }
+        
+        private void executerDirectement() {
+            affectation.accept(requete.get());
+        }
+        
+        private void lancer() {
+            resultat = dashboardCache.obtenir(nom, () -> CompletableFuture.supplyAsync(() -> {
+                connexions.acquireUninterruptibly();
+                try {
+                    return lectureSeule.execute(status -> requete.get());
+                } finally {
+                    connexions.release();
+                }
+            }, rapportExecutor));
+        }
+        
+        @SuppressWarnings("unchecked")
+        private boolean recuperer(long echeance) {
+            try {
+                affectation.accept((T) resultat.get(Math.max(0, echeance - System.nanoTime()), TimeUnit.NANOSECONDS));
+                return true;
+            } catch (TimeoutException e) {
+                // Calcul partagé avec d'autres demandeurs: non annulé
+                log.warn("Section '{}' du dashboard non rendue: délai dépassé", nom);
+            } catch (ExecutionException e) {
+                log.error("Section '{}' du dashboard en erreur", nom, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+    }
 
     /**
      * Genera reporte general de inventario
      */
     public InventoryReportDTO generateInventoryReport() {
-        List<Produit> produits = produitRepository.findAll();
-        
-        int totalProduits = produits.size();
+        int totalProduits = produitRepository.countByDeletedFalse();
         BigDecimal valeurTotal = calculateTotalStockValue();
         int produitsAlerte = produitRepository.countProduitsWithLowStock();
         int produitsExpires = produitRepository.countProduitsExpiringInDays(0);
@@ -88,26 +225,36 @@ public InventoryReportDTO generateInventoryReport() {
     public List<WasteReportItemDTO> getWasteReport(LocalDate startDate, LocalDate endDate) {
         List<WasteReportItemDTO> wasteItems = new ArrayList<>();
         
-        // Productos expirados en el período
-        List<Produit> expiredProducts = produitRepository.findExpiredProductsInPeriod(
-            startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
+        // Quantité restante des lots expirés dans la période, par produit: les lots
+        // plus récents du même produit ne sont pas perdus
+        Map<Produit, Long> restantsParProduit = new LinkedHashMap<>();
+        for (Lot lot : lotRepository.findLotsExpiresDansPeriode(startDate, endDate)) {
+            restantsParProduit.merge(lot.getProduit(), lot.getQuantiteRestanteMilli(), Long::sum);
+        }
+        Map<Produit, BigDecimal> pertesParProduit = new LinkedHashMap<>();
+        restantsParProduit.forEach((produit, restantMilli) ->
+            pertesParProduit.put(produit, Quantite.versBigDecimal(restantMilli)));
         
-        for (Produit produit : expiredProducts) {
-            if (produit.getQuantiteStock().compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal valeurPerdue = produit.getQuantiteStock().multiply(produit.getPrixUnitaire());
-                
-                WasteReportItemDTO wasteItem = new WasteReportItemDTO(
-                    produit.getId(),
-                    produit.getNom(),
-                    produit.getQuantiteStock(),
-                    produit.getUnite().toString(),
-                    valeurPerdue,
-                    "Producto expirado"
-                );
-                wasteItems.add(wasteItem);
-            }
+        // Produits sans lot (stock antérieur aux lots): jugés sur leur propre date de péremption,
+        // comme pour les alertes du dashboard
+        for (Produit produit : produitRepository.findProduitsSansLotExpiresDansPeriode(startDate, endDate)) {
+            pertesParProduit.put(produit, produit.getQuantiteStock());
         }
         
+        pertesParProduit.forEach((produit, quantitePerdue) -> {
+            BigDecimal valeurPerdue = quantitePerdue.multiply(produit.getPrixUnitaire());
+            
+            WasteReportItemDTO wasteItem = new WasteReportItemDTO(
+                produit.getId(),
+                produit.getNom(),
+                quantitePerdue,
+                produit.getUnite().toString(),
+                valeurPerdue,
+                "Producto expirado"
+            );
+            wasteItems.add(wasteItem);
+        });
+        
         // Aquí se podrían agregar otros tipos de desperdicio
         // (movimientos de stock con motivos como "dañado", "error", etc.)
         
@@ -115,72 +262,58 @@ public List<WasteReportItemDTO> getWasteReport(LocalDate startDate, LocalDate en
     }
 
     /**
-     * Obtiene el reporte de performance de menús
+     * Performance des menus par nom sur une période, agrégée en base (une requête + comptage)
+     * Tri par défaut: profitabilité totale décroissante
+     *
+     * @throws IllegalArgumentException si le tri porte sur une propriété non agrégée
      */
-    public List<MenuPerformanceReportDTO> getMenuPerformanceReport(LocalDate startDate, LocalDate endDate) {
-        List<Menu> menus = menuRepository.findByDateServiceBetweenAndStatutIn(
-            startDate.atStartOfDay(), 
-            endDate.atTime(23, 59, 59),
-            List.of(StatutMenu.CONFIRME, StatutMenu.PREPARE)
-        );
+    public Page<MenuPerformanceReportDTO> getMenuPerformanceReport(LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        verifierTriPerformanceMenus(pageable.getSort());
+        Sort tri = pageable.getSort().isSorted()
+            ? pageable.getSort().and(Sort.by("menuNom"))
+            : Sort.by(Sort.Order.desc("profitabiliteTotal"), Sort.Order.asc("menuNom"));
+        Pageable pageTriee = pageable.isPaged()
+            ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), tri)
+            : Pageable.unpaged(tri);
         
-        return menus.stream()
-            .collect(Collectors.groupingBy(Menu::getNom))
-            .entrySet().stream()
-            .map(entry -> {
-                String menuNom = entry.getKey();
-                List<Menu> menuInstances = entry.getValue();
-                
-                // Calcular estadísticas del menú
-                int nombrePreparations = menuInstances.size();
-                BigDecimal coutMoyen = menuInstances.stream()
-                    .map(Menu::getCoutTotalIngredients)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-                    .divide(BigDecimal.valueOf(nombrePreparations), 2, BigDecimal.ROUND_HALF_UP);
-                
-                BigDecimal margeMoyenne = menuInstances.stream()
-                    .map(m -> m.getPrixVente().subtract(m.getCoutTotalIngredients()))
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-                    .divide(BigDecimal.valueOf(nombrePreparations), 2, BigDecimal.ROUND_HALF_UP);
-                
-                BigDecimal profitabiliteTotal = menuInstances.stream()
-                    .map(m -> m.getPrixVente().subtract(m.getCoutTotalIngredients()))
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-                
-                Menu firstMenu = menuInstances.get(0);
+        return menuRepository.agregerPerformanceParNom(startDate, endDate,
+                List.of(StatutMenu.CONFIRME, StatutMenu.PREPARE), pageTriee)
+            .map(agregat -> {
+                BigDecimal nombre = BigDecimal.valueOf(agregat.getNombrePreparations());
                 MenuPerformanceReportDTO report = new MenuPerformanceReportDTO(
-                    firstMenu.getId(), menuNom, nombrePreparations, 
-                    coutMoyen, margeMoyenne, profitabiliteTotal);
-                
-                report.setDernierePreparation(menuInstances.stream()
-                    .map(Menu::getDateCreation)
-                    .max(LocalDateTime::compareTo)
-                    .orElse(null));
-                
+                    agregat.getMenuId(), agregat.getMenuNom(), agregat.getNombrePreparations().intValue(),
+                    agregat.getCoutTotal().divide(nombre, 2, RoundingMode.HALF_UP),
+                    agregat.getProfitabiliteTotal().divide(nombre, 2, RoundingMode.HALF_UP),
+                    agregat.getProfitabiliteTotal());
+                report.setDernierePreparation(agregat.getDernierePreparation());
                 return report;
-            })
-            .collect(Collectors.toList());
+            });
+    }
+                
+    /**
+     * Vérifie que le tri demandé porte sur un agrégat du rapport de performance des menus
+     *
+     * @throws IllegalArgumentException sinon
+     */
+    public void verifierTriPerformanceMenus(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!TRIS_PERFORMANCE_MENUS.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Tri non supporté: " + order.getProperty()
+                    + " (valeurs possibles: " + TRIS_PERFORMANCE_MENUS + ")");
+            }
+        }
     }
 
     /**
      * Obtiene los productos más utilizados
      */
     public List<String> getTopUsedProducts(LocalDate startDate, LocalDate endDate, int limit) {
-        List<StockMovement> movements = stockMovementRepository.findByDateMouvementBetweenAndTypeMouvement(
-            startDate.atStartOfDay(), 
-            endDate.atTime(23, 59, 59),
-            TypeMouvement.SORTIE
-        );
+        // Lu sur l'agrégat journalier: au plus jours x produits lignes, tri et limite en base
+        List<ConsommationProduitDTO> consommations = stockMovementDailyRepository.findTopProduitsSortis(
+            startDate, endDate, Limit.of(limit));
         
-        return movements.stream()
-            .collect(Collectors.groupingBy(
-                m -> m.getProduit().getNom(),
-                Collectors.summingDouble(m -> m.getQuantite().doubleValue())
-            ))
-            .entrySet().stream()
-            .sorted((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()))
-            .limit(limit)
-            .map(e -> e.getKey() + " (" + String.format("%.2f", e.getValue()) + " unités)")
+        return consommations.stream()
+            .map(c -> c.produitNom() + " (" + String.format("%.2f", c.quantite()) + " unités)")
             .collect(Collectors.toList());
     }
 
@@ -197,23 +330,15 @@ public InventoryReportDTO getCurrentAlertsReport() {
 
     // Métodos auxiliares privados
     
+    // Agrégats calculés en base (SUM), les mouvements étant lus sur l'agrégat journalier
+    
     private BigDecimal calculateTotalStockValue() {
-        List<Produit> produits = produitRepository.findAll();
-        return produits.stream()
-            .map(p -> p.getQuantiteStock().multiply(p.getPrixUnitaire()))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return produitRepository.sumValeurStock();
     }
     
     private BigDecimal calculateDailyCosts(LocalDate date) {
-        List<StockMovement> movements = stockMovementRepository.findByDateMouvementBetweenAndTypeMouvement(
-            date.atStartOfDay(), 
-            date.atTime(23, 59, 59),
-            TypeMouvement.SORTIE
-        );
-        
-        return movements.stream()
-            .map(m -> m.getQuantite().multiply(m.getProduit().getPrixUnitaire()))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Sorties négatives dans l'agrégat
+        return stockMovementDailyRepository.sumValeur(TypeMouvement.SORTIE, date, date).negate();
     }
     
     private BigDecimal calculatePotentialSavings() {
@@ -223,16 +348,15 @@ private BigDecimal calculatePotentialSavings() {
     }
     
     private BigDecimal calculateWastedValue(LocalDate startDate, LocalDate endDate) {
-        List<WasteReportItemDTO> wasteItems = getWasteReport(startDate, endDate);
-        return wasteItems.stream()
+        // Pertes déjà sorties du stock (mouvements PEREMPTION) + quantité restante des lots expirés
+        BigDecimal pertesEnregistrees = stockMovementDailyRepository.sumValeur(
+            TypeMouvement.PEREMPTION, startDate, endDate).negate();
+        return getWasteReport(startDate, endDate).stream()
             .map(WasteReportItemDTO::getValeurPerdue)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+            .reduce(pertesEnregistrees, BigDecimal::add);
     }
     
     private BigDecimal calculateAlertStockValue() {
-        List<Produit> alertProducts = produitRepository.findProduitsWithLowStock();
-        return alertProducts.stream()
-            .map(p -> p.getQuantiteStock().multiply(p.getPrixUnitaire()))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return produitRepository.sumValeurStockProduitsEnAlerte();
     }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.stockchef.stockchefback.service.user;
+
+import com.stockchef.stockchefback.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache des utilisateurs courants (par email) pour les vérifications d'autorisation, limité à la requête HTTP
+ * 
+ * FONCTIONNEMENT:
+ * - Un utilisateur résolu une fois n'est plus relu pendant la même requête HTTP
+ * - Rien n'est partagé entre les requêtes: un changement de rôle ou de statut, fait sur n'importe quelle
+ *   instance, est vu dès la requête suivante (hors requête HTTP, chaque appel relit l'utilisateur)
+ * - Invalidation par CurrentUserCacheListener à chaque création, modification (ancien email compris)
+ *   ou suppression d'un User, dès l'appel pour les changements de rôle et de statut,
+ *   puis de nouveau à la fin de la transaction
+ * - Un chargement commencé avant une invalidation est rendu à son demandeur mais pas gardé pour la requête
+ * - Seule une copie immuable (UtilisateurCourant) est conservée, jamais l'entité
+ */
+@Component
+public class CurrentUserCache {
+    
+    private static final Logger log = LoggerFactory.getLogger(CurrentUserCache.class);
+    
+    private static final String ATTRIBUT_REQUETE = CurrentUserCache.class.getName() + ".";
+    
+    private final AtomicLong generation = new AtomicLong();
+    
+    /**
+     * Utilisateur courant: depuis la requête, sinon via le chargeur (absence non gardée)
+     */
+    public Optional<UtilisateurCourant> obtenir(String email, Function<String, Optional<User>> chargeur) {
+        RequestAttributes requete = RequestContextHolder.getRequestAttributes();
+        if (requete != null
+                && requete.getAttribute(ATTRIBUT_REQUETE + email, RequestAttributes.SCOPE_REQUEST) instanceof UtilisateurCourant u) {
+            return Optional.of(u);
+        }
+        
+        long generationAvant = generation.get();
+        Optional<UtilisateurCourant> charge = chargeur.apply(email).map(UtilisateurCourant::depuis);
+        if (charge.isPresent() && generation.get() == generationAvant) {
+            garderPourLaRequete(requete, charge.get());
+        }
+        return charge;
+    }
+    
+    /**
+     * Invalide un utilisateur maintenant et à la fin de la transaction en cours
+     * (une lecture concurrente a pu remettre l'ancienne valeur avant le commit)
+     */
+    public void invalider(String email) {
+        retirer(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    retirer(email);
+                }
+            });
+        }
+    }
+    
+    // ==================== INTERNE ====================
+    
+    private void retirer(String email) {
+        generation.incrementAndGet();
+        RequestAttributes requete = RequestContextHolder.getRequestAttributes();
+        if (requete != null) {
+            requete.removeAttribute(ATTRIBUT_REQUETE + email, RequestAttributes.SCOPE_REQUEST);
+        }
+        log.debug("Utilisateur {} retiré du cache", email);
+    }
+    
+    private void garderPourLaRequete(RequestAttributes requete, UtilisateurCourant utilisateur) {
+        if (requete != null) {
+            requete.setAttribute(ATTRIBUT_REQUETE + utilisateur.email(), utilisateur, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
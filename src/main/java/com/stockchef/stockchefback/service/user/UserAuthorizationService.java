@@ -23,15 +23,15 @@
 public class UserAuthorizationService {
 
     private final UserRepository userRepository;
+    private final CurrentUserCache currentUserCache;
 
     /**
      * Vérifie que l'utilisateur actuel ait le rôle ADMIN
      */
     public void requireAdminRole(String currentUserEmail) {
-        User currentUser = userRepository.findByEmail(currentUserEmail)
-                .orElseThrow(() -> new UserNotFoundException("Usuario actual no encontrado"));
+        UtilisateurCourant currentUser = getUtilisateurCourant(currentUserEmail);
         
-        if (currentUser.getRole() != UserRole.ROLE_ADMIN) {
+        if (currentUser.role() != UserRole.ROLE_ADMIN) {
             log.warn("Usuario {} intentó realizar acción de admin sin permisos", currentUserEmail);
             throw new InsufficientPermissionsException("Se requieren permisos de administrador");
         }
@@ -41,16 +41,15 @@ public void requireAdminRole(String currentUserEmail) {
      * Vérifie que l'utilisateur puisse accéder à la ressource (propre ressource ou admin)
      */
     public void requireOwnershipOrAdmin(String targetUserId, String currentUserEmail) {
-        User currentUser = userRepository.findByEmail(currentUserEmail)
-                .orElseThrow(() -> new UserNotFoundException("Usuario actual no encontrado"));
+        UtilisateurCourant currentUser = getUtilisateurCourant(currentUserEmail);
         
         // Si c'est un admin, peut accéder à tout
-        if (currentUser.getRole() == UserRole.ROLE_ADMIN) {
+        if (currentUser.role() == UserRole.ROLE_ADMIN) {
             return;
         }
         
         // Si ce n'est pas un admin, peut seulement accéder à sa propre ressource
-        if (!currentUser.getId().equals(targetUserId)) {
+        if (!currentUser.id().equals(targetUserId)) {
             log.warn("Usuario {} intentó acceder al recurso de usuario {} sin permisos", 
                     currentUserEmail, targetUserId);
             throw new UnauthorizedUserException("Solo puedes acceder a tu propia información");
@@ -61,16 +60,15 @@ public void requireOwnershipOrAdmin(String targetUserId, String currentUserEmail
      * Vérifie que l'utilisateur puisse modifier la ressource (propre ressource ou admin)
      */
     public void requireModificationRights(String targetUserId, String currentUserEmail) {
-        User currentUser = userRepository.findByEmail(currentUserEmail)
-                .orElseThrow(() -> new UserNotFoundException("Usuario actual no encontrado"));
+        UtilisateurCourant currentUser = getUtilisateurCourant(currentUserEmail);
         
         // Les admins peuvent modifier n'importe qui
-        if (currentUser.getRole() == UserRole.ROLE_ADMIN) {
+        if (currentUser.role() == UserRole.ROLE_ADMIN) {
             return;
         }
         
         // Les utilisateurs peuvent seulement se modifier eux-mêmes
-        if (!currentUser.getId().equals(targetUserId)) {
+        if (!currentUser.id().equals(targetUserId)) {
             log.warn("Usuario {} intentó modificar usuario {} sin permisos", 
                     currentUserEmail, targetUserId);
             throw new UnauthorizedUserException("Solo puedes modificar tu propia información");
@@ -102,11 +100,10 @@ public void requireDeleteRights(String targetUserId, String currentUserEmail) {
         // Seuls les admins peuvent supprimer des utilisateurs
         requireAdminRole(currentUserEmail);
         
-        User currentUser = userRepository.findByEmail(currentUserEmail)
-                .orElseThrow(() -> new UserNotFoundException("Usuario actual no encontrado"));
+        UtilisateurCourant currentUser = getUtilisateurCourant(currentUserEmail);
         
         // Un admin ne peut pas se supprimer lui-même
-        if (currentUser.getId().equals(targetUserId)) {
+        if (currentUser.id().equals(targetUserId)) {
             throw new InsufficientPermissionsException("Vous ne pouvez pas supprimer votre propre compte");
         }
     }
@@ -123,17 +120,25 @@ public void updateLastLogin(User user) {
 
     /**
      * Obtient l'utilisateur actuel par email
+     * Entité complète et à jour (lecture en base): les vérifications de droits passent par le cache
      */
     public User getCurrentUser(String currentUserEmail) {
         return userRepository.findByEmail(currentUserEmail)
                 .orElseThrow(() -> new UserNotFoundException("Usuario actual no encontrado"));
     }
 
+    /**
+     * Obtient l'identité et le rôle de l'utilisateur actuel (CurrentUserCache: requête puis quelques secondes)
+     */
+    public UtilisateurCourant getUtilisateurCourant(String currentUserEmail) {
+        return currentUserCache.obtenir(currentUserEmail, userRepository::findByEmail)
+                .orElseThrow(() -> new UserNotFoundException("Usuario actual no encontrado"));
+    }
+
     /**
      * Vérifie si l'utilisateur a les permissions pour voir les listes filtrées
      */
     public boolean canViewFilteredLists(String currentUserEmail) {
-        User currentUser = getCurrentUser(currentUserEmail);
-        return currentUser.getRole() == UserRole.ROLE_ADMIN;
+        return getUtilisateurCourant(currentUserEmail).role() == UserRole.ROLE_ADMIN;
     }
 }
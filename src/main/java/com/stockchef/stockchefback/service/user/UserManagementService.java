@@ -27,6 +27,7 @@ public class UserManagementService {
 
     private final UserRepository userRepository;
     private final UserAuthorizationService authorizationService;
+    private final CurrentUserCache currentUserCache;
 
     /**
      * Obtient tous les utilisateurs (avec filtres optionnels)
@@ -166,6 +167,8 @@ public UserResponse updateUserRole(String userId, UserRole newRole, String reaso
         user.setUpdatedAt(LocalDateTime.now());
         
         User updatedUser = userRepository.save(user);
+        // Sans attendre le flush: les vérifications suivantes de la transaction voient le nouveau rôle
+        currentUserCache.invalider(user.getEmail());
         
         log.info("Rol de usuario {} actualizado de {} a {} por {}, razón: {}", 
                 user.getEmail(), previousRole, newRole, requester.getEmail(), reason);
@@ -197,6 +200,7 @@ public UserResponse updateUserStatus(String userId, Boolean active, String reaso
         user.setUpdatedAt(LocalDateTime.now());
         
         User updatedUser = userRepository.save(user);
+        currentUserCache.invalider(user.getEmail());
         
         log.info("Estado de usuario {} actualizado de {} a {}, razón: {}", 
                 user.getEmail(), previousStatus, active, reason);
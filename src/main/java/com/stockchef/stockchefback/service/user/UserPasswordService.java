@@ -36,11 +36,10 @@ public void changeUserPassword(String userId, ChangePasswordRequest request, Str
         User targetUser = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("Utilisateur non trouvé avec ID: " + userId));
         
-        User currentUser = userRepository.findByEmail(currentUserEmail)
-                .orElseThrow(() -> new UserNotFoundException("Utilisateur actuel non trouvé"));
+        UtilisateurCourant currentUser = authorizationService.getUtilisateurCourant(currentUserEmail);
         
         // Valider permissions - peut changer son propre mot de passe ou être ADMIN
-        if (!targetUser.getId().equals(currentUser.getId()) && currentUser.getRole() != UserRole.ROLE_ADMIN) {
+        if (!targetUser.getId().equals(currentUser.id()) && currentUser.role() != UserRole.ROLE_ADMIN) {
             throw new InsufficientPermissionsException("Vous n'avez pas les permissions pour changer le mot de passe de cet utilisateur");
         }
         
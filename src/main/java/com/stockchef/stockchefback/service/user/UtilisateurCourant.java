@@ -0,0 +1,20 @@
+package com.stockchef.stockchefback.service.user;
+
+import com.stockchef.stockchefback.model.User;
+import com.stockchef.stockchefback.model.UserRole;
+
+/**
+ * Identité et droits d'un utilisateur pour les vérifications d'autorisation (copie immuable, mise en cache)
+ */
+public record UtilisateurCourant(
+        String id,
+        String email,
+        UserRole role,
+        boolean actif
+) {
+    
+    public static UtilisateurCourant depuis(User user) {
+        return new UtilisateurCourant(user.getId(), user.getEmail(), user.getRole(),
+                Boolean.TRUE.equals(user.getIsActive()));
+    }
+}
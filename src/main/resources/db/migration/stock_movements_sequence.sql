@@ -0,0 +1,14 @@
+-- Migration script: stock_movements passe de IDENTITY à SEQUENCE
+-- Pour StockChef Backend - Base de datos PostgreSQL
+-- Nécessaire pour le batching JDBC des insertions de mouvements (endpoint movements:batch)
+-- Fait automatiquement au démarrage (SequenceAlignment, toutes bases): script conservé pour un alignement manuel
+
+-- Paso 1: Crear la secuencia (allocationSize = 50 côté Hibernate)
+CREATE SEQUENCE IF NOT EXISTS stock_movements_seq INCREMENT BY 50;
+
+-- Paso 2: Posicionar la secuencia después del ID máximo existente
+-- (l'optimiseur pooled utilise la valeur lue comme borne haute du bloc: +50 évite tout chevauchement)
+SELECT setval('stock_movements_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM stock_movements), false);
+
+-- Paso 3: Verificar
+SELECT last_value, increment_by FROM pg_sequences WHERE sequencename = 'stock_movements_seq';
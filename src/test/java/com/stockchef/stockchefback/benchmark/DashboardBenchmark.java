@@ -0,0 +1,130 @@
+package com.stockchef.stockchefback.benchmark;
+
+import com.stockchef.stockchefback.StockchefBackApplication;
+import com.stockchef.stockchefback.dto.reports.DashboardSummaryDTO;
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.StockMovement;
+import com.stockchef.stockchefback.model.inventory.Unite;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
+import com.stockchef.stockchefback.service.inventory.StockMovementDailyService;
+import com.stockchef.stockchefback.service.reports.DashboardCache;
+import com.stockchef.stockchefback.service.reports.ReportService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH: dashboard séquentiel (une transaction, sections l'une après l'autre)
+ * vs parallèle (threads virtuels, une transaction en lecture seule par section)
+ * 
+ * Jeu de données H2 (profil test): produits et mouvements du jour, agrégat journalier reconstruit.
+ * Le mode SampleTime donne les percentiles (p0.50, p0.99) de chaque variante.
+ * Le cache du dashboard est vidé avant chaque appel: les deux variantes calculent toutes les sections.
+ * 
+ * Lancement: main(), ou après mvn test-compile:
+ *   java -cp target/test-classes:target/classes:<classpath de test> org.openjdk.jmh.Main DashboardBenchmark
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DashboardBenchmark {
+    
+    @Param({"5000"})
+    private int nombreProduits;
+    
+    @Param({"50000"})
+    private int nombreMouvements;
+    
+    private ConfigurableApplicationContext context;
+    private ReportService reportService;
+    private DashboardCache dashboardCache;
+    private TransactionTemplate transactionUnique;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(StockchefBackApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        reportService = context.getBean(ReportService.class);
+        dashboardCache = context.getBean(DashboardCache.class);
+        transactionUnique = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionUnique.setReadOnly(true);
+        
+        TransactionTemplate ecriture = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        ProduitRepository produitRepository = context.getBean(ProduitRepository.class);
+        StockMovementRepository stockMovementRepository = context.getBean(StockMovementRepository.class);
+        Random random = new Random(42);
+        
+        List<Produit> produits = ecriture.execute(status -> {
+            List<Produit> nouveaux = new ArrayList<>(nombreProduits);
+            for (int i = 0; i < nombreProduits; i++) {
+                Produit produit = new Produit("Produit " + i, BigDecimal.valueOf(random.nextInt(1000)),
+                        Unite.KILOGRAMME, BigDecimal.valueOf(100 + random.nextInt(2000), 2), BigDecimal.TEN);
+                produit.setDatePeremption(LocalDate.now().plusDays(random.nextInt(30) - 5));
+                nouveaux.add(produit);
+            }
+            return produitRepository.saveAll(nouveaux);
+        });
+        
+        for (int debut = 0; debut < nombreMouvements; debut += 5000) {
+            int taille = Math.min(5000, nombreMouvements - debut);
+            ecriture.executeWithoutResult(status -> {
+                List<StockMovement> movements = new ArrayList<>(taille);
+                for (int i = 0; i < taille; i++) {
+                    Produit produit = produits.get(random.nextInt(produits.size()));
+                    movements.add(StockMovement.createSortie(produit, BigDecimal.valueOf(1 + random.nextInt(5000), 3),
+                            Unite.KILOGRAMME, produit.getQuantiteStock(), "Benchmark", null));
+                }
+                stockMovementRepository.saveAll(movements);
+            });
+        }
+        context.getBean(StockMovementDailyService.class).reconstruire(LocalDate.now(), LocalDate.now());
+    }
+    
+    @Setup(Level.Invocation)
+    public void viderCache() {
+        // Sans cela la variante parallèle servirait les sections depuis le cache après le premier appel
+        dashboardCache.invaliderTout();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public DashboardSummaryDTO sequentiel() {
+        return transactionUnique.execute(status -> reportService.generateDashboardSummary());
+    }
+    
+    @Benchmark
+    public DashboardSummaryDTO parallele() {
+        return reportService.generateDashboardSummary();
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DashboardBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,123 @@
+package com.stockchef.stockchefback.benchmark;
+
+import com.stockchef.stockchefback.config.JwtAuthenticationFilter;
+import com.stockchef.stockchefback.model.User;
+import com.stockchef.stockchefback.model.UserRole;
+import com.stockchef.stockchefback.service.JwtService;
+import com.stockchef.stockchefback.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.security.Key;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH: authentification JWT d'une requête, sous charge concurrente
+ * 
+ * - ancienTriplePassage: chemin d'origine du filtre (isTokenExpired, extractEmail, extractRole),
+ *   chacun dérivant la clé, construisant un parser et vérifiant la signature
+ * - filtreSansCache: JwtAuthenticationFilter avec une seule vérification par requête (cache désactivé)
+ * - filtreAvecCache: JwtAuthenticationFilter, token déjà vu (empreinte SHA-256 + lecture du cache)
+ * Les deux filtres incluent le contrôle de révocation (filtre de Bloom, token non révoqué)
+ * 
+ * Lancement: main() (profil GC inclus), ou après mvn test-compile:
+ *   java -cp target/test-classes:target/classes:<classpath de test> org.openjdk.jmh.Main JwtFilterBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+    
+    private static final String SECRET = "BenchmarkSecretKeyForStockChefJWT2024ShouldBeAtLeast256Bits";
+    
+    private String token;
+    private JwtAuthenticationFilter filtreSansCache;
+    private JwtAuthenticationFilter filtreAvecCache;
+    
+    @Setup
+    public void setUp() {
+        JwtService sansCache = new JwtService(SECRET, 3_600_000L, 0);
+        JwtService avecCache = new JwtService(SECRET, 3_600_000L, 10_000);
+        // Aucune révocation: le filtre de Bloom vide répond sans accès au repository
+        TokenRevocationService revocation = new TokenRevocationService(null, 100_000, 0.001);
+        filtreSansCache = new JwtAuthenticationFilter(sansCache, revocation);
+        filtreAvecCache = new JwtAuthenticationFilter(avecCache, revocation);
+        
+        token = avecCache.generateToken(User.builder()
+                .id(UUID.randomUUID().toString())
+                .email("chef@stockchef.com")
+                .firstName("Chef")
+                .lastName("Bench")
+                .role(UserRole.ROLE_CHEF)
+                .build());
+    }
+    
+    @Benchmark
+    public Object ancienTriplePassage() {
+        if (ancienParse(token).getExpiration().before(new Date())) {
+            return null;
+        }
+        String email = ancienParse(token).getSubject();
+        String role = ancienParse(token).get("role", String.class);
+        return email + role;
+    }
+    
+    @Benchmark
+    public Object filtreSansCache() throws ServletException, IOException {
+        return filtrer(filtreSansCache);
+    }
+    
+    @Benchmark
+    public Object filtreAvecCache() throws ServletException, IOException {
+        return filtrer(filtreAvecCache);
+    }
+    
+    private Object filtrer(JwtAuthenticationFilter filtre) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/inventory/produits");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filtre.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+    
+    /**
+     * Reproduction de l'ancien JwtService.extractAllClaims
+     */
+    private static Claims ancienParse(String token) {
+        byte[] keyBytes = Decoders.BASE64.decode(Base64.getEncoder().encodeToString(SECRET.getBytes()));
+        Key key = Keys.hmacShaKeyFor(keyBytes);
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtFilterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,82 @@
+package com.stockchef.stockchefback.benchmark;
+
+import com.stockchef.stockchefback.model.inventory.Quantite;
+import com.stockchef.stockchefback.model.inventory.Unite;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH: arithmétique de stock en BigDecimal vs Quantite (millièmes long)
+ * 
+ * Reproduit les boucles chaudes de confirmation de menus: conversion g -> kg de chaque ingrédient,
+ * cumul des besoins, puis comparaison au stock disponible.
+ * 
+ * Lancement: main() (profil GC inclus, pour les allocations par opération), ou après mvn test-compile:
+ *   java -cp target/test-classes:target/classes:<classpath de test> org.openjdk.jmh.Main QuantiteBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QuantiteBenchmark {
+    
+    private static final BigDecimal MILLE = new BigDecimal("1000");
+    
+    @Param({"64"})
+    private int nombreIngredients;
+    
+    private BigDecimal[] quantitesGrammes;
+    private long[] milliGrammes;
+    private BigDecimal stockKg;
+    private long stockMilliKg;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        quantitesGrammes = new BigDecimal[nombreIngredients];
+        milliGrammes = new long[nombreIngredients];
+        for (int i = 0; i < nombreIngredients; i++) {
+            quantitesGrammes[i] = BigDecimal.valueOf(random.nextInt(500_000), 3);
+            milliGrammes[i] = Quantite.versMilli(quantitesGrammes[i]);
+        }
+        stockKg = new BigDecimal("25.000");
+        stockMilliKg = Quantite.versMilli(stockKg);
+    }
+    
+    @Benchmark
+    public boolean bigDecimal() {
+        BigDecimal besoin = BigDecimal.ZERO;
+        for (BigDecimal grammes : quantitesGrammes) {
+            besoin = besoin.add(grammes.divide(MILLE, 3, RoundingMode.HALF_UP));
+        }
+        return stockKg.subtract(besoin).compareTo(BigDecimal.ZERO) >= 0;
+    }
+    
+    @Benchmark
+    public boolean quantiteMilli() {
+        long besoin = 0L;
+        for (long grammes : milliGrammes) {
+            besoin += Quantite.convertirMilli(grammes, Unite.GRAMME, Unite.KILOGRAMME);
+        }
+        return stockMilliKg - besoin >= 0;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(QuantiteBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.stockchef.stockchefback.config;
+
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.Unite;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
+import com.stockchef.stockchefback.service.inventory.StockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests de l'alignement des séquences d'ID sur une table déjà remplie (mise à jour depuis IDENTITY)
+ * Sans @Transactional: les séquences ne sont pas transactionnelles
+ * Contexte fermé après la classe: les mouvements enregistrés ici ne doivent pas laisser l'audit JPA
+ * de ce contexte actif pour les tests @DataJpaTest suivants (dates de mouvement écrasées)
+ */
+@SpringBootTest
+@DirtiesContext
+@ActiveProfiles("test")
+@DisplayName("SequenceAlignment - Alignement des séquences au démarrage")
+class SequenceAlignmentTest {
+
+    private static final String SEQUENCE = "stock_movements_seq";
+
+    @Autowired
+    private SequenceAlignment sequenceAlignment;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ProduitRepository produitRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Produit produit;
+    private long valeurInitiale;
+
+    @BeforeEach
+    void setUp() {
+        produit = produitRepository.save(new Produit("Sel", new BigDecimal("10.0"), Unite.KILOGRAMME,
+                new BigDecimal("0.80"), BigDecimal.ONE));
+        stockService.decrementerStock(produit.getId(), BigDecimal.ONE, "Service", null);
+        valeurInitiale = prochaineValeur();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Au-delà des blocs déjà réservés par Hibernate pour les autres tests
+        jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " RESTART WITH " + (valeurInitiale + 1000));
+        stockMovementRepository.deleteAllInBatch(stockMovementRepository.findByProduitOrderByDateMouvementDesc(produit));
+        produitRepository.deleteById(produit.getId());
+    }
+
+    @Test
+    @DisplayName("Une séquence recréée à 1 sur une table remplie est avancée après le plus grand ID")
+    void shouldAdvanceSequenceBehindExistingIds() {
+        // Given - Séquence créée par ddl-auto=update sur une table déjà remplie
+        jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " RESTART WITH 1");
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM stock_movements", Long.class);
+
+        // When
+        sequenceAlignment.aligner();
+
+        // Then - Le bloc suivant (valeur lue - 49 à valeur lue) est au-delà des lignes existantes
+        assertThat(prochaineValeur() - 50 + 1).isGreaterThan(max);
+    }
+
+    @Test
+    @DisplayName("Une séquence déjà en avance n'est pas reculée")
+    void shouldNotMoveSequenceBack() {
+        // Given
+        jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " RESTART WITH " + (valeurInitiale + 500));
+
+        // When
+        sequenceAlignment.aligner();
+
+        // Then - Seule la valeur lue par l'alignement a été consommée
+        assertThat(prochaineValeur()).isGreaterThan(valeurInitiale + 500);
+    }
+
+    private long prochaineValeur() {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + SEQUENCE, Long.class);
+    }
+}
@@ -9,6 +9,7 @@
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
@@ -18,6 +19,8 @@
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -47,6 +50,10 @@ class AuthControllerTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    @Qualifier("hachageExecutor")
+    private ThreadPoolExecutor hachageExecutor;
+
     private User testUser;
 
     @BeforeEach
@@ -130,4 +137,33 @@ void shouldValidateRequestFormat() throws Exception {
                 .content(objectMapper.writeValueAsString(invalidRequest)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    @DisplayName("Should reject login with 429 and Retry-After when the hashing queue is full")
+    void shouldRejectLoginWhenHashingQueueIsFull() throws Exception {
+        // Saturer l'exécuteur de hachage: tous les threads occupés, file pleine
+        CountDownLatch liberation = new CountDownLatch(1);
+        try {
+            int places = hachageExecutor.getMaximumPoolSize() + hachageExecutor.getQueue().remainingCapacity();
+            for (int i = 0; i < places; i++) {
+                hachageExecutor.execute(() -> {
+                    try {
+                        liberation.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            LoginRequest loginRequest = new LoginRequest("test@example.com", "password123");
+
+            mockMvc.perform(post("/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(loginRequest)))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "2"));
+        } finally {
+            liberation.countDown();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.stockchef.stockchefback.controller.inventory;
+
+import com.stockchef.stockchefback.model.User;
+import com.stockchef.stockchefback.model.UserRole;
+import com.stockchef.stockchefback.repository.UserRepository;
+import com.stockchef.stockchefback.service.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests d'intégration de ExportController (réponses en flux)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Transactional
+@DisplayName("ExportController - Tests d'intégration")
+class ExportControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private JwtService jwtService;
+    
+    private String chefToken;
+    
+    @BeforeEach
+    void setUp() {
+        User chef = userRepository.save(User.builder()
+                .email("chef.export@test.com")
+                .password(passwordEncoder.encode("password123"))
+                .firstName("Test")
+                .lastName("User")
+                .role(UserRole.ROLE_CHEF)
+                .isActive(true)
+                .build());
+        chefToken = jwtService.generateToken(chef);
+    }
+    
+    @Test
+    @DisplayName("GET /api/inventory/export/mouvements - Réponse NDJSON en flux, en pièce jointe")
+    void shouldStreamMovementsAsAttachment() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/inventory/export/mouvements")
+                .param("format", "ndjson")
+                .param("type", "SORTIE")
+                .header("Authorization", "Bearer " + chefToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", allOf(
+                        startsWith("attachment"), containsString("mouvements-"), endsWith(".ndjson\""))));
+    }
+    
+    @Test
+    @DisplayName("GET /api/inventory/export/produits - Format inconnu refusé")
+    void shouldRejectUnknownFormat() throws Exception {
+        mockMvc.perform(get("/inventory/export/produits")
+                .param("format", "xlsx")
+                .header("Authorization", "Bearer " + chefToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value(containsString("xlsx")));
+    }
+}
@@ -0,0 +1,148 @@
+package com.stockchef.stockchefback.controller.reports;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockchef.stockchefback.model.User;
+import com.stockchef.stockchefback.model.UserRole;
+import com.stockchef.stockchefback.repository.UserRepository;
+import com.stockchef.stockchefback.service.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests d'intégration de ReportController
+ * Rapports synchrones et rapports longs en arrière-plan (202 + job)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Transactional
+@DisplayName("ReportController - Tests d'intégration")
+class ReportControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private JwtService jwtService;
+    
+    private String chefToken;
+    private String adminToken;
+    private String employeeToken;
+    
+    @BeforeEach
+    void setUp() {
+        chefToken = jwtService.generateToken(createUser("chef.rapports@test.com", UserRole.ROLE_CHEF));
+        adminToken = jwtService.generateToken(createUser("admin.rapports@test.com", UserRole.ROLE_ADMIN));
+        employeeToken = jwtService.generateToken(createUser("employee.rapports@test.com", UserRole.ROLE_EMPLOYEE));
+    }
+    
+    @Test
+    @DisplayName("GET /api/reports/dashboard - Retourne la synthèse calculée")
+    void shouldReturnDashboard() throws Exception {
+        mockMvc.perform(get("/reports/dashboard")
+                .header("Authorization", "Bearer " + employeeToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalProduitsActifs").isNumber())
+                .andExpect(jsonPath("$.valeurStockTotal").exists());
+    }
+    
+    @Test
+    @DisplayName("GET /api/reports/menus/performance - Période courte calculée dans la requête")
+    void shouldComputeShortPeriodSynchronously() throws Exception {
+        mockMvc.perform(get("/reports/menus/performance")
+                .param("debut", LocalDate.now().minusDays(7).toString())
+                .param("fin", LocalDate.now().toString())
+                .header("Authorization", "Bearer " + chefToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isArray());
+    }
+    
+    @Test
+    @DisplayName("GET /api/reports/menus/performance - Une année est calculée en arrière-plan puis interrogée")
+    void shouldRunLongPeriodAsJob() throws Exception {
+        // When - Soumission
+        MvcResult soumission = mockMvc.perform(get("/reports/menus/performance")
+                .param("debut", LocalDate.now().minusYears(1).toString())
+                .param("fin", LocalDate.now().toString())
+                .header("Authorization", "Bearer " + chefToken))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", containsString("/reports/jobs/")))
+                .andExpect(jsonPath("$.type").value("PERFORMANCE_MENUS"))
+                .andReturn();
+        String jobId = objectMapper.readTree(soumission.getResponse().getContentAsString()).get("id").asText();
+        
+        // Then - Le demandeur récupère le résultat une fois le calcul terminé
+        JsonNode job = attendreFin(jobId, chefToken);
+        assertThat(job.get("statut").asText()).isEqualTo("TERMINE");
+        assertThat(job.get("resultat").get("content").isArray()).isTrue();
+        assertThat(job.get("expireA").isNull()).isFalse();
+        
+        // Then - Un autre utilisateur ne voit pas le job
+        mockMvc.perform(get("/reports/jobs/" + jobId)
+                .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    @DisplayName("GET /api/reports/waste - Période inversée refusée")
+    void shouldRejectInvertedPeriod() throws Exception {
+        mockMvc.perform(get("/reports/waste")
+                .param("debut", LocalDate.now().toString())
+                .param("fin", LocalDate.now().minusDays(1).toString())
+                .header("Authorization", "Bearer " + chefToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_PERIOD"));
+    }
+    
+    private JsonNode attendreFin(String jobId, String token) throws Exception {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (true) {
+            MvcResult result = mockMvc.perform(get("/reports/jobs/" + jobId)
+                    .header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode job = objectMapper.readTree(result.getResponse().getContentAsString());
+            String statut = job.get("statut").asText();
+            if (statut.equals("TERMINE") || statut.equals("ECHEC") || System.currentTimeMillis() > limite) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+    }
+    
+    private User createUser(String email, UserRole role) {
+        User user = User.builder()
+                .email(email)
+                .password(passwordEncoder.encode("password123"))
+                .firstName("Test")
+                .lastName("User")
+                .role(role)
+                .isActive(true)
+                .build();
+        return userRepository.save(user);
+    }
+}
@@ -3,6 +3,7 @@
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stockchef.stockchefback.dto.auth.LoginRequest;
 import com.stockchef.stockchefback.dto.auth.LoginResponse;
+import com.stockchef.stockchefback.dto.auth.RefreshTokenRequest;
 import com.stockchef.stockchefback.model.User;
 import com.stockchef.stockchefback.model.UserRole;
 import com.stockchef.stockchefback.repository.UserRepository;
@@ -27,6 +28,7 @@
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -254,6 +256,67 @@ void shouldExtractAllCustomClaimsCorrectly() throws Exception {
         assertThat(jwtService.extractRole(token)).isEqualTo("ROLE_DEVELOPER");
     }
 
+    @Test
+    @DisplayName("♻️ Should rotate refresh token and revoke the session on reuse")
+    void shouldRotateRefreshTokenAndRevokeSessionOnReuse() throws Exception {
+        // Given - Login: access token + refresh token
+        MvcResult login = mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest("chef@stockchef.com", "chefpass123"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshToken").exists())
+                .andReturn();
+        String refreshToken = objectMapper.readValue(login.getResponse().getContentAsString(), LoginResponse.class)
+                .refreshToken();
+        
+        // When - Renouvellement sans mot de passe
+        MvcResult refresh = mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").exists())
+                .andExpect(jsonPath("$.refreshToken").exists())
+                .andReturn();
+        String accessToken = objectMapper.readTree(refresh.getResponse().getContentAsString()).get("accessToken").asText();
+        String nouveauRefresh = objectMapper.readTree(refresh.getResponse().getContentAsString()).get("refreshToken").asText();
+        
+        // Then - Nouveau token d'accès valide, nouveau refresh token différent
+        assertThat(jwtService.verify(accessToken).email()).isEqualTo("chef@stockchef.com");
+        assertThat(nouveauRefresh).isNotEqualTo(refreshToken);
+        
+        // Then - Rejouer l'ancien refresh token révoque la session: le nouveau est refusé aussi
+        mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken))))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequest(nouveauRefresh))))
+                .andExpect(status().isUnauthorized());
+    }
+    
+    @Test
+    @DisplayName("🚪 Should reject the access token after logout")
+    void shouldRejectAccessTokenAfterLogout() throws Exception {
+        // Given - Login
+        MvcResult login = mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest("chef@stockchef.com", "chefpass123"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        String token = objectMapper.readValue(login.getResponse().getContentAsString(), LoginResponse.class).token();
+        mockMvc.perform(get("/users/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        
+        // When - Logout
+        mockMvc.perform(post("/auth/logout").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        
+        // Then - Le token, encore valide en signature et expiration, est refusé
+        mockMvc.perform(get("/users/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+    
     // Helper methods
     private void testUserAuthentication(String email, String password, String expectedRole, String expectedFullName) throws Exception {
         LoginRequest loginRequest = new LoginRequest(email, password);
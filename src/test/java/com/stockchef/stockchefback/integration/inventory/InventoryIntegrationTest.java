@@ -2,7 +2,10 @@
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stockchef.stockchefback.dto.inventory.ProduitCreateRequest;
+import com.stockchef.stockchefback.dto.inventory.StockMovementBatchLine;
+import com.stockchef.stockchefback.dto.inventory.StockMovementBatchRequest;
 import com.stockchef.stockchefback.dto.inventory.StockMovementRequest;
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
 import com.stockchef.stockchefback.model.inventory.Unite;
 import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
 import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
@@ -227,6 +230,41 @@ void testEntreeStock_Success() throws Exception {
                 .andExpect(jsonPath("$.quantiteStock").value(5.0));
     }
     
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testMouvementsEnLot_Success() throws Exception {
+        // Given - Deux produits, un bon de livraison et une sortie de fin de service
+        Produit lait = new Produit("Lait", new BigDecimal("4.0"), Unite.LITRE,
+                new BigDecimal("1.10"), new BigDecimal("1.0"));
+        lait = produitRepository.save(lait);
+        Produit oeufs = new Produit("Oeufs", new BigDecimal("12"), Unite.PIECE,
+                new BigDecimal("0.30"), new BigDecimal("6"));
+        oeufs = produitRepository.save(oeufs);
+        
+        StockMovementBatchRequest request = new StockMovementBatchRequest(List.of(
+            new StockMovementBatchLine(lait.getId(), TypeMouvement.ENTREE,
+                new StockMovementRequest(new BigDecimal("6.0"), null, "Livraison BL-42", null)),
+            new StockMovementBatchLine(oeufs.getId(), TypeMouvement.SORTIE,
+                new StockMovementRequest(new BigDecimal("10"), null, "Fin de service", null)),
+            new StockMovementBatchLine(oeufs.getId(), TypeMouvement.SORTIE,
+                new StockMovementRequest(new BigDecimal("10"), null, "Fin de service", null))
+        ));
+        
+        // When & Then
+        mockMvc.perform(post("/inventory/produits/movements:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalLignes").value(3))
+                .andExpect(jsonPath("$.lignesAppliquees").value(2))
+                .andExpect(jsonPath("$.lignesRejetees").value(1))
+                .andExpect(jsonPath("$.resultats[0].quantiteApres").value(10.0))
+                .andExpect(jsonPath("$.resultats[1].quantiteApres").value(2))
+                .andExpect(jsonPath("$.resultats[2].applique").value(false));
+        
+        assertThat(stockMovementRepository.findByProduitOrderByDateMouvementDesc(oeufs)).hasSize(1);
+    }
+    
     @Test
     @WithMockUser(roles = "USER")
     void testGetProduitsEnAlerte() throws Exception {
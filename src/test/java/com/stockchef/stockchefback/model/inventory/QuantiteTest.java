@@ -0,0 +1,73 @@
+package com.stockchef.stockchefback.model.inventory;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests unitaires de la quantité en virgule fixe
+ */
+@DisplayName("Quantite - Arithmétique en millièmes")
+class QuantiteTest {
+
+    @Test
+    @DisplayName("Création exacte depuis un BigDecimal et retour à l'échelle 3")
+    void shouldRoundTripBigDecimalAtScaleThree() {
+        Quantite quantite = Quantite.of(new BigDecimal("1.5"), Unite.KILOGRAMME);
+
+        assertThat(quantite.milli()).isEqualTo(1500L);
+        assertThat(quantite.toBigDecimal()).isEqualTo(new BigDecimal("1.500"));
+    }
+
+    @Test
+    @DisplayName("Une valeur plus fine que le millième est refusée")
+    void shouldRejectValuesFinerThanMilli() {
+        assertThat(Quantite.estRepresentable(new BigDecimal("0.0005"))).isFalse();
+        assertThatThrownBy(() -> Quantite.of(new BigDecimal("0.0005"), Unite.LITRE))
+            .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @DisplayName("Addition, soustraction et comparaison entre unités compatibles")
+    void shouldAddSubtractAndCompareAcrossCompatibleUnits() {
+        Quantite stock = Quantite.of(new BigDecimal("2"), Unite.KILOGRAMME);
+        Quantite besoin = Quantite.of(new BigDecimal("750"), Unite.GRAMME);
+
+        assertThat(stock.moins(besoin).toBigDecimal()).isEqualByComparingTo("1.25");
+        assertThat(stock.plus(besoin).toBigDecimal()).isEqualByComparingTo("2.75");
+        assertThat(stock.estSuffisantPour(besoin)).isTrue();
+        assertThat(besoin.compareTo(stock)).isNegative();
+    }
+
+    @Test
+    @DisplayName("La conversion vers une unité plus grande arrondit au millième (HALF_UP)")
+    void shouldRoundHalfUpWhenConvertingToLargerUnit() {
+        assertThat(Quantite.convertirMilli(1_500L, Unite.GRAMME, Unite.KILOGRAMME)).isEqualTo(2L);
+        assertThat(Quantite.convertirMilli(1_499L, Unite.GRAMME, Unite.KILOGRAMME)).isEqualTo(1L);
+        assertThat(Quantite.convertirMilli(-1_500L, Unite.MILLILITRE, Unite.LITRE)).isEqualTo(-2L);
+        assertThat(Quantite.convertirMilli(1L, Unite.KILOGRAMME, Unite.GRAMME)).isEqualTo(1_000L);
+    }
+
+    @Test
+    @DisplayName("Les unités incompatibles sont refusées")
+    void shouldRejectIncompatibleUnits() {
+        Quantite quantite = Quantite.of(BigDecimal.ONE, Unite.KILOGRAMME);
+
+        assertThatThrownBy(() -> quantite.convertirEn(Unite.LITRE))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("incompatibles");
+    }
+
+    @Test
+    @DisplayName("Le convertisseur JPA conserve la colonne décimale")
+    void shouldConvertToAndFromDecimalColumn() {
+        QuantiteMilliConverter converter = new QuantiteMilliConverter();
+
+        assertThat(converter.convertToDatabaseColumn(12_345L)).isEqualTo(new BigDecimal("12.345"));
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("0.25"))).isEqualTo(250L);
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+    }
+}
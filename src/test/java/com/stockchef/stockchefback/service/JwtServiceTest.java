@@ -6,11 +6,16 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.Instant;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Tests TDD para JwtService
@@ -171,4 +176,47 @@ void shouldIncludeAdditionalClaimsInToken() {
         assertThat(userId).isEqualTo(TestUuidHelper.USER_1_UUID);
         assertThat(fullName).isEqualTo("Super Developer");
     }
+    
+    @Test
+    @DisplayName("verify() retourne l'identité du token en une seule vérification, puis depuis le cache")
+    void shouldVerifyTokenOnceAndServeFromCache() {
+        // Given
+        String token = jwtService.generateToken(testUser);
+        
+        // When
+        JwtPrincipal principal = jwtService.verify(token);
+        
+        // Then
+        assertThat(principal.email()).isEqualTo("developer@stockchef.com");
+        assertThat(principal.getName()).isEqualTo("developer@stockchef.com");
+        assertThat(principal.role()).isEqualTo("ROLE_DEVELOPER");
+        assertThat(principal.userId()).isEqualTo(TestUuidHelper.USER_1_UUID);
+        assertThat(principal.expiration()).isAfter(Instant.now());
+        assertThat(jwtService.verify(token)).isSameAs(principal);
+    }
+    
+    @Test
+    @DisplayName("verify() rejette un token altéré, même si l'original est en cache")
+    void shouldRejectTamperedTokenEvenWhenOriginalIsCached() {
+        // Given
+        String token = jwtService.generateToken(testUser);
+        jwtService.verify(token);
+        String[] parties = token.split("\\.");
+        String altere = parties[0] + "." + parties[1] + "." + new StringBuilder(parties[2]).reverse();
+        
+        // When / Then
+        assertThatThrownBy(() -> jwtService.verify(altere)).isInstanceOf(JwtException.class);
+    }
+    
+    @Test
+    @DisplayName("verify() rejette un token expiré")
+    void shouldRejectExpiredToken() {
+        // Given
+        JwtService expirant = new JwtService("TestSecretKeyForStockChefJWTTesting2024ShouldBeAtLeast256Bits", -1000L, 100);
+        String token = expirant.generateToken(testUser);
+        
+        // When / Then
+        assertThatThrownBy(() -> expirant.verify(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(expirant.isTokenValid(token, testUser)).isFalse();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package com.stockchef.stockchefback.service;
+
+import com.stockchef.stockchefback.model.User;
+import com.stockchef.stockchefback.model.UserRole;
+import com.stockchef.stockchefback.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests du hachage des mots de passe sur l'exécuteur dédié: vérification, rehachage, file pleine
+ * Sans @Transactional: le rehachage est écrit depuis un thread du pool de hachage
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("PasswordHashingService - Hachage borné des mots de passe")
+class PasswordHashingServiceTest {
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByEmail("hachage@stockchef.com").ifPresent(userRepository::delete);
+    }
+
+    @Test
+    @DisplayName("La vérification accepte le bon mot de passe et refuse les autres")
+    void shouldVerifyPassword() {
+        // Given
+        String hachage = passwordEncoder.encode("motdepasse123");
+
+        // When / Then
+        assertThat(passwordHashingService.verifier("motdepasse123", hachage)).isTrue();
+        assertThat(passwordHashingService.verifier("mauvais", hachage)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Un hachage d'un coût inférieur est refait au coût configuré après connexion")
+    void shouldRehashWeakerHash() {
+        // Given - hachage de coût 4, inférieur au coût configuré
+        User user = creerUtilisateur(new BCryptPasswordEncoder(4).encode("motdepasse123"));
+
+        // When
+        boolean remplace = passwordHashingService.rehacherSiNecessaire(user, "motdepasse123").join();
+
+        // Then
+        assertThat(remplace).isTrue();
+        String nouveau = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        assertThat(nouveau).isNotEqualTo(user.getPassword());
+        assertThat(passwordEncoder.upgradeEncoding(nouveau)).isFalse();
+        assertThat(passwordEncoder.matches("motdepasse123", nouveau)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Un hachage au coût configuré n'est pas refait")
+    void shouldNotRehashCurrentHash() {
+        // Given
+        User user = creerUtilisateur(passwordEncoder.encode("motdepasse123"));
+
+        // When / Then
+        assertThat(passwordHashingService.rehacherSiNecessaire(user, "motdepasse123").join()).isFalse();
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getPassword()).isEqualTo(user.getPassword());
+    }
+
+    @Test
+    @DisplayName("File de hachage pleine: la vérification est refusée immédiatement et comptée")
+    void shouldRejectWhenQueueIsFull() {
+        // Given - un thread occupé, file d'une place occupée
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashingService service = new PasswordHashingService(passwordEncoder, executor,
+                userRepository, transactionManager, registry, 10_000, 2);
+        CountDownLatch liberation = new CountDownLatch(1);
+        Runnable bloquant = () -> {
+            try {
+                liberation.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        executor.execute(bloquant);
+        executor.execute(bloquant);
+
+        try {
+            // When / Then
+            assertThatThrownBy(() -> service.verifier("motdepasse123", "hachage"))
+                    .isInstanceOf(RejectedExecutionException.class);
+            assertThat(registry.get("auth.password.refus").counter().count()).isEqualTo(1.0);
+            assertThat(registry.get("auth.password.file").gauge().value()).isEqualTo(1.0);
+        } finally {
+            liberation.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Attente dépassée: la vérification est refusée et retirée de la file")
+    void shouldRemoveQueuedVerificationOnTimeout() {
+        // Given - un thread occupé, file d'une place libre, attente de 100 ms
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashingService service = new PasswordHashingService(passwordEncoder, executor,
+                userRepository, transactionManager, registry, 100, 2);
+        CountDownLatch liberation = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                liberation.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try {
+            // When / Then - la place est rendue: le hachage ne sera pas calculé pour rien
+            assertThatThrownBy(() -> service.verifier("motdepasse123", passwordEncoder.encode("motdepasse123")))
+                    .isInstanceOf(RejectedExecutionException.class);
+            assertThat(registry.get("auth.password.refus").counter().count()).isEqualTo(1.0);
+            assertThat(executor.getQueue()).isEmpty();
+        } finally {
+            liberation.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private User creerUtilisateur(String hachage) {
+        return userRepository.save(User.builder()
+                .email("hachage@stockchef.com")
+                .password(hachage)
+                .firstName("Hachage")
+                .lastName("Test")
+                .role(UserRole.ROLE_CHEF)
+                .isActive(true)
+                .build());
+    }
+}
@@ -0,0 +1,120 @@
+package com.stockchef.stockchefback.service;
+
+import com.stockchef.stockchefback.exception.InvalidTokenException;
+import com.stockchef.stockchefback.model.RefreshToken;
+import com.stockchef.stockchefback.model.User;
+import com.stockchef.stockchefback.model.UserRole;
+import com.stockchef.stockchefback.repository.RefreshTokenRepository;
+import com.stockchef.stockchefback.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests des refresh tokens: rotation, détection de réutilisation, révocation
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("RefreshTokenService - Rotation des refresh tokens")
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .email("refresh@stockchef.com")
+                .password("hash")
+                .firstName("Refresh")
+                .lastName("Test")
+                .role(UserRole.ROLE_CHEF)
+                .isActive(true)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Le renouvellement consomme le token et en émet un nouveau dans la même famille")
+    void shouldRotateTokenWithinFamily() {
+        // Given
+        String token = refreshTokenService.emettre(user);
+
+        // When
+        RefreshTokenService.Rotation rotation = refreshTokenService.renouveler(token);
+
+        // Then - Stocké haché, jamais en clair; même famille
+        assertThat(rotation.user().getId()).isEqualTo(user.getId());
+        assertThat(rotation.refreshToken()).isNotEqualTo(token);
+        List<RefreshToken> stockes = refreshTokenRepository.findAll().stream()
+                .filter(t -> t.getUser().getId().equals(user.getId()))
+                .toList();
+        assertThat(stockes).hasSize(2)
+                .extracting(RefreshToken::getTokenHash)
+                .doesNotContain(token, rotation.refreshToken());
+        assertThat(stockes).extracting(RefreshToken::getFamilleId).containsOnly(stockes.get(0).getFamilleId());
+        assertThat(stockes).filteredOn(t -> t.getUtiliseA() != null).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Rejouer un token consommé révoque toute la famille")
+    void shouldRevokeFamilyOnReuse() {
+        // Given
+        String token = refreshTokenService.emettre(user);
+        String suivant = refreshTokenService.renouveler(token).refreshToken();
+
+        // When / Then
+        assertThatThrownBy(() -> refreshTokenService.renouveler(token))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("déjà utilisé");
+        assertThatThrownBy(() -> refreshTokenService.renouveler(suivant))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    @DisplayName("Sans cache, le token est retrouvé par son empreinte")
+    void shouldFindTokenByHashWithoutCache() {
+        // Given - Service sans tokens en mémoire (autre instance, redémarrage)
+        RefreshTokenService sansCache = new RefreshTokenService(refreshTokenRepository, userRepository, 14, 90, 0);
+        String token = refreshTokenService.emettre(user);
+
+        // When
+        RefreshTokenService.Rotation rotation = sansCache.renouveler(token);
+
+        // Then
+        assertThat(rotation.user().getEmail()).isEqualTo("refresh@stockchef.com");
+        assertThatThrownBy(() -> sansCache.renouveler("inconnu")).isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    @DisplayName("Le logout révoque les refresh tokens de l'utilisateur")
+    void shouldRevokeUserTokensOnLogout() {
+        // Given
+        String token = refreshTokenService.emettre(user);
+
+        // When
+        authService.invalidateToken("refresh@stockchef.com");
+
+        // Then
+        assertThatThrownBy(() -> refreshTokenService.renouveler(token)).isInstanceOf(InvalidTokenException.class);
+    }
+}
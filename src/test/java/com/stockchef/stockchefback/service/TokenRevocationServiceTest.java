@@ -0,0 +1,102 @@
+package com.stockchef.stockchefback.service;
+
+import com.stockchef.stockchefback.model.RevokedToken;
+import com.stockchef.stockchefback.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests de la révocation des tokens d'accès par jti
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("TokenRevocationService - Révocation des tokens d'accès")
+class TokenRevocationServiceTest {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Test
+    @DisplayName("Un token révoqué est refusé, les autres restent valides")
+    void shouldRejectOnlyRevokedToken() {
+        // Given
+        JwtPrincipal principal = principal(Instant.now().plus(1, ChronoUnit.HOURS));
+        String autreJti = UUID.randomUUID().toString();
+
+        // When
+        tokenRevocationService.revoquer(principal);
+
+        // Then
+        assertThat(tokenRevocationService.estRevoque(principal.jti())).isTrue();
+        assertThat(tokenRevocationService.estRevoque(autreJti)).isFalse();
+        assertThat(revokedTokenRepository.findById(principal.jti()))
+                .hasValueSatisfying(t -> assertThat(t.getUserEmail()).isEqualTo("revocation@stockchef.com"));
+    }
+
+    @Test
+    @DisplayName("Une révocation faite par une autre instance est prise en compte à la synchronisation")
+    void shouldPickUpRevocationsFromOtherInstances() {
+        // Given - ligne écrite directement en base (autre instance)
+        String jti = UUID.randomUUID().toString();
+        revokedTokenRepository.save(new RevokedToken(jti, "revocation@stockchef.com",
+                LocalDateTime.now().plusHours(1), LocalDateTime.now()));
+
+        // When
+        tokenRevocationService.synchroniser();
+
+        // Then
+        assertThat(tokenRevocationService.estRevoque(jti)).isTrue();
+    }
+
+    @Test
+    @DisplayName("La purge supprime les révocations de tokens expirés et conserve les autres")
+    void shouldPurgeExpiredRevocations() {
+        // Given
+        String expire = UUID.randomUUID().toString();
+        revokedTokenRepository.save(new RevokedToken(expire, "revocation@stockchef.com",
+                LocalDateTime.now().minusMinutes(1), LocalDateTime.now().minusHours(1)));
+        JwtPrincipal actif = principal(Instant.now().plus(1, ChronoUnit.HOURS));
+        tokenRevocationService.revoquer(actif);
+
+        // When
+        tokenRevocationService.purgerRevocationsExpirees();
+
+        // Then
+        assertThat(revokedTokenRepository.existsById(expire)).isFalse();
+        assertThat(tokenRevocationService.estRevoque(actif.jti())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Un token sans jti n'est jamais considéré comme révoqué")
+    void shouldIgnoreTokenWithoutJti() {
+        // Given
+        JwtPrincipal sansJti = new JwtPrincipal("revocation@stockchef.com", "ROLE_CHEF",
+                UUID.randomUUID().toString(), null, Instant.now().plus(1, ChronoUnit.HOURS));
+
+        // When
+        tokenRevocationService.revoquer(sansJti);
+
+        // Then
+        assertThat(tokenRevocationService.estRevoque(null)).isFalse();
+    }
+
+    private JwtPrincipal principal(Instant expiration) {
+        return new JwtPrincipal("revocation@stockchef.com", "ROLE_CHEF",
+                UUID.randomUUID().toString(), UUID.randomUUID().toString(), expiration);
+    }
+}
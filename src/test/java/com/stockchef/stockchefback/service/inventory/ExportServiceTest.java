@@ -0,0 +1,141 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
+import com.stockchef.stockchefback.model.inventory.Unite;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.service.inventory.ExportService.FormatExport;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests de l'export en flux des produits et des mouvements
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("ExportService - Export CSV/NDJSON en flux")
+class ExportServiceTest {
+    
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private ProduitRepository produitRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Produit farine;
+    private Produit sucre;
+    private LocalDateTime debut;
+    private LocalDateTime fin;
+    
+    @BeforeEach
+    void setUp() {
+        farine = produitRepository.save(new Produit("Farine, type 55", new BigDecimal("100"),
+                Unite.KILOGRAMME, new BigDecimal("1.20"), new BigDecimal("5")));
+        sucre = produitRepository.save(new Produit("Sucre", new BigDecimal("100"),
+                Unite.KILOGRAMME, new BigDecimal("2.00"), new BigDecimal("5")));
+        stockService.incrementerStock(farine.getId(), new BigDecimal("10"), "Livraison \"matin\"");
+        stockService.decrementerStock(farine.getId(), new BigDecimal("2.5"), "Service", null);
+        stockService.decrementerStock(farine.getId(), new BigDecimal("1"), "Service", null);
+        stockService.decrementerStock(sucre.getId(), new BigDecimal("3"), "Service", null);
+        entityManager.flush();
+        entityManager.clear();
+        
+        debut = LocalDate.now().atStartOfDay();
+        fin = debut.plusDays(1);
+    }
+    
+    @Test
+    @DisplayName("L'export CSV des mouvements d'un produit échappe les valeurs et garde l'ordre chronologique")
+    void shouldExportProductMovementsAsCsv() throws Exception {
+        // When
+        StringWriter writer = new StringWriter();
+        long nombre = exportService.exporterMouvements(FormatExport.CSV, debut, fin,
+                farine.getId(), null, null, writer);
+        
+        // Then - En-tête + 3 mouvements, virgules et guillemets protégés
+        String[] lignes = writer.toString().split("\r\n");
+        assertThat(nombre).isEqualTo(3);
+        assertThat(lignes).hasSize(4);
+        assertThat(lignes[0]).startsWith("id,dateMouvement,produitId,produitNom,typeMouvement,quantite");
+        assertThat(lignes[1]).contains("\"Farine, type 55\"", "ENTREE", "\"Livraison \"\"matin\"\"\"");
+        assertThat(lignes[2]).contains("SORTIE", ",-2.5");
+        assertThat(lignes[3]).contains("SORTIE", ",-1");
+    }
+    
+    @Test
+    @DisplayName("L'export NDJSON filtré par type n'hydrate aucune entité")
+    void shouldExportMovementsAsNdjsonWithoutLoadingEntities() throws Exception {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        // When
+        StringWriter writer = new StringWriter();
+        exportService.exporterMouvements(FormatExport.NDJSON, debut, fin, null, TypeMouvement.SORTIE, null, writer);
+        
+        // Then - Une ligne JSON par sortie, projections uniquement
+        List<JsonNode> lignes = new ArrayList<>();
+        for (String ligne : writer.toString().split("\n")) {
+            lignes.add(objectMapper.readTree(ligne));
+        }
+        assertThat(lignes)
+                .filteredOn(l -> l.get("produitId").asLong() == farine.getId() || l.get("produitId").asLong() == sucre.getId())
+                .hasSize(3)
+                .allSatisfy(l -> assertThat(l.get("typeMouvement").asText()).isEqualTo("SORTIE"));
+        assertThat(lignes).allSatisfy(l -> assertThat(l.get("typeMouvement").asText()).isEqualTo("SORTIE"));
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("L'export de l'inventaire exclut les produits supprimés")
+    void shouldExportActiveProductsOnly() throws Exception {
+        // Given
+        Produit supprime = produitRepository.findById(sucre.getId()).orElseThrow();
+        supprime.setDeleted(true);
+        entityManager.flush();
+        
+        // When
+        StringWriter writer = new StringWriter();
+        exportService.exporterProduits(FormatExport.CSV, writer);
+        
+        // Then
+        assertThat(writer.toString())
+                .startsWith("id,nom,quantiteStock,unite,prixUnitaire")
+                .contains("\r\n" + farine.getId() + ",\"Farine, type 55\",106.500,KILOGRAMME,1.20,")
+                .doesNotContain("\r\n" + sucre.getId() + ",Sucre,");
+    }
+}
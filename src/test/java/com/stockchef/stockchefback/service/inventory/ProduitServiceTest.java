@@ -0,0 +1,210 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import com.stockchef.stockchefback.dto.inventory.StockAtResponse;
+import com.stockchef.stockchefback.dto.inventory.StockMovementResponse;
+import com.stockchef.stockchefback.dto.inventory.StockMovementSearchResponse;
+import com.stockchef.stockchefback.dto.inventory.StockValuationResponse;
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.StockMovement;
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
+import com.stockchef.stockchefback.model.inventory.Unite;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests de l'historique des mouvements: recherche paginée par curseur et stock à un instant
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("ProduitService - Historique des mouvements")
+class ProduitServiceTest {
+    
+    private static final int NOMBRE_SORTIES = 24;
+    
+    @Autowired
+    private ProduitService produitService;
+    
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private ProduitRepository produitRepository;
+    
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Produit produit;
+    
+    @BeforeEach
+    void setUp() {
+        produit = produitRepository.save(new Produit("Riz", new BigDecimal("1000"),
+                Unite.KILOGRAMME, new BigDecimal("1.80"), new BigDecimal("10")));
+        stockService.incrementerStock(produit.getId(), new BigDecimal("50"), "Livraison");
+        for (int i = 0; i < NOMBRE_SORTIES; i++) {
+            stockService.decrementerStock(produit.getId(), BigDecimal.ONE, "Service", i % 2 == 0 ? 42L : null);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+    
+    @Test
+    @DisplayName("Le parcours par curseur rend chaque mouvement une fois, du plus récent au plus ancien")
+    void shouldWalkAllMovementsWithCursorWithoutGapsOrDuplicates() {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<StockMovementResponse> parcourus = new ArrayList<>();
+        String curseur = null;
+        int pages = 0;
+        
+        // When - Pages de 10 jusqu'au curseur null
+        do {
+            statistics.clear();
+            StockMovementSearchResponse page = produitService.rechercherMouvements(
+                    produit.getId(), null, null, null, null, null, curseur, 10);
+            // Une seule requête par page (produit joint), aucun comptage
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            parcourus.addAll(page.mouvements());
+            curseur = page.curseurSuivant();
+            pages++;
+        } while (curseur != null);
+        
+        // Then - 1 entrée + 24 sorties en 3 pages, ordre (date, id) décroissant
+        assertThat(pages).isEqualTo(3);
+        assertThat(parcourus).hasSize(NOMBRE_SORTIES + 1);
+        assertThat(parcourus).extracting(StockMovementResponse::id).doesNotHaveDuplicates();
+        assertThat(parcourus).isSortedAccordingTo(Comparator
+                .comparing(StockMovementResponse::dateMouvement)
+                .thenComparing(StockMovementResponse::id)
+                .reversed());
+        assertThat(parcourus).allSatisfy(m -> assertThat(m.produitNom()).isEqualTo("Riz"));
+    }
+    
+    @Test
+    @DisplayName("Les filtres type et menu se combinent avec le curseur")
+    void shouldCombineFiltersWithCursor() {
+        // When
+        StockMovementSearchResponse premiere = produitService.rechercherMouvements(
+                produit.getId(), TypeMouvement.SORTIE, null, 42L, null, null, null, 8);
+        StockMovementSearchResponse seconde = produitService.rechercherMouvements(
+                produit.getId(), TypeMouvement.SORTIE, null, 42L, null, null, premiere.curseurSuivant(), 8);
+        
+        // Then - 12 sorties du menu 42
+        assertThat(premiere.mouvements()).hasSize(8);
+        assertThat(seconde.mouvements()).hasSize(4);
+        assertThat(seconde.curseurSuivant()).isNull();
+        assertThat(premiere.mouvements()).allSatisfy(m -> {
+            assertThat(m.typeMouvement()).isEqualTo(TypeMouvement.SORTIE);
+            assertThat(m.menuId()).isEqualTo(42L);
+        });
+    }
+    
+    @Test
+    @DisplayName("Le stock à un instant est le solde du dernier mouvement à cet instant ou avant")
+    void shouldResolveStockAtInstantFromLatestMovement() {
+        // Given - Beurre: +10 vendredi 10h, -3 vendredi 17h, -2 samedi 9h
+        LocalDateTime vendredi = LocalDate.now().minusWeeks(1).atStartOfDay();
+        Produit beurre = creerProduitAvecHistorique("Beurre", "8.00",
+                vendredi.plusHours(10), vendredi.plusHours(17), vendredi.plusDays(1).plusHours(9));
+        
+        // When / Then
+        assertThat(produitService.getStockAInstant(beurre.getId(), vendredi.plusHours(9)).quantite())
+                .isEqualByComparingTo("0");
+        assertThat(produitService.getStockAInstant(beurre.getId(), vendredi.plusHours(17)).quantite())
+                .isEqualByComparingTo("7");
+        StockAtResponse vendrediSoir = produitService.getStockAInstant(beurre.getId(), vendredi.plusHours(18));
+        assertThat(vendrediSoir.quantite()).isEqualByComparingTo("7");
+        assertThat(vendrediSoir.valeur()).isEqualByComparingTo("56.00");
+        assertThat(vendrediSoir.dateMouvement()).isEqualTo(vendredi.plusHours(17));
+        assertThat(produitService.getStockAInstant(beurre.getId(), vendredi.plusDays(2)).quantite())
+                .isEqualByComparingTo("5");
+        assertThatThrownBy(() -> produitService.getStockAInstant(-1L, vendredi))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    @DisplayName("La valorisation à un instant couvre tous les produits en une seule requête")
+    void shouldValueAllProductsAtInstantInOneQuery() {
+        // Given
+        LocalDateTime vendredi = LocalDate.now().minusWeeks(1).atStartOfDay();
+        Produit beurre = creerProduitAvecHistorique("Beurre", "8.00",
+                vendredi.plusHours(10), vendredi.plusHours(17), vendredi.plusDays(1).plusHours(9));
+        Produit creme = creerProduitAvecHistorique("Crème", "3.00",
+                vendredi.plusHours(8), vendredi.plusHours(20), vendredi.plusHours(21));
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        // When - Vendredi 18h
+        StockValuationResponse valorisation = produitService.getValorisationStockAInstant(vendredi.plusHours(18));
+        
+        // Then - Beurre 7 x 8.00, crème 10 x 3.00 (sorties après 18h); le riz (mouvements d'aujourd'hui) n'existait pas encore
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(valorisation.produits()).extracting(StockAtResponse::produitId)
+                .contains(beurre.getId(), creme.getId())
+                .doesNotContain(produit.getId());
+        assertThat(valorisation.produits()).filteredOn(s -> s.produitId().equals(creme.getId()))
+                .singleElement()
+                .satisfies(s -> assertThat(s.valeur()).isEqualByComparingTo("30.00"));
+        BigDecimal valeurAutres = valorisation.produits().stream()
+                .filter(s -> !s.produitId().equals(beurre.getId()) && !s.produitId().equals(creme.getId()))
+                .map(StockAtResponse::valeur)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(valorisation.valeurTotale().subtract(valeurAutres)).isEqualByComparingTo("86.00");
+    }
+    
+    /**
+     * Produit sans stock initial: +10, -3, -2 aux dates données
+     */
+    private Produit creerProduitAvecHistorique(String nom, String prix, LocalDateTime entree,
+                                               LocalDateTime sortie1, LocalDateTime sortie2) {
+        Produit nouveau = produitRepository.save(new Produit(nom, BigDecimal.ZERO,
+                Unite.KILOGRAMME, new BigDecimal(prix), BigDecimal.ONE));
+        stockService.incrementerStock(nouveau.getId(), new BigDecimal("10"), "Livraison");
+        stockService.decrementerStock(nouveau.getId(), new BigDecimal("3"), "Service", null);
+        stockService.decrementerStock(nouveau.getId(), new BigDecimal("2"), "Service", null);
+        entityManager.flush();
+        
+        List<StockMovement> mouvements = stockMovementRepository.findByProduitOrderByDateMouvementDesc(nouveau);
+        mouvements.sort(Comparator.comparing(StockMovement::getId));
+        mouvements.get(0).setDateMouvement(entree);
+        mouvements.get(1).setDateMouvement(sortie1);
+        mouvements.get(2).setDateMouvement(sortie2);
+        entityManager.flush();
+        return nouveau;
+    }
+    
+    @Test
+    @DisplayName("Un curseur altéré est refusé")
+    void shouldRejectInvalidCursor() {
+        assertThatThrownBy(() -> produitService.rechercherMouvements(
+                produit.getId(), null, null, null, null, null, "pas-un-curseur", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
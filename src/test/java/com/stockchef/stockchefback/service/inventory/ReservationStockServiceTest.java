@@ -0,0 +1,151 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.Unite;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.inventory.ReservationStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests pour le registre des réservations de stock
+ * Sans @Transactional: chaque opération est validée, comme en production (agrégat mis à jour au commit)
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("ReservationStockService - Disponible à promettre")
+class ReservationStockServiceTest {
+
+    @Autowired
+    private ReservationStockService reservationStockService;
+
+    @Autowired
+    private ReservationStockRepository reservationStockRepository;
+
+    @Autowired
+    private ProduitRepository produitRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Produit boeuf;
+
+    @BeforeEach
+    void setUp() {
+        boeuf = produitRepository.save(new Produit("Boeuf", new BigDecimal("5.0"), Unite.KILOGRAMME,
+                new BigDecimal("18.00"), new BigDecimal("1.0")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationStockRepository.deleteAllInBatch(
+            reservationStockRepository.findByMenuIdIn(List.of(101L, 102L, 201L, 202L, 301L)));
+        reservationStockService.synchroniser();
+        produitRepository.deleteById(boeuf.getId());
+    }
+
+    @Test
+    @DisplayName("Le disponible à promettre déduit les réservations actives et remonte à leur libération")
+    void shouldSubtractActiveHoldsFromAvailableToPromise() {
+        // Given
+        LocalDate demain = LocalDate.now().plusDays(1);
+        reservationStockService.reserver(boeuf, 101L, new BigDecimal("2.0"), demain);
+        reservationStockService.reserver(boeuf, 102L, new BigDecimal("1.5"), demain);
+
+        // Then
+        assertThat(reservationStockService.getQuantiteReservee(boeuf.getId())).isEqualByComparingTo("3.5");
+        assertThat(reservationStockService.getDisponibleAPromettre(boeuf)).isEqualByComparingTo("1.5");
+        assertThat(reservationStockService.getDisponiblePourMenu(boeuf, new BigDecimal("2.0"))).isEqualByComparingTo("3.5");
+
+        // When
+        reservationStockService.libererPourMenu(101L);
+
+        // Then
+        assertThat(reservationStockService.getDisponibleAPromettre(boeuf)).isEqualByComparingTo("3.5");
+        assertThat(reservationStockRepository.findByMenuId(101L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Une réservation dont la date de service est passée expire et est purgée")
+    void shouldExpireHoldsAfterServiceDate() {
+        // Given - Date de service d'hier: la réservation expire à minuit
+        reservationStockService.reserver(boeuf, 201L, new BigDecimal("4.0"), LocalDate.now().minusDays(1));
+        reservationStockService.reserver(boeuf, 202L, new BigDecimal("1.0"), LocalDate.now().plusDays(1));
+
+        // When
+        reservationStockService.purgerReservationsExpirees();
+
+        // Then
+        assertThat(reservationStockRepository.findByMenuId(201L)).isEmpty();
+        assertThat(reservationStockRepository.findByMenuId(202L)).hasSize(1);
+        assertThat(reservationStockService.getDisponibleAPromettre(boeuf)).isEqualByComparingTo("4.0");
+    }
+
+    @Test
+    @DisplayName("Une réservation expirée ne bloque plus le stock, même avant la purge")
+    void shouldStopCountingExpiredHoldsBeforePurge() {
+        // Given - Date de service d'hier: la réservation est déjà expirée, aucune purge n'a lieu
+        reservationStockService.reserver(boeuf, 201L, new BigDecimal("4.0"), LocalDate.now().minusDays(1));
+        reservationStockService.reserver(boeuf, 202L, new BigDecimal("1.0"), LocalDate.now().plusDays(1));
+
+        // Then
+        assertThat(reservationStockRepository.findByMenuId(201L)).hasSize(1);
+        assertThat(reservationStockService.getQuantiteReservee(boeuf.getId())).isEqualByComparingTo("1.0");
+        assertThat(reservationStockService.getDisponibleAPromettre(boeuf)).isEqualByComparingTo("4.0");
+
+        // When - Libérer la réservation expirée ne la retire pas une seconde fois
+        reservationStockService.libererPourMenu(201L);
+
+        // Then
+        assertThat(reservationStockService.getQuantiteReservee(boeuf.getId())).isEqualByComparingTo("1.0");
+    }
+
+    @Test
+    @DisplayName("Une synchronisation pendant le commit d'une réservation ne la compte pas deux fois")
+    void shouldNotCountCommittingHoldTwiceWhenSynchronizingConcurrently() throws Exception {
+        // Given - Une synchronisation lancée par un autre thread juste après le commit de la réservation,
+        // avant que la transaction n'intègre sa variation à l'agrégat
+        LocalDate demain = LocalDate.now().plusDays(1);
+        CompletableFuture<?>[] synchronisation = new CompletableFuture<?>[1];
+
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            reservationStockService.reserver(boeuf, 301L, new BigDecimal("2.0"), demain);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    synchronisation[0] = CompletableFuture.runAsync(reservationStockService::synchroniser);
+                    try {
+                        synchronisation[0].get(500, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // Attendu: la synchronisation attend la fin de la transaction
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+        });
+        synchronisation[0].get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(reservationStockService.getQuantiteReservee(boeuf.getId())).isEqualByComparingTo("2.0");
+    }
+}
@@ -0,0 +1,172 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import com.stockchef.stockchefback.dto.inventory.StockMovementResponse;
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.StockMovement;
+import com.stockchef.stockchefback.model.inventory.StockMovementCompaction;
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
+import com.stockchef.stockchefback.model.inventory.Unite;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementCompactionRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests de la compaction des mouvements anciens
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("StockMovementCompactionService - Compaction des mouvements anciens")
+class StockMovementCompactionServiceTest {
+    
+    private static final LocalDate JOUR = LocalDate.now().minusMonths(14);
+    
+    @Autowired
+    private StockMovementCompactionService compactionService;
+    
+    @Autowired
+    private ProduitService produitService;
+    
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private ProduitRepository produitRepository;
+    
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    
+    @Autowired
+    private StockMovementCompactionRepository compactionRepository;
+    
+    @Autowired
+    private UniteConversionService uniteConversionService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    private Produit produit;
+    
+    @BeforeEach
+    void setUp() {
+        // Jour ancien: +10, -1, -500 g, +5; puis une sortie aujourd'hui
+        produit = produitRepository.save(new Produit("Sucre", BigDecimal.ZERO,
+                Unite.KILOGRAMME, new BigDecimal("1.50"), BigDecimal.ONE));
+        stockService.incrementerStock(produit.getId(), new BigDecimal("10"), "Livraison");
+        stockService.decrementerStock(produit.getId(), BigDecimal.ONE, "Service", null);
+        stockService.decrementerStockAvecConversion(produit.getId(), new BigDecimal("500"), Unite.GRAMME, "Service", null);
+        stockService.incrementerStock(produit.getId(), new BigDecimal("5"), "Livraison");
+        stockService.decrementerStock(produit.getId(), new BigDecimal("2"), "Service", null);
+        entityManager.flush();
+        
+        List<StockMovement> mouvements = stockMovementRepository.findByProduitOrderByDateMouvementDesc(produit);
+        mouvements.sort(Comparator.comparing(StockMovement::getId));
+        for (int i = 0; i < 4; i++) {
+            mouvements.get(i).setDateMouvement(JOUR.atTime(8 + i, 0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+    
+    @Test
+    @DisplayName("La compaction garde les totaux et le solde de clôture du jour")
+    void shouldKeepTotalsAndClosingBalance() {
+        // Given
+        LocalDateTime cloture = StockSnapshotService.clotureDuJour(JOUR);
+        BigDecimal soldeAvant = produitService.getStockAInstant(produit.getId(), cloture).quantite();
+        
+        // When
+        int supprimes = compactionService.compacter(JOUR, JOUR);
+        entityManager.clear();
+        
+        // Then - Une ligne par type: entrées 15, sorties -1.5, solde de clôture inchangé
+        List<StockMovement> jour = stockMovementRepository.findPeriodeAvecProduit(
+                JOUR.atStartOfDay(), JOUR.plusDays(1).atStartOfDay()).stream()
+                .filter(m -> m.getProduit().getId().equals(produit.getId()))
+                .toList();
+        assertThat(supprimes).isGreaterThanOrEqualTo(4);
+        assertThat(jour).hasSize(2);
+        assertThat(jour).filteredOn(m -> m.getTypeMouvement() == TypeMouvement.ENTREE).singleElement()
+                .satisfies(m -> assertThat(m.getQuantite()).isEqualByComparingTo("15"));
+        assertThat(jour).filteredOn(m -> m.getTypeMouvement() == TypeMouvement.SORTIE).singleElement()
+                .satisfies(m -> {
+                    assertThat(m.getQuantite()).isEqualByComparingTo("-1.5");
+                    assertThat(m.getUnite()).isEqualTo(Unite.KILOGRAMME);
+                    assertThat(m.getDateMouvement()).isEqualTo(JOUR.atTime(10, 0));
+                });
+        assertThat(soldeAvant).isEqualByComparingTo("13.5");
+        assertThat(produitService.getStockAInstant(produit.getId(), cloture).quantite()).isEqualByComparingTo(soldeAvant);
+    }
+    
+    @Test
+    @DisplayName("Les mouvements récents ne sont pas compactés")
+    void shouldNotTouchRecentMovements() {
+        // Given
+        List<StockMovementResponse> avant = produitService.getStockMovements(produit.getId());
+        StockMovementResponse recent = avant.get(0);
+        
+        // When
+        compactionService.compacter(JOUR, JOUR);
+        entityManager.clear();
+        
+        // Then - La sortie du jour est rendue telle quelle, en tête de l'historique
+        List<StockMovementResponse> apres = produitService.getStockMovements(produit.getId());
+        assertThat(apres).hasSize(3);
+        assertThat(apres.get(0)).isEqualTo(recent);
+        assertThat(apres.get(1).motif()).isEqualTo("Compaction de 2 mouvements");
+    }
+    
+    @Test
+    @DisplayName("Le job nocturne reprend après le dernier jour compacté")
+    void shouldMoveOnToNextDayOnSecondScheduledRun() {
+        // Given - Deux mouvements deux jours plus tard, jours antérieurs déjà compactés;
+        // rétention 12 mois, un jour par exécution
+        stockService.incrementerStock(produit.getId(), BigDecimal.ONE, "Livraison");
+        stockService.incrementerStock(produit.getId(), BigDecimal.ONE, "Livraison");
+        entityManager.flush();
+        LocalDate jourSuivant = JOUR.plusDays(2);
+        stockMovementRepository.findByProduitOrderByDateMouvementDesc(produit).stream()
+                .sorted(Comparator.comparing(StockMovement::getId).reversed())
+                .limit(2)
+                .forEach(m -> m.setDateMouvement(jourSuivant.atTime(9, 0)));
+        compactionRepository.save(new StockMovementCompaction(JOUR.minusDays(1), 0, LocalDateTime.now()));
+        entityManager.flush();
+        entityManager.clear();
+        StockMovementCompactionService job = new StockMovementCompactionService(stockMovementRepository,
+                compactionRepository, uniteConversionService, transactionManager, 12, 1);
+        
+        // When
+        job.compacterMouvementsAnciens();
+        job.compacterMouvementsAnciens();
+        entityManager.flush();
+        entityManager.clear();
+        
+        // Then - Le second passage compacte le jour suivant au lieu de repasser sur le premier
+        assertThat(compactionRepository.findDernierJourCompacte()).isEqualTo(jourSuivant);
+        assertThat(stockMovementRepository.findPeriodeAvecProduit(
+                jourSuivant.atStartOfDay(), jourSuivant.plusDays(1).atStartOfDay()))
+                .filteredOn(m -> m.getProduit().getId().equals(produit.getId()))
+                .singleElement()
+                .satisfies(m -> assertThat(m.getMotif()).isEqualTo("Compaction de 2 mouvements"));
+    }
+}
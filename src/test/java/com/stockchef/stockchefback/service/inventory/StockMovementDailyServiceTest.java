@@ -0,0 +1,119 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.StockMovementDaily;
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
+import com.stockchef.stockchefback.model.inventory.Unite;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementDailyRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests de l'agrégat journalier des mouvements de stock
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("StockMovementDailyService - Agrégat journalier des mouvements")
+class StockMovementDailyServiceTest {
+    
+    @Autowired
+    private StockMovementDailyService stockMovementDailyService;
+    
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private ProduitRepository produitRepository;
+    
+    @Autowired
+    private StockMovementDailyRepository stockMovementDailyRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    private Produit farine;
+    
+    @BeforeEach
+    void setUp() {
+        farine = produitRepository.save(new Produit("Farine", new BigDecimal("10"),
+                Unite.KILOGRAMME, new BigDecimal("2.00"), BigDecimal.ONE));
+    }
+    
+    private Map<TypeMouvement, StockMovementDaily> lignesDuJour(Produit produit) {
+        entityManager.flush();
+        entityManager.clear();
+        return stockMovementDailyRepository.findAll().stream()
+                .filter(d -> d.getProduit().getId().equals(produit.getId()) && d.getJour().equals(LocalDate.now()))
+                .collect(Collectors.toMap(StockMovementDaily::getTypeMouvement, Function.identity()));
+    }
+    
+    @Test
+    @DisplayName("Chaque mouvement met à jour la ligne du jour dans l'unité de stock du produit")
+    void shouldUpdateDailyRowWithEachMovement() {
+        // When - Deux sorties (dont une en grammes) et une entrée
+        stockService.decrementerStock(farine.getId(), new BigDecimal("2"), "Service midi", null);
+        stockService.decrementerStockAvecConversion(farine.getId(), new BigDecimal("500"), Unite.GRAMME, "Service soir", null);
+        stockService.incrementerStock(farine.getId(), new BigDecimal("5"), "Livraison");
+        
+        // Then
+        Map<TypeMouvement, StockMovementDaily> lignes = lignesDuJour(farine);
+        StockMovementDaily sorties = lignes.get(TypeMouvement.SORTIE);
+        assertThat(sorties.getQuantite()).isEqualByComparingTo("-2.5");
+        assertThat(sorties.getValeur()).isEqualByComparingTo("-5.00");
+        assertThat(sorties.getNombreMouvements()).isEqualTo(2);
+        
+        StockMovementDaily entrees = lignes.get(TypeMouvement.ENTREE);
+        assertThat(entrees.getQuantite()).isEqualByComparingTo("5");
+        assertThat(entrees.getNombreMouvements()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("La reconstruction depuis stock_movements retrouve l'agrégat incrémental")
+    void shouldRebuildSameRowsAsIncrementalUpdates() {
+        // Given
+        stockService.decrementerStock(farine.getId(), new BigDecimal("1.5"), "Service", null);
+        stockService.decrementerStockAvecConversion(farine.getId(), new BigDecimal("250"), Unite.GRAMME, "Service", null);
+        stockService.incrementerStock(farine.getId(), new BigDecimal("3"), "Livraison");
+        Map<TypeMouvement, StockMovementDaily> incremental = lignesDuJour(farine);
+        
+        // When - Agrégat effacé puis reconstruit
+        LocalDate today = LocalDate.now();
+        stockMovementDailyRepository.supprimerPeriode(today, today);
+        int lignes = stockMovementDailyService.reconstruire(today, today);
+        
+        // Then
+        Map<TypeMouvement, StockMovementDaily> reconstruit = lignesDuJour(farine);
+        assertThat(lignes).isGreaterThanOrEqualTo(2);
+        assertThat(reconstruit.keySet()).isEqualTo(incremental.keySet());
+        incremental.forEach((type, ligne) -> {
+            assertThat(reconstruit.get(type).getQuantite()).isEqualByComparingTo(ligne.getQuantite());
+            assertThat(reconstruit.get(type).getValeur()).isEqualByComparingTo(ligne.getValeur());
+            assertThat(reconstruit.get(type).getNombreMouvements()).isEqualTo(ligne.getNombreMouvements());
+        });
+    }
+    
+    @Test
+    @DisplayName("Une période de reconstruction invalide est refusée")
+    void shouldRejectInvalidRebuildPeriod() {
+        LocalDate today = LocalDate.now();
+        assertThatThrownBy(() -> stockMovementDailyService.reconstruire(today, today.minusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
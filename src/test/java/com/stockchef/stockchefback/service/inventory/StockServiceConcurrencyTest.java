@@ -0,0 +1,120 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.StockMovement;
+import com.stockchef.stockchefback.model.inventory.Unite;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests de concurrence pour StockService
+ * Sans @Transactional: chaque sortie s'exécute dans sa propre transaction, comme en production
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("StockService - Tests de concurrence")
+class StockServiceConcurrencyTest {
+
+    private static final int STOCK_INITIAL = 1500;
+    private static final int NOMBRE_SORTIES = 2000;
+    private static final int NOMBRE_THREADS = 8;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ProduitRepository produitRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    private Produit testProduit;
+
+    @BeforeEach
+    void setUp() {
+        testProduit = produitRepository.save(new Produit(
+            "Beurre",
+            new BigDecimal(STOCK_INITIAL),
+            Unite.UNITE,
+            new BigDecimal("1.20"),
+            new BigDecimal("10")
+        ));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockMovementRepository.deleteAllInBatch(
+            stockMovementRepository.findByProduitOrderByDateMouvementDesc(testProduit));
+        produitRepository.deleteById(testProduit.getId());
+    }
+
+    @Test
+    @DisplayName("Des sorties parallèles ne rendent jamais le stock négatif et ne perdent aucun mouvement")
+    void shouldNeverGoNegativeNorLoseMovementsUnderParallelSorties() throws InterruptedException {
+        // Given
+        Long produitId = testProduit.getId();
+        AtomicInteger succes = new AtomicInteger();
+        AtomicInteger refus = new AtomicInteger();
+        Queue<Throwable> erreursInattendues = new ConcurrentLinkedQueue<>();
+        CountDownLatch depart = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(NOMBRE_THREADS);
+
+        // When - Plus de sorties que de stock, toutes lancées en même temps
+        for (int i = 0; i < NOMBRE_SORTIES; i++) {
+            executor.submit(() -> {
+                try {
+                    depart.await();
+                    stockService.decrementerStock(produitId, BigDecimal.ONE, "Service du soir", null);
+                    succes.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    refus.incrementAndGet();
+                } catch (Throwable e) {
+                    erreursInattendues.add(e);
+                }
+            });
+        }
+        depart.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        // Then - Exactement le stock initial a été servi, le reste refusé
+        assertThat(erreursInattendues).isEmpty();
+        assertThat(succes.get()).isEqualTo(STOCK_INITIAL);
+        assertThat(refus.get()).isEqualTo(NOMBRE_SORTIES - STOCK_INITIAL);
+
+        Produit produitFinal = produitRepository.findById(produitId).orElseThrow();
+        assertThat(produitFinal.getQuantiteStock()).isEqualByComparingTo(BigDecimal.ZERO);
+
+        // Then - Un mouvement par sortie réussie, chacun avec un solde distinct et positif
+        List<StockMovement> movements = stockMovementRepository.findByProduitOrderByDateMouvementDesc(testProduit);
+        assertThat(movements).hasSize(STOCK_INITIAL);
+
+        Set<Integer> soldes = movements.stream()
+            .map(m -> m.getQuantiteApres().intValueExact())
+            .collect(Collectors.toSet());
+        Set<Integer> soldesAttendus = IntStream.range(0, STOCK_INITIAL).boxed().collect(Collectors.toSet());
+        assertThat(soldes).isEqualTo(soldesAttendus);
+    }
+}
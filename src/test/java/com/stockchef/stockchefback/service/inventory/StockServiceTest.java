@@ -1,5 +1,9 @@
 package com.stockchef.stockchefback.service.inventory;
 
+import com.stockchef.stockchefback.dto.inventory.StockMovementBatchLine;
+import com.stockchef.stockchefback.dto.inventory.StockMovementBatchLineResult;
+import com.stockchef.stockchefback.dto.inventory.StockMovementRequest;
+import com.stockchef.stockchefback.model.inventory.Lot;
 import com.stockchef.stockchefback.model.inventory.Produit;
 import com.stockchef.stockchefback.model.inventory.StockMovement;
 import com.stockchef.stockchefback.model.inventory.TypeMouvement;
@@ -14,6 +18,7 @@
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -39,6 +44,9 @@ class StockServiceTest {
     @Autowired
     private UniteConversionService uniteConversionService;
     
+    @Autowired
+    private LotService lotService;
+    
     private Produit testProduit;
     
     @BeforeEach
@@ -244,6 +252,43 @@ void shouldHandleConcurrentStockDecrementsafely() {
         assertThat(movements).hasSize(2);
     }
     
+    @Test
+    @DisplayName("Should apply a batch of movements and reject invalid lines individually")
+    void shouldApplyBatchOfMovementsAndRejectInvalidLines() {
+        // Given - Livraison de 5 kg, sortie de 500 g, sortie excessive, produit inexistant
+        List<StockMovementBatchLine> lignes = List.of(
+            new StockMovementBatchLine(testProduit.getId(), TypeMouvement.ENTREE,
+                new StockMovementRequest(new BigDecimal("5.0"), null, "Livraison", null)),
+            new StockMovementBatchLine(testProduit.getId(), TypeMouvement.SORTIE,
+                new StockMovementRequest(new BigDecimal("500"), Unite.GRAMME, "Service midi", 7L)),
+            new StockMovementBatchLine(testProduit.getId(), TypeMouvement.SORTIE,
+                new StockMovementRequest(new BigDecimal("50.0"), null, "Sortie excessive", null)),
+            new StockMovementBatchLine(99999L, TypeMouvement.SORTIE,
+                new StockMovementRequest(new BigDecimal("1.0"), null, "Produit inconnu", null))
+        );
+        
+        // When
+        List<StockMovementBatchLineResult> resultats = stockService.appliquerMouvementsEnLot(lignes);
+        
+        // Then - Résultat par ligne, dans l'ordre
+        assertThat(resultats).extracting(StockMovementBatchLineResult::applique)
+            .containsExactly(true, true, false, false);
+        assertThat(resultats.get(0).quantiteApres()).isEqualByComparingTo(new BigDecimal("15.0"));
+        assertThat(resultats.get(1).quantiteApres()).isEqualByComparingTo(new BigDecimal("14.5"));
+        assertThat(resultats.get(1).mouvementId()).isNotNull();
+        assertThat(resultats.get(2).erreur()).contains("Stock insuffisant");
+        assertThat(resultats.get(3).erreur()).contains("Produit non trouvé");
+        
+        // Then - Stock et audit trail cohérents
+        Produit produitMisAJour = produitRepository.findById(testProduit.getId()).orElseThrow();
+        assertThat(produitMisAJour.getQuantiteStock()).isEqualByComparingTo(new BigDecimal("14.5"));
+        
+        List<StockMovement> movements = stockMovementRepository.findByProduitOrderByDateMouvementDesc(testProduit);
+        assertThat(movements).hasSize(2);
+        assertThat(movements).extracting(StockMovement::getTypeMouvement)
+            .containsExactlyInAnyOrder(TypeMouvement.ENTREE, TypeMouvement.SORTIE);
+    }
+    
     @Test
     @DisplayName("Should validate null parameters")
     void shouldValidateNullParameters() {
@@ -274,4 +319,53 @@ void shouldValidateNegativeQuantities() {
         .isInstanceOf(IllegalArgumentException.class)
         .hasMessageContaining("La quantité doit être positive");
     }
+    
+    @Test
+    @DisplayName("Les sorties consomment les lots par date de péremption croissante")
+    void shouldConsumeLotsEarliestExpiryFirst() {
+        // Given - Stock existant (sans lot) à J+10, puis livraison de crème fraîche à J+2
+        testProduit.setDatePeremption(LocalDate.now().plusDays(10));
+        produitRepository.save(testProduit);
+        stockService.incrementerStock(testProduit.getId(), new BigDecimal("5.0"), "Livraison", LocalDate.now().plusDays(2));
+        
+        assertThat(produitRepository.findProduitsExpiringWithinDays(3)).extracting(Produit::getId)
+            .contains(testProduit.getId());
+        
+        // When - La sortie vide d'abord le lot qui expire le plus tôt
+        stockService.decrementerStock(testProduit.getId(), new BigDecimal("6.0"), "Service du midi", null);
+        
+        // Then
+        List<Lot> lots = lotService.getLotsActifs(testProduit.getId());
+        assertThat(lots).hasSize(1);
+        assertThat(lots.get(0).getQuantiteRestante()).isEqualByComparingTo("9.0");
+        assertThat(lots.get(0).getDatePeremption()).isEqualTo(LocalDate.now().plusDays(10));
+        
+        Produit produit = produitRepository.findById(testProduit.getId()).orElseThrow();
+        assertThat(produit.getQuantiteStock()).isEqualByComparingTo("9.0");
+        assertThat(produit.getDatePeremption()).isEqualTo(LocalDate.now().plusDays(10));
+        assertThat(produitRepository.findProduitsExpiringWithinDays(3)).extracting(Produit::getId)
+            .doesNotContain(testProduit.getId());
+    }
+    
+    @Test
+    @DisplayName("Une entrée en lot crée un lot par ligne avec sa péremption")
+    void shouldCreateLotPerBatchEntryLine() {
+        // Given
+        LocalDate peremption = LocalDate.now().plusDays(4);
+        List<StockMovementBatchLine> lignes = List.of(
+            new StockMovementBatchLine(testProduit.getId(), TypeMouvement.ENTREE,
+                new StockMovementRequest(new BigDecimal("2.0"), null, "Livraison", null, peremption)),
+            new StockMovementBatchLine(testProduit.getId(), TypeMouvement.SORTIE,
+                new StockMovementRequest(new BigDecimal("11.0"), null, "Service", null))
+        );
+        
+        // When
+        stockService.appliquerMouvementsEnLot(lignes);
+        
+        // Then - Lot d'ouverture (10, sans date) et lot livré (2, J+4): la sortie prend d'abord le lot daté
+        List<Lot> lots = lotService.getLotsActifs(testProduit.getId());
+        assertThat(lots).hasSize(1);
+        assertThat(lots.get(0).getDatePeremption()).isNull();
+        assertThat(lots.get(0).getQuantiteRestante()).isEqualByComparingTo("1.0");
+    }
 }
\ No newline at end of file
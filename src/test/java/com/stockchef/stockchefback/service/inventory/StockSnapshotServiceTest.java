@@ -0,0 +1,129 @@
+package com.stockchef.stockchefback.service.inventory;
+
+import com.stockchef.stockchefback.dto.inventory.StockAtResponse;
+import com.stockchef.stockchefback.dto.inventory.StockValuationResponse;
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.StockMovement;
+import com.stockchef.stockchefback.model.inventory.Unite;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
+import com.stockchef.stockchefback.repository.inventory.StockSnapshotRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests des photos de stock de fin de journée
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("StockSnapshotService - Photos de fin de journée")
+class StockSnapshotServiceTest {
+    
+    private static final LocalDate JOUR = LocalDate.now().minusDays(10);
+    
+    @Autowired
+    private StockSnapshotService stockSnapshotService;
+    
+    @Autowired
+    private ProduitService produitService;
+    
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private ProduitRepository produitRepository;
+    
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    private Produit produit;
+    
+    @BeforeEach
+    void setUp() {
+        // +10 la veille, -3 le jour même (23:59:59), -2 le lendemain
+        produit = produitRepository.save(new Produit("Farine", BigDecimal.ZERO,
+                Unite.KILOGRAMME, new BigDecimal("2.00"), BigDecimal.ONE));
+        stockService.incrementerStock(produit.getId(), new BigDecimal("10"), "Livraison");
+        stockService.decrementerStock(produit.getId(), new BigDecimal("3"), "Service", null);
+        stockService.decrementerStock(produit.getId(), new BigDecimal("2"), "Service", null);
+        entityManager.flush();
+        
+        List<StockMovement> mouvements = stockMovementRepository.findByProduitOrderByDateMouvementDesc(produit);
+        mouvements.sort(Comparator.comparing(StockMovement::getId));
+        mouvements.get(0).setDateMouvement(JOUR.minusDays(1).atTime(9, 0));
+        mouvements.get(1).setDateMouvement(JOUR.atTime(23, 59, 59));
+        mouvements.get(2).setDateMouvement(JOUR.plusDays(1).atStartOfDay());
+        entityManager.flush();
+    }
+    
+    @Test
+    @DisplayName("La photo garde le solde de clôture et la valeur au prix du jour")
+    void shouldSnapshotClosingBalanceAtDayPrice() {
+        // When
+        stockSnapshotService.prendreSnapshot(JOUR);
+        produitRepository.findById(produit.getId()).orElseThrow().setPrixUnitaire(new BigDecimal("5.00"));
+        entityManager.flush();
+        
+        // Then - Solde de clôture 7, valeur figée à 2.00
+        StockAtResponse stock = stockDuProduit(produitService.getValorisationStockFinDeJour(JOUR));
+        assertThat(stock.quantite()).isEqualByComparingTo("7");
+        assertThat(stock.valeur()).isEqualByComparingTo("14.00");
+        
+        // Then - Sans photo, le calcul depuis les mouvements utilise le prix actuel
+        StockAtResponse sansPhoto = stockDuProduit(produitService.getValorisationStockFinDeJour(JOUR.plusDays(1)));
+        assertThat(sansPhoto.quantite()).isEqualByComparingTo("5");
+        assertThat(sansPhoto.valeur()).isEqualByComparingTo("25.00");
+    }
+    
+    @Test
+    @DisplayName("Reprendre la photo d'un jour la remplace sans doublon")
+    void shouldReplaceSnapshotWhenRetaken() {
+        // When
+        stockSnapshotService.prendreSnapshot(JOUR);
+        int produits = stockSnapshotService.prendreSnapshot(JOUR);
+        
+        // Then
+        assertThat(stockSnapshotRepository.findStocksDuJour(JOUR))
+                .hasSize(produits)
+                .filteredOn(s -> s.produitId().equals(produit.getId()))
+                .hasSize(1);
+    }
+    
+    @Test
+    @DisplayName("Le job nocturne photographie la veille")
+    void shouldSnapshotYesterdayOnSchedule() {
+        // When
+        stockSnapshotService.prendreSnapshotsManquants();
+        
+        // Then
+        assertThat(stockSnapshotRepository.existsByJour(LocalDate.now().minusDays(1))).isTrue();
+        assertThat(stockSnapshotRepository.findDernierJour()).isEqualTo(LocalDate.now().minusDays(1));
+    }
+    
+    private StockAtResponse stockDuProduit(StockValuationResponse valorisation) {
+        return valorisation.produits().stream()
+                .filter(s -> s.produitId().equals(produit.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
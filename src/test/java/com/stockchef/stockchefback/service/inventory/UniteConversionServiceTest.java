@@ -1,6 +1,8 @@
 package com.stockchef.stockchefback.service.inventory;
 
+import com.stockchef.stockchefback.model.inventory.Produit;
 import com.stockchef.stockchefback.model.inventory.Unite;
+import com.stockchef.stockchefback.model.menu.MenuIngredient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -8,6 +10,7 @@
 import org.junit.jupiter.params.provider.CsvSource;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -192,4 +195,56 @@ void shouldCheckIfUnitsAreCompatible() {
         assertThat(uniteConversionService.sontCompatibles(Unite.GRAMME, Unite.UNITE)).isFalse();
         assertThat(uniteConversionService.sontCompatibles(Unite.MILLILITRE, Unite.PIECE)).isFalse();
     }
+    
+    @Test
+    @DisplayName("Should convert across unit types with product density and piece weight")
+    void shouldConvertAcrossUnitTypesWithProductFactors() {
+        // Given - 1 L d'huile = 920 g, 1 oeuf = 60 g
+        Produit huile = new Produit("Huile", new BigDecimal("10"), Unite.KILOGRAMME, new BigDecimal("4.00"), BigDecimal.ONE);
+        huile.setDensite(new BigDecimal("0.92"));
+        Produit oeufs = new Produit("Oeufs", new BigDecimal("5"), Unite.KILOGRAMME, new BigDecimal("3.00"), BigDecimal.ONE);
+        oeufs.setPoidsPieceGrammes(new BigDecimal("60"));
+        
+        // When & Then
+        assertThat(uniteConversionService.convertirVersUniteStock(new BigDecimal("2"), Unite.LITRE, huile))
+                .isEqualByComparingTo("1.84");
+        assertThat(uniteConversionService.convertirVersUniteStock(new BigDecimal("250"), Unite.MILLILITRE, huile))
+                .isEqualByComparingTo("0.23");
+        assertThat(uniteConversionService.convertirVersUniteStock(new BigDecimal("12"), Unite.PIECE, oeufs))
+                .isEqualByComparingTo("0.72");
+        assertThat(uniteConversionService.convertirVersUniteStock(new BigDecimal("500"), Unite.GRAMME, oeufs))
+                .isEqualByComparingTo("0.5");
+    }
+    
+    @Test
+    @DisplayName("Should refuse cross-type conversion when product factor is missing")
+    void shouldRefuseCrossTypeConversionWithoutProductFactor() {
+        // Given
+        Produit farine = new Produit("Farine", new BigDecimal("10"), Unite.KILOGRAMME, new BigDecimal("1.00"), BigDecimal.ONE);
+        
+        // When & Then
+        assertThat(uniteConversionService.sontConvertibles(Unite.LITRE, farine)).isFalse();
+        assertThatThrownBy(() -> uniteConversionService.convertirVersUniteStock(BigDecimal.ONE, Unite.LITRE, farine))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Farine");
+    }
+    
+    @Test
+    @DisplayName("Should convert a whole ingredient list in one pass")
+    void shouldConvertIngredientListInOnePass() {
+        // Given
+        Produit beurre = new Produit("Beurre", new BigDecimal("10"), Unite.KILOGRAMME, new BigDecimal("8.00"), BigDecimal.ONE);
+        Produit lait = new Produit("Lait", new BigDecimal("10"), Unite.LITRE, new BigDecimal("1.00"), BigDecimal.ONE);
+        lait.setDensite(new BigDecimal("1.03"));
+        MenuIngredient ingredientBeurre = new MenuIngredient(null, beurre, new BigDecimal("250"), Unite.GRAMME, null);
+        MenuIngredient ingredientLait = new MenuIngredient(null, lait, new BigDecimal("515"), Unite.GRAMME, null);
+        
+        // When
+        uniteConversionService.convertirIngredients(List.of(ingredientBeurre, ingredientLait));
+        
+        // Then
+        assertThat(ingredientBeurre.getQuantiteConvertieStockUnit()).isEqualByComparingTo("0.25");
+        assertThat(ingredientLait.getQuantiteConvertieStockUnit()).isEqualByComparingTo("0.5");
+        assertThat(ingredientLait.getCoutIngredient()).isEqualByComparingTo("0.50");
+    }
 }
\ No newline at end of file
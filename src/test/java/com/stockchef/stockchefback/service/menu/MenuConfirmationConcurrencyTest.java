@@ -0,0 +1,139 @@
+package com.stockchef.stockchefback.service.menu;
+
+import com.stockchef.stockchefback.dto.menu.MenusConfirmationDateDTO;
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.Unite;
+import com.stockchef.stockchefback.model.menu.Menu;
+import com.stockchef.stockchefback.model.menu.StatutMenu;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
+import com.stockchef.stockchefback.repository.menu.MenuRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests de concurrence pour la confirmation des menus
+ * Sans @Transactional: chaque confirmation s'exécute dans sa propre transaction, comme en production
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("MenuCreationService - Tests de concurrence")
+class MenuConfirmationConcurrencyTest {
+
+    @Autowired
+    private MenuCreationService menuCreationService;
+
+    @Autowired
+    private MenuRepository menuRepository;
+
+    @Autowired
+    private ProduitRepository produitRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    private Produit tomates;
+    private final List<Menu> menus = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        tomates = produitRepository.save(new Produit("Tomates", new BigDecimal("10.0"), Unite.KILOGRAMME,
+                new BigDecimal("3.50"), new BigDecimal("1.0")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockMovementRepository.deleteAllInBatch(
+            stockMovementRepository.findByProduitOrderByDateMouvementDesc(tomates));
+        menuRepository.deleteAll(menus);
+        produitRepository.deleteById(tomates.getId());
+    }
+
+    @Test
+    @DisplayName("Deux confirmations simultanées du même menu ne décrémentent le stock qu'une fois")
+    void shouldDecrementStockOnceWhenSameMenuIsConfirmedConcurrently() throws InterruptedException {
+        // Given
+        Menu menu = creerMenu("Salade de tomates", LocalDate.now().plusDays(1), "2.0");
+
+        // When
+        Queue<Throwable> erreurs = executerEnParallele(() -> menuCreationService.confirmerMenu(menu.getId()));
+
+        // Then
+        assertThat(erreurs).isEmpty();
+        assertThat(menuRepository.findById(menu.getId()).orElseThrow().getStatut()).isEqualTo(StatutMenu.CONFIRME);
+        assertThat(produitRepository.findById(tomates.getId()).orElseThrow().getQuantiteStock())
+            .isEqualByComparingTo(new BigDecimal("8.0"));
+        assertThat(stockMovementRepository.findByMenuId(menu.getId())).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Deux confirmations simultanées d'une date ne confirment et ne décrémentent chaque menu qu'une fois")
+    void shouldConfirmEachMenuOnceWhenSameDateIsConfirmedConcurrently() throws InterruptedException {
+        // Given
+        LocalDate dateService = LocalDate.now().plusDays(30);
+        Menu entree = creerMenu("Soupe de tomates", dateService, "1.5");
+        Menu plat = creerMenu("Tomates farcies", dateService, "2.5");
+        Queue<MenusConfirmationDateDTO> resultats = new ConcurrentLinkedQueue<>();
+
+        // When
+        Queue<Throwable> erreurs = executerEnParallele(
+            () -> resultats.add(menuCreationService.confirmerMenusParDate(dateService)));
+
+        // Then - Les deux menus sont confirmés une seule fois au total
+        assertThat(erreurs).isEmpty();
+        assertThat(resultats.stream().mapToInt(MenusConfirmationDateDTO::getMenusConfirmes).sum()).isEqualTo(2);
+        assertThat(produitRepository.findById(tomates.getId()).orElseThrow().getQuantiteStock())
+            .isEqualByComparingTo(new BigDecimal("6.0"));
+        assertThat(stockMovementRepository.findByMenuId(entree.getId())).hasSize(1);
+        assertThat(stockMovementRepository.findByMenuId(plat.getId())).hasSize(1);
+    }
+
+    private Menu creerMenu(String nom, LocalDate dateService, String quantite) {
+        Menu menu = Menu.creerMenu(nom, null, dateService, 4, "chef@stockchef.com");
+        menu.ajouterIngredient(tomates, new BigDecimal(quantite), "Tomates");
+        menu = menuRepository.save(menu);
+        menus.add(menu);
+        return menu;
+    }
+
+    /**
+     * Lance deux fois la même action au même instant et collecte les erreurs
+     */
+    private Queue<Throwable> executerEnParallele(Runnable action) throws InterruptedException {
+        Queue<Throwable> erreurs = new ConcurrentLinkedQueue<>();
+        CountDownLatch depart = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        for (int i = 0; i < 2; i++) {
+            executor.submit(() -> {
+                try {
+                    depart.await();
+                    action.run();
+                } catch (Throwable e) {
+                    erreurs.add(e);
+                }
+            });
+        }
+        depart.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        return erreurs;
+    }
+}
@@ -0,0 +1,97 @@
+package com.stockchef.stockchefback.service.menu;
+
+import com.stockchef.stockchefback.repository.menu.MenuCoutRecalculEnAttenteRepository;
+import com.stockchef.stockchefback.service.inventory.PrixProduitModifieEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests du regroupement différé des recalculs de coûts de menus
+ */
+@DisplayName("MenuCoutRecalculService - Recalcul différé et regroupé")
+class MenuCoutRecalculServiceTest {
+
+    private static final long DELAI_ATTENTE_MS = 200;
+    private static final long ATTENTE_MAXIMALE_MS = 1000;
+
+    private MenuIngredientService menuIngredientService;
+    private MenuCoutRecalculEnAttenteRepository recalculEnAttenteRepository;
+    private MenuCoutRecalculService recalculService;
+
+    @BeforeEach
+    void setUp() {
+        menuIngredientService = mock(MenuIngredientService.class);
+        recalculEnAttenteRepository = mock(MenuCoutRecalculEnAttenteRepository.class);
+        recalculService = new MenuCoutRecalculService(menuIngredientService, recalculEnAttenteRepository,
+                mock(PlatformTransactionManager.class), DELAI_ATTENTE_MS, ATTENTE_MAXIMALE_MS);
+    }
+
+    @Test
+    @DisplayName("Plusieurs changements rapprochés donnent un seul recalcul après le délai d'attente")
+    void shouldCoalesceChangesIntoSingleRecalculation() throws InterruptedException {
+        // Given
+        recalculService.onPrixProduitModifie(evenement(3L));
+        recalculService.onPrixProduitModifie(evenement(1L));
+        recalculService.onPrixProduitModifie(evenement(3L));
+
+        // When - Avant la fin du délai: rien n'est lancé
+        recalculService.traiterRecalculsEnAttente();
+        verifyNoInteractions(menuIngredientService);
+
+        Thread.sleep(DELAI_ATTENTE_MS + 50);
+        recalculService.traiterRecalculsEnAttente();
+
+        // Then
+        verify(menuIngredientService, times(1)).recalculerCoutsPourProduits(List.of(1L, 3L));
+        verify(recalculEnAttenteRepository).supprimerTraites(eq(List.of(1L, 3L)), any());
+        assertThat(recalculService.getNombreProduitsEnAttente()).isZero();
+    }
+
+    @Test
+    @DisplayName("Au démarrage, les recalculs enregistrés avant l'arrêt sont repris")
+    void shouldResumePersistedRecalculationsAfterRestart() throws InterruptedException {
+        // Given - Changements validés mais non recalculés par l'instance précédente
+        when(recalculEnAttenteRepository.findProduitIds()).thenReturn(List.of(5L, 2L));
+
+        // When
+        recalculService.reprendreRecalculsEnAttente();
+        Thread.sleep(DELAI_ATTENTE_MS + 50);
+        recalculService.traiterRecalculsEnAttente();
+
+        // Then
+        verify(menuIngredientService).recalculerCoutsPourProduits(List.of(2L, 5L));
+        verify(recalculEnAttenteRepository).supprimerTraites(eq(List.of(2L, 5L)), any());
+        assertThat(recalculService.getNombreProduitsEnAttente()).isZero();
+    }
+
+    @Test
+    @DisplayName("Les produits d'un recalcul en échec sont conservés pour le passage suivant")
+    void shouldKeepProductsWhenRecalculationFails() throws InterruptedException {
+        // Given
+        doThrow(new IllegalStateException("Base indisponible"))
+            .when(menuIngredientService).recalculerCoutsPourProduits(anyList());
+        recalculService.onPrixProduitModifie(evenement(7L));
+        Thread.sleep(DELAI_ATTENTE_MS + 50);
+
+        // When
+        recalculService.traiterRecalculsEnAttente();
+
+        // Then - Toujours en attente, en mémoire comme en base
+        assertThat(recalculService.getNombreProduitsEnAttente()).isEqualTo(1);
+        verify(recalculEnAttenteRepository, never()).supprimerTraites(anyList(), any());
+    }
+
+    private PrixProduitModifieEvent evenement(Long produitId) {
+        return new PrixProduitModifieEvent(produitId, new BigDecimal("1.00"), new BigDecimal("1.50"));
+    }
+}
@@ -0,0 +1,124 @@
+package com.stockchef.stockchefback.service.menu;
+
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.Unite;
+import com.stockchef.stockchefback.model.menu.Menu;
+import com.stockchef.stockchefback.model.menu.MenuIngredient;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.menu.MenuRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests du nombre de requêtes SQL pour la lecture paginée des menus
+ * Sans @Transactional: la page est parcourue après la transaction du service, comme par le contrôleur
+ * (open-in-view désactivé), toute initialisation paresseuse échouerait
+ */
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "spring.jpa.open-in-view=false"})
+@ActiveProfiles("test")
+@DisplayName("MenuQueryService - Lecture paginée sans N+1")
+class MenuQueryServiceTest {
+
+    private static final int NOMBRE_MENUS = 12;
+    private static final int INGREDIENTS_PAR_MENU = 4;
+
+    @Autowired
+    private MenuQueryService menuQueryService;
+
+    @Autowired
+    private MenuRepository menuRepository;
+
+    @Autowired
+    private ProduitRepository produitRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private final List<Produit> produits = new ArrayList<>();
+    private final List<Menu> menus = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < INGREDIENTS_PAR_MENU * 2; i++) {
+            produits.add(produitRepository.save(new Produit("Produit " + i, new BigDecimal("100"),
+                    Unite.KILOGRAMME, new BigDecimal("2.50"), new BigDecimal("5"))));
+        }
+
+        for (int m = 0; m < NOMBRE_MENUS; m++) {
+            Menu menu = Menu.creerMenu("Menu " + m, "Menu de test", LocalDate.now().plusDays(m + 1), 4, "chef@stockchef.com");
+            for (int i = 0; i < INGREDIENTS_PAR_MENU; i++) {
+                menu.ajouterIngredient(produits.get((m + i) % produits.size()), new BigDecimal("0.5"), "Test");
+            }
+            menus.add(menuRepository.save(menu));
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        menuRepository.deleteAll(menus);
+        produitRepository.deleteAll(produits);
+    }
+
+    @Test
+    @DisplayName("Une page de menus avec ingrédients et produits se charge en un nombre borné de requêtes")
+    void shouldLoadMenuPageWithIngredientsAndProductsInBoundedQueries() {
+        // When
+        Page<Menu> page = menuQueryService.listerMenus(PageRequest.of(0, 10, Sort.by("nom")));
+
+        // Parcourir hors transaction tout ce que la conversion DTO du contrôleur utilise
+        AtomicInteger ingredientsParcourus = new AtomicInteger();
+        assertThatCode(() -> {
+            for (Menu menu : page.getContent()) {
+                menu.peutEtrePrepare();
+                for (MenuIngredient ingredient : menu.getIngredients()) {
+                    assertThat(ingredient.getProduit().getNom()).isNotBlank();
+                    ingredientsParcourus.incrementAndGet();
+                }
+            }
+        }).doesNotThrowAnyException();
+
+        // Then - Page, comptage et chargement des ingrédients/produits: 3 requêtes quelle que soit la taille
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getTotalElements()).isEqualTo(NOMBRE_MENUS);
+        assertThat(page.getContent()).extracting(Menu::getNom).isSorted();
+        assertThat(ingredientsParcourus).hasValue(10 * INGREDIENTS_PAR_MENU);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("La recherche paginée initialise aussi les ingrédients sans N+1")
+    void shouldSearchMenusWithoutNPlusOne() {
+        // When
+        Page<Menu> page = menuQueryService.rechercherMenus("Menu", null, null, PageRequest.of(0, 20));
+
+        // Then - Parcours hors transaction sans LazyInitializationException - Page complète (pas de comptage) + chargement des ingrédients
+        assertThatCode(() -> page.getContent().forEach(menu ->
+                menu.getIngredients().forEach(ing -> ing.getProduit().getNom())))
+                .doesNotThrowAnyException();
+        assertThat(page.getContent()).hasSize(NOMBRE_MENUS);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+}
@@ -1,11 +1,15 @@
 package com.stockchef.stockchefback.service.menu;
 
+import com.stockchef.stockchefback.dto.menu.MenusConfirmationDateDTO;
 import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.StockMovement;
+import com.stockchef.stockchefback.model.inventory.TypeMouvement;
 import com.stockchef.stockchefback.model.inventory.Unite;
 import com.stockchef.stockchefback.model.menu.Menu;
 import com.stockchef.stockchefback.model.menu.MenuIngredient;
 import com.stockchef.stockchefback.model.menu.StatutMenu;
 import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.inventory.StockMovementRepository;
 import com.stockchef.stockchefback.repository.menu.MenuIngredientRepository;
 import com.stockchef.stockchefback.repository.menu.MenuRepository;
 import com.stockchef.stockchefback.service.inventory.StockService;
@@ -53,9 +57,15 @@ class MenuServiceTest {
     @Autowired
     private ProduitRepository produitRepository;
     
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    
     @Autowired
     private StockService stockService;
     
+    @Autowired
+    private MenuIngredientService menuIngredientService;
+    
     @Autowired
     private UniteConversionService uniteConversionService;
     
@@ -380,4 +390,137 @@ void shouldHandleComplexUnitConversions() {
         Menu menuFinal = menuService.getMenuById(menuTest.getId()).orElseThrow();
         assertThat(menuFinal.getCoutTotalIngredients()).isEqualByComparingTo(new BigDecimal("8.75"));
     }
+    
+    @Test
+    @DisplayName("UC3: Confirmation en lot - un mouvement par ingrédient avec le solde après décrémentation")
+    void shouldWriteOneMovementPerIngredientWhenConfirming() {
+        // Given
+        menuService.ajouterIngredient(menuTest.getId(), tomates.getId(),
+                                    new BigDecimal("1.5"), Unite.KILOGRAMME, "Tomates");
+        menuService.ajouterIngredient(menuTest.getId(), pates.getId(),
+                                    new BigDecimal("500"), Unite.GRAMME, "Pâtes");
+        
+        // When
+        menuService.confirmerMenu(menuTest.getId());
+        
+        // Then - Le produit géré est à jour sans relecture explicite
+        assertThat(tomates.getQuantiteStock()).isEqualByComparingTo(new BigDecimal("3.5"));
+        assertThat(pates.getQuantiteStock()).isEqualByComparingTo(new BigDecimal("9.5"));
+        
+        List<StockMovement> mouvementsTomates = stockMovementRepository.findByProduitOrderByDateMouvementDesc(tomates);
+        assertThat(mouvementsTomates).hasSize(1);
+        assertThat(mouvementsTomates.get(0).getTypeMouvement()).isEqualTo(TypeMouvement.SORTIE);
+        assertThat(mouvementsTomates.get(0).getQuantiteApres()).isEqualByComparingTo(new BigDecimal("3.5"));
+        assertThat(mouvementsTomates.get(0).getMenuId()).isEqualTo(menuTest.getId());
+        
+        List<StockMovement> mouvementsPates = stockMovementRepository.findByProduitOrderByDateMouvementDesc(pates);
+        assertThat(mouvementsPates).hasSize(1);
+        assertThat(mouvementsPates.get(0).getQuantite()).isEqualByComparingTo(new BigDecimal("-0.5"));
+        assertThat(mouvementsPates.get(0).getQuantiteApres()).isEqualByComparingTo(new BigDecimal("9.5"));
+    }
+    
+    @Test
+    @DisplayName("UC3: Confirmation par date - les menus prioritaires sont servis, les suivants rejetés avec motif")
+    void shouldConfirmMenusOfDateInPriorityOrder() {
+        // Given - Deux menus du même jour se partagent le fromage (stock porté à 3.0 kg)
+        stockService.incrementerStock(fromage.getId(), new BigDecimal("1.0"), "Livraison");
+        Menu menuSecondaire = menuService.creerMenu("Gratin", "Gratin de pâtes",
+                menuTest.getDateService(), 4, new BigDecimal("18.00"));
+        Menu menuVide = menuService.creerMenu("Menu vide", "Sans ingrédients",
+                menuTest.getDateService(), 2, new BigDecimal("10.00"));
+        
+        menuService.ajouterIngredient(menuTest.getId(), fromage.getId(),
+                                    new BigDecimal("1.5"), Unite.KILOGRAMME, "Fromage");
+        menuService.ajouterIngredient(menuTest.getId(), pates.getId(),
+                                    new BigDecimal("2.0"), Unite.KILOGRAMME, "Pâtes");
+        menuService.ajouterIngredient(menuSecondaire.getId(), fromage.getId(),
+                                    new BigDecimal("1.0"), Unite.KILOGRAMME, "Fromage");
+        menuService.ajouterIngredient(menuSecondaire.getId(), pates.getId(),
+                                    new BigDecimal("3.0"), Unite.KILOGRAMME, "Pâtes");
+        
+        // Puis le stock physique baisse après les réservations (perte): 2.0 kg restants
+        stockService.decrementerStock(fromage.getId(), new BigDecimal("1.0"), "Perte", null);
+        
+        // When
+        MenusConfirmationDateDTO resultat = menuService.confirmerMenusParDate(menuTest.getDateService());
+        
+        // Then
+        assertThat(resultat.getTotalMenus()).isEqualTo(3);
+        assertThat(resultat.getMenusConfirmes()).isEqualTo(1);
+        assertThat(resultat.getMenusRejetes()).isEqualTo(2);
+        
+        assertThat(resultat.getResultats().get(0).getMenuId()).isEqualTo(menuTest.getId());
+        assertThat(resultat.getResultats().get(0).getConfirme()).isTrue();
+        assertThat(resultat.getResultats().get(1).getMenuId()).isEqualTo(menuSecondaire.getId());
+        assertThat(resultat.getResultats().get(1).getConfirme()).isFalse();
+        assertThat(resultat.getResultats().get(1).getMotifRejet()).contains("Stock insuffisant pour Fromage");
+        assertThat(resultat.getResultats().get(2).getMotifRejet()).contains("sans ingrédients");
+        
+        assertThat(menuRepository.findById(menuTest.getId()).orElseThrow().getStatut()).isEqualTo(StatutMenu.CONFIRME);
+        assertThat(menuRepository.findById(menuSecondaire.getId()).orElseThrow().getStatut()).isEqualTo(StatutMenu.BROUILLON);
+        
+        // Seul le menu confirmé a consommé du stock
+        assertThat(produitRepository.findById(fromage.getId()).orElseThrow().getQuantiteStock())
+            .isEqualByComparingTo(new BigDecimal("0.5"));
+        assertThat(produitRepository.findById(pates.getId()).orElseThrow().getQuantiteStock())
+            .isEqualByComparingTo(new BigDecimal("8.0"));
+    }
+    
+    @Test
+    @DisplayName("UC3: Changement de prix - coûts d'ingrédients, coût total et marge recalculés en lot")
+    void shouldRecalculateMenuCostsWhenProductPriceChanges() {
+        // Given - 1 kg de tomates (3.50) + 0.5 kg de pâtes (1.20) = 4.10
+        menuService.ajouterIngredient(menuTest.getId(), tomates.getId(),
+                                    new BigDecimal("1.0"), Unite.KILOGRAMME, "Tomates");
+        menuService.ajouterIngredient(menuTest.getId(), pates.getId(),
+                                    new BigDecimal("0.5"), Unite.KILOGRAMME, "Pâtes");
+        
+        tomates.setPrixUnitaire(new BigDecimal("5.00"));
+        produitRepository.saveAndFlush(tomates);
+        
+        // When
+        menuIngredientService.recalculerCoutsPourProduits(List.of(tomates.getId()));
+        
+        // Then - 5.00 + 0.60 = 5.60, marge = (25.50 - 5.60) / 25.50 = 78.04 %
+        Menu menuRecalcule = menuRepository.findById(menuTest.getId()).orElseThrow();
+        assertThat(menuRecalcule.getCoutTotalIngredients()).isEqualByComparingTo(new BigDecimal("5.60"));
+        assertThat(menuRecalcule.getMargePercentage()).isEqualByComparingTo(new BigDecimal("78.04"));
+        assertThat(menuRecalcule.getIngredients())
+            .filteredOn(ing -> ing.getProduit().getId().equals(tomates.getId()))
+            .singleElement()
+            .satisfies(ing -> assertThat(ing.getCoutIngredient()).isEqualByComparingTo(new BigDecimal("5.00")));
+    }
+    
+    @Test
+    @DisplayName("UC3: Réservations - un brouillon bloque le stock promis aux autres brouillons jusqu'à son annulation")
+    void shouldHoldStockForDraftMenusUntilCancelled() {
+        // Given - Le premier brouillon réserve 1.5 kg des 2.0 kg de fromage
+        menuService.ajouterIngredient(menuTest.getId(), fromage.getId(),
+                                    new BigDecimal("1.5"), Unite.KILOGRAMME, "Fromage");
+        Menu autreBrouillon = menuService.creerMenu("Gratin", "Gratin",
+                menuTest.getDateService(), 2, new BigDecimal("15.00"));
+        
+        // Then - Le stock physique est intact mais n'est plus promis
+        assertThat(produitRepository.findById(fromage.getId()).orElseThrow().getQuantiteStock())
+            .isEqualByComparingTo(new BigDecimal("2.0"));
+        assertThatThrownBy(() -> menuService.ajouterIngredient(autreBrouillon.getId(), fromage.getId(),
+                                    new BigDecimal("1.0"), Unite.KILOGRAMME, "Fromage"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("Stock insuffisant pour Fromage");
+        
+        // Le premier brouillon reste réalisable (ses propres réservations ne le bloquent pas)
+        assertThat(menuService.obtenirMenusRealisables(menuTest.getDateService()))
+            .extracting(Menu::getId)
+            .contains(menuTest.getId());
+        
+        // When - Annulation du premier brouillon: la réservation est libérée
+        menuService.annulerMenu(menuTest.getId(), "Changement de carte");
+        
+        // Then
+        menuService.ajouterIngredient(autreBrouillon.getId(), fromage.getId(),
+                                    new BigDecimal("1.0"), Unite.KILOGRAMME, "Fromage");
+        assertThat(menuService.obtenirMenusRealisables(menuTest.getDateService()))
+            .extracting(Menu::getId)
+            .contains(autreBrouillon.getId());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.stockchef.stockchefback.service.reports;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests du nombre maximal de rapports conservés en mémoire
+ */
+@DisplayName("RapportJobService - Jobs conservés bornés")
+class RapportJobServiceTest {
+
+    private static final int JOBS_MAX = 2;
+    private static final String DEMANDEUR = "chef@stockchef.com";
+
+    private ThreadPoolExecutor executor;
+    private RapportJobService rapportJobService;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(10));
+        rapportJobService = new RapportJobService(executor, mock(PlatformTransactionManager.class), 30, JOBS_MAX);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Nombre maximal atteint: le plus ancien job terminé cède sa place")
+    void shouldEvictOldestFinishedJobWhenFull() throws InterruptedException {
+        // Given
+        RapportJob premier = rapportJobService.soumettre("inventory", DEMANDEUR, () -> "premier");
+        attendreFin(premier);
+        RapportJob second = rapportJobService.soumettre("inventory", DEMANDEUR, () -> "second");
+        attendreFin(second);
+
+        // When
+        RapportJob troisieme = rapportJobService.soumettre("inventory", DEMANDEUR, () -> "troisieme");
+        attendreFin(troisieme);
+
+        // Then
+        assertThat(rapportJobService.obtenir(premier.getId(), DEMANDEUR)).isEmpty();
+        assertThat(rapportJobService.obtenir(second.getId(), DEMANDEUR)).isPresent();
+        assertThat(rapportJobService.obtenir(troisieme.getId(), DEMANDEUR)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Nombre maximal atteint sans job terminé: la soumission est refusée")
+    void shouldRejectSubmissionWhenFullOfRunningJobs() {
+        // Given - Deux calculs bloqués jusqu'à la fin du test
+        CountDownLatch liberation = new CountDownLatch(1);
+        try {
+            RapportJob premier = rapportJobService.soumettre("inventory", DEMANDEUR, () -> attendre(liberation));
+            RapportJob second = rapportJobService.soumettre("inventory", DEMANDEUR, () -> attendre(liberation));
+
+            // When / Then
+            assertThatThrownBy(() -> rapportJobService.soumettre("inventory", DEMANDEUR, () -> "refusé"))
+                    .isInstanceOf(RejectedExecutionException.class);
+            assertThat(rapportJobService.obtenir(premier.getId(), DEMANDEUR)).isPresent();
+            assertThat(rapportJobService.obtenir(second.getId(), DEMANDEUR)).isPresent();
+        } finally {
+            liberation.countDown();
+        }
+    }
+
+    private static void attendreFin(RapportJob job) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (!job.isFini() && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(job.isFini()).isTrue();
+        // termineA distincts pour un ordre d'éviction déterministe
+        Thread.sleep(5);
+    }
+
+    private static String attendre(CountDownLatch liberation) {
+        try {
+            liberation.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "libéré";
+    }
+}
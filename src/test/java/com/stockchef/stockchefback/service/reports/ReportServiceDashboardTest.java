@@ -0,0 +1,142 @@
+package com.stockchef.stockchefback.service.reports;
+
+import com.stockchef.stockchefback.dto.reports.DashboardSummaryDTO;
+import com.stockchef.stockchefback.repository.inventory.StockMovementDailyRepository;
+import com.stockchef.stockchefback.service.inventory.MouvementsStockEnregistresEvent;
+import com.stockchef.stockchefback.service.menu.MenuModifieEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDate;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests du dashboard parallèle et de son cache (hors transaction: une transaction en lecture seule par section)
+ */
+@SpringBootTest(properties = "rapport.dashboard.delai-section-ms=1000")
+@ActiveProfiles("test")
+@DisplayName("ReportService - Dashboard parallèle")
+class ReportServiceDashboardTest {
+    
+    @Autowired
+    private ReportService reportService;
+    
+    @Autowired
+    private DashboardCache dashboardCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @MockitoSpyBean
+    private StockMovementDailyRepository stockMovementDailyRepository;
+    
+    @BeforeEach
+    void setUp() {
+        dashboardCache.invaliderTout();
+        clearInvocations(stockMovementDailyRepository);
+    }
+    
+    private void interrogerEnParallele(int clients) throws InterruptedException {
+        CountDownLatch depart = new CountDownLatch(1);
+        Queue<DashboardSummaryDTO> dashboards = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            executor.submit(() -> {
+                depart.await();
+                dashboards.add(reportService.generateDashboardSummary());
+                return null;
+            });
+        }
+        depart.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(dashboards).hasSize(clients).allSatisfy(d -> assertThat(d.getSectionsIncompletes()).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Toutes les sections sont calculées en parallèle")
+    void shouldComputeAllSectionsInParallel() {
+        // When
+        DashboardSummaryDTO dashboard = reportService.generateDashboardSummary();
+        
+        // Then
+        assertThat(dashboard.getSectionsIncompletes()).isEmpty();
+        assertThat(dashboard.getTotalProduitsActifs()).isNotNull();
+        assertThat(dashboard.getValeurStockTotal()).isNotNull();
+        assertThat(dashboard.getTopProduitsUtilises()).isNotNull();
+        assertThat(dashboard.getCoutIngredientsDuJour()).isNotNull();
+        assertThat(dashboard.getEconomiesPotentielles()).isNotNull();
+    }
+    
+    @Test
+    @DisplayName("Une section trop lente est abandonnée et le dashboard est rendu partiellement")
+    void shouldReturnPartialDashboardWhenSectionIsSlow() {
+        // Given - Le top des produits dépasse le délai de section
+        doAnswer(invocation -> {
+            Thread.sleep(5000);
+            return invocation.callRealMethod();
+        }).when(stockMovementDailyRepository).findTopProduitsSortis(any(LocalDate.class), any(LocalDate.class), any(Limit.class));
+        
+        try {
+            // When
+            long debut = System.nanoTime();
+            DashboardSummaryDTO dashboard = reportService.generateDashboardSummary();
+            long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+            
+            // Then - Rendu au délai, sans la section lente
+            assertThat(dashboard.getSectionsIncompletes()).containsExactly("topProduitsUtilises");
+            assertThat(dashboard.getTopProduitsUtilises()).isNull();
+            assertThat(dashboard.getTotalProduitsActifs()).isNotNull();
+            assertThat(dashboard.getCoutIngredientsDuJour()).isNotNull();
+            assertThat(dureeMs).isLessThan(4000);
+        } finally {
+            reset(stockMovementDailyRepository);
+        }
+    }
+    
+    @Test
+    @DisplayName("Quarante tablettes simultanées coûtent un seul calcul par changement")
+    void shouldComputeOncePerChangeForManyConcurrentClients() throws InterruptedException {
+        // When - Première vague: chargement unique, puis cache
+        interrogerEnParallele(40);
+        interrogerEnParallele(40);
+        
+        // Then
+        verify(stockMovementDailyRepository, times(1)).findTopProduitsSortis(any(), any(), any());
+        verify(stockMovementDailyRepository, times(1)).countMouvementsDepuis(any());
+        
+        // When - Un changement de menu n'invalide que les sections des menus
+        eventPublisher.publishEvent(new MenuModifieEvent(1L));
+        interrogerEnParallele(40);
+        
+        // Then - Aucune section dépendant des mouvements n'est recalculée pour un changement de menu
+        verify(stockMovementDailyRepository, times(1)).findTopProduitsSortis(any(), any(), any());
+        
+        // When - Un mouvement de stock invalide ses sections
+        eventPublisher.publishEvent(new MouvementsStockEnregistresEvent(Set.of(1L)));
+        interrogerEnParallele(40);
+        verify(stockMovementDailyRepository, times(2)).findTopProduitsSortis(any(), any(), any());
+        verify(stockMovementDailyRepository, times(2)).countMouvementsDepuis(any());
+    }
+}
@@ -0,0 +1,228 @@
+package com.stockchef.stockchefback.service.reports;
+
+import com.stockchef.stockchefback.dto.reports.DashboardSummaryDTO;
+import com.stockchef.stockchefback.dto.reports.InventoryReportDTO;
+import com.stockchef.stockchefback.dto.reports.MenuPerformanceReportDTO;
+import com.stockchef.stockchefback.dto.reports.WasteReportItemDTO;
+import com.stockchef.stockchefback.model.inventory.Produit;
+import com.stockchef.stockchefback.model.inventory.Unite;
+import com.stockchef.stockchefback.model.menu.Menu;
+import com.stockchef.stockchefback.model.menu.StatutMenu;
+import com.stockchef.stockchefback.repository.inventory.ProduitRepository;
+import com.stockchef.stockchefback.repository.menu.MenuRepository;
+import com.stockchef.stockchefback.service.inventory.StockService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests des agrégats du ReportService calculés en base
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("ReportService - Agrégats en base")
+class ReportServiceTest {
+    
+    @Autowired
+    private ReportService reportService;
+    
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private ProduitRepository produitRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private MenuRepository menuRepository;
+    
+    private Produit creerProduit(String nom, String quantite, Unite unite, String prix) {
+        return produitRepository.save(new Produit(nom, new BigDecimal(quantite), unite,
+                new BigDecimal(prix), BigDecimal.ONE));
+    }
+    
+    private void creerMenu(String nom, LocalDate dateService, StatutMenu statut, String prixVente, String cout) {
+        Menu menu = Menu.creerMenu(nom, "Menu de test", dateService, 4, "chef@stockchef.com");
+        menu.setPrixVente(new BigDecimal(prixVente));
+        menu.setCoutTotalIngredients(new BigDecimal(cout));
+        menu.setStatut(statut);
+        menuRepository.save(menu);
+    }
+    
+    @Test
+    @DisplayName("La valeur du stock et le nombre de produits excluent les produits supprimés")
+    void shouldComputeStockValueAndCountWithoutDeletedProducts() {
+        // Given
+        InventoryReportDTO avant = reportService.generateInventoryReport();
+        creerProduit("Farine", "10", Unite.KILOGRAMME, "2.00");
+        Produit supprime = creerProduit("Sucre", "100", Unite.KILOGRAMME, "3.00");
+        supprime.setDeleted(true);
+        entityManager.flush();
+        
+        // When
+        InventoryReportDTO apres = reportService.generateInventoryReport();
+        
+        // Then
+        assertThat(apres.getTotalProduits() - avant.getTotalProduits()).isEqualTo(1);
+        assertThat(apres.getValeurTotalStock().subtract(avant.getValeurTotalStock()))
+                .isEqualByComparingTo("20.00");
+    }
+    
+    @Test
+    @DisplayName("Le top des produits et le coût du jour convertissent les sorties dans l'unité de stock")
+    void shouldRankProductsAndCostSortiesInStockUnit() {
+        // Given - Sorties en grammes sur un produit stocké en kilogrammes
+        BigDecimal coutAvant = reportService.generateDashboardSummary().getCoutIngredientsDuJour();
+        Produit beurre = creerProduit("Beurre Top", "100000", Unite.KILOGRAMME, "8.00");
+        Produit lait = creerProduit("Lait Top", "100000", Unite.LITRE, "1.00");
+        stockService.decrementerStockAvecConversion(beurre.getId(), new BigDecimal("500"), Unite.GRAMME, "Service", null);
+        stockService.decrementerStockAvecConversion(beurre.getId(), new BigDecimal("99999.5"), Unite.KILOGRAMME, "Service", null);
+        stockService.decrementerStock(lait.getId(), new BigDecimal("50000"), "Service", null);
+        entityManager.flush();
+        
+        // When
+        LocalDate today = LocalDate.now();
+        List<String> top = reportService.getTopUsedProducts(today, today, 2);
+        BigDecimal coutApres = reportService.generateDashboardSummary().getCoutIngredientsDuJour();
+        
+        // Then - 100000 kg de beurre devant 50000 L de lait, coût positif
+        assertThat(top).hasSize(2);
+        assertThat(top.get(0)).startsWith("Beurre Top (").contains(String.format("%.2f", 100000.0));
+        assertThat(top.get(1)).startsWith("Lait Top (");
+        assertThat(coutApres.subtract(coutAvant)).isEqualByComparingTo("850000.00");
+    }
+    
+    @Test
+    @DisplayName("Le gaspillage ne compte que la quantité restante des lots expirés")
+    void shouldValueWasteFromRemainingQuantityOfExpiredLots() {
+        // Given - Un lot expiré hier (3 kg) entamé d'1 kg, et un lot encore frais (5 kg)
+        LocalDate today = LocalDate.now();
+        Produit creme = creerProduit("Crème Gaspillage", "0", Unite.KILOGRAMME, "4.00");
+        stockService.incrementerStock(creme.getId(), new BigDecimal("3"), "Livraison", today.minusDays(1));
+        stockService.incrementerStock(creme.getId(), new BigDecimal("5"), "Livraison", today.plusDays(10));
+        stockService.decrementerStock(creme.getId(), BigDecimal.ONE, "Service", null);
+        entityManager.flush();
+        
+        // When
+        List<WasteReportItemDTO> gaspillage = reportService.getWasteReport(today.minusDays(2), today);
+        
+        // Then - 2 kg perdus, pas les 7 kg en stock
+        WasteReportItemDTO ligne = gaspillage.stream()
+                .filter(item -> item.getProduitId().equals(creme.getId()))
+                .findFirst().orElseThrow();
+        assertThat(ligne.getQuantitePerdUE()).isEqualByComparingTo("2");
+        assertThat(ligne.getValeurPerdue()).isEqualByComparingTo("8.00");
+    }
+    
+    @Test
+    @DisplayName("Le gaspillage compte tout le stock d'un produit sans lot expiré dans la période")
+    void shouldValueWasteOfProductWithoutLotFromItsExpiryDate() {
+        // Given - Stock antérieur aux lots: aucun mouvement, date de péremption du produit hier
+        LocalDate today = LocalDate.now();
+        Produit yaourt = creerProduit("Yaourt Sans Lot", "6", Unite.UNITE, "0.50");
+        yaourt.setDatePeremption(today.minusDays(1));
+        entityManager.flush();
+        
+        // When
+        List<WasteReportItemDTO> gaspillage = reportService.getWasteReport(today.minusDays(2), today);
+        
+        // Then - Compté comme par les alertes du dashboard
+        WasteReportItemDTO ligne = gaspillage.stream()
+                .filter(item -> item.getProduitId().equals(yaourt.getId()))
+                .findFirst().orElseThrow();
+        assertThat(ligne.getQuantitePerdUE()).isEqualByComparingTo("6");
+        assertThat(ligne.getValeurPerdue()).isEqualByComparingTo("3.00");
+    }
+    
+    @Test
+    @DisplayName("Le dashboard se calcule en un nombre de requêtes indépendant du volume de données")
+    void shouldComputeDashboardInBoundedQueries() {
+        // Given
+        for (int i = 0; i < 30; i++) {
+            Produit produit = creerProduit("Produit " + i, "100", Unite.KILOGRAMME, "1.50");
+            stockService.decrementerStock(produit.getId(), BigDecimal.ONE, "Service", null);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        // When
+        DashboardSummaryDTO dashboard = reportService.generateDashboardSummary();
+        
+        // Then - Une requête par indicateur (deux pour le gaspillage: lots expirés et produits sans lot),
+        // aucune par produit ou par mouvement
+        assertThat(dashboard.getTopProduitsUtilises()).hasSize(5);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(12);
+    }
+    
+    @Test
+    @DisplayName("La performance des menus est agrégée en base, paginée et triée par profitabilité")
+    void shouldAggregateMenuPerformanceInDatabaseWithPaginationAndSort() {
+        // Given - Période isolée dans le futur
+        LocalDate debut = LocalDate.now().plusYears(3);
+        for (int i = 0; i < 3; i++) {
+            creerMenu("Ratatouille", debut.plusDays(i), i == 0 ? StatutMenu.PREPARE : StatutMenu.CONFIRME, "20.00", "8.00");
+        }
+        creerMenu("Quiche", debut.plusDays(1), StatutMenu.CONFIRME, "15.00", "5.00");
+        creerMenu("Quiche", debut.plusDays(2), StatutMenu.CONFIRME, "15.00", "5.00");
+        creerMenu("Soupe", debut.plusDays(3), StatutMenu.CONFIRME, "50.00", "10.00");
+        creerMenu("Soupe", debut.plusDays(4), StatutMenu.BROUILLON, "500.00", "10.00");
+        entityManager.flush();
+        entityManager.clear();
+        
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        // When - Tri par défaut (profitabilité décroissante), première page de 2
+        Page<MenuPerformanceReportDTO> page = reportService.getMenuPerformanceReport(
+                debut, debut.plusDays(30), PageRequest.of(0, 2));
+        
+        // Then - Brouillon exclu; agrégat + comptage, sans charger les menus
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(MenuPerformanceReportDTO::getMenuNom)
+                .containsExactly("Soupe", "Ratatouille");
+        MenuPerformanceReportDTO ratatouille = page.getContent().get(1);
+        assertThat(ratatouille.getNombrePreparations()).isEqualTo(3);
+        assertThat(ratatouille.getCoutMoyenIngredients()).isEqualByComparingTo("8.00");
+        assertThat(ratatouille.getMargeMoyenne()).isEqualByComparingTo("12.00");
+        assertThat(ratatouille.getProfitabiliteTotal()).isEqualByComparingTo("36.00");
+        assertThat(ratatouille.getDernierePreparation()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        
+        // When - Tri par nombre de préparations
+        Page<MenuPerformanceReportDTO> parPreparations = reportService.getMenuPerformanceReport(
+                debut, debut.plusDays(30), PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "nombrePreparations")));
+        
+        // Then
+        assertThat(parPreparations.getContent()).extracting(MenuPerformanceReportDTO::getMenuNom)
+                .containsExactly("Ratatouille", "Quiche", "Soupe");
+        assertThatThrownBy(() -> reportService.getMenuPerformanceReport(
+                debut, debut.plusDays(30), PageRequest.of(0, 10, Sort.by("prixVente"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,187 @@
+package com.stockchef.stockchefback.service.user;
+
+import com.stockchef.stockchefback.exception.UserNotFoundException;
+import com.stockchef.stockchefback.model.User;
+import com.stockchef.stockchefback.model.UserRole;
+import com.stockchef.stockchefback.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests du cache des utilisateurs courants: limité à la requête, invalidation sur modification
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("CurrentUserCache - Cache des utilisateurs courants")
+class CurrentUserCacheTest {
+
+    @Autowired
+    private UserAuthorizationService authorizationService;
+
+    @Autowired
+    private UserManagementService managementService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User admin;
+    private User chef;
+
+    @BeforeEach
+    void setUp() {
+        admin = userRepository.save(utilisateur("cache-admin@stockchef.com", UserRole.ROLE_ADMIN));
+        chef = userRepository.save(utilisateur("cache-chef@stockchef.com", UserRole.ROLE_CHEF));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Hors requête, rien n'est partagé: l'utilisateur est relu à chaque appel")
+    void shouldReloadUserOutsideRequest() {
+        // Given - hors requête HTTP (le contexte de test en fournit une par défaut)
+        RequestContextHolder.resetRequestAttributes();
+        CurrentUserCache cache = new CurrentUserCache();
+        AtomicInteger chargements = new AtomicInteger();
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            cache.obtenir(chef.getEmail(), email -> {
+                chargements.incrementAndGet();
+                return Optional.of(chef);
+            });
+        }
+
+        // Then - Un changement fait sur une autre instance est vu au prochain appel
+        assertThat(chargements).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Un utilisateur n'est chargé qu'une fois par requête")
+    void shouldLoadUserOncePerRequest() {
+        // Given
+        CurrentUserCache cache = new CurrentUserCache();
+        AtomicInteger chargements = new AtomicInteger();
+
+        // When - deux requêtes de deux résolutions chacune
+        for (int requete = 0; requete < 2; requete++) {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+            for (int i = 0; i < 2; i++) {
+                cache.obtenir(chef.getEmail(), email -> {
+                    chargements.incrementAndGet();
+                    return Optional.of(chef);
+                });
+            }
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        // Then
+        assertThat(chargements).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Un chargement commencé avant une invalidation n'est pas gardé pour la requête")
+    void shouldNotCacheLoadRacingWithInvalidation() {
+        // Given
+        CurrentUserCache cache = new CurrentUserCache();
+        AtomicInteger chargements = new AtomicInteger();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // When - l'utilisateur est modifié pendant le chargement
+        cache.obtenir(chef.getEmail(), email -> {
+            chargements.incrementAndGet();
+            cache.invalider(email);
+            return Optional.of(chef);
+        });
+        cache.obtenir(chef.getEmail(), email -> {
+            chargements.incrementAndGet();
+            return Optional.of(chef);
+        });
+
+        // Then
+        assertThat(chargements).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Un changement de rôle est vu immédiatement par les vérifications de droits")
+    void shouldSeeRoleChangeImmediately() {
+        // Given - le chef est en cache
+        assertThat(authorizationService.getUtilisateurCourant(chef.getEmail()).role()).isEqualTo(UserRole.ROLE_CHEF);
+
+        // When
+        managementService.updateUserRole(chef.getId(), UserRole.ROLE_ADMIN, "promotion", admin);
+
+        // Then
+        assertThat(authorizationService.getUtilisateurCourant(chef.getEmail()).role()).isEqualTo(UserRole.ROLE_ADMIN);
+        assertThatCode(() -> authorizationService.requireAdminRole(chef.getEmail())).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Une désactivation ou une modification directe en base invalide l'utilisateur en cache")
+    void shouldInvalidateOnStatusChangeAndDirectUpdate() {
+        // Given
+        assertThat(authorizationService.getUtilisateurCourant(chef.getEmail()).actif()).isTrue();
+
+        // When - désactivation par le service
+        managementService.updateUserStatus(chef.getId(), false, "départ");
+
+        // Then
+        assertThat(authorizationService.getUtilisateurCourant(chef.getEmail()).actif()).isFalse();
+
+        // When - modification directe par le repository (invalidée au flush)
+        User recharge = userRepository.findById(chef.getId()).orElseThrow();
+        recharge.setRole(UserRole.ROLE_EMPLOYEE);
+        userRepository.saveAndFlush(recharge);
+
+        // Then
+        assertThat(authorizationService.getUtilisateurCourant(chef.getEmail()).role()).isEqualTo(UserRole.ROLE_EMPLOYEE);
+    }
+
+    @Test
+    @DisplayName("Un changement d'email invalide aussi l'ancien email en cache")
+    void shouldInvalidatePreviousEmailOnEmailChange() {
+        // Given - le chef est enregistré et en cache sous son email actuel
+        userRepository.flush();
+        String ancien = chef.getEmail();
+        assertThat(authorizationService.getUtilisateurCourant(ancien).actif()).isTrue();
+
+        // When
+        User recharge = userRepository.findById(chef.getId()).orElseThrow();
+        recharge.setEmail("cache-chef-renomme@stockchef.com");
+        userRepository.saveAndFlush(recharge);
+
+        // Then - l'ancien email ne résout plus l'utilisateur
+        assertThatThrownBy(() -> authorizationService.getUtilisateurCourant(ancien))
+                .isInstanceOf(UserNotFoundException.class);
+        assertThat(authorizationService.getUtilisateurCourant("cache-chef-renomme@stockchef.com").id())
+                .isEqualTo(chef.getId());
+    }
+
+    private User utilisateur(String email, UserRole role) {
+        return User.builder()
+                .email(email)
+                .password("hash")
+                .firstName("Cache")
+                .lastName("Test")
+                .role(role)
+                .isActive(true)
+                .build();
+    }
+}